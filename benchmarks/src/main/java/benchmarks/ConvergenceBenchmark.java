@@ -0,0 +1,119 @@
+package benchmarks;
+
+import logger.TraceMode;
+import methods.ConjugateGradient;
+import methods.GaussSeidel;
+import methods.Jacobi;
+import methods.SolverListener;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import preconditioners.Preconditioner;
+import utils.DenseMatrix;
+import utils.LinearOperator;
+import utils.SparseMatrix;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Число итераций до сходимости. Каждый вызов — одно полное решение, а дополнительные
+ * счётчики JMH ({@code iterations}) показывают число итераций на одно решение.
+ * <p>
+ * Для Якоби и Гаусса — Зейделя итерации считает {@link SolverListener}, а решатели работают
+ * в режиме {@link TraceMode#OFF}, чтобы время не включало журналирование. Для метода
+ * сопряжённых градиентов итерации считаются по числу умножений на матрицу.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Benchmark)
+public class ConvergenceBenchmark {
+
+    @Param({"64", "512"})
+    public int size;
+
+    @Param({"DENSE_SPD", "DIAGONALLY_DOMINANT", "BANDED", "SPARSE"})
+    public Structure structure;
+
+    @Param({"1e-3", "1e-5", "1e-8"})
+    public double epsilon;
+
+    private DenseMatrix dense;
+    private SparseMatrix sparse;
+    private double[] b;
+
+    @Setup
+    public void setUp() {
+        sparse = structure.sparse(size);
+        dense = sparse.toDense();
+        b = Structure.rightHandSide(size);
+    }
+
+    /**
+     * Счётчики итераций, которые JMH выводит рядом с временем.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long iterations;
+
+        /**
+         * @return слушатель, добавляющий по одной итерации на каждый вызов.
+         */
+        SolverListener listener() {
+            return (iteration, residualNorm, deltaNorm, elapsedNanos) -> iterations++;
+        }
+    }
+
+    @Benchmark
+    public double[] jacobi(Counters counters) {
+        return Jacobi.jacobiMethod(dense, b, epsilon, TraceMode.OFF, counters.listener());
+    }
+
+    @Benchmark
+    public double[] gaussSeidel(Counters counters) {
+        return GaussSeidel.gaussSeidelMethod(dense, b, epsilon, TraceMode.OFF, counters.listener());
+    }
+
+    @Benchmark
+    public double[] conjugateGradient(Counters counters) {
+        CountingOperator operator = new CountingOperator(sparse);
+        double[] x = ConjugateGradient.solve(operator, b, Preconditioner.identity(), epsilon, 10 * size);
+        counters.iterations += operator.applications;
+        return x;
+    }
+
+    /**
+     * Оператор, считающий умножения на вектор (одно на итерацию CG).
+     */
+    private static final class CountingOperator implements LinearOperator {
+        private final LinearOperator delegate;
+        private long applications;
+
+        CountingOperator(LinearOperator delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public void apply(double[] x, double[] y) {
+            applications++;
+            delegate.apply(x, y);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package benchmarks;
+
+import methods.Cholesky;
+import methods.CholeskyFactorization;
+import methods.Gauss;
+import methods.LUFactorization;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.DenseMatrix;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Прямые методы: разложение и решение по готовому разложению.
+ * Размер 10000 не входит в параметры по умолчанию (O(n³) и 800 МБ на матрицу),
+ * его нужно задавать явно: {@code -p size=10000}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Benchmark)
+public class DirectSolverBenchmark {
+
+    @Param({"4", "64", "512", "2048"})
+    public int size;
+
+    @Param({"DENSE_SPD", "DIAGONALLY_DOMINANT", "BANDED", "SPARSE"})
+    public Structure structure;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private DenseMatrix A;
+    private double[] b;
+    private ForkJoinPool pool;
+    private LUFactorization lu;
+    private CholeskyFactorization cholesky;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        A = structure.dense(size);
+        b = Structure.rightHandSide(size);
+        pool = new ForkJoinPool(threads);
+        lu = Gauss.factor(A);
+        cholesky = Cholesky.factor(A, pool);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public LUFactorization gaussFactor() {
+        return Gauss.factor(A);
+    }
+
+    @Benchmark
+    public double[] gaussSolveFactored() {
+        return lu.solve(b);
+    }
+
+    @Benchmark
+    public CholeskyFactorization choleskyFactor() {
+        return Cholesky.factor(A, pool);
+    }
+
+    @Benchmark
+    public double[] choleskySolveFactored() {
+        return cholesky.solve(b);
+    }
+}
@@ -0,0 +1,111 @@
+package benchmarks;
+
+import logger.TraceMode;
+import methods.ConjugateGradient;
+import methods.GaussSeidel;
+import methods.Jacobi;
+import methods.MulticolorGaussSeidel;
+import methods.ParallelJacobi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import preconditioners.IncompleteCholeskyPreconditioner;
+import preconditioners.Preconditioner;
+import utils.DenseMatrix;
+import utils.SparseMatrix;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Итерационные методы на плотных и разреженных представлениях одной и той же матрицы.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Benchmark)
+public class IterativeSolverBenchmark {
+
+    @Param({"4", "64", "512", "2048"})
+    public int size;
+
+    @Param({"DENSE_SPD", "DIAGONALLY_DOMINANT", "BANDED", "SPARSE"})
+    public Structure structure;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    @Param({"1e-8"})
+    public double epsilon;
+
+    private DenseMatrix dense;
+    private SparseMatrix sparse;
+    private double[] b;
+    private ForkJoinPool pool;
+    private ParallelJacobi parallelJacobi;
+    private MulticolorGaussSeidel multicolor;
+    private Preconditioner ic0;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sparse = structure.sparse(size);
+        dense = sparse.toDense();
+        b = Structure.rightHandSide(size);
+        pool = new ForkJoinPool(threads);
+        parallelJacobi = new ParallelJacobi(pool);
+        multicolor = new MulticolorGaussSeidel(pool);
+        ic0 = IncompleteCholeskyPreconditioner.of(sparse);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public double[] jacobiDense() {
+        return Jacobi.jacobiMethod(dense, b, epsilon, TraceMode.OFF);
+    }
+
+    @Benchmark
+    public double[] jacobiSparse() {
+        return Jacobi.jacobiMethod(sparse, b, epsilon);
+    }
+
+    @Benchmark
+    public double[] jacobiParallel() {
+        return parallelJacobi.solve(dense, b, epsilon);
+    }
+
+    @Benchmark
+    public double[] gaussSeidelDense() {
+        return GaussSeidel.gaussSeidelMethod(dense, b, epsilon, TraceMode.OFF);
+    }
+
+    @Benchmark
+    public double[] gaussSeidelSparse() {
+        return GaussSeidel.gaussSeidelMethod(sparse, b, epsilon);
+    }
+
+    @Benchmark
+    public double[] gaussSeidelMulticolor() {
+        return multicolor.solve(dense, b, epsilon);
+    }
+
+    @Benchmark
+    public double[] conjugateGradientSparse() {
+        return ConjugateGradient.solve(sparse, b, ic0, epsilon, 10 * size);
+    }
+}
@@ -0,0 +1,113 @@
+package benchmarks;
+
+import utils.DenseMatrix;
+import utils.SparseMatrix;
+
+import java.util.Random;
+
+/**
+ * Структуры тестовых матриц. Все матрицы симметричны, имеют положительную диагональ
+ * и строгое диагональное преобладание, поэтому подходят для любого решателя
+ * (в том числе Холецкого, Якоби и метода сопряжённых градиентов).
+ */
+public enum Structure {
+    /** Полностью заполненная SPD-матрица со слабым диагональным преобладанием (медленная сходимость). */
+    DENSE_SPD {
+        @Override
+        SparseMatrix.Builder fill(int n, Random random) {
+            return fillDense(n, random, 0.9);
+        }
+    },
+    /** Полностью заполненная матрица с сильным диагональным преобладанием (быстрая сходимость). */
+    DIAGONALLY_DOMINANT {
+        @Override
+        SparseMatrix.Builder fill(int n, Random random) {
+            return fillDense(n, random, 0.5);
+        }
+    },
+    /** Ленточная матрица с полушириной {@value #BANDWIDTH}. */
+    BANDED {
+        @Override
+        SparseMatrix.Builder fill(int n, Random random) {
+            SparseMatrix.Builder builder = new SparseMatrix.Builder(n, n, n * (2 * BANDWIDTH + 1));
+            for (int i = 0; i < n; i++) {
+                builder.add(i, i, 4.0 * BANDWIDTH);
+                for (int j = Math.max(0, i - BANDWIDTH); j < i; j++) {
+                    double value = -random.nextDouble() * 2;
+                    builder.add(i, j, value).add(j, i, value);
+                }
+            }
+            return builder;
+        }
+    },
+    /** Разреженная матрица: 5-точечный шаблон на квадратной сетке (n округляется до квадрата). */
+    SPARSE {
+        @Override
+        SparseMatrix.Builder fill(int n, Random random) {
+            int g = (int) Math.ceil(Math.sqrt(n));
+            SparseMatrix.Builder builder = new SparseMatrix.Builder(n, n, 5 * n);
+            for (int r = 0; r < n; r++) {
+                builder.add(r, r, 4.5); // небольшой сдвиг обеспечивает строгое преобладание
+                int i = r / g;
+                int j = r % g;
+                if (i > 0) builder.add(r, r - g, -1);
+                if (r + g < n) builder.add(r, r + g, -1);
+                if (j > 0) builder.add(r, r - 1, -1);
+                if (j < g - 1 && r + 1 < n) builder.add(r, r + 1, -1);
+            }
+            return builder;
+        }
+    };
+
+    static final int BANDWIDTH = 8;
+
+    abstract SparseMatrix.Builder fill(int n, Random random);
+
+    /**
+     * @return разреженное представление матрицы размера n.
+     */
+    public SparseMatrix sparse(int n) {
+        return fill(n, new Random(42)).build();
+    }
+
+    /**
+     * @return плотное представление той же матрицы.
+     */
+    public DenseMatrix dense(int n) {
+        return sparse(n).toDense();
+    }
+
+    /**
+     * @return правая часть длины n.
+     */
+    public static double[] rightHandSide(int n) {
+        Random random = new Random(7);
+        double[] b = new double[n];
+        for (int i = 0; i < n; i++) {
+            b[i] = random.nextDouble() * 10 - 5;
+        }
+        return b;
+    }
+
+    private static SparseMatrix.Builder fillDense(int n, Random random, double offDiagonalRatio) {
+        SparseMatrix.Builder builder = new SparseMatrix.Builder(n, n, n * n);
+        double[] rowSums = new double[n];
+        double[][] lower = new double[n][];
+        for (int i = 0; i < n; i++) {
+            lower[i] = new double[i];
+            for (int j = 0; j < i; j++) {
+                double value = random.nextDouble() - 0.5;
+                lower[i][j] = value;
+                rowSums[i] += Math.abs(value);
+                rowSums[j] += Math.abs(value);
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < i; j++) {
+                builder.add(i, j, lower[i][j]).add(j, i, lower[i][j]);
+            }
+            builder.add(i, i, Math.max(rowSums[i], 1.0) / offDiagonalRatio);
+        }
+        return builder;
+    }
+}
@@ -1,11 +1,20 @@
 
+import logger.LoggerMatrix;
 import methods.Cholesky;
 import methods.Gauss;
 import methods.GaussSeidel;
 import methods.Jacobi;
+import methods.SolverDispatcher;
+import utils.Epsilons;
+import utils.Matrix;
 
 public class Main {
     public static void main(String[] args) {
+        if ("auto".equalsIgnoreCase(System.getProperty(SolverDispatcher.PROPERTY))) {
+            // один метод, выбранный по структуре матрицы, вместо всех четырёх
+            LoggerMatrix.logSolution(SolverDispatcher.solve(Matrix.A, Matrix.b, Epsilons.EPSILON_2).solution());
+            return;
+        }
         Gauss.printGauss();
         Cholesky.printCholesky();
         Jacobi.printJacobi();
@@ -0,0 +1,207 @@
+package io;
+
+import utils.DenseMatrix;
+import utils.SparseMatrix;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Компактный двоичный формат матриц, читаемый без разбора через отображение файла в память.
+ * <p>
+ * Заголовок (64 байта, little-endian): магическое число, версия, вид матрицы
+ * (плотная/разреженная), число строк, столбцов и ненулевых элементов. Далее:
+ * <ul>
+ *     <li>плотная матрица — rows * cols значений double построчно;</li>
+ *     <li>разреженная — rowPtr (rows + 1 int), colIdx (nnz int), выравнивание до 8 байт, values (nnz double).</li>
+ * </ul>
+ * Плотная матрица отображается напрямую: {@link #mapDense(Path)} возвращает матрицу вне кучи,
+ * которая читает страницы файла по требованию, поэтому решение начинается без загрузки файла.
+ * Одно отображение {@link FileChannel#map} ограничено 2 ГБ, поэтому файл отображается частями
+ * по целому числу строк ({@link DenseMatrix#rowsPerBuffer(int)}), и размер плотной матрицы
+ * ограничен только адресным пространством. Разреженная матрица отображается одним буфером.
+ */
+public class BinaryMatrixFormat {
+    private static final long MAGIC = 0x4E49425358544D4DL; // "MMTXSBIN" в little-endian
+    private static final int VERSION = 1;
+    private static final int KIND_DENSE = 1;
+    private static final int KIND_SPARSE = 2;
+    private static final int HEADER_BYTES = 64;
+    private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /**
+     * Записывает плотную матрицу.
+     */
+    public static void write(Path path, DenseMatrix matrix) throws IOException {
+        long elements = (long) matrix.rows() * matrix.cols();
+        try (FileChannel channel = openForWrite(path)) {
+            writeHeader(channel, KIND_DENSE, matrix.rows(), matrix.cols(), elements);
+            ByteBuffer chunk = ByteBuffer.allocateDirect(1 << 16).order(ORDER);
+            DoubleBuffer doubles = chunk.asDoubleBuffer();
+            for (int i = 0; i < matrix.rows(); i++) {
+                for (int j = 0; j < matrix.cols(); j++) {
+                    if (!doubles.hasRemaining()) {
+                        flush(channel, chunk, doubles.position() * Double.BYTES);
+                        doubles.clear();
+                    }
+                    doubles.put(matrix.get(i, j));
+                }
+            }
+            flush(channel, chunk, doubles.position() * Double.BYTES);
+        }
+    }
+
+    /**
+     * Записывает разреженную матрицу.
+     */
+    public static void write(Path path, SparseMatrix matrix) throws IOException {
+        int rows = matrix.rows();
+        int nnz = matrix.nnz();
+        long indexBytes = (long) (rows + 1 + nnz) * Integer.BYTES;
+        long padding = (8 - indexBytes % 8) % 8;
+        try (FileChannel channel = openForWrite(path)) {
+            writeHeader(channel, KIND_SPARSE, rows, matrix.cols(), nnz);
+            long size = HEADER_BYTES + indexBytes + padding + (long) nnz * Double.BYTES;
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, checkMappable(size));
+            out.order(ORDER).position(HEADER_BYTES);
+            out.asIntBuffer().put(matrix.rowPtr(), 0, rows + 1).put(matrix.colIdx(), 0, nnz);
+            out.position((int) (HEADER_BYTES + indexBytes + padding));
+            out.asDoubleBuffer().put(matrix.values(), 0, nnz);
+            out.force();
+        }
+    }
+
+    /**
+     * Отображает плотную матрицу из файла в память без копирования.
+     * Матрица доступна только для чтения.
+     *
+     * @param path путь к файлу.
+     * @return матрица вне кучи, использующая страницы файла.
+     */
+    public static DenseMatrix mapDense(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Header header = readHeader(channel);
+            if (header.kind != KIND_DENSE) {
+                throw new IOException("Файл " + path + " содержит разреженную матрицу, используйте readSparse()");
+            }
+            int rows = header.rows;
+            int cols = header.cols;
+            if (header.nnz != (long) rows * cols || channel.size() < HEADER_BYTES + header.nnz * Double.BYTES) {
+                throw new IOException("Файл " + path + " повреждён: ожидалось " + rows + "x" + cols + " элементов");
+            }
+            int perBuffer = DenseMatrix.rowsPerBuffer(cols);
+            DoubleBuffer[] parts = new DoubleBuffer[(int) Math.max(1, ((long) rows + perBuffer - 1) / perBuffer)];
+            for (int k = 0; k < parts.length; k++) {
+                long first = (long) k * perBuffer;
+                long count = Math.min(perBuffer, rows - first);
+                long position = HEADER_BYTES + first * cols * Double.BYTES;
+                // отображение остаётся действительным и после закрытия канала
+                parts[k] = channel.map(FileChannel.MapMode.READ_ONLY, position, count * cols * Double.BYTES)
+                        .order(ORDER).asDoubleBuffer();
+            }
+            return DenseMatrix.wrap(rows, cols, perBuffer, parts);
+        }
+    }
+
+    /**
+     * Читает разреженную матрицу. Файл отображается в память, а массивы CSR копируются
+     * в кучу одной операцией на массив, без разбора текста.
+     *
+     * @param path путь к файлу.
+     * @return разреженная матрица.
+     */
+    public static SparseMatrix readSparse(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Header header = readHeader(channel);
+            if (header.kind != KIND_SPARSE) {
+                return SparseMatrix.fromDense(mapDense(path));
+            }
+            int rows = header.rows;
+            int nnz = Math.toIntExact(header.nnz);
+            long indexBytes = (long) (rows + 1 + nnz) * Integer.BYTES;
+            long padding = (8 - indexBytes % 8) % 8;
+            long size = indexBytes + padding + (long) nnz * Double.BYTES;
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, checkMappable(size));
+            mapped.order(ORDER);
+            int[] rowPtr = new int[rows + 1];
+            int[] colIdx = new int[nnz];
+            double[] values = new double[nnz];
+            mapped.asIntBuffer().get(rowPtr).get(colIdx);
+            mapped.position((int) (indexBytes + padding));
+            mapped.asDoubleBuffer().get(values);
+            return new SparseMatrix(rows, header.cols, rowPtr, colIdx, values);
+        }
+    }
+
+    /**
+     * Читает плотную матрицу в кучу (для методов, которые изменяют матрицу).
+     */
+    public static DenseMatrix readDense(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (readHeader(channel).kind == KIND_SPARSE) {
+                return readSparse(path).toDense();
+            }
+        }
+        return mapDense(path).toHeap();
+    }
+
+    private record Header(int kind, int rows, int cols, long nnz) {
+    }
+
+    private static Header readHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ORDER);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException("Файл слишком короткий для заголовка");
+            }
+        }
+        header.flip();
+        if (header.getLong() != MAGIC) {
+            throw new IOException("Неизвестный формат файла: неверное магическое число");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Неподдерживаемая версия формата: " + version);
+        }
+        int kind = header.getInt();
+        int rows = Math.toIntExact(header.getLong());
+        int cols = Math.toIntExact(header.getLong());
+        long nnz = header.getLong();
+        return new Header(kind, rows, cols, nnz);
+    }
+
+    private static void writeHeader(FileChannel channel, int kind, int rows, int cols, long nnz) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ORDER);
+        header.putLong(MAGIC).putInt(VERSION).putInt(kind).putLong(rows).putLong(cols).putLong(nnz);
+        header.clear();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+    }
+
+    private static FileChannel openForWrite(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer chunk, int bytes) throws IOException {
+        chunk.clear().limit(bytes);
+        while (chunk.hasRemaining()) {
+            channel.write(chunk);
+        }
+        chunk.clear();
+    }
+
+    private static long checkMappable(long bytes) throws IOException {
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IOException("Файл больше 2 ГБ нельзя отобразить одним буфером: " + bytes + " байт");
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,128 @@
+package io;
+
+import utils.DenseMatrix;
+import utils.SparseMatrix;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Потоковое чтение матриц из CSV: одна строка файла — одна строка матрицы,
+ * значения разделены запятыми, точками с запятой, пробелами или табуляцией.
+ * Пустые строки и строки, начинающиеся с {@code #}, пропускаются.
+ */
+public class CsvReader {
+
+    /**
+     * Читает плотную матрицу.
+     *
+     * @param path путь к CSV-файлу.
+     * @return плотная матрица.
+     */
+    public static DenseMatrix readDense(Path path) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path), 1 << 16)) {
+            return readDense(in);
+        }
+    }
+
+    /**
+     * Читает плотную матрицу из потока. Все строки должны иметь одинаковую длину.
+     */
+    public static DenseMatrix readDense(InputStream in) throws IOException {
+        NumberTokenizer tokenizer = new NumberTokenizer(in);
+        double[] data = new double[1024];
+        int size = 0;
+        int cols = -1;
+        int rows = 0;
+        while (true) {
+            tokenizer.skipComments('#');
+            if (tokenizer.atEnd()) {
+                break;
+            }
+            int count = 0;
+            while (!tokenizer.atLineEnd()) {
+                if (size == data.length) {
+                    data = Arrays.copyOf(data, data.length * 2);
+                }
+                data[size++] = tokenizer.nextDouble();
+                count++;
+            }
+            checkRowLength(tokenizer, cols, count);
+            cols = count;
+            rows++;
+            tokenizer.nextLine();
+        }
+        return DenseMatrix.wrap(rows, Math.max(cols, 0), size == data.length ? data : Arrays.copyOf(data, size));
+    }
+
+    /**
+     * Читает матрицу в разреженном виде: нулевые значения не сохраняются.
+     *
+     * @param path путь к CSV-файлу.
+     * @return разреженная матрица.
+     */
+    public static SparseMatrix readSparse(Path path) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path), 1 << 16)) {
+            NumberTokenizer tokenizer = new NumberTokenizer(in);
+            // размеры заранее неизвестны, поэтому элементы копятся в массивах COO
+            int[] rowIndex = new int[1024];
+            int[] colIndex = new int[1024];
+            double[] values = new double[1024];
+            int size = 0;
+            int cols = -1;
+            int rows = 0;
+            while (true) {
+                tokenizer.skipComments('#');
+                if (tokenizer.atEnd()) {
+                    break;
+                }
+                int count = 0;
+                while (!tokenizer.atLineEnd()) {
+                    double value = tokenizer.nextDouble();
+                    if (value != 0.0) {
+                        if (size == values.length) {
+                            rowIndex = Arrays.copyOf(rowIndex, size * 2);
+                            colIndex = Arrays.copyOf(colIndex, size * 2);
+                            values = Arrays.copyOf(values, size * 2);
+                        }
+                        rowIndex[size] = rows;
+                        colIndex[size] = count;
+                        values[size] = value;
+                        size++;
+                    }
+                    count++;
+                }
+                checkRowLength(tokenizer, cols, count);
+                cols = count;
+                rows++;
+                tokenizer.nextLine();
+            }
+            SparseMatrix.Builder builder = new SparseMatrix.Builder(rows, Math.max(cols, 0), size);
+            for (int k = 0; k < size; k++) {
+                builder.add(rowIndex[k], colIndex[k], values[k]);
+            }
+            return builder.build();
+        }
+    }
+
+    /**
+     * Читает вектор: одно значение в строке или все значения в одной строке.
+     */
+    public static double[] readVector(Path path) throws IOException {
+        DenseMatrix matrix = readDense(path);
+        if (matrix.rows() != 1 && matrix.cols() != 1) {
+            throw new IOException("Ожидался вектор, найдена матрица " + matrix.rows() + "x" + matrix.cols());
+        }
+        return matrix.data();
+    }
+
+    private static void checkRowLength(NumberTokenizer tokenizer, int expected, int actual) throws IOException {
+        if (expected >= 0 && expected != actual) {
+            throw tokenizer.error("строка содержит " + actual + " значений, ожидалось " + expected);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package io;
+
+import utils.DenseMatrix;
+import utils.SparseMatrix;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Потоковое чтение матриц в формате Matrix Market (.mtx).
+ * <p>
+ * Поддерживаются форматы {@code coordinate} и {@code array}, типы {@code real},
+ * {@code integer} и {@code pattern}, симметрии {@code general}, {@code symmetric}
+ * и {@code skew-symmetric}. Элементы сразу попадают в {@link SparseMatrix.Builder}
+ * или в массив плотной матрицы, промежуточные строки и объекты не создаются.
+ */
+public class MatrixMarketReader {
+
+    /**
+     * Читает матрицу в разреженном виде.
+     *
+     * @param path путь к файлу .mtx.
+     * @return разреженная матрица.
+     */
+    public static SparseMatrix readSparse(Path path) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path), 1 << 16)) {
+            return readSparse(in);
+        }
+    }
+
+    /**
+     * Читает матрицу в разреженном виде из потока.
+     */
+    public static SparseMatrix readSparse(InputStream in) throws IOException {
+        NumberTokenizer tokenizer = new NumberTokenizer(in);
+        Header header = Header.read(tokenizer);
+        if (!header.coordinate) {
+            return SparseMatrix.fromDense(readArray(tokenizer, header));
+        }
+        int rows = tokenizer.nextInt();
+        int cols = tokenizer.nextInt();
+        int entries = tokenizer.nextInt();
+        SparseMatrix.Builder builder = new SparseMatrix.Builder(rows, cols, header.symmetry == Symmetry.GENERAL ? entries : 2 * entries);
+        for (int k = 0; k < entries; k++) {
+            tokenizer.skipComments('%');
+            int i = tokenizer.nextInt() - 1;
+            int j = tokenizer.nextInt() - 1;
+            double value = header.pattern ? 1.0 : tokenizer.nextDouble();
+            checkIndex(tokenizer, header, i, j, rows, cols);
+            tokenizer.nextLine();
+            builder.add(i, j, value);
+            if (i != j && header.symmetry != Symmetry.GENERAL) {
+                builder.add(j, i, header.symmetry == Symmetry.SKEW_SYMMETRIC ? -value : value);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Читает матрицу в плотном виде.
+     *
+     * @param path путь к файлу .mtx.
+     * @return плотная матрица.
+     */
+    public static DenseMatrix readDense(Path path) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path), 1 << 16)) {
+            return readDense(in);
+        }
+    }
+
+    /**
+     * Читает матрицу в плотном виде из потока.
+     */
+    public static DenseMatrix readDense(InputStream in) throws IOException {
+        NumberTokenizer tokenizer = new NumberTokenizer(in);
+        Header header = Header.read(tokenizer);
+        if (!header.coordinate) {
+            return readArray(tokenizer, header);
+        }
+        int rows = tokenizer.nextInt();
+        int cols = tokenizer.nextInt();
+        int entries = tokenizer.nextInt();
+        DenseMatrix matrix = DenseMatrix.zeros(rows, cols);
+        double[] data = matrix.mutableData();
+        for (int k = 0; k < entries; k++) {
+            tokenizer.skipComments('%');
+            int i = tokenizer.nextInt() - 1;
+            int j = tokenizer.nextInt() - 1;
+            double value = header.pattern ? 1.0 : tokenizer.nextDouble();
+            checkIndex(tokenizer, header, i, j, rows, cols);
+            tokenizer.nextLine();
+            data[i * cols + j] += value;
+            if (i != j && header.symmetry != Symmetry.GENERAL) {
+                data[j * cols + i] += header.symmetry == Symmetry.SKEW_SYMMETRIC ? -value : value;
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Читает вектор (матрицу n×1 в любом из форматов), например правую часть b.
+     */
+    public static double[] readVector(Path path) throws IOException {
+        DenseMatrix matrix = readDense(path);
+        if (matrix.cols() != 1) {
+            throw new IOException("Ожидался вектор (n×1), найдена матрица " + matrix.rows() + "x" + matrix.cols());
+        }
+        return matrix.data();
+    }
+
+    /**
+     * Проверяет, что элемент (и его симметричная пара) лежит внутри объявленных размеров:
+     * иначе в плотном массиве столбец j ≥ cols молча попал бы в следующую строку.
+     */
+    private static void checkIndex(NumberTokenizer tokenizer, Header header, int i, int j, int rows, int cols)
+            throws IOException {
+        boolean inside = i >= 0 && i < rows && j >= 0 && j < cols;
+        if (inside && i != j && header.symmetry != Symmetry.GENERAL) {
+            inside = j < rows && i < cols;
+        }
+        if (!inside) {
+            throw tokenizer.error("элемент (" + (i + 1) + ", " + (j + 1) + ") вне матрицы " + rows + "x" + cols);
+        }
+    }
+
+    /**
+     * Формат array: элементы по столбцам, для симметричных матриц — только нижний треугольник.
+     */
+    private static DenseMatrix readArray(NumberTokenizer tokenizer, Header header) throws IOException {
+        if (header.pattern) {
+            throw tokenizer.error("формат array не допускает тип pattern");
+        }
+        int rows = tokenizer.nextInt();
+        int cols = tokenizer.nextInt();
+        tokenizer.nextLine();
+        DenseMatrix matrix = DenseMatrix.zeros(rows, cols);
+        double[] data = matrix.mutableData();
+        for (int j = 0; j < cols; j++) {
+            int first = header.symmetry == Symmetry.GENERAL ? 0 : (header.symmetry == Symmetry.SYMMETRIC ? j : j + 1);
+            for (int i = first; i < rows; i++) {
+                tokenizer.skipComments('%');
+                double value = tokenizer.nextDouble();
+                tokenizer.nextLine();
+                data[i * cols + j] = value;
+                if (i != j && header.symmetry != Symmetry.GENERAL) {
+                    data[j * cols + i] = header.symmetry == Symmetry.SKEW_SYMMETRIC ? -value : value;
+                }
+            }
+        }
+        return matrix;
+    }
+
+    private enum Symmetry {
+        GENERAL, SYMMETRIC, SKEW_SYMMETRIC
+    }
+
+    /**
+     * Заголовок {@code %%MatrixMarket matrix <format> <field> <symmetry>}.
+     */
+    private record Header(boolean coordinate, boolean pattern, Symmetry symmetry) {
+
+        static Header read(NumberTokenizer tokenizer) throws IOException {
+            String banner = tokenizer.nextWord();
+            if (!banner.equalsIgnoreCase("%%MatrixMarket")) {
+                throw tokenizer.error("файл не начинается с %%MatrixMarket");
+            }
+            String object = tokenizer.nextWord().toLowerCase(Locale.ROOT);
+            String format = tokenizer.nextWord().toLowerCase(Locale.ROOT);
+            String field = tokenizer.nextWord().toLowerCase(Locale.ROOT);
+            String symmetry = tokenizer.nextWord().toLowerCase(Locale.ROOT);
+            tokenizer.nextLine();
+            if (!object.equals("matrix")) {
+                throw tokenizer.error("поддерживаются только объекты matrix, найдено " + object);
+            }
+            if (!format.equals("coordinate") && !format.equals("array")) {
+                throw tokenizer.error("неизвестный формат " + format);
+            }
+            if (!field.equals("real") && !field.equals("integer") && !field.equals("double") && !field.equals("pattern")) {
+                throw tokenizer.error("тип " + field + " не поддерживается");
+            }
+            Symmetry parsedSymmetry = switch (symmetry) {
+                case "general" -> Symmetry.GENERAL;
+                case "symmetric" -> Symmetry.SYMMETRIC;
+                case "skew-symmetric" -> Symmetry.SKEW_SYMMETRIC;
+                default -> throw tokenizer.error("симметрия " + symmetry + " не поддерживается");
+            };
+            tokenizer.skipComments('%');
+            return new Header(format.equals("coordinate"), field.equals("pattern"), parsedSymmetry);
+        }
+    }
+}
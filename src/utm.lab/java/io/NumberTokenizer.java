@@ -0,0 +1,282 @@
+package io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Потоковый разбор чисел из текстового файла без создания строк на каждое число.
+ * <p>
+ * Данные читаются блоками в переиспользуемый буфер. Числа с не более чем 15 значащими
+ * цифрами и небольшим показателем степени собираются напрямую (быстрый путь Клингера:
+ * результат округлён точно так же, как у {@link Double#parseDouble(String)}), остальные
+ * передаются в {@link Double#parseDouble(String)}.
+ * Разделителями внутри строки считаются пробелы, табуляция, запятая и точка с запятой.
+ */
+final class NumberTokenizer {
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[1 << 16];
+    private final char[] token = new char[64]; // для медленного пути
+    private int position;
+    private int limit;
+    private long line = 1;
+
+    NumberTokenizer(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * @return номер текущей строки (для сообщений об ошибках).
+     */
+    long line() {
+        return line;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if (c != -1) {
+            position++;
+            if (c == '\n') {
+                line++;
+            }
+        }
+        return c;
+    }
+
+    private static boolean isSeparator(int c) {
+        return c == ' ' || c == '\t' || c == ',' || c == ';' || c == '\r';
+    }
+
+    /**
+     * Пропускает разделители в пределах текущей строки.
+     * @return true, если строка закончилась (или закончился файл).
+     */
+    boolean atLineEnd() throws IOException {
+        int c = peek();
+        while (isSeparator(c)) {
+            read();
+            c = peek();
+        }
+        return c == '\n' || c == -1;
+    }
+
+    /**
+     * @return true, если файл закончился (пустые строки пропускаются).
+     */
+    boolean atEnd() throws IOException {
+        while (true) {
+            int c = peek();
+            if (c == -1) {
+                return true;
+            }
+            if (c != '\n' && !isSeparator(c)) {
+                return false;
+            }
+            read();
+        }
+    }
+
+    /**
+     * Переходит на начало следующей строки.
+     */
+    void nextLine() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c != '\n' && c != -1);
+    }
+
+    /**
+     * Пропускает пустые строки и строки, начинающиеся с символа комментария.
+     */
+    void skipComments(char commentChar) throws IOException {
+        while (true) {
+            atLineEnd();
+            int c = peek();
+            if (c == commentChar) {
+                nextLine();
+            } else if (c == '\n') {
+                read();
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Читает слово до разделителя (используется только для заголовков).
+     */
+    String nextWord() throws IOException {
+        skipToToken();
+        StringBuilder sb = new StringBuilder();
+        int c = peek();
+        while (c != -1 && c != '\n' && !isSeparator(c)) {
+            sb.append((char) read());
+            c = peek();
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Читает неотрицательное или отрицательное целое число.
+     */
+    long nextLong() throws IOException {
+        skipToToken();
+        boolean negative = false;
+        int c = peek();
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            read();
+            c = peek();
+        }
+        if (c < '0' || c > '9') {
+            throw error("ожидалось целое число");
+        }
+        long value = 0;
+        while (c >= '0' && c <= '9') {
+            value = Math.addExact(Math.multiplyExact(value, 10), c - '0');
+            read();
+            c = peek();
+        }
+        return negative ? -value : value;
+    }
+
+    int nextInt() throws IOException {
+        return Math.toIntExact(nextLong());
+    }
+
+    /**
+     * Читает вещественное число.
+     */
+    double nextDouble() throws IOException {
+        skipToToken();
+        int length = 0;
+        boolean negative = false;
+        long mantissa = 0;
+        int digits = 0;       // значащие цифры в mantissa
+        int scale = 0;        // десятичный порядок, накопленный мантиссой
+        boolean overflow = false;
+        boolean seenDigit = false;
+
+        int c = peek();
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            token[length++] = (char) read();
+            c = peek();
+        }
+        boolean fraction = false;
+        while ((c >= '0' && c <= '9') || (c == '.' && !fraction)) {
+            if (c == '.') {
+                fraction = true;
+            } else {
+                seenDigit = true;
+                if (digits < 18) {
+                    if (mantissa != 0 || c != '0') {
+                        digits++;
+                    }
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (fraction) {
+                        scale--;
+                    }
+                } else {
+                    overflow = true;
+                    if (!fraction) {
+                        scale++;
+                    }
+                }
+            }
+            appendToken(length++, c);
+            read();
+            c = peek();
+        }
+        if (!seenDigit) {
+            return parseSpecial(length);
+        }
+        int exponent = 0;
+        if (c == 'e' || c == 'E') {
+            appendToken(length++, read());
+            c = peek();
+            boolean negativeExponent = false;
+            if (c == '-' || c == '+') {
+                negativeExponent = c == '-';
+                appendToken(length++, read());
+                c = peek();
+            }
+            if (c < '0' || c > '9') {
+                throw error("ожидались цифры показателя");
+            }
+            while (c >= '0' && c <= '9') {
+                if (exponent < 100_000) {
+                    exponent = exponent * 10 + (c - '0');
+                }
+                appendToken(length++, read());
+                c = peek();
+            }
+            if (negativeExponent) {
+                exponent = -exponent;
+            }
+        }
+        int power = scale + exponent;
+        if (!overflow && digits <= 15) {
+            double value = mantissa;
+            if (power == 0 || mantissa == 0) {
+                return negative ? -value : value;
+            }
+            if (power > 0 && power <= 22) {
+                value *= POWERS_OF_TEN[power];
+                return negative ? -value : value;
+            }
+            if (power < 0 && power >= -22) {
+                value /= POWERS_OF_TEN[-power];
+                return negative ? -value : value;
+            }
+        }
+        if (length > token.length) {
+            throw error("слишком длинное число");
+        }
+        return Double.parseDouble(new String(token, 0, length));
+    }
+
+    private void appendToken(int index, int c) {
+        if (index < token.length) {
+            token[index] = (char) c;
+        }
+    }
+
+    private double parseSpecial(int length) throws IOException {
+        // NaN, Infinity и подобные редкие записи
+        String word = new String(token, 0, length) + nextWord();
+        try {
+            return Double.parseDouble(word);
+        } catch (NumberFormatException e) {
+            throw error("ожидалось число, найдено '" + word + "'");
+        }
+    }
+
+    private void skipToToken() throws IOException {
+        if (atLineEnd()) {
+            throw peek() == -1 ? new EOFException("Неожиданный конец файла в строке " + line) : error("неожиданный конец строки");
+        }
+    }
+
+    IOException error(String message) {
+        return new IOException("Ошибка разбора в строке " + line + ": " + message);
+    }
+}
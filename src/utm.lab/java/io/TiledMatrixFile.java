@@ -0,0 +1,316 @@
+package io;
+
+import utils.DenseMatrix;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Квадратная матрица в файле, разбитая на плитки T×T, для разложений вне памяти
+ * (out-of-core).
+ * <p>
+ * Заголовок (64 байта, little-endian): магическое число, версия, размерность n, размер плитки T.
+ * Далее плитки по столбцам плиток: столбец плиток J занимает непрерывный участок
+ * («полосу»), в котором плитки (0, J), (1, J), ... идут подряд, а внутри плитки
+ * элементы хранятся построчно. Размерность дополняется до кратной T единичной матрицей:
+ * расширенная матрица diag(A, I) раскладывается без особых случаев на краю.
+ * <p>
+ * Каждая полоса отображается в память отдельным буфером, поэтому ограничение 2 ГБ
+ * относится к полосе (n·T·8 байт), а не ко всей матрице: при T = 256 это n до ~1 000 000.
+ * Резидентными страницы делает операционная система; вызывающий код держит в куче
+ * только плитки, с которыми работает, и заранее подгружает следующие через
+ * {@link #prefetch(int, int)}.
+ */
+public final class TiledMatrixFile implements AutoCloseable {
+    private static final long MAGIC = 0x454C495458544D4DL; // "MMTXTILE" в little-endian
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+    /** Размер плитки по умолчанию: плитка 256×256 double занимает 512 КБ. */
+    public static final int DEFAULT_TILE = 256;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final int n;
+    private final int tile;
+    private final int tiles;
+    private final MappedByteBuffer[] slabs;
+    private final DoubleBuffer[] views;
+    private final ExecutorService prefetcher;
+
+    private TiledMatrixFile(Path path, FileChannel channel, int n, int tile) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        this.n = n;
+        this.tile = tile;
+        this.tiles = (n + tile - 1) / tile;
+        long slabBytes = (long) tiles * tile * tile * Double.BYTES;
+        if (slabBytes > Integer.MAX_VALUE) {
+            throw new IOException("Столбец плиток больше 2 ГБ (" + slabBytes + " байт): уменьшите размер плитки");
+        }
+        this.slabs = new MappedByteBuffer[tiles];
+        this.views = new DoubleBuffer[tiles];
+        for (int J = 0; J < tiles; J++) {
+            slabs[J] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + J * slabBytes, slabBytes);
+            slabs[J].order(ORDER);
+            views[J] = slabs[J].asDoubleBuffer();
+        }
+        this.prefetcher = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "matrixsolver-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Создаёт файл для матрицы n×n, заполненный нулями (с единицами на диагонали дополнения).
+     * Элементы задаются через {@link #setRow(int, double[])}.
+     *
+     * @param path путь к файлу (перезаписывается).
+     * @param n    размерность.
+     * @param tile размер плитки.
+     * @return открытый файл.
+     */
+    public static TiledMatrixFile create(Path path, int n, int tile) throws IOException {
+        if (n < 1 || tile < 1) {
+            throw new IllegalArgumentException("Размерность и размер плитки должны быть положительными: " + n + ", " + tile);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ORDER);
+            header.putLong(MAGIC).putInt(VERSION).putInt(n).putInt(tile);
+            header.clear();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            TiledMatrixFile file = new TiledMatrixFile(path, channel, n, tile);
+            for (int i = n; i < file.paddedSize(); i++) {
+                file.views[i / tile].put(file.index(i, i % tile), 1.0);
+            }
+            return file;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Записывает плотную матрицу в новый файл плиток.
+     *
+     * @param path   путь к файлу (перезаписывается).
+     * @param matrix квадратная матрица.
+     * @param tile   размер плитки.
+     * @return открытый файл.
+     */
+    public static TiledMatrixFile write(Path path, DenseMatrix matrix, int tile) throws IOException {
+        if (!matrix.isSquare()) {
+            throw new IllegalArgumentException("Матрица не квадратная: " + matrix.rows() + "x" + matrix.cols());
+        }
+        TiledMatrixFile file = create(path, matrix.rows(), tile);
+        double[] row = new double[matrix.cols()];
+        for (int i = 0; i < matrix.rows(); i++) {
+            for (int j = 0; j < row.length; j++) {
+                row[j] = matrix.get(i, j);
+            }
+            file.setRow(i, row);
+        }
+        return file;
+    }
+
+    /**
+     * Открывает существующий файл плиток.
+     *
+     * @param path путь к файлу.
+     * @return открытый файл.
+     */
+    public static TiledMatrixFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ORDER);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("Файл слишком короткий для заголовка");
+                }
+            }
+            header.flip();
+            if (header.getLong() != MAGIC) {
+                throw new IOException("Неизвестный формат файла: неверное магическое число");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Неподдерживаемая версия формата: " + version);
+            }
+            int n = header.getInt();
+            int tile = header.getInt();
+            if (n < 1 || tile < 1) {
+                throw new IOException("Повреждён заголовок: размерность " + n + ", размер плитки " + tile);
+            }
+            long padded = ((long) n + tile - 1) / tile * tile;
+            long bytes;
+            try {
+                bytes = Math.multiplyExact(Math.multiplyExact(padded, padded), (long) Double.BYTES);
+            } catch (ArithmeticException e) {
+                bytes = Long.MAX_VALUE;
+            }
+            if (channel.size() - HEADER_BYTES < bytes) {
+                throw new IOException("Повреждён заголовок: файл " + channel.size() + " байт короче матрицы "
+                        + n + "×" + n + " с плиткой " + tile);
+            }
+            return new TiledMatrixFile(path, channel, n, tile);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return размерность матрицы n.
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * @return размер плитки T.
+     */
+    public int tileSize() {
+        return tile;
+    }
+
+    /**
+     * @return число плиток по каждой стороне.
+     */
+    public int tileCount() {
+        return tiles;
+    }
+
+    /**
+     * @return размерность, дополненная до кратной T.
+     */
+    public int paddedSize() {
+        return tiles * tile;
+    }
+
+    /**
+     * @return путь к файлу.
+     */
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * Полоса плиток — это матрица (n + дополнение)×T, хранящаяся построчно,
+     * поэтому плитка (I, J) начинается с индекса I·T·T, а строка row — с индекса row·T.
+     */
+    private int index(int row, int columnInTile) {
+        return row * tile + columnInTile;
+    }
+
+    /**
+     * Задаёт строку i матрицы.
+     *
+     * @param i   номер строки.
+     * @param row n значений.
+     */
+    public void setRow(int i, double[] row) {
+        if (row.length != n) {
+            throw new IllegalArgumentException("Длина строки " + row.length + " не равна размерности " + n);
+        }
+        for (int J = 0; J < tiles; J++) {
+            int width = Math.min(tile, n - J * tile);
+            views[J].put(index(i, 0), row, J * tile, width);
+        }
+    }
+
+    /**
+     * Читает элемент (i, j).
+     */
+    public double get(int i, int j) {
+        return views[j / tile].get(index(i, j % tile));
+    }
+
+    /**
+     * Копирует плитку (I, J) в {@code target} (T×T построчно).
+     */
+    public void readTile(int I, int J, double[] target) {
+        views[J].get(I * tile * tile, target, 0, tile * tile);
+    }
+
+    /**
+     * Записывает плитку (I, J) из {@code source} (T×T построчно).
+     */
+    public void writeTile(int I, int J, double[] source) {
+        views[J].put(I * tile * tile, source, 0, tile * tile);
+    }
+
+    /**
+     * Копирует часть строки {@code row}, лежащую в столбце плиток J, в {@code target}.
+     */
+    public void readRow(int J, int row, double[] target, int offset) {
+        views[J].get(index(row, 0), target, offset, tile);
+    }
+
+    /**
+     * Записывает часть строки {@code row}, лежащую в столбце плиток J.
+     */
+    public void writeRow(int J, int row, double[] source, int offset) {
+        views[J].put(index(row, 0), source, offset, tile);
+    }
+
+    /**
+     * Меняет местами части строк a и b в столбце плиток J.
+     */
+    public void swapRows(int J, int a, int b, double[] scratch) {
+        int ia = index(a, 0);
+        int ib = index(b, 0);
+        views[J].get(ia, scratch, 0, tile);
+        views[J].get(ib, scratch, tile, tile);
+        views[J].put(ia, scratch, tile, tile);
+        views[J].put(ib, scratch, 0, tile);
+    }
+
+    /**
+     * Асинхронно загружает в память плитки (I, J) для I от {@code fromTileRow} до конца
+     * столбца, чтобы их чтение не ждало диска.
+     *
+     * @return задача загрузки; ждать её не обязательно.
+     */
+    public CompletableFuture<Void> prefetch(int J, int fromTileRow) {
+        if (J < 0 || J >= tiles || fromTileRow >= tiles) {
+            return CompletableFuture.completedFuture(null);
+        }
+        int tileBytes = tile * tile * Double.BYTES;
+        int from = Math.max(0, fromTileRow) * tileBytes;
+        MappedByteBuffer part = slabs[J].slice(from, slabs[J].capacity() - from);
+        return CompletableFuture.runAsync(part::load, prefetcher);
+    }
+
+    /**
+     * Записывает изменённые страницы на диск.
+     */
+    public void force() {
+        for (MappedByteBuffer slab : slabs) {
+            slab.force();
+        }
+    }
+
+    /**
+     * Записывает изменения и закрывает файл.
+     */
+    @Override
+    public void close() throws IOException {
+        prefetcher.shutdownNow();
+        force();
+        channel.close();
+    }
+}
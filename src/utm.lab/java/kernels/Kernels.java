@@ -0,0 +1,179 @@
+package kernels;
+
+/**
+ * Базовые операции линейной алгебры, через которые проходят внутренние циклы решателей.
+ * <p>
+ * Если при запуске подключён модуль {@code jdk.incubator.vector}
+ * ({@code --add-modules jdk.incubator.vector}), операции выполняются векторными
+ * инструкциями (AVX2/AVX-512/NEON) через Vector API, иначе — обычными скалярными циклами.
+ * Векторную реализацию можно отключить свойством {@code -Dmatrixsolver.simd=false}.
+ * <p>
+ * Выбор делается один раз при загрузке класса, поэтому в горячих циклах
+ * проверка сводится к константе, которую JIT убирает.
+ */
+public final class Kernels {
+    /** Имя системного свойства для отключения векторной реализации. */
+    public static final String PROPERTY = "matrixsolver.simd";
+
+    private static final boolean VECTOR = detectVectorSupport();
+
+    private Kernels() {
+    }
+
+    private static boolean detectVectorSupport() {
+        if (!Boolean.parseBoolean(System.getProperty(PROPERTY, "true"))) {
+            return false;
+        }
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return false;
+        }
+        try {
+            return VectorKernels.lanes() > 1;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return true, если используются векторные инструкции.
+     */
+    public static boolean isVectorized() {
+        return VECTOR;
+    }
+
+    /**
+     * Скалярное произведение x[xOffset..xOffset+length) и y[yOffset..yOffset+length).
+     */
+    public static double dot(double[] x, int xOffset, double[] y, int yOffset, int length) {
+        return VECTOR
+                ? VectorKernels.dot(x, xOffset, y, yOffset, length)
+                : ScalarKernels.dot(x, xOffset, y, yOffset, length);
+    }
+
+    /**
+     * y[yOffset + j] += alpha * x[xOffset + j] для j из [0, length).
+     */
+    public static void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length) {
+        if (VECTOR) {
+            VectorKernels.axpy(alpha, x, xOffset, y, yOffset, length);
+        } else {
+            ScalarKernels.axpy(alpha, x, xOffset, y, yOffset, length);
+        }
+    }
+
+    /**
+     * y = A * x для построчно хранимой матрицы A размера rows×cols.
+     */
+    public static void gemv(double[] a, int rows, int cols, double[] x, double[] y) {
+        for (int i = 0; i < rows; i++) {
+            y[i] = dot(a, i * cols, x, 0, cols);
+        }
+    }
+
+    /**
+     * Обновление ранга k одной строки: для j из [0, length)
+     * c[cOffset + j] -= sum_{p < k} l[lOffset + p] * u[uOffset + p * uStride + j].
+     * <p>
+     * Используется для обновления оставшейся подматрицы в блочных разложениях
+     * (C -= L * U по строке C), где строка C остаётся в регистрах/кэше на все k слагаемых.
+     */
+    public static void rankUpdate(double[] c, int cOffset, int length,
+                                  double[] l, int lOffset, int k,
+                                  double[] u, int uOffset, int uStride) {
+        if (VECTOR) {
+            VectorKernels.rankUpdate(c, cOffset, length, l, lOffset, k, u, uOffset, uStride);
+        } else {
+            ScalarKernels.rankUpdate(c, cOffset, length, l, lOffset, k, u, uOffset, uStride);
+        }
+    }
+
+    /**
+     * Скалярное произведение для чисел одинарной точности (сумма тоже накапливается во float).
+     */
+    public static float dot(float[] x, int xOffset, float[] y, int yOffset, int length) {
+        return VECTOR
+                ? VectorKernels.dot(x, xOffset, y, yOffset, length)
+                : ScalarKernels.dot(x, xOffset, y, yOffset, length);
+    }
+
+    /**
+     * y[yOffset + j] += alpha * x[xOffset + j] для чисел одинарной точности.
+     */
+    public static void axpy(float alpha, float[] x, int xOffset, float[] y, int yOffset, int length) {
+        if (VECTOR) {
+            VectorKernels.axpy(alpha, x, xOffset, y, yOffset, length);
+        } else {
+            ScalarKernels.axpy(alpha, x, xOffset, y, yOffset, length);
+        }
+    }
+
+    /**
+     * Обновление ранга k одной строки для чисел одинарной точности;
+     * см. {@link #rankUpdate(double[], int, int, double[], int, int, double[], int, int)}.
+     * В векторном регистре помещается вдвое больше float, чем double.
+     */
+    public static void rankUpdate(float[] c, int cOffset, int length,
+                                  float[] l, int lOffset, int k,
+                                  float[] u, int uOffset, int uStride) {
+        if (VECTOR) {
+            VectorKernels.rankUpdate(c, cOffset, length, l, lOffset, k, u, uOffset, uStride);
+        } else {
+            ScalarKernels.rankUpdate(c, cOffset, length, l, lOffset, k, u, uOffset, uStride);
+        }
+    }
+
+    /**
+     * @return число систем, которые обрабатывает одна векторная инструкция в пакетных
+     *         операциях (1 для скалярной реализации).
+     */
+    public static int lanes() {
+        return VECTOR ? VectorKernels.lanes() : 1;
+    }
+
+    /**
+     * Решает {@code lanes} независимых систем n×n методом Гаусса с выбором ведущего элемента
+     * в каждой системе. Системы хранятся «по полосам»: элемент (i, j) системы t лежит
+     * в {@code a[(i * n + j) * lanes + t]}, компонента i правой части — в {@code b[i * lanes + t]}.
+     * Одна векторная инструкция выполняет один и тот же шаг исключения сразу в нескольких системах.
+     *
+     * @param a матрицы (портятся).
+     * @param b правые части; на выходе — решения, NaN у вырожденных систем.
+     */
+    public static void batchLuSolve(double[] a, double[] b, int n, int lanes) {
+        if (VECTOR) {
+            VectorBatchKernels.luSolve(a, b, n, lanes);
+        } else {
+            ScalarBatchKernels.luSolve(a, b, n, lanes, 0, lanes);
+        }
+    }
+
+    /**
+     * Решает {@code lanes} независимых систем разложением Холецкого; раскладка как
+     * в {@link #batchLuSolve(double[], double[], int, int)}. Используется нижний треугольник.
+     *
+     * @param a матрицы (портятся).
+     * @param b правые части; на выходе — решения, NaN у не положительно определённых систем.
+     */
+    public static void batchCholeskySolve(double[] a, double[] b, int n, int lanes) {
+        if (VECTOR) {
+            VectorBatchKernels.choleskySolve(a, b, n, lanes);
+        } else {
+            ScalarBatchKernels.choleskySolve(a, b, n, lanes, 0, lanes);
+        }
+    }
+
+    /**
+     * Выполняет {@code sweeps} итераций Гаусса — Зейделя в {@code lanes} независимых системах;
+     * раскладка как в {@link #batchLuSolve(double[], double[], int, int)}.
+     *
+     * @param a матрицы (диагональ заменяется обратными значениями).
+     * @param x начальные приближения; на выходе — приближения после последней итерации.
+     */
+    public static void batchGaussSeidel(double[] a, double[] b, double[] x, int n, int lanes, int sweeps) {
+        if (VECTOR) {
+            VectorBatchKernels.gaussSeidel(a, b, x, n, lanes, sweeps);
+        } else {
+            ScalarBatchKernels.gaussSeidel(a, b, x, n, lanes, sweeps, 0, lanes);
+        }
+    }
+}
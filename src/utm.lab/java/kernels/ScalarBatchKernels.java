@@ -0,0 +1,193 @@
+package kernels;
+
+/**
+ * Скалярная реализация операций над наборами маленьких систем ({@link Kernels#batchLuSolve}
+ * и соседние) для систем с номерами {@code [from, to)}.
+ * <p>
+ * Внутренний цикл каждого шага идёт по системам, то есть по соседним ячейкам памяти,
+ * поэтому JIT может векторизовать его и без Vector API. Только выбор ведущего элемента
+ * в LU выполняется для каждой системы отдельно.
+ */
+final class ScalarBatchKernels {
+
+    private ScalarBatchKernels() {
+    }
+
+    static void luSolve(double[] a, double[] b, int n, int lanes, int from, int to) {
+        boolean[] failed = null;
+        for (int k = 0; k < n; k++) {
+            int kk = (k * n + k) * lanes;
+            for (int t = from; t < to; t++) {
+                int max = k;
+                double maxAbs = Math.abs(a[kk + t]);
+                for (int i = k + 1; i < n; i++) {
+                    double v = Math.abs(a[(i * n + k) * lanes + t]);
+                    if (v > maxAbs) {
+                        maxAbs = v;
+                        max = i;
+                    }
+                }
+                if (!(maxAbs > 0)) {
+                    if (failed == null) {
+                        failed = new boolean[lanes];
+                    }
+                    failed[t] = true;
+                } else if (max != k) {
+                    for (int j = k; j < n; j++) {
+                        swap(a, (k * n + j) * lanes + t, (max * n + j) * lanes + t);
+                    }
+                    swap(b, k * lanes + t, max * lanes + t);
+                }
+            }
+            for (int i = k + 1; i < n; i++) {
+                int ik = (i * n + k) * lanes;
+                for (int t = from; t < to; t++) {
+                    a[ik + t] /= a[kk + t];
+                }
+                for (int j = k + 1; j < n; j++) {
+                    int ij = (i * n + j) * lanes;
+                    int kj = (k * n + j) * lanes;
+                    for (int t = from; t < to; t++) {
+                        a[ij + t] -= a[ik + t] * a[kj + t];
+                    }
+                }
+                for (int t = from; t < to; t++) {
+                    b[i * lanes + t] -= a[ik + t] * b[k * lanes + t];
+                }
+            }
+        }
+        backward(a, b, n, lanes, from, to);
+        if (failed != null) {
+            for (int t = from; t < to; t++) {
+                if (failed[t]) {
+                    fillNaN(b, n, lanes, t);
+                }
+            }
+        }
+    }
+
+    static void choleskySolve(double[] a, double[] b, int n, int lanes, int from, int to) {
+        boolean[] failed = null;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j <= i; j++) {
+                int ij = (i * n + j) * lanes;
+                for (int k = 0; k < j; k++) {
+                    int ik = (i * n + k) * lanes;
+                    int jk = (j * n + k) * lanes;
+                    for (int t = from; t < to; t++) {
+                        a[ij + t] -= a[ik + t] * a[jk + t];
+                    }
+                }
+                if (i == j) {
+                    for (int t = from; t < to; t++) {
+                        double d = a[ij + t];
+                        if (!(d > 0)) {
+                            if (failed == null) {
+                                failed = new boolean[lanes];
+                            }
+                            failed[t] = true;
+                        }
+                        a[ij + t] = Math.sqrt(d);
+                    }
+                } else {
+                    int jj = (j * n + j) * lanes;
+                    for (int t = from; t < to; t++) {
+                        a[ij + t] /= a[jj + t];
+                    }
+                }
+            }
+        }
+        // Hy = b
+        for (int i = 0; i < n; i++) {
+            for (int k = 0; k < i; k++) {
+                int ik = (i * n + k) * lanes;
+                for (int t = from; t < to; t++) {
+                    b[i * lanes + t] -= a[ik + t] * b[k * lanes + t];
+                }
+            }
+            int ii = (i * n + i) * lanes;
+            for (int t = from; t < to; t++) {
+                b[i * lanes + t] /= a[ii + t];
+            }
+        }
+        // H^T x = y
+        for (int i = n - 1; i >= 0; i--) {
+            for (int k = i + 1; k < n; k++) {
+                int ki = (k * n + i) * lanes;
+                for (int t = from; t < to; t++) {
+                    b[i * lanes + t] -= a[ki + t] * b[k * lanes + t];
+                }
+            }
+            int ii = (i * n + i) * lanes;
+            for (int t = from; t < to; t++) {
+                b[i * lanes + t] /= a[ii + t];
+            }
+        }
+        if (failed != null) {
+            for (int t = from; t < to; t++) {
+                if (failed[t]) {
+                    fillNaN(b, n, lanes, t);
+                }
+            }
+        }
+    }
+
+    static void gaussSeidel(double[] a, double[] b, double[] x, int n, int lanes, int sweeps, int from, int to) {
+        // диагональ заменяется обратными значениями: деление один раз, а не на каждой итерации
+        for (int i = 0; i < n; i++) {
+            int ii = (i * n + i) * lanes;
+            for (int t = from; t < to; t++) {
+                a[ii + t] = 1.0 / a[ii + t];
+            }
+        }
+        for (int sweep = 0; sweep < sweeps; sweep++) {
+            for (int i = 0; i < n; i++) {
+                // x_i не входит в сумму, поэтому она накапливается прямо на его месте
+                int xi = i * lanes;
+                System.arraycopy(b, xi + from, x, xi + from, to - from);
+                for (int j = 0; j < n; j++) {
+                    if (j != i) {
+                        int ij = (i * n + j) * lanes;
+                        for (int t = from; t < to; t++) {
+                            x[xi + t] -= a[ij + t] * x[j * lanes + t];
+                        }
+                    }
+                }
+                int ii = (i * n + i) * lanes;
+                for (int t = from; t < to; t++) {
+                    x[xi + t] *= a[ii + t];
+                }
+            }
+        }
+    }
+
+    /**
+     * Обратный ход Ux = y для верхнего треугольника a.
+     */
+    private static void backward(double[] a, double[] b, int n, int lanes, int from, int to) {
+        for (int i = n - 1; i >= 0; i--) {
+            for (int j = i + 1; j < n; j++) {
+                int ij = (i * n + j) * lanes;
+                for (int t = from; t < to; t++) {
+                    b[i * lanes + t] -= a[ij + t] * b[j * lanes + t];
+                }
+            }
+            int ii = (i * n + i) * lanes;
+            for (int t = from; t < to; t++) {
+                b[i * lanes + t] /= a[ii + t];
+            }
+        }
+    }
+
+    private static void swap(double[] v, int i, int j) {
+        double temp = v[i];
+        v[i] = v[j];
+        v[j] = temp;
+    }
+
+    private static void fillNaN(double[] b, int n, int lanes, int t) {
+        for (int i = 0; i < n; i++) {
+            b[i * lanes + t] = Double.NaN;
+        }
+    }
+}
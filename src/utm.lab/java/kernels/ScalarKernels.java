@@ -0,0 +1,81 @@
+package kernels;
+
+/**
+ * Скалярная реализация операций {@link Kernels}.
+ */
+final class ScalarKernels {
+
+    private ScalarKernels() {
+    }
+
+    static double dot(double[] x, int xOffset, double[] y, int yOffset, int length) {
+        // четыре независимых суммы позволяют процессору не ждать результата предыдущего сложения
+        double s0 = 0;
+        double s1 = 0;
+        double s2 = 0;
+        double s3 = 0;
+        int j = 0;
+        for (; j <= length - 4; j += 4) {
+            s0 += x[xOffset + j] * y[yOffset + j];
+            s1 += x[xOffset + j + 1] * y[yOffset + j + 1];
+            s2 += x[xOffset + j + 2] * y[yOffset + j + 2];
+            s3 += x[xOffset + j + 3] * y[yOffset + j + 3];
+        }
+        for (; j < length; j++) {
+            s0 += x[xOffset + j] * y[yOffset + j];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    static void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length) {
+        for (int j = 0; j < length; j++) {
+            y[yOffset + j] += alpha * x[xOffset + j];
+        }
+    }
+
+    static void rankUpdate(double[] c, int cOffset, int length,
+                           double[] l, int lOffset, int k,
+                           double[] u, int uOffset, int uStride) {
+        for (int p = 0; p < k; p++) {
+            double factor = l[lOffset + p];
+            if (factor != 0.0) {
+                axpy(-factor, u, uOffset + p * uStride, c, cOffset, length);
+            }
+        }
+    }
+
+    static float dot(float[] x, int xOffset, float[] y, int yOffset, int length) {
+        float s0 = 0;
+        float s1 = 0;
+        float s2 = 0;
+        float s3 = 0;
+        int j = 0;
+        for (; j <= length - 4; j += 4) {
+            s0 += x[xOffset + j] * y[yOffset + j];
+            s1 += x[xOffset + j + 1] * y[yOffset + j + 1];
+            s2 += x[xOffset + j + 2] * y[yOffset + j + 2];
+            s3 += x[xOffset + j + 3] * y[yOffset + j + 3];
+        }
+        for (; j < length; j++) {
+            s0 += x[xOffset + j] * y[yOffset + j];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    static void axpy(float alpha, float[] x, int xOffset, float[] y, int yOffset, int length) {
+        for (int j = 0; j < length; j++) {
+            y[yOffset + j] += alpha * x[xOffset + j];
+        }
+    }
+
+    static void rankUpdate(float[] c, int cOffset, int length,
+                           float[] l, int lOffset, int k,
+                           float[] u, int uOffset, int uStride) {
+        for (int p = 0; p < k; p++) {
+            float factor = l[lOffset + p];
+            if (factor != 0.0f) {
+                axpy(-factor, u, uOffset + p * uStride, c, cOffset, length);
+            }
+        }
+    }
+}
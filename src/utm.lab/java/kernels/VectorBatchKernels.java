@@ -0,0 +1,152 @@
+package kernels;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Реализация операций над наборами маленьких систем на Vector API: каждая полоса вектора —
+ * отдельная система, поэтому все шаги исключения выполняются без горизонтальных сумм.
+ * Выбор ведущего элемента делается независимо в каждой полосе сравнением и смешиванием (blend).
+ * Системы за последним полным вектором обрабатывает {@link ScalarBatchKernels}.
+ * Класс загружается только тогда, когда модуль {@code jdk.incubator.vector} доступен.
+ */
+final class VectorBatchKernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private VectorBatchKernels() {
+    }
+
+    static void luSolve(double[] a, double[] b, int n, int lanes) {
+        int bound = SPECIES.loopBound(lanes);
+        for (int t = 0; t < bound; t += SPECIES.length()) {
+            DoubleVector minPivot = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+            for (int k = 0; k < n; k++) {
+                // ведущий элемент: номер строки с наибольшим |a_ik| в каждой полосе
+                DoubleVector best = load(a, (k * n + k) * lanes + t).abs();
+                DoubleVector row = DoubleVector.broadcast(SPECIES, k);
+                for (int i = k + 1; i < n; i++) {
+                    DoubleVector v = load(a, (i * n + k) * lanes + t).abs();
+                    VectorMask<Double> greater = v.compare(VectorOperators.GT, best);
+                    best = best.blend(v, greater);
+                    row = row.blend(i, greater);
+                }
+                minPivot = minPivot.min(best);
+                for (int i = k + 1; i < n; i++) {
+                    VectorMask<Double> swap = row.compare(VectorOperators.EQ, i);
+                    if (swap.anyTrue()) {
+                        for (int j = k; j < n; j++) {
+                            swap(a, (k * n + j) * lanes + t, (i * n + j) * lanes + t, swap);
+                        }
+                        swap(b, k * lanes + t, i * lanes + t, swap);
+                    }
+                }
+                DoubleVector inverse = DoubleVector.broadcast(SPECIES, 1.0).div(load(a, (k * n + k) * lanes + t));
+                DoubleVector bk = load(b, k * lanes + t);
+                for (int i = k + 1; i < n; i++) {
+                    DoubleVector factor = load(a, (i * n + k) * lanes + t).mul(inverse).neg();
+                    for (int j = k + 1; j < n; j++) {
+                        int ij = (i * n + j) * lanes + t;
+                        load(a, (k * n + j) * lanes + t).fma(factor, load(a, ij)).intoArray(a, ij);
+                    }
+                    bk.fma(factor, load(b, i * lanes + t)).intoArray(b, i * lanes + t);
+                }
+            }
+            for (int i = n - 1; i >= 0; i--) {
+                DoubleVector sum = load(b, i * lanes + t);
+                for (int j = i + 1; j < n; j++) {
+                    sum = load(a, (i * n + j) * lanes + t).neg().fma(load(b, j * lanes + t), sum);
+                }
+                sum.div(load(a, (i * n + i) * lanes + t)).intoArray(b, i * lanes + t);
+            }
+            markFailed(b, n, lanes, t, minPivot);
+        }
+        ScalarBatchKernels.luSolve(a, b, n, lanes, bound, lanes);
+    }
+
+    static void choleskySolve(double[] a, double[] b, int n, int lanes) {
+        int bound = SPECIES.loopBound(lanes);
+        for (int t = 0; t < bound; t += SPECIES.length()) {
+            DoubleVector minPivot = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j <= i; j++) {
+                    int ij = (i * n + j) * lanes + t;
+                    DoubleVector sum = load(a, ij);
+                    for (int k = 0; k < j; k++) {
+                        sum = load(a, (i * n + k) * lanes + t).neg().fma(load(a, (j * n + k) * lanes + t), sum);
+                    }
+                    if (i == j) {
+                        minPivot = minPivot.min(sum);
+                        sum.sqrt().intoArray(a, ij);
+                    } else {
+                        sum.div(load(a, (j * n + j) * lanes + t)).intoArray(a, ij);
+                    }
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                DoubleVector sum = load(b, i * lanes + t);
+                for (int k = 0; k < i; k++) {
+                    sum = load(a, (i * n + k) * lanes + t).neg().fma(load(b, k * lanes + t), sum);
+                }
+                sum.div(load(a, (i * n + i) * lanes + t)).intoArray(b, i * lanes + t);
+            }
+            for (int i = n - 1; i >= 0; i--) {
+                DoubleVector sum = load(b, i * lanes + t);
+                for (int k = i + 1; k < n; k++) {
+                    sum = load(a, (k * n + i) * lanes + t).neg().fma(load(b, k * lanes + t), sum);
+                }
+                sum.div(load(a, (i * n + i) * lanes + t)).intoArray(b, i * lanes + t);
+            }
+            markFailed(b, n, lanes, t, minPivot);
+        }
+        ScalarBatchKernels.choleskySolve(a, b, n, lanes, bound, lanes);
+    }
+
+    static void gaussSeidel(double[] a, double[] b, double[] x, int n, int lanes, int sweeps) {
+        int bound = SPECIES.loopBound(lanes);
+        for (int t = 0; t < bound; t += SPECIES.length()) {
+            // диагональ заменяется обратными значениями: деление один раз, а не на каждой итерации
+            for (int i = 0; i < n; i++) {
+                int ii = (i * n + i) * lanes + t;
+                DoubleVector.broadcast(SPECIES, 1.0).div(load(a, ii)).intoArray(a, ii);
+            }
+            for (int sweep = 0; sweep < sweeps; sweep++) {
+                for (int i = 0; i < n; i++) {
+                    DoubleVector sum = load(b, i * lanes + t);
+                    for (int j = 0; j < i; j++) {
+                        sum = load(a, (i * n + j) * lanes + t).neg().fma(load(x, j * lanes + t), sum);
+                    }
+                    for (int j = i + 1; j < n; j++) {
+                        sum = load(a, (i * n + j) * lanes + t).neg().fma(load(x, j * lanes + t), sum);
+                    }
+                    sum.mul(load(a, (i * n + i) * lanes + t)).intoArray(x, i * lanes + t);
+                }
+            }
+        }
+        ScalarBatchKernels.gaussSeidel(a, b, x, n, lanes, sweeps, bound, lanes);
+    }
+
+    private static DoubleVector load(double[] v, int offset) {
+        return DoubleVector.fromArray(SPECIES, v, offset);
+    }
+
+    private static void swap(double[] v, int i, int j, VectorMask<Double> mask) {
+        DoubleVector vi = load(v, i);
+        DoubleVector vj = load(v, j);
+        vi.blend(vj, mask).intoArray(v, i);
+        vj.blend(vi, mask).intoArray(v, j);
+    }
+
+    /**
+     * Заменяет решение на NaN в полосах, где ведущий элемент не положителен (или NaN).
+     */
+    private static void markFailed(double[] b, int n, int lanes, int t, DoubleVector minPivot) {
+        VectorMask<Double> failed = minPivot.compare(VectorOperators.GT, 0.0).not();
+        if (failed.anyTrue()) {
+            for (int i = 0; i < n; i++) {
+                load(b, i * lanes + t).blend(Double.NaN, failed).intoArray(b, i * lanes + t);
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package kernels;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Реализация операций {@link Kernels} на Vector API.
+ * Класс загружается только тогда, когда модуль {@code jdk.incubator.vector} доступен.
+ */
+final class VectorKernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+
+    private VectorKernels() {
+    }
+
+    static int lanes() {
+        return SPECIES.length();
+    }
+
+    static double dot(double[] x, int xOffset, double[] y, int yOffset, int length) {
+        DoubleVector acc0 = DoubleVector.zero(SPECIES);
+        DoubleVector acc1 = DoubleVector.zero(SPECIES);
+        int step = SPECIES.length();
+        int j = 0;
+        // два аккумулятора скрывают задержку fma
+        for (int bound = length - 2 * step; j <= bound; j += 2 * step) {
+            acc0 = DoubleVector.fromArray(SPECIES, x, xOffset + j)
+                    .fma(DoubleVector.fromArray(SPECIES, y, yOffset + j), acc0);
+            acc1 = DoubleVector.fromArray(SPECIES, x, xOffset + j + step)
+                    .fma(DoubleVector.fromArray(SPECIES, y, yOffset + j + step), acc1);
+        }
+        for (int bound = SPECIES.loopBound(length); j < bound; j += step) {
+            acc0 = DoubleVector.fromArray(SPECIES, x, xOffset + j)
+                    .fma(DoubleVector.fromArray(SPECIES, y, yOffset + j), acc0);
+        }
+        double sum = acc0.add(acc1).reduceLanes(VectorOperators.ADD);
+        for (; j < length; j++) {
+            sum += x[xOffset + j] * y[yOffset + j];
+        }
+        return sum;
+    }
+
+    static void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length) {
+        DoubleVector a = DoubleVector.broadcast(SPECIES, alpha);
+        int j = 0;
+        for (int bound = SPECIES.loopBound(length); j < bound; j += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, x, xOffset + j)
+                    .fma(a, DoubleVector.fromArray(SPECIES, y, yOffset + j))
+                    .intoArray(y, yOffset + j);
+        }
+        for (; j < length; j++) {
+            y[yOffset + j] += alpha * x[xOffset + j];
+        }
+    }
+
+    static void rankUpdate(double[] c, int cOffset, int length,
+                           double[] l, int lOffset, int k,
+                           double[] u, int uOffset, int uStride) {
+        int step = SPECIES.length();
+        int j = 0;
+        // вектор строки C загружается один раз и накапливает все k слагаемых
+        for (int bound = SPECIES.loopBound(length); j < bound; j += step) {
+            DoubleVector acc = DoubleVector.fromArray(SPECIES, c, cOffset + j);
+            for (int p = 0; p < k; p++) {
+                double factor = l[lOffset + p];
+                acc = DoubleVector.fromArray(SPECIES, u, uOffset + p * uStride + j)
+                        .fma(DoubleVector.broadcast(SPECIES, -factor), acc);
+            }
+            acc.intoArray(c, cOffset + j);
+        }
+        for (; j < length; j++) {
+            double sum = c[cOffset + j];
+            for (int p = 0; p < k; p++) {
+                sum -= l[lOffset + p] * u[uOffset + p * uStride + j];
+            }
+            c[cOffset + j] = sum;
+        }
+    }
+
+    static float dot(float[] x, int xOffset, float[] y, int yOffset, int length) {
+        FloatVector acc0 = FloatVector.zero(FLOATS);
+        FloatVector acc1 = FloatVector.zero(FLOATS);
+        int step = FLOATS.length();
+        int j = 0;
+        for (int bound = length - 2 * step; j <= bound; j += 2 * step) {
+            acc0 = FloatVector.fromArray(FLOATS, x, xOffset + j)
+                    .fma(FloatVector.fromArray(FLOATS, y, yOffset + j), acc0);
+            acc1 = FloatVector.fromArray(FLOATS, x, xOffset + j + step)
+                    .fma(FloatVector.fromArray(FLOATS, y, yOffset + j + step), acc1);
+        }
+        for (int bound = FLOATS.loopBound(length); j < bound; j += step) {
+            acc0 = FloatVector.fromArray(FLOATS, x, xOffset + j)
+                    .fma(FloatVector.fromArray(FLOATS, y, yOffset + j), acc0);
+        }
+        float sum = acc0.add(acc1).reduceLanes(VectorOperators.ADD);
+        for (; j < length; j++) {
+            sum += x[xOffset + j] * y[yOffset + j];
+        }
+        return sum;
+    }
+
+    static void axpy(float alpha, float[] x, int xOffset, float[] y, int yOffset, int length) {
+        FloatVector a = FloatVector.broadcast(FLOATS, alpha);
+        int j = 0;
+        for (int bound = FLOATS.loopBound(length); j < bound; j += FLOATS.length()) {
+            FloatVector.fromArray(FLOATS, x, xOffset + j)
+                    .fma(a, FloatVector.fromArray(FLOATS, y, yOffset + j))
+                    .intoArray(y, yOffset + j);
+        }
+        for (; j < length; j++) {
+            y[yOffset + j] += alpha * x[xOffset + j];
+        }
+    }
+
+    static void rankUpdate(float[] c, int cOffset, int length,
+                           float[] l, int lOffset, int k,
+                           float[] u, int uOffset, int uStride) {
+        int step = FLOATS.length();
+        int j = 0;
+        for (int bound = FLOATS.loopBound(length); j < bound; j += step) {
+            FloatVector acc = FloatVector.fromArray(FLOATS, c, cOffset + j);
+            for (int p = 0; p < k; p++) {
+                acc = FloatVector.fromArray(FLOATS, u, uOffset + p * uStride + j)
+                        .fma(FloatVector.broadcast(FLOATS, -l[lOffset + p]), acc);
+            }
+            acc.intoArray(c, cOffset + j);
+        }
+        for (; j < length; j++) {
+            float sum = c[cOffset + j];
+            for (int p = 0; p < k; p++) {
+                sum -= l[lOffset + p] * u[uOffset + p * uStride + j];
+            }
+            c[cOffset + j] = sum;
+        }
+    }
+}
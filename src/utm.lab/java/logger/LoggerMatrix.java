@@ -1,26 +1,52 @@
 package logger;
 
 import org.slf4j.Logger;
+import utils.DenseMatrix;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Arrays;
-import java.util.function.BiFunction;
+import java.util.Formatter;
 
 /***
  * Класс для логирования матриц и векторов с использованием SLF4J.
+ * <p>
+ * Если задано системное свойство {@value TraceSink#FILE_PROPERTY}, снимки матриц и векторов
+ * не форматируются, а копируются в двоичную трассу ({@link TraceSink}); текст из неё
+ * восстанавливает {@link TraceRenderer}.
  */
 public class LoggerMatrix {
 
     // Логгер для класса LoggerMatrix
     private static final Logger logger = LoggerFactoryUtil.getLogger(LoggerMatrix.class);
+    // Двоичная трасса или null, если снимки пишутся в лог текстом
+    private static final TraceSink sink = openConfiguredSink();
+
+    private static TraceSink openConfiguredSink() {
+        String file = System.getProperty(TraceSink.FILE_PROPERTY);
+        if (file == null || file.isBlank()) {
+            return null;
+        }
+        try {
+            TraceSink traceSink = TraceSink.open(Path.of(file));
+            // при выходе дописываем всё, что осталось в буфере
+            Runtime.getRuntime().addShutdownHook(new Thread(traceSink::close, "matrixsolver-trace-flush"));
+            logger.info("Снимки матриц записываются в двоичную трассу {}", file);
+            return traceSink;
+        } catch (IOException e) {
+            logger.warn("Не удалось открыть трассу {}, снимки пишутся в лог: {}", file, e.toString());
+            return null;
+        }
+    }
 
     /***
      * Логирует текущую матрицу с заданным именем.
      * @param matrix матрица для логирования
      * @param matrixName имя матрицы
      */
-    public static void logMatrix(double[][] matrix, String matrixName) {
+    public static void logMatrix(DenseMatrix matrix, String matrixName) {
         String matrixDescription = "Mатрица " + matrixName;
-        logMatrixCommon(matrix, matrixDescription, (i, j) -> matrix[i][j]);
+        logMatrixCommon(matrix, matrixDescription);
     }
 
     /***
@@ -28,29 +54,47 @@ public class LoggerMatrix {
      * @param matrix матрица для логирования
      * @param matrixName имя матрицы
      */
-    public static void logTransposedMatrix(double[][] matrix, String matrixName) {
+    public static void logTransposedMatrix(DenseMatrix matrix, String matrixName) {
         String matrixDescription = "Транспонированная матрица " + matrixName;
-        logMatrixCommon(matrix, matrixDescription, (i, j) -> matrix[j][i]);
+        // транспонируем один раз, чтобы дальше читать строки подряд, а не шагать по столбцам
+        logMatrixCommon(matrix.transpose(), matrixDescription);
     }
 
     /***
      * Общий метод для логирования матриц.
      * @param matrix матрица для логирования
      * @param description описание матрицы
-     * @param getElement функция для получения элемента матрицы
      */
-    private static void logMatrixCommon(double[][] matrix, String description, BiFunction<Integer, Integer, Double> getElement) {
+    private static void logMatrixCommon(DenseMatrix matrix, String description) {
+        if (sink != null) {
+            sink.matrix(matrix, description); // только копирование, форматирует поток записи
+            return;
+        }
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        logger.info(formatMatrix(matrix, description)); // Логирование матрицы
+    }
+
+    /***
+     * Форматирует матрицу так же, как она выводится в лог.
+     * @param matrix матрица
+     * @param description описание матрицы
+     * @return многострочный текст
+     */
+    static String formatMatrix(DenseMatrix matrix, String description) {
         StringBuilder sb = new StringBuilder();
         sb.append(description).append(":\n");
-
-        for (int i = 0; i < matrix[0].length; i++) { // Перебор строк
+        // один Formatter на всю матрицу вместо отдельной строки на каждый элемент
+        Formatter formatter = new Formatter(sb);
+        for (int i = 0; i < matrix.rows(); i++) { // Перебор строк
             sb.append("| ");
-            for (int j = 0; j < matrix.length; j++) { // Перебор столбцов
-                sb.append(String.format("%8.4f ", getElement.apply(i, j))); // Форматирование и добавление элемента
+            for (int j = 0; j < matrix.cols(); j++) { // Перебор столбцов
+                formatter.format("%8.4f ", matrix.get(i, j)); // Форматирование и добавление элемента
             }
             sb.append("\n");
         }
-        logger.info(sb.toString()); // Логирование матрицы
+        return sb.toString();
     }
 
     /***
@@ -58,11 +102,27 @@ public class LoggerMatrix {
      * @param b вектор для логирования
      */
     public static void loggerVectorB(double[] b) {
-        logger.info("Текущий вектор b: | {} |\n",
-                String.join(" | ",
-                        Arrays.stream(b)
-                                .mapToObj(v -> String.format("%.4f", v)) // Форматирование значений вектора
-                                .toArray(String[]::new))); // Преобразование в массив строк
+        if (sink != null) {
+            sink.vector(b, "Текущий вектор b");
+            return;
+        }
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        logger.info(formatVector(b, "Текущий вектор b"));
+    }
+
+    /***
+     * Форматирует вектор так же, как он выводится в лог.
+     * @param v вектор
+     * @param description описание вектора
+     * @return строка вида "описание: | v1 | v2 |" с переводом строки в конце
+     */
+    static String formatVector(double[] v, String description) {
+        return description + ": | " + String.join(" | ",
+                Arrays.stream(v)
+                        .mapToObj(value -> String.format("%.4f", value)) // Форматирование значений вектора
+                        .toArray(String[]::new)) + " |\n";
     }
 
     /***
@@ -0,0 +1,40 @@
+package logger;
+
+import java.util.Locale;
+
+/**
+ * Режим трассировки итерационных методов.
+ * <ul>
+ *     <li>{@link #OFF} — без логирования внутри итераций;</li>
+ *     <li>{@link #SUMMARY} — одна строка на итерацию;</li>
+ *     <li>{@link #FULL} — пошаговый вывод каждого слагаемого (как на занятиях).</li>
+ * </ul>
+ * Режим выбирается при запуске через системное свойство {@value #PROPERTY},
+ * например {@code -Dmatrixsolver.trace=off}.
+ */
+public enum TraceMode {
+    OFF,
+    SUMMARY,
+    FULL;
+
+    /** Имя системного свойства для выбора режима. */
+    public static final String PROPERTY = "matrixsolver.trace";
+
+    /**
+     * Возвращает режим, заданный системным свойством, или {@link #FULL} по умолчанию.
+     * @return текущий режим трассировки
+     * @throws IllegalArgumentException если значение свойства не off, summary или full.
+     */
+    public static TraceMode current() {
+        String value = System.getProperty(PROPERTY);
+        if (value == null || value.isBlank()) {
+            return FULL;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Некорректное значение свойства " + PROPERTY + ": '" + value
+                    + "'. Допустимые значения: off, summary, full.", e);
+        }
+    }
+}
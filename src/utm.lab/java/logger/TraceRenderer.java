@@ -0,0 +1,120 @@
+package logger;
+
+import utils.DenseMatrix;
+
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Офлайн-преобразование двоичной трассы {@link TraceSink} в текст того же вида,
+ * что и вывод {@link LoggerMatrix} в лог.
+ * <p>
+ * Запуск: {@code java logger.TraceRenderer trace.bin [out.log]}; без второго аргумента
+ * текст выводится в стандартный поток.
+ */
+public final class TraceRenderer {
+
+    private TraceRenderer() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Использование: java logger.TraceRenderer <трасса> [выходной файл]");
+            System.exit(2);
+        }
+        Path trace = Path.of(args[0]);
+        if (args.length == 2) {
+            try (Writer out = Files.newBufferedWriter(Path.of(args[1]), StandardCharsets.UTF_8)) {
+                render(trace, out);
+            }
+        } else {
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            render(trace, out);
+            out.flush();
+        }
+    }
+
+    /**
+     * Читает трассу и пишет каждую запись в текстовом виде, по одному сообщению лога на запись.
+     *
+     * @param trace файл трассы.
+     * @param out   куда писать текст.
+     * @return число прочитанных записей.
+     * @throws IOException если файл не читается или не является трассой.
+     */
+    public static int render(Path trace, Appendable out) throws IOException {
+        try (FileChannel channel = FileChannel.open(trace, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+            header.limit(TraceSink.MAGIC.length());
+            if (!readFully(channel, header)
+                    || !TraceSink.MAGIC.equals(new String(header.array(), 0, header.limit(), StandardCharsets.US_ASCII))) {
+                throw new IOException("Файл не является трассой MatrixSolver: " + trace);
+            }
+            int records = 0;
+            ByteBuffer body = ByteBuffer.allocate(0);
+            while (true) {
+                header.clear();
+                if (!readFully(channel, header)) {
+                    return records; // конец файла на границе записи
+                }
+                long tag = header.getLong(0);
+                long shape = header.getLong(8);
+                int type = (int) (tag >>> 32);
+                int textLength = (int) tag;
+                int rows = (int) (shape >>> 32);
+                int cols = (int) shape;
+                int paddedText = (textLength + 7) & ~7;
+                long size = paddedText + (long) rows * cols * Double.BYTES;
+                if (type != TraceSink.MATRIX && type != TraceSink.VECTOR || textLength < 0 || rows < 0 || cols < 0
+                        || size > Integer.MAX_VALUE) {
+                    throw new IOException("Повреждённая запись №" + (records + 1) + " в трассе " + trace);
+                }
+                if (body.capacity() < size) {
+                    body = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+                }
+                body.clear().limit((int) size);
+                if (!readFully(channel, body)) {
+                    throw new EOFException("Трасса обрывается на записи №" + (records + 1));
+                }
+                String description = new String(body.array(), 0, textLength, StandardCharsets.UTF_8);
+                double[] values = new double[rows * cols];
+                body.position(paddedText);
+                body.asDoubleBuffer().get(values);
+
+                String message = type == TraceSink.MATRIX
+                        ? LoggerMatrix.formatMatrix(DenseMatrix.wrap(rows, cols, values), description)
+                        : LoggerMatrix.formatVector(values, description);
+                out.append(message).append('\n'); // шаблон лога "%msg%n"
+                records++;
+            }
+        }
+    }
+
+    /**
+     * @return false, если файл закончился до первого байта; при обрыве посередине — исключение.
+     */
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        boolean started = false;
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                if (!started && buffer.position() == 0) {
+                    return false;
+                }
+                throw new EOFException("Трасса обрывается посередине записи");
+            }
+            started = true;
+        }
+        buffer.flip();
+        return true;
+    }
+}
@@ -0,0 +1,250 @@
+package logger;
+
+import utils.DenseMatrix;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Асинхронная запись снимков матриц и векторов в компактный двоичный файл трассы.
+ * <p>
+ * Поток решателя только копирует числа в заранее выделенный кольцевой буфер и сразу
+ * возвращается: форматирование и ввод-вывод выполняет фоновый поток записи. Если буфер
+ * заполнен, снимок отбрасывается и учитывается в {@link #droppedRecords()} — решатель
+ * никогда не ждёт диска. Текстовый вид трассы восстанавливает {@link TraceRenderer}.
+ * <p>
+ * Формат файла: 8 байт {@value #MAGIC}, затем записи. Все числа little-endian,
+ * каждое поле выровнено на 8 байт:
+ * <pre>
+ * long  тип записи (старшие 32 бита) | длина описания в байтах (младшие 32 бита)
+ * long  число строк (старшие 32 бита) | число столбцов (младшие 32 бита)
+ * byte[] описание в UTF-8, дополненное нулями до кратного 8
+ * double[rows * cols] элементы построчно
+ * </pre>
+ */
+public final class TraceSink implements AutoCloseable {
+    /** Сигнатура в начале файла трассы. */
+    static final String MAGIC = "MSTRACE1";
+    /** Запись-матрица. */
+    static final int MATRIX = 1;
+    /** Запись-вектор (одна строка). */
+    static final int VECTOR = 2;
+
+    /** Системное свойство: путь к файлу трассы для {@link LoggerMatrix}. */
+    public static final String FILE_PROPERTY = "matrixsolver.trace.file";
+    /** Размер кольцевого буфера по умолчанию — 16 МБ. */
+    public static final int DEFAULT_CAPACITY = 1 << 24;
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle DOUBLES = MethodHandles.byteArrayViewVarHandle(double[].class, ByteOrder.LITTLE_ENDIAN);
+    /** Пауза писателя, когда буфер пуст. */
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final byte[] ring;
+    private final int mask;
+    private final FileChannel channel;
+    private final Thread writer;
+    private final Object producerLock = new Object();
+    private volatile long head;    // позиция записи (только под producerLock)
+    private volatile long tail;    // позиция чтения (только поток записи)
+    private volatile boolean closed;
+    private volatile IOException failure;
+    private long dropped;
+
+    private TraceSink(Path file, int capacity) throws IOException {
+        if (Integer.bitCount(capacity) != 1 || capacity < 64) {
+            throw new IllegalArgumentException("Размер буфера должен быть степенью двойки не меньше 64: " + capacity);
+        }
+        this.ring = new byte[capacity];
+        this.mask = capacity - 1;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        channel.write(ByteBuffer.wrap(MAGIC.getBytes(StandardCharsets.US_ASCII)));
+        this.writer = new Thread(this::drainLoop, "matrixsolver-trace-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Открывает файл трассы с буфером {@link #DEFAULT_CAPACITY}.
+     *
+     * @param file путь к файлу (перезаписывается).
+     * @return запущенный приёмник.
+     * @throws IOException если файл не удалось открыть.
+     */
+    public static TraceSink open(Path file) throws IOException {
+        return open(file, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Открывает файл трассы.
+     *
+     * @param file     путь к файлу (перезаписывается).
+     * @param capacity размер кольцевого буфера в байтах, степень двойки.
+     * @return запущенный приёмник.
+     * @throws IOException если файл не удалось открыть.
+     */
+    public static TraceSink open(Path file, int capacity) throws IOException {
+        return new TraceSink(file, capacity);
+    }
+
+    /**
+     * Копирует матрицу в буфер.
+     *
+     * @param matrix      матрица.
+     * @param description подпись, как в текстовом логе.
+     * @return false, если буфер заполнен (или приёмник закрыт) и снимок отброшен.
+     */
+    public boolean matrix(DenseMatrix matrix, String description) {
+        int rows = matrix.rows();
+        int cols = matrix.cols();
+        byte[] text = description.getBytes(StandardCharsets.UTF_8);
+        synchronized (producerLock) {
+            long position = reserve(MATRIX, text, rows, cols);
+            if (position < 0) {
+                return false;
+            }
+            if (matrix.isOffHeap()) {
+                for (int i = 0; i < rows; i++) {
+                    for (int j = 0; j < cols; j++) {
+                        DOUBLES.set(ring, (int) (position & mask), matrix.get(i, j));
+                        position += Double.BYTES;
+                    }
+                }
+            } else {
+                position = putDoubles(position, matrix.data(), rows * cols);
+            }
+            head = position;
+        }
+        return true;
+    }
+
+    /**
+     * Копирует вектор в буфер.
+     *
+     * @param vector      вектор.
+     * @param description подпись, как в текстовом логе.
+     * @return false, если буфер заполнен (или приёмник закрыт) и снимок отброшен.
+     */
+    public boolean vector(double[] vector, String description) {
+        byte[] text = description.getBytes(StandardCharsets.UTF_8);
+        synchronized (producerLock) {
+            long position = reserve(VECTOR, text, 1, vector.length);
+            if (position < 0) {
+                return false;
+            }
+            head = putDoubles(position, vector, vector.length);
+        }
+        return true;
+    }
+
+    /**
+     * Проверяет место и записывает заголовок. Вызывается под producerLock.
+     * После закрытия снимки отбрасываются так же, как при заполненном буфере.
+     * @return позиция начала элементов или -1, если места нет.
+     */
+    private long reserve(int type, byte[] text, int rows, int cols) {
+        int paddedText = (text.length + 7) & ~7;
+        long size = 2L * Long.BYTES + paddedText + (long) rows * cols * Double.BYTES;
+        if (closed || size > ring.length - (head - tail)) {
+            dropped++;
+            return -1;
+        }
+        long position = head;
+        LONGS.set(ring, (int) (position & mask), ((long) type << 32) | text.length);
+        LONGS.set(ring, (int) ((position + 8) & mask), ((long) rows << 32) | (cols & 0xFFFFFFFFL));
+        position += 2 * Long.BYTES;
+        for (int i = 0; i < paddedText; i++) {
+            ring[(int) ((position + i) & mask)] = i < text.length ? text[i] : 0;
+        }
+        return position + paddedText;
+    }
+
+    private long putDoubles(long position, double[] values, int count) {
+        // все поля выровнены на 8 байт, а размер буфера кратен 8, поэтому double не пересекает конец кольца
+        for (int k = 0; k < count; k++) {
+            DOUBLES.set(ring, (int) (position & mask), values[k]);
+            position += Double.BYTES;
+        }
+        return position;
+    }
+
+    /**
+     * Цикл потока записи: переносит содержимое [tail, head) в файл.
+     */
+    private void drainLoop() {
+        try {
+            while (true) {
+                long end = head;
+                long start = tail;
+                if (start == end) {
+                    // closed читается после head: между ними производитель мог опубликовать
+                    // последний снимок, поэтому выходить можно, только если head не сдвинулся
+                    if (closed) {
+                        if (head == end) {
+                            return;
+                        }
+                        continue;
+                    }
+                    LockSupport.parkNanos(this, IDLE_NANOS);
+                    continue;
+                }
+                int from = (int) (start & mask);
+                int length = (int) Math.min(end - start, ring.length - from); // до конца кольца
+                ByteBuffer chunk = ByteBuffer.wrap(ring, from, length);
+                while (chunk.hasRemaining()) {
+                    channel.write(chunk);
+                }
+                tail = start + length;
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * @return число снимков, отброшенных из-за заполненного буфера.
+     */
+    public long droppedRecords() {
+        synchronized (producerLock) {
+            return dropped;
+        }
+    }
+
+    /**
+     * Дожидается записи всех снимков и закрывает файл.
+     *
+     * @throws UncheckedIOException если поток записи завершился с ошибкой.
+     */
+    @Override
+    public void close() {
+        synchronized (producerLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Не удалось записать трассу", failure);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package methods;
+
+import kernels.Kernels;
+
+/**
+ * Ускорение Андерсона для неподвижной точки x = g(x), где g — одна итерация метода
+ * (Якоби или Гаусса — Зейделя).
+ * <p>
+ * Хранит последние m разностей невязок f = g(x) - x и значений g и строит следующее
+ * приближение как g(x_k) - ΔG·γ, где γ минимизирует ||f_k - ΔF·γ||₂. При m = 1 это
+ * векторный аналог экстраполяции Эйткена Δ² (метод секущих). Малая задача наименьших
+ * квадратов m×m решается через нормальные уравнения; если они плохо обусловлены
+ * (разности почти линейно зависимы), история сбрасывается и делается обычный шаг.
+ */
+final class AndersonMixing {
+    /** Регуляризация нормальных уравнений относительно их наибольшего диагонального элемента. */
+    private static final double REGULARIZATION = 1e-12;
+    /** Ведущий элемент меньше этой доли диагонали считается нулём. */
+    private static final double PIVOT_TOLERANCE = 1e-14;
+
+    private final int n;
+    private final int depth;
+    private final double[][] differencesF;
+    private final double[][] differencesG;
+    private final double[] previousF;
+    private final double[] previousG;
+    private final double[] f;
+    private final double[] gram;
+    private final double[] gamma;
+    private int stored;
+    private int head;
+    private boolean started;
+
+    /**
+     * @param n     размерность.
+     * @param depth число запоминаемых шагов m ≥ 1.
+     */
+    AndersonMixing(int n, int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Глубина ускорения Андерсона должна быть положительной: " + depth);
+        }
+        this.n = n;
+        this.depth = depth;
+        this.differencesF = new double[depth][n];
+        this.differencesG = new double[depth][n];
+        this.previousF = new double[n];
+        this.previousG = new double[n];
+        this.f = new double[n];
+        this.gram = new double[depth * depth];
+        this.gamma = new double[depth];
+    }
+
+    /**
+     * Вычисляет следующее приближение.
+     *
+     * @param x      текущее приближение x_k.
+     * @param g      результат итерации g(x_k).
+     * @param target массив для x_{k+1} (может совпадать с g).
+     */
+    void next(double[] x, double[] g, double[] target) {
+        for (int i = 0; i < n; i++) {
+            f[i] = g[i] - x[i];
+        }
+        if (started) {
+            double[] dF = differencesF[head];
+            double[] dG = differencesG[head];
+            for (int i = 0; i < n; i++) {
+                dF[i] = f[i] - previousF[i];
+                dG[i] = g[i] - previousG[i];
+            }
+            head = (head + 1) % depth;
+            stored = Math.min(stored + 1, depth);
+        }
+        System.arraycopy(f, 0, previousF, 0, n);
+        System.arraycopy(g, 0, previousG, 0, n);
+        started = true;
+        if (target != g) {
+            System.arraycopy(g, 0, target, 0, n);
+        }
+        if (stored == 0 || !solveLeastSquares()) {
+            return;
+        }
+        for (int j = 0; j < stored; j++) {
+            Kernels.axpy(-gamma[j], differencesG[j], 0, target, 0, n);
+        }
+    }
+
+    /**
+     * Решает (ΔFᵀΔF + λI)γ = ΔFᵀf разложением Холецкого.
+     *
+     * @return false, если система плохо обусловлена и история сброшена.
+     */
+    private boolean solveLeastSquares() {
+        int m = stored;
+        double maxDiagonal = 0;
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j <= i; j++) {
+                gram[i * m + j] = Kernels.dot(differencesF[i], 0, differencesF[j], 0, n);
+            }
+            gamma[i] = Kernels.dot(differencesF[i], 0, f, 0, n);
+            maxDiagonal = Math.max(maxDiagonal, gram[i * m + i]);
+        }
+        if (maxDiagonal == 0) {
+            reset();
+            return false;
+        }
+        // нижний треугольник gram заменяется множителем Холецкого
+        for (int j = 0; j < m; j++) {
+            double d = gram[j * m + j] + REGULARIZATION * maxDiagonal;
+            for (int k = 0; k < j; k++) {
+                d -= gram[j * m + k] * gram[j * m + k];
+            }
+            if (!(d > PIVOT_TOLERANCE * maxDiagonal)) {
+                reset();
+                return false;
+            }
+            d = Math.sqrt(d);
+            gram[j * m + j] = d;
+            for (int i = j + 1; i < m; i++) {
+                double sum = gram[i * m + j];
+                for (int k = 0; k < j; k++) {
+                    sum -= gram[i * m + k] * gram[j * m + k];
+                }
+                gram[i * m + j] = sum / d;
+            }
+        }
+        for (int i = 0; i < m; i++) {
+            double sum = gamma[i];
+            for (int k = 0; k < i; k++) {
+                sum -= gram[i * m + k] * gamma[k];
+            }
+            gamma[i] = sum / gram[i * m + i];
+        }
+        for (int i = m - 1; i >= 0; i--) {
+            double sum = gamma[i];
+            for (int k = i + 1; k < m; k++) {
+                sum -= gram[k * m + i] * gamma[k];
+            }
+            gamma[i] = sum / gram[i * m + i];
+        }
+        return true;
+    }
+
+    /**
+     * Забывает накопленные разности; следующий шаг будет обычной итерацией метода.
+     */
+    void reset() {
+        stored = 0;
+        head = 0;
+    }
+}
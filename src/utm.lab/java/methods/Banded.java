@@ -0,0 +1,276 @@
+package methods;
+
+import logger.LoggerFactoryUtil;
+import org.slf4j.Logger;
+import utils.BandMatrix;
+import utils.DenseMatrix;
+import utils.MatrixStructure;
+import utils.SparseMatrix;
+
+/**
+ * Прямые методы для ленточных матриц (одномерные и двумерные сеточные задачи).
+ * <p>
+ * Ширина ленты определяется по ненулевым элементам, после чего выбирается метод:
+ * <ul>
+ *     <li>трёхдиагональная матрица с диагональным преобладанием или с доказанной по кругам
+ *     Гершгорина положительной определённостью — метод прогонки (алгоритм Томаса), 8n операций
+ *     без выбора ведущего элемента;</li>
+ *     <li>симметричная лента с положительной диагональю — ленточный Холецкий, n·p² операций.
+ *     Он же проверяет положительную определённость трёхдиагональных матриц, для которых
+ *     прогонка без выбора ведущего элемента может терять точность;</li>
+ *     <li>иначе, а также если Холецкий или прогонка не сработали, — ленточное LU
+ *     с частичным выбором ведущего элемента, 2n·lower·(lower + upper) операций.</li>
+ * </ul>
+ * Памяти нужно O(n·ширина ленты) вместо O(n²) у {@link Gauss} и {@link Cholesky}.
+ */
+public final class Banded {
+    private static final Logger logger = LoggerFactoryUtil.getLogger(Banded.class);
+
+    private Banded() {
+    }
+
+    /**
+     * Выполняет LU-разложение ленточной матрицы с частичным выбором ведущего элемента.
+     *
+     * @param A ленточная матрица (не изменяется).
+     * @return разложение PA = LU.
+     * @throws ArithmeticException если матрица вырождена.
+     */
+    public static BandedLUFactorization factor(BandMatrix A) {
+        return BandedLUFactorization.factor(A);
+    }
+
+    /**
+     * Выполняет разложение Холецкого симметричной ленточной матрицы.
+     *
+     * @param A симметричная положительно определённая ленточная матрица (не изменяется).
+     * @return разложение A = H * H^T.
+     * @throws ArithmeticException если матрица не положительно определённая.
+     */
+    public static BandedCholeskyFactorization factorCholesky(BandMatrix A) {
+        return BandedCholeskyFactorization.factor(A);
+    }
+
+    /**
+     * Решает трёхдиагональную систему методом прогонки (алгоритм Томаса).
+     * Выбора ведущего элемента нет, поэтому метод устойчив для матриц с диагональным
+     * преобладанием и симметричных положительно определённых.
+     *
+     * @param sub   поддиагональ a_{i+1,i}, длина n - 1 (не изменяется).
+     * @param diag  диагональ, длина n (не изменяется).
+     * @param sup   наддиагональ a_{i,i+1}, длина n - 1 (не изменяется).
+     * @param b     вектор свободных членов (не изменяется).
+     * @return решение x.
+     * @throws ArithmeticException если на прогонке получен нулевой ведущий элемент.
+     */
+    public static double[] thomas(double[] sub, double[] diag, double[] sup, double[] b) {
+        int n = diag.length;
+        if (b.length != n || n > 0 && (sub.length != n - 1 || sup.length != n - 1)) {
+            throw new IllegalArgumentException("Длины диагоналей " + sub.length + ", " + n + ", " + sup.length
+                    + " и вектора " + b.length + " не согласованы");
+        }
+        double[] c = new double[n];
+        double[] x = new double[n];
+        double previousC = 0;
+        double previousX = 0;
+        for (int i = 0; i < n; i++) {
+            double a = i == 0 ? 0 : sub[i - 1];
+            double beta = diag[i] - a * previousC;
+            checkPivot(beta, i);
+            previousC = i == n - 1 ? 0 : sup[i] / beta;
+            previousX = (b[i] - a * previousX) / beta;
+            c[i] = previousC;
+            x[i] = previousX;
+        }
+        for (int i = n - 2; i >= 0; i--) {
+            x[i] -= c[i] * x[i + 1];
+        }
+        return x;
+    }
+
+    /**
+     * Решает трёхдиагональную (или двухдиагональную) систему методом прогонки, читая
+     * диагонали прямо из ленты.
+     *
+     * @param A матрица с lower ≤ 1 и upper ≤ 1 (не изменяется).
+     * @param b вектор свободных членов (не изменяется).
+     * @return решение x.
+     * @throws ArithmeticException если на прогонке получен нулевой ведущий элемент.
+     */
+    public static double[] thomas(BandMatrix A, double[] b) {
+        if (A.lower() > 1 || A.upper() > 1) {
+            throw new IllegalArgumentException("Матрица не трёхдиагональная: " + A);
+        }
+        int n = A.rows();
+        checkLength(n, b);
+        double[] a = A.data();
+        boolean hasSub = A.lower() == 1;
+        boolean hasSup = A.upper() == 1;
+        double[] c = new double[n];
+        double[] x = new double[n];
+        double previousC = 0;
+        double previousX = 0;
+        for (int i = 0; i < n; i++) {
+            int row = A.index(i, i);
+            double sub = i == 0 || !hasSub ? 0 : a[row - 1];
+            double beta = a[row] - sub * previousC;
+            checkPivot(beta, i);
+            previousC = i == n - 1 || !hasSup ? 0 : a[row + 1] / beta;
+            previousX = (b[i] - sub * previousX) / beta;
+            c[i] = previousC;
+            x[i] = previousX;
+        }
+        for (int i = n - 2; i >= 0; i--) {
+            x[i] -= c[i] * x[i + 1];
+        }
+        return x;
+    }
+
+    private static void checkPivot(double beta, int i) {
+        if (beta == 0.0 || !Double.isFinite(beta)) {
+            throw new ArithmeticException("Нулевой ведущий элемент в строке " + (i + 1)
+                    + ". Метод прогонки неприменим.");
+        }
+    }
+
+    /**
+     * Решает систему Ax = b ленточным методом, определив ширину ленты.
+     *
+     * @param A ленточная матрица (не изменяется).
+     * @param b вектор свободных членов (не изменяется).
+     * @return решение x.
+     * @throws ArithmeticException если матрица вырождена.
+     */
+    public static double[] solve(BandMatrix A, double[] b) {
+        checkLength(A.rows(), b);
+        return solve(A, b, symmetricWithPositiveDiagonal(A), diagonallyDominant(A));
+    }
+
+    /**
+     * Решает систему с плотной матрицей, копируя только её ленту.
+     *
+     * @param A квадратная матрица (не изменяется).
+     * @param b вектор свободных членов (не изменяется).
+     * @return решение x.
+     * @throws ArithmeticException если матрица вырождена.
+     */
+    public static double[] solve(DenseMatrix A, double[] b) {
+        return solve(BandMatrix.fromDense(A), b);
+    }
+
+    /**
+     * Решает систему с матрицей в массиве массивов без плотной копии.
+     *
+     * @param A квадратная матрица (не изменяется).
+     * @param b вектор свободных членов (не изменяется).
+     * @return решение x.
+     * @throws ArithmeticException если матрица вырождена.
+     */
+    public static double[] solve(double[][] A, double[] b) {
+        return solve(BandMatrix.of(A), b);
+    }
+
+    /**
+     * Решает систему с разреженной матрицей (например, прочитанной из файла).
+     *
+     * @param A квадратная матрица (не изменяется).
+     * @param b вектор свободных членов (не изменяется).
+     * @return решение x.
+     * @throws ArithmeticException если матрица вырождена.
+     */
+    public static double[] solve(SparseMatrix A, double[] b) {
+        return solve(BandMatrix.fromSparse(A), b);
+    }
+
+    /**
+     * Решает систему, когда свойства матрицы уже известны (из {@link SolverDispatcher}).
+     */
+    static double[] solve(DenseMatrix A, double[] b, MatrixStructure structure) {
+        BandMatrix band = BandMatrix.fromDense(A, structure.lowerBandwidth(), structure.upperBandwidth());
+        return solve(band, b, structure.possiblyPositiveDefinite(), structure.weaklyDominant()
+                || structure.strictlyDominant() || structure.provablyPositiveDefinite());
+    }
+
+    /**
+     * @param symmetric симметрична с положительной диагональю: пробуется ленточный Холецкий.
+     * @param stable    диагональное преобладание или доказанная положительная определённость:
+     *                  прогонка без выбора ведущего элемента устойчива.
+     */
+    private static double[] solve(BandMatrix A, double[] b, boolean symmetric, boolean stable) {
+        if (A.lower() <= 1 && A.upper() <= 1 && stable) {
+            try {
+                return thomas(A, b);
+            } catch (ArithmeticException e) {
+                logger.warn("Метод прогонки неприменим: {} Решение ленточным LU.", e.getMessage());
+            }
+        } else if (symmetric) {
+            try {
+                return BandedCholeskyFactorization.factor(A).solve(b);
+            } catch (ArithmeticException e) {
+                logger.warn("Метод Холецкого неприменим: {} Решение ленточным LU.", e.getMessage());
+            }
+        }
+        return BandedLUFactorization.factor(A).solve(b);
+    }
+
+    /**
+     * Оценивает число операций ленточного решения (разложение и подстановки).
+     *
+     * @param n         размерность.
+     * @param lower     число диагоналей под главной.
+     * @param upper     число диагоналей над главной.
+     * @param symmetric матрица симметрична с положительной диагональю (будет использован Холецкий).
+     * @return оценка числа операций с плавающей точкой.
+     */
+    static double estimatedOps(int n, int lower, int upper, boolean symmetric) {
+        if (lower <= 1 && upper <= 1) {
+            return 8.0 * n;
+        }
+        if (symmetric) {
+            return (double) n * lower * (lower + 3) + 4.0 * n * lower;
+        }
+        return 2.0 * n * lower * (lower + upper + 1) + 2.0 * n * (2 * lower + upper + 1);
+    }
+
+    private static boolean symmetricWithPositiveDiagonal(BandMatrix A) {
+        if (A.lower() != A.upper()) {
+            return false;
+        }
+        int n = A.rows();
+        double[] a = A.data();
+        for (int i = 0; i < n; i++) {
+            if (!(a[A.index(i, i)] > 0)) {
+                return false;
+            }
+            for (int j = i + 1; j <= Math.min(n - 1, i + A.upper()); j++) {
+                if (Math.abs(a[A.index(i, j)] - a[A.index(j, i)]) > MatrixStructure.SYMMETRY_TOLERANCE) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean diagonallyDominant(BandMatrix A) {
+        int n = A.rows();
+        double[] a = A.data();
+        for (int i = 0; i < n; i++) {
+            double offDiagonal = 0;
+            for (int j = Math.max(0, i - A.lower()); j <= Math.min(n - 1, i + A.upper()); j++) {
+                if (j != i) {
+                    offDiagonal += Math.abs(a[A.index(i, j)]);
+                }
+            }
+            if (Math.abs(a[A.index(i, i)]) < offDiagonal) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void checkLength(int n, double[] b) {
+        if (b.length != n) {
+            throw new IllegalArgumentException("Длина вектора " + b.length + " не равна размерности " + n);
+        }
+    }
+}
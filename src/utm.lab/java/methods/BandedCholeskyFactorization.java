@@ -0,0 +1,159 @@
+package methods;
+
+import kernels.Kernels;
+import utils.BandMatrix;
+import utils.DenseMatrix;
+
+/**
+ * Разложение Холецкого A = H * H^T ленточной симметричной положительно определённой матрицы
+ * (как LAPACK dpbtrf).
+ * <p>
+ * Множитель H остаётся в ленте той же ширины p, поэтому хранится только нижняя лента: строка i
+ * занимает {@code p + 1} ячеек, элемент (i, j), i - p ≤ j ≤ i, лежит по индексу
+ * {@code i * (p + 1) + (j - i + p)}. Разложение стоит O(n·p²) операций и O(n·p) памяти.
+ */
+public final class BandedCholeskyFactorization implements Factorization {
+    private final int n;
+    private final int p;
+    private final double[] h;
+
+    private BandedCholeskyFactorization(int n, int p, double[] h) {
+        this.n = n;
+        this.p = p;
+        this.h = h;
+    }
+
+    /**
+     * Выполняет разложение по строкам. Используется только нижняя лента A.
+     *
+     * @param A симметричная ленточная матрица (не изменяется).
+     * @return разложение матрицы.
+     * @throws IllegalArgumentException если ширина ленты под и над диагональю различна.
+     * @throws ArithmeticException      если матрица не положительно определённая.
+     */
+    static BandedCholeskyFactorization factor(BandMatrix A) {
+        if (A.lower() != A.upper()) {
+            throw new IllegalArgumentException("Лента несимметрична: " + A.lower() + " диагоналей под главной и "
+                    + A.upper() + " над ней. Метод Холецкого неприменим.");
+        }
+        FactorizationEvent event = new FactorizationEvent();
+        event.begin();
+        int n = A.rows();
+        int p = A.lower();
+        int w = p + 1;
+        double[] h = new double[Math.multiplyExact(n, w)];
+        double[] a = A.data();
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(a, i * A.width(), h, i * w, w);
+        }
+
+        for (int i = 0; i < n; i++) {
+            int rowI = i * w - i + p; // h[rowI + j] — элемент (i, j)
+            int from = Math.max(0, i - p);
+            for (int j = from; j <= i; j++) {
+                int rowJ = j * w - j + p;
+                double sum = h[rowI + j] - Kernels.dot(h, rowI + from, h, rowJ + from, j - from);
+                if (i == j) {
+                    if (!(sum > 0)) {
+                        throw new ArithmeticException("Матрица не положительно определенная: ведущий элемент "
+                                + (i + 1) + " равен " + sum + ". Метод Холецкого не сработает.");
+                    }
+                    h[rowI + i] = Math.sqrt(sum);
+                } else {
+                    h[rowI + j] = sum / h[rowJ + j];
+                }
+            }
+        }
+        event.finish("BandedCholesky", n);
+        return new BandedCholeskyFactorization(n, p, h);
+    }
+
+    @Override
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Решает Hy = b, затем H^T x = y за O(n·p).
+     *
+     * @param b вектор свободных членов (не изменяется).
+     * @return решение x.
+     */
+    @Override
+    public double[] solve(double[] b) {
+        if (b.length != n) {
+            throw new IllegalArgumentException("Длина вектора " + b.length + " не равна размерности " + n);
+        }
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        double[] x = b.clone();
+        solveInPlace(x);
+        event.finish("BandedCholesky", n, 1);
+        return x;
+    }
+
+    /**
+     * Решает систему AX = B по столбцам.
+     *
+     * @param B матрица правых частей n×k (не изменяется).
+     * @return решение X размером n×k.
+     */
+    @Override
+    public DenseMatrix solve(DenseMatrix B) {
+        if (B.rows() != n) {
+            throw new IllegalArgumentException("Число строк правых частей " + B.rows() + " не равно размерности " + n);
+        }
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        int k = B.cols();
+        DenseMatrix X = B.isOffHeap() ? B.toHeap() : B.copy();
+        double[] x = X.mutableData();
+        double[] column = new double[n];
+        for (int c = 0; c < k; c++) {
+            for (int i = 0; i < n; i++) {
+                column[i] = x[i * k + c];
+            }
+            solveInPlace(column);
+            for (int i = 0; i < n; i++) {
+                x[i * k + c] = column[i];
+            }
+        }
+        event.finish("BandedCholesky", n, k);
+        return X;
+    }
+
+    private void solveInPlace(double[] x) {
+        int w = p + 1;
+        // Hy = b
+        for (int i = 0; i < n; i++) {
+            int rowI = i * w - i + p;
+            int from = Math.max(0, i - p);
+            x[i] = (x[i] - Kernels.dot(h, rowI + from, x, from, i - from)) / h[rowI + i];
+        }
+        // H^T x = y: после вычисления x[i] строка i матрицы H вычитается из старших уравнений
+        for (int i = n - 1; i >= 0; i--) {
+            int rowI = i * w - i + p;
+            int from = Math.max(0, i - p);
+            x[i] /= h[rowI + i];
+            Kernels.axpy(-x[i], h, rowI + from, x, from, i - from);
+        }
+    }
+
+    /**
+     * @return определитель A = (произведение диагонали H)².
+     */
+    @Override
+    public double determinant() {
+        double det = 1;
+        for (int i = 0; i < n; i++) {
+            double d = h[i * (p + 1) + p];
+            det *= d * d;
+        }
+        return det;
+    }
+
+    @Override
+    public long memoryBytes() {
+        return (long) h.length * Double.BYTES;
+    }
+}
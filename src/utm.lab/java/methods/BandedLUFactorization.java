@@ -0,0 +1,198 @@
+package methods;
+
+import kernels.Kernels;
+import utils.BandMatrix;
+import utils.DenseMatrix;
+
+/**
+ * LU-разложение ленточной матрицы с частичным выбором ведущего элемента (как LAPACK dgbtrf).
+ * <p>
+ * Перестановки строк расширяют ленту U вверх на {@code lower} диагоналей, поэтому строка i
+ * рабочего массива занимает {@code 2·lower + upper + 1} ячеек: элемент (i, j) лежит по индексу
+ * {@code i * width + (j - i + lower)}, слева от диагонали хранятся множители L, справа — U.
+ * Разложение стоит O(n·lower·(lower + upper)) операций и O(n·(2·lower + upper)) памяти
+ * вместо O(n³) и O(n²) у плотного {@link LUFactorization}.
+ * <p>
+ * Множители L хранятся так, как получены на своём шаге (без последующих перестановок),
+ * поэтому при решении перестановки и исключение применяются к b по шагам.
+ */
+public final class BandedLUFactorization implements Factorization {
+    private final int n;
+    private final int lower;
+    private final int width;
+    private final double[] lu;
+    private final int[] pivots; // на шаге k строка k переставлена со строкой pivots[k]
+    private final boolean oddSwaps;
+
+    private BandedLUFactorization(int n, int lower, int width, double[] lu, int[] pivots, boolean oddSwaps) {
+        this.n = n;
+        this.lower = lower;
+        this.width = width;
+        this.lu = lu;
+        this.pivots = pivots;
+        this.oddSwaps = oddSwaps;
+    }
+
+    /**
+     * Выполняет LU-разложение ленточной матрицы.
+     *
+     * @param A ленточная матрица (не изменяется).
+     * @return разложение PA = LU.
+     * @throws ArithmeticException если матрица вырождена.
+     */
+    static BandedLUFactorization factor(BandMatrix A) {
+        FactorizationEvent event = new FactorizationEvent();
+        event.begin();
+        int n = A.rows();
+        int kl = A.lower();
+        int ku = A.upper();
+        int width = 2 * kl + ku + 1;
+        double[] lu = new double[Math.multiplyExact(n, width)];
+        double[] a = A.data();
+        for (int i = 0; i < n; i++) {
+            // строка i ленты A ложится в рабочую строку с того же смещения: лишние ячейки справа
+            System.arraycopy(a, i * A.width(), lu, i * width, A.width());
+        }
+        int[] pivots = new int[n];
+        boolean oddSwaps = false;
+
+        for (int k = 0; k < n; k++) {
+            int rowsBelow = Math.min(kl, n - 1 - k);
+            int max = k;
+            double maxAbs = Math.abs(lu[k * width + kl]);
+            for (int i = k + 1; i <= k + rowsBelow; i++) {
+                double v = Math.abs(lu[i * width + (k - i + kl)]);
+                if (v > maxAbs) {
+                    maxAbs = v;
+                    max = i;
+                }
+            }
+            if (maxAbs == 0.0) {
+                throw new ArithmeticException("Матрица вырождена: нулевой столбец " + (k + 1) + " при выборе ведущего элемента.");
+            }
+            pivots[k] = max;
+            // строка k после перестановки может достать до столбца k + kl + ku
+            int last = Math.min(n - 1, k + kl + ku);
+            int kRow = k * width + kl; // (k, k)
+            if (max != k) {
+                int maxRow = max * width + (k - max + kl); // (max, k)
+                for (int j = 0; j <= last - k; j++) {
+                    double temp = lu[kRow + j];
+                    lu[kRow + j] = lu[maxRow + j];
+                    lu[maxRow + j] = temp;
+                }
+                oddSwaps = !oddSwaps;
+            }
+            double pivot = lu[kRow];
+            for (int i = k + 1; i <= k + rowsBelow; i++) {
+                int iRow = i * width + (k - i + kl); // (i, k)
+                double factor = lu[iRow] / pivot;
+                lu[iRow] = factor;
+                if (factor != 0.0) {
+                    Kernels.axpy(-factor, lu, kRow + 1, lu, iRow + 1, last - k);
+                }
+            }
+        }
+        event.finish("BandedLU", n);
+        return new BandedLUFactorization(n, kl, width, lu, pivots, oddSwaps);
+    }
+
+    @Override
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Решает систему Ax = b за O(n·(2·lower + upper)).
+     *
+     * @param b вектор свободных членов (не изменяется).
+     * @return решение x.
+     */
+    @Override
+    public double[] solve(double[] b) {
+        if (b.length != n) {
+            throw new IllegalArgumentException("Длина вектора " + b.length + " не равна размерности " + n);
+        }
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        double[] x = b.clone();
+        solveInPlace(x);
+        event.finish("BandedLU", n, 1);
+        return x;
+    }
+
+    /**
+     * Решает систему AX = B по столбцам: лента мала, и множитель помещается в кэш целиком.
+     *
+     * @param B матрица правых частей n×k (не изменяется).
+     * @return решение X размером n×k.
+     */
+    @Override
+    public DenseMatrix solve(DenseMatrix B) {
+        if (B.rows() != n) {
+            throw new IllegalArgumentException("Число строк правых частей " + B.rows() + " не равно размерности " + n);
+        }
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        int k = B.cols();
+        DenseMatrix X = B.isOffHeap() ? B.toHeap() : B.copy();
+        double[] x = X.mutableData();
+        double[] column = new double[n];
+        for (int c = 0; c < k; c++) {
+            for (int i = 0; i < n; i++) {
+                column[i] = x[i * k + c];
+            }
+            solveInPlace(column);
+            for (int i = 0; i < n; i++) {
+                x[i * k + c] = column[i];
+            }
+        }
+        event.finish("BandedLU", n, k);
+        return X;
+    }
+
+    private void solveInPlace(double[] x) {
+        // Ly = Pb: перестановка и исключение по шагам разложения
+        for (int k = 0; k < n; k++) {
+            int p = pivots[k];
+            if (p != k) {
+                double temp = x[k];
+                x[k] = x[p];
+                x[p] = temp;
+            }
+            double xk = x[k];
+            if (xk != 0.0) {
+                int rowsBelow = Math.min(lower, n - 1 - k);
+                for (int i = k + 1; i <= k + rowsBelow; i++) {
+                    x[i] -= lu[i * width + (k - i + lower)] * xk;
+                }
+            }
+        }
+        // Ux = y
+        for (int i = n - 1; i >= 0; i--) {
+            int diagonal = i * width + lower;
+            int len = Math.min(width - lower - 1, n - 1 - i);
+            double sum = x[i] - Kernels.dot(lu, diagonal + 1, x, i + 1, len);
+            x[i] = sum / lu[diagonal];
+        }
+    }
+
+    /**
+     * Вычисляет определитель как произведение диагонали U с учётом перестановок.
+     *
+     * @return определитель исходной матрицы.
+     */
+    @Override
+    public double determinant() {
+        double det = oddSwaps ? -1.0 : 1.0;
+        for (int i = 0; i < n; i++) {
+            det *= lu[i * width + lower];
+        }
+        return det;
+    }
+
+    @Override
+    public long memoryBytes() {
+        return (long) lu.length * Double.BYTES + (long) pivots.length * Integer.BYTES;
+    }
+}
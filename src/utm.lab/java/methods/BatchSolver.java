@@ -0,0 +1,191 @@
+package methods;
+
+import kernels.Kernels;
+import utils.MatrixBatch;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Решение большого числа независимых маленьких систем (n ≤ {@value #MAX_SIZE}) одного размера.
+ * <p>
+ * Для таких систем накладные расходы одного вызова (копии, журналирование, объекты)
+ * больше самой арифметики, поэтому системы решаются пакетом: матрицы хранятся в раскладке SoA
+ * ({@link MatrixBatch}), и каждая векторная инструкция выполняет один шаг метода сразу
+ * в {@link Kernels#lanes()} системах. Пакет делится на порции, которые помещаются в кэш L1;
+ * порции распределяются между потоками пула, поэтому производительность растёт и с шириной
+ * вектора, и с числом ядер.
+ * <p>
+ * Ошибки отдельных систем не прерывают пакет: решение вырожденной системы (или не положительно
+ * определённой для {@link Method#CHOLESKY}) заполняется NaN.
+ */
+public final class BatchSolver {
+    /** Наибольшая размерность систем: матрицы порции должны помещаться в кэш. */
+    public static final int MAX_SIZE = 8;
+    /** Число итераций Гаусса — Зейделя по умолчанию. */
+    public static final int DEFAULT_SWEEPS = 25;
+    /** Объём рабочих массивов одной порции: половина типичного кэша L1 данных. */
+    private static final int CHUNK_BYTES = 24 * 1024;
+    /** Порций на поток: больше задач — ровнее загрузка ядер. */
+    private static final int TASKS_PER_THREAD = 4;
+
+    /**
+     * Метод решения систем пакета.
+     */
+    public enum Method {
+        /** Метод Гаусса с выбором ведущего элемента в каждой системе. */
+        LU,
+        /** Разложение Холецкого; для симметричных положительно определённых систем вдвое дешевле LU. */
+        CHOLESKY,
+        /** Фиксированное число итераций Гаусса — Зейделя с нулевого приближения. */
+        GAUSS_SEIDEL
+    }
+
+    private BatchSolver() {
+    }
+
+    /**
+     * Решает все системы пакета методом Гаусса на общем пуле.
+     *
+     * @param A матрицы (не изменяются).
+     * @param b правые части в раскладке SoA, см. {@link MatrixBatch#packVectors(double[][])} (не изменяются).
+     * @return решения в раскладке SoA.
+     */
+    public static double[] solve(MatrixBatch A, double[] b) {
+        return solve(A, b, Method.LU);
+    }
+
+    /**
+     * Решает все системы пакета выбранным методом на общем пуле.
+     * Для {@link Method#GAUSS_SEIDEL} выполняется {@value #DEFAULT_SWEEPS} итераций.
+     *
+     * @param A      матрицы (не изменяются).
+     * @param b      правые части в раскладке SoA (не изменяются).
+     * @param method метод.
+     * @return решения в раскладке SoA.
+     */
+    public static double[] solve(MatrixBatch A, double[] b, Method method) {
+        return solve(A, b, method, DEFAULT_SWEEPS, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Решает все системы пакета.
+     *
+     * @param A      матрицы (не изменяются).
+     * @param b      правые части в раскладке SoA (не изменяются).
+     * @param method метод.
+     * @param sweeps число итераций для {@link Method#GAUSS_SEIDEL}.
+     * @param pool   пул потоков для порций пакета.
+     * @return решения в раскладке SoA: компонента i решения s — по индексу {@code i * count + s}.
+     * @throws IllegalArgumentException если n > {@value #MAX_SIZE} или размеры не согласованы.
+     */
+    public static double[] solve(MatrixBatch A, double[] b, Method method, int sweeps, ForkJoinPool pool) {
+        int n = A.size();
+        int count = A.count();
+        if (n > MAX_SIZE) {
+            throw new IllegalArgumentException("Размерность систем " + n + " больше " + MAX_SIZE
+                    + ": для больших систем используйте Gauss или Cholesky");
+        }
+        if (b.length != n * count) {
+            throw new IllegalArgumentException("Длина правых частей " + b.length + " не равна " + n + " x " + count);
+        }
+        if (method == Method.GAUSS_SEIDEL && sweeps < 1) {
+            throw new IllegalArgumentException("Число итераций должно быть положительным: " + sweeps);
+        }
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        double[] x = new double[b.length];
+        int width = chunkWidth(n);
+        int chunks = (count + width - 1) / width;
+        int perTask = Math.max(1, chunks / (pool.getParallelism() * TASKS_PER_THREAD));
+        Chunks task = new Chunks(A, b, x, method, sweeps, width, perTask, 0, chunks);
+        if (chunks <= perTask || pool.getParallelism() == 1) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        event.finish("Batch" + method, n, count);
+        return x;
+    }
+
+    /**
+     * Число систем в порции: рабочие массивы занимают не больше {@link #CHUNK_BYTES},
+     * и порция кратна ширине вектора.
+     */
+    static int chunkWidth(int n) {
+        int lanes = Kernels.lanes();
+        int perSystem = Math.max(1, (n * n + 2 * n) * Double.BYTES);
+        return Math.max(lanes, CHUNK_BYTES / perSystem / lanes * lanes);
+    }
+
+    /**
+     * Решает порции {@code [from, to)}; рабочие массивы выделяются один раз на задачу.
+     */
+    private static final class Chunks extends RecursiveAction {
+        private final MatrixBatch A;
+        private final double[] b;
+        private final double[] x;
+        private final Method method;
+        private final int sweeps;
+        private final int width;
+        private final int perTask;
+        private final int from;
+        private final int to;
+
+        Chunks(MatrixBatch A, double[] b, double[] x, Method method, int sweeps, int width, int perTask,
+               int from, int to) {
+            this.A = A;
+            this.b = b;
+            this.x = x;
+            this.method = method;
+            this.sweeps = sweeps;
+            this.width = width;
+            this.perTask = perTask;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > perTask) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Chunks(A, b, x, method, sweeps, width, perTask, from, middle),
+                        new Chunks(A, b, x, method, sweeps, width, perTask, middle, to));
+                return;
+            }
+            int n = A.size();
+            int count = A.count();
+            double[] source = A.data();
+            double[] a = new double[n * n * width];
+            double[] rhs = new double[n * width];
+            double[] solution = method == Method.GAUSS_SEIDEL ? new double[n * width] : rhs;
+            for (int c = from; c < to; c++) {
+                int s0 = c * width;
+                int len = Math.min(width, count - s0);
+                for (int e = 0; e < n * n; e++) {
+                    System.arraycopy(source, e * count + s0, a, e * width, len);
+                    if (len < width) {
+                        // неполная порция дополняется единичными матрицами, чтобы не считать NaN
+                        Arrays.fill(a, e * width + len, (e + 1) * width, e % (n + 1) == 0 ? 1.0 : 0.0);
+                    }
+                }
+                for (int i = 0; i < n; i++) {
+                    System.arraycopy(b, i * count + s0, rhs, i * width, len);
+                    Arrays.fill(rhs, i * width + len, (i + 1) * width, 0.0);
+                }
+                switch (method) {
+                    case LU -> Kernels.batchLuSolve(a, rhs, n, width);
+                    case CHOLESKY -> Kernels.batchCholeskySolve(a, rhs, n, width);
+                    case GAUSS_SEIDEL -> {
+                        Arrays.fill(solution, 0.0);
+                        Kernels.batchGaussSeidel(a, rhs, solution, n, width, sweeps);
+                    }
+                }
+                for (int i = 0; i < n; i++) {
+                    System.arraycopy(solution, i * width, x, i * count + s0, len);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package methods;
+
+import kernels.Kernels;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Блочные треугольные решения для многих правых частей (аналог TRSM).
+ * <p>
+ * Правые части хранятся построчно в массиве n×k: строка i — i-е компоненты всех k систем.
+ * Строки треугольного множителя задаются смещением {@code rowStart(i)}: элемент (i, j)
+ * лежит по индексу {@code rowStart(i) + j}. Так один код обслуживает и полную матрицу LU,
+ * и упакованный множитель Холецкого.
+ * <p>
+ * Множитель обходится плитками {@value #BLOCK}×{@value #BLOCK}, а правые части — полосами
+ * по {@value #RHS_BLOCK} столбцов. Каждый загруженный элемент множителя применяется сразу
+ * ко всей полосе, а плитка решений, которую он обновляет, остаётся в кэше.
+ */
+final class BlockedTriangularSolve {
+    /** Размер плитки множителя. */
+    static final int BLOCK = 64;
+    /** Ширина полосы правых частей: плитка 64×128 double занимает 64 КБ. */
+    static final int RHS_BLOCK = 128;
+
+    private BlockedTriangularSolve() {
+    }
+
+    /**
+     * Решает LX = X на месте для нижнетреугольной L.
+     *
+     * @param t            элементы множителя.
+     * @param rowStart     смещение строки i в {@code t}.
+     * @param unitDiagonal true, если диагональ L единичная и не хранится.
+     * @param n            размерность.
+     * @param x            правые части n×k, заменяются решением.
+     * @param k            число правых частей.
+     */
+    static void forward(double[] t, IntUnaryOperator rowStart, boolean unitDiagonal, int n, double[] x, int k) {
+        for (int c0 = 0; c0 < k; c0 += RHS_BLOCK) {
+            int width = Math.min(RHS_BLOCK, k - c0);
+            for (int i0 = 0; i0 < n; i0 += BLOCK) {
+                int iEnd = Math.min(i0 + BLOCK, n);
+                // X[I] -= L[I, J] * X[J] для уже решённых плиток J
+                for (int j0 = 0; j0 < i0; j0 += BLOCK) {
+                    int jb = Math.min(BLOCK, i0 - j0);
+                    for (int i = i0; i < iEnd; i++) {
+                        Kernels.rankUpdate(x, i * k + c0, width, t, rowStart.applyAsInt(i) + j0, jb, x, j0 * k + c0, k);
+                    }
+                }
+                // диагональная плитка
+                for (int i = i0; i < iEnd; i++) {
+                    int row = rowStart.applyAsInt(i);
+                    Kernels.rankUpdate(x, i * k + c0, width, t, row + i0, i - i0, x, i0 * k + c0, k);
+                    if (!unitDiagonal) {
+                        scale(x, i * k + c0, width, t[row + i]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Решает UX = X на месте для верхнетреугольной U, хранящейся по строкам.
+     *
+     * @param t        элементы множителя.
+     * @param rowStart смещение строки i в {@code t}.
+     * @param n        размерность.
+     * @param x        правые части n×k, заменяются решением.
+     * @param k        число правых частей.
+     */
+    static void backward(double[] t, IntUnaryOperator rowStart, int n, double[] x, int k) {
+        int lastBlock = (n - 1) / BLOCK * BLOCK;
+        for (int c0 = 0; c0 < k; c0 += RHS_BLOCK) {
+            int width = Math.min(RHS_BLOCK, k - c0);
+            for (int i0 = lastBlock; i0 >= 0; i0 -= BLOCK) {
+                int iEnd = Math.min(i0 + BLOCK, n);
+                for (int j0 = iEnd; j0 < n; j0 += BLOCK) {
+                    int jb = Math.min(BLOCK, n - j0);
+                    for (int i = i0; i < iEnd; i++) {
+                        Kernels.rankUpdate(x, i * k + c0, width, t, rowStart.applyAsInt(i) + j0, jb, x, j0 * k + c0, k);
+                    }
+                }
+                for (int i = iEnd - 1; i >= i0; i--) {
+                    int row = rowStart.applyAsInt(i);
+                    Kernels.rankUpdate(x, i * k + c0, width, t, row + i + 1, iEnd - i - 1, x, (i + 1) * k + c0, k);
+                    scale(x, i * k + c0, width, t[row + i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Решает L^T X = X на месте, используя строки нижнетреугольной L
+     * (столбец i матрицы L^T — строка i матрицы L).
+     *
+     * @param t        элементы множителя.
+     * @param rowStart смещение строки i в {@code t}.
+     * @param n        размерность.
+     * @param x        правые части n×k, заменяются решением.
+     * @param k        число правых частей.
+     */
+    static void backwardTransposed(double[] t, IntUnaryOperator rowStart, int n, double[] x, int k) {
+        int lastBlock = (n - 1) / BLOCK * BLOCK;
+        double[] column = new double[BLOCK];
+        for (int c0 = 0; c0 < k; c0 += RHS_BLOCK) {
+            int width = Math.min(RHS_BLOCK, k - c0);
+            for (int i0 = lastBlock; i0 >= 0; i0 -= BLOCK) {
+                int iEnd = Math.min(i0 + BLOCK, n);
+                // диагональная плитка: строки решаются снизу вверх и сразу вычитаются из строк выше
+                for (int i = iEnd - 1; i >= i0; i--) {
+                    int row = rowStart.applyAsInt(i);
+                    scale(x, i * k + c0, width, t[row + i]);
+                    for (int p = i0; p < i; p++) {
+                        Kernels.axpy(-t[row + p], x, i * k + c0, x, p * k + c0, width);
+                    }
+                }
+                // X[P] -= L[I, P]^T * X[I] для всех строк P выше плитки
+                int ib = iEnd - i0;
+                for (int p = 0; p < i0; p++) {
+                    for (int i = i0; i < iEnd; i++) {
+                        column[i - i0] = t[rowStart.applyAsInt(i) + p];
+                    }
+                    Kernels.rankUpdate(x, p * k + c0, width, column, 0, ib, x, i0 * k + c0, k);
+                }
+            }
+        }
+    }
+
+    private static void scale(double[] x, int offset, int length, double divisor) {
+        for (int c = offset; c < offset + length; c++) {
+            x[c] /= divisor;
+        }
+    }
+}
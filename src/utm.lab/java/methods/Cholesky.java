@@ -1,11 +1,16 @@
 package methods;
 
+import io.TiledMatrixFile;
+import kernels.Kernels;
 import logger.LoggerFactoryUtil;
 import logger.LoggerMatrix;
+import logger.TraceMode;
+import utils.DenseMatrix;
 import utils.Matrix;
 import org.slf4j.Logger;
 
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Класс для реализации метода Холецкого.
@@ -21,13 +26,20 @@ public class Cholesky {
         logger.info("\n*********************************************");
         logger.info("\nРешение методом Холецки".toUpperCase());
 
-        // копируем матрицы в переменные, чтобы не было не явного преобразования
-        double[][] A = Arrays.stream(Matrix.A).map(double[]::clone).toArray(double[][]::new);
+        // матрица только читается, поэтому копировать её не нужно
+        DenseMatrix A = Matrix.A;
         double[] b = Arrays.copyOf(Matrix.b, Matrix.b.length);
 
-        double[][] H = choleskyDecomposition(A);
+        if (TraceMode.current() != TraceMode.FULL) {
+            LoggerMatrix.logSolution(solve(A, b));
+            return;
+        }
+
+        DenseMatrix H = choleskyDecomposition(A);
+        if (H == null) {
+            return;
+        }
 
-        assert H != null; // if H != null :
         LoggerMatrix.logMatrix(H, "H");
         LoggerMatrix.logTransposedMatrix(H, "H^T");
 
@@ -37,38 +49,124 @@ public class Cholesky {
     }
 
     /**
-     * Выполняет разложение Холецкого.
+     * Выполняет блочное параллельное разложение Холецкого на общем пуле потоков.
+     * Положительная определённость проверяется по ходу разложения.
+     *
+     * @param A симметричная положительно определённая матрица (не изменяется).
+     * @return разложение A = H * H^T.
+     * @throws IllegalArgumentException если матрица не квадратная или не симметричная.
+     * @throws ArithmeticException      если матрица не положительно определённая.
+     */
+    public static CholeskyFactorization factor(DenseMatrix A) {
+        return factor(A, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Выполняет блочное параллельное разложение Холецкого на заданном пуле потоков.
+     *
+     * @param A    симметричная положительно определённая матрица (не изменяется).
+     * @param pool пул потоков для обновления оставшейся подматрицы.
+     * @return разложение A = H * H^T.
+     */
+    public static CholeskyFactorization factor(DenseMatrix A, ForkJoinPool pool) {
+        if (!A.isSquare()) {
+            throw new IllegalArgumentException("Матрица не квадратная. Метод Холецкого не сработает.");
+        }
+        if (!isSymmetric(A)) {
+            throw new IllegalArgumentException("Матрица не симметрична относительно главной диагонали. Метод Холецкого не сработает.");
+        }
+        return CholeskyFactorization.factor(A, CholeskyFactorization.BLOCK_SIZE, pool);
+    }
+
+    /**
+     * Решает систему Ax = b методом Холецкого. Разложение берётся из
+     * {@link FactorizationCache#shared()}: для уже встречавшейся матрицы не повторяются
+     * ни проверки, ни разложение.
+     *
+     * @param A симметричная положительно определённая матрица (не изменяется).
+     * @param b вектор свободных членов (не изменяется).
+     * @return решение x.
+     */
+    public static double[] solve(DenseMatrix A, double[] b) {
+        return FactorizationCache.shared().cholesky(A).solve(b);
+    }
+
+    /**
+     * Решает систему AX = B сразу для всех столбцов B (например, для многих вариантов нагрузки).
+     * Используется одно разложение Холецкого из {@link FactorizationCache#shared()}
+     * и блочные треугольные решения.
+     *
+     * @param A матрица коэффициентов (не изменяется).
+     * @param B матрица правых частей n×k (не изменяется).
+     * @return решение X размером n×k.
+     */
+    public static DenseMatrix solve(DenseMatrix A, DenseMatrix B) {
+        return FactorizationCache.shared().cholesky(A).solve(B);
+    }
+
+    /**
+     * Выполняет разложение Холецкого матрицы, хранящейся в файле плиток, не загружая её в кучу
+     * целиком. Используется только нижний треугольник; симметричность не проверяется.
+     * Множитель H записывается в тот же файл на место нижнего треугольника матрицы.
+     *
+     * @param file        симметричная положительно определённая матрица в файле плиток.
+     * @param memoryBytes объём памяти под обрабатываемую панель столбцов
+     *                    (например, {@link OutOfCoreFactorization#DEFAULT_MEMORY}).
+     * @return разложение A = H * H^T, которое читает множитель из файла.
+     * @throws ArithmeticException      если матрица не положительно определённая.
+     * @throws IllegalArgumentException если в memoryBytes не помещается один столбец плиток (n×T чисел).
+     */
+    public static OutOfCoreFactorization factorOutOfCore(TiledMatrixFile file, long memoryBytes) {
+        return OutOfCoreFactorization.cholesky(file, memoryBytes);
+    }
+
+    /**
+     * Выполняет разложение Холецкого с пошаговым логированием.
+     * Если встречается неположительный ведущий элемент, матрица не положительно
+     * определённая и разложение прерывается.
      *
      * @param A Матрица для разложения.
-     * @return Матрица H, полученная в результате разложения.
+     * @return Матрица H, полученная в результате разложения, или null, если разложение невозможно.
      */
-    private static double[][] choleskyDecomposition(double[][] A) {
+    private static DenseMatrix choleskyDecomposition(DenseMatrix A) {
         if (!checkMatrix(A)) {
             return null;
         }
         //Ax = b
         //A = H*H^T
-        double[][] H = new double[A.length][A[0].length];
+        int n = A.rows();
+        double[] a = A.data();
+        DenseMatrix H = DenseMatrix.zeros(n, n);
+        double[] h = H.mutableData();
         logger.info("Начинаем разложение Холецкого.");
-        for (int i = 0; i < A.length; i++) {
+        for (int i = 0; i < n; i++) {
+            int rowI = i * n;
             for (int j = 0; j <= i; j++) {
+                int rowJ = j * n;
                 double sum = 0.0;
 
                 for (int k = 0; k < j; k++) {
-                    sum += H[i][k] * H[j][k];
+                    sum += h[rowI + k] * h[rowJ + k];
                     logger.info(String.format("sum = %.3f * %.3f (h[%d][%d], h[%d][%d])",
-                            H[i][k], H[j][k], i + 1, k + 1, j + 1, k + 1));
+                            h[rowI + k], h[rowJ + k], i + 1, k + 1, j + 1, k + 1));
                 }
 
                 if (i == j) {
-                    H[i][j] = Math.sqrt(A[i][i] - sum);
+                    double pivot = a[rowI + i] - sum;
+                    if (!(pivot > 0)) {
+                        logger.info("Ведущий элемент H[{}][{}]^2 = {} не положителен.", i + 1, j + 1, pivot);
+                        logAndReturn("Матрица не положительно определенная. Метод Холецкого не сработает.", false);
+                        return null;
+                    }
+                    h[rowI + j] = Math.sqrt(pivot);
                 } else {
-                    H[i][j] = (1.0 / H[j][j]) * (A[i][j] - sum);
+                    h[rowI + j] = (1.0 / h[rowJ + j]) * (a[rowI + j] - sum);
                 }
 
-                logger.info(String.format("H[%d][%d] = %.4f", i + 1, j + 1, H[i][j]));
+                logger.info(String.format("H[%d][%d] = %.4f", i + 1, j + 1, h[rowI + j]));
             }
         }
+        logger.info("Матрица положительно определенная: все ведущие элементы положительны.");
         logger.info("Разложение Холецкого завершено.");
         return H;
     }
@@ -82,46 +180,48 @@ public class Cholesky {
      * @param H Матрица разложения Холецкого.
      * @return Решение x.
      */
-    private static double[] solveCholesky(double[][] A, double[] b, double[][] H) {
+    private static double[] solveCholesky(DenseMatrix A, double[] b, DenseMatrix H) {
+        int n = A.rows();
+        double[] h = H.data();
         double[] y = new double[b.length];
-        double[] x = new double[b.length];
 
         logger.info("Начинаем решение Hy = b.");
 
         //Hy = b
         for (int i = 0; i < b.length; i++) {
-            double sum = 0;
-            for (int j = 0; j < i; j++) {
-                sum += H[i][j] * y[j];
-            }
-            y[i] = (b[i] - sum) / H[i][i];
+            int row = i * n;
+            double sum = Kernels.dot(h, row, y, 0, i);
+            y[i] = (b[i] - sum) / h[row + i];
             logger.info("y[{}] = {}", i + 1, y[i]); // Логируем значение y[i]
         }
         logger.info("Решение для y завершено. Переход к решению H^T * x = y.");
 
         //y = H^T * x
-        for (int i = A.length - 1; i >= 0; i--) {
-            double sum = 0;
-            for (int j = i + 1; j < A.length; j++) {
-                sum += H[j][i] * x[j];
-            }
-            x[i] = (y[i] - sum) / H[i][i];
+        // столбец i матрицы H^T — это строка i матрицы H, поэтому идём по строкам H:
+        // как только x[i] найден, вычитаем его вклад из оставшихся y[k], k < i
+        double[] x = y.clone();
+        for (int i = n - 1; i >= 0; i--) {
+            int row = i * n;
+            x[i] /= h[row + i];
+            Kernels.axpy(-x[i], h, row, x, 0, i);
         }
         return x;
     }
 
     /**
-     * Проверяет, является ли матрица квадратной, симметричной и положительно определённой.
+     * Проверяет, является ли матрица квадратной и симметричной.
+     * Положительная определённость проверяется в самом разложении по знаку ведущих элементов,
+     * а не отдельным вычислением всех угловых миноров.
      *
      * @param A матрица для проверки.
      * @return true, если матрица соответствует условиям для разложения Холецкого, иначе false.
      */
-    private static boolean checkMatrix(double[][] A) {
-        if (A == null || A.length == 0 || A[0].length == 0) {
+    private static boolean checkMatrix(DenseMatrix A) {
+        if (A == null || A.rows() == 0 || A.cols() == 0) {
             return logAndReturn("Матрица пустая или некорректная.", false);
         }
 
-        if (A.length != A[0].length) {
+        if (!A.isSquare()) {
             return logAndReturn("Матрица не квадратная. Метод Холецкого не сработает.", false);
         }
 
@@ -129,14 +229,7 @@ public class Cholesky {
             return logAndReturn("Матрица не симметрична относительно главной диагонали. Метод Холецкого не сработает.", false);
         }
 
-
-        for (int i = 0; i < A.length; i++) {
-            if (determinant(A, i) <= 0) {
-                return logAndReturn("Матрица не положительно определенная. Метод Холецкого не сработает.", false);
-            }
-        }
-
-        return logAndReturn("Матрица положительно определенная и симметрична относительно главной диагонали.", true);
+        return logAndReturn("Матрица симметрична относительно главной диагонали.", true);
     }
 
     /**
@@ -144,10 +237,10 @@ public class Cholesky {
      *
      * @param matrix матрица для проверки.
      */
-    private static boolean isSymmetric(double[][] matrix) {
-        for (int i = 0; i < matrix.length; i++) {
+    private static boolean isSymmetric(DenseMatrix matrix) {
+        for (int i = 0; i < matrix.rows(); i++) {
             for (int j = 0; j < i; j++) {
-                if (Math.abs(matrix[i][j] - matrix[j][i]) > 1e-10) {
+                if (Math.abs(matrix.get(i, j) - matrix.get(j, i)) > 1e-10) {
                     return false; // матрица не симметрична
                 }
             }
@@ -155,37 +248,6 @@ public class Cholesky {
         return true; // матрица симметрична
     }
 
-    /**
-     * Вычисляет определитель матрицы с использованием метода Гаусса.
-     *
-     * @param matrix матрица для вычисления определителя.
-     * @param n      размерность матрицы.
-     * @return значение определителя.
-     */
-    private static double determinant(double[][] matrix, int n) {
-        double[][] tempMatrix = new double[n][];
-        for (int i = 0; i < n; i++) {
-            tempMatrix[i] = Arrays.copyOf(matrix[i], n);
-        }
-
-        double det = 1;
-
-        for (int i = 0; i < n; i++) {
-            double pivot = tempMatrix[i][i];
-            if (pivot == 0) return 0; // Определитель равен нулю
-
-            for (int j = i + 1; j < n; j++) {
-                double factor = tempMatrix[j][i] / pivot;
-                for (int k = i; k < n; k++) {
-                    tempMatrix[j][k] -= factor * tempMatrix[i][k];
-                }
-            }
-            det *= pivot;
-        }
-        return det;
-    }
-
-
     /**
      * Вспомогательный метод для логирования и возврата результата.
      *
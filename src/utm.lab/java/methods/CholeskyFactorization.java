@@ -0,0 +1,326 @@
+package methods;
+
+import kernels.Kernels;
+import utils.DenseMatrix;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Разложение Холецкого A = H * H^T для симметричной положительно определённой матрицы.
+ * <p>
+ * Нижнетреугольная матрица H хранится в упакованном виде: строка i занимает
+ * элементы {@code [i(i+1)/2, i(i+1)/2 + i]}, поэтому памяти нужно вдвое меньше, чем для n×n.
+ */
+public final class CholeskyFactorization implements Factorization {
+    /** Ширина панели блочного алгоритма. */
+    static final int BLOCK_SIZE = 64;
+    /** Меньше этого числа строк обновление выполняется в одном потоке. */
+    private static final int PARALLEL_ROWS = 128;
+
+    private final int n;
+    private final double[] h; // упакованная нижнетреугольная H по строкам
+
+    private CholeskyFactorization(int n, double[] h) {
+        this.n = n;
+        this.h = h;
+    }
+
+    /**
+     * Индекс элемента (i, j), j ≤ i, в упакованном массиве.
+     */
+    static int index(int i, int j) {
+        return (int) ((long) i * (i + 1) / 2) + j;
+    }
+
+    /**
+     * Выполняет блочное (right-looking) разложение Холецкого.
+     * <p>
+     * Для каждой панели из {@code blockSize} столбцов: раскладывается диагональный блок,
+     * затем строки под ним решают треугольную систему (TRSM), и оставшийся треугольник
+     * обновляется A22 -= L21 * L21^T (SYRK/GEMM). TRSM и обновление распределяются
+     * по строкам между потоками пула. Положительная определённость проверяется
+     * по ходу разложения: неположительный ведущий элемент означает, что матрица не SPD.
+     * Используется только нижний треугольник A.
+     *
+     * @param A         симметричная матрица (не изменяется).
+     * @param blockSize ширина панели.
+     * @param pool      пул потоков для TRSM и обновления.
+     * @return разложение матрицы.
+     * @throws ArithmeticException если матрица не положительно определённая.
+     */
+    static CholeskyFactorization factor(DenseMatrix A, int blockSize, ForkJoinPool pool) {
+        FactorizationEvent event = new FactorizationEvent();
+        event.begin();
+        int n = A.rows();
+        double[] a = A.toHeap().data();
+        double[] h = new double[index(n, 0)];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(a, i * n, h, index(i, 0), i + 1);
+        }
+
+        for (int k0 = 0; k0 < n; k0 += blockSize) {
+            int kEnd = Math.min(k0 + blockSize, n);
+
+            // 1. Диагональный блок
+            FactorizationPhaseEvent phase = new FactorizationPhaseEvent();
+            phase.begin();
+            factorDiagonalBlock(h, k0, kEnd);
+            phase.finish("Cholesky", "panel", k0);
+            if (kEnd == n) {
+                break;
+            }
+
+            // 2. TRSM: H21 = A21 * H11^-T, строки независимы
+            // 3. SYRK/GEMM: A22 -= H21 * H21^T, строки тоже независимы (после завершения шага 2)
+            boolean sequential = n - kEnd < PARALLEL_ROWS || pool.getParallelism() == 1;
+            phase = new FactorizationPhaseEvent();
+            phase.begin();
+            if (sequential) {
+                panelSolve(h, k0, kEnd, kEnd, n);
+            } else {
+                pool.invoke(new RowRange(h, k0, kEnd, kEnd, n, false));
+            }
+            phase.finish("Cholesky", "trsm", k0);
+            phase = new FactorizationPhaseEvent();
+            phase.begin();
+            if (sequential) {
+                trailingUpdate(h, k0, kEnd, kEnd, n);
+            } else {
+                pool.invoke(new RowRange(h, k0, kEnd, kEnd, n, true));
+            }
+            phase.finish("Cholesky", "update", k0);
+        }
+        event.finish("Cholesky", n);
+        return new CholeskyFactorization(n, h);
+    }
+
+    private static void factorDiagonalBlock(double[] h, int k0, int kEnd) {
+        for (int i = k0; i < kEnd; i++) {
+            int rowI = index(i, 0);
+            for (int j = k0; j <= i; j++) {
+                int rowJ = index(j, 0);
+                double sum = h[rowI + j] - Kernels.dot(h, rowI + k0, h, rowJ + k0, j - k0);
+                if (i == j) {
+                    if (!(sum > 0)) {
+                        throw new ArithmeticException("Матрица не положительно определенная: ведущий элемент "
+                                + (i + 1) + " равен " + sum + ". Метод Холецкого не сработает.");
+                    }
+                    h[rowI + i] = Math.sqrt(sum);
+                } else {
+                    h[rowI + j] = sum / h[rowJ + j];
+                }
+            }
+        }
+    }
+
+    private static void panelSolve(double[] h, int k0, int kEnd, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int rowI = index(i, 0);
+            for (int j = k0; j < kEnd; j++) {
+                int rowJ = index(j, 0);
+                double sum = h[rowI + j] - Kernels.dot(h, rowI + k0, h, rowJ + k0, j - k0);
+                h[rowI + j] = sum / h[rowJ + j];
+            }
+        }
+    }
+
+    private static void trailingUpdate(double[] h, int k0, int kEnd, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int rowI = index(i, 0);
+            for (int j = kEnd; j <= i; j++) {
+                int rowJ = index(j, 0);
+                h[rowI + j] -= Kernels.dot(h, rowI + k0, h, rowJ + k0, kEnd - k0);
+            }
+        }
+    }
+
+    /**
+     * Параллельная обработка строк [from, to) делением диапазона пополам.
+     */
+    private static final class RowRange extends RecursiveAction {
+        private final double[] h;
+        private final int k0;
+        private final int kEnd;
+        private final int from;
+        private final int to;
+        private final boolean update;
+
+        RowRange(double[] h, int k0, int kEnd, int from, int to, boolean update) {
+            this.h = h;
+            this.k0 = k0;
+            this.kEnd = kEnd;
+            this.from = from;
+            this.to = to;
+            this.update = update;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_ROWS / 4) {
+                if (update) {
+                    trailingUpdate(h, k0, kEnd, from, to);
+                } else {
+                    panelSolve(h, k0, kEnd, from, to);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RowRange(h, k0, kEnd, from, middle, update),
+                    new RowRange(h, k0, kEnd, middle, to, update));
+        }
+    }
+
+    @Override
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Решает Hy = b, затем H^T x = y.
+     *
+     * @param b вектор свободных членов (не изменяется).
+     * @return решение x.
+     */
+    @Override
+    public double[] solve(double[] b) {
+        if (b.length != n) {
+            throw new IllegalArgumentException("Длина вектора " + b.length + " не равна размерности " + n);
+        }
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        double[] x = b.clone();
+        // Hy = b
+        for (int i = 0; i < n; i++) {
+            int row = index(i, 0);
+            x[i] = (x[i] - Kernels.dot(h, row, x, 0, i)) / h[row + i];
+        }
+        // H^T x = y: столбец i матрицы H^T — строка i матрицы H
+        for (int i = n - 1; i >= 0; i--) {
+            int row = index(i, 0);
+            x[i] /= h[row + i];
+            Kernels.axpy(-x[i], h, row, x, 0, i);
+        }
+        event.finish("Cholesky", n, 1);
+        return x;
+    }
+
+    /**
+     * Решает HY = B, затем H^T X = Y блочными треугольными решениями.
+     *
+     * @param B матрица правых частей n×k (не изменяется).
+     * @return решение X размером n×k.
+     */
+    @Override
+    public DenseMatrix solve(DenseMatrix B) {
+        if (B.rows() != n) {
+            throw new IllegalArgumentException("Число строк правых частей " + B.rows() + " не равно размерности " + n);
+        }
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        int k = B.cols();
+        // матрица вне кучи уже копируется в toHeap(), иначе данные копируются при первой записи
+        DenseMatrix X = B.isOffHeap() ? B.toHeap() : B.copy();
+        double[] x = X.mutableData();
+        BlockedTriangularSolve.forward(h, i -> index(i, 0), false, n, x, k);
+        BlockedTriangularSolve.backwardTransposed(h, i -> index(i, 0), n, x, k);
+        event.finish("Cholesky", n, k);
+        return X;
+    }
+
+    /**
+     * @return определитель A = (произведение диагонали H)².
+     */
+    @Override
+    public double determinant() {
+        double det = 1;
+        for (int i = 0; i < n; i++) {
+            double d = h[index(i, i)];
+            det *= d * d;
+        }
+        return det;
+    }
+
+    @Override
+    public long memoryBytes() {
+        return (long) h.length * Double.BYTES;
+    }
+
+    /**
+     * Возвращает разложение матрицы A + v * v^T за O(n²) вместо нового разложения за O(n³).
+     * Текущее разложение не изменяется (его может разделять {@link FactorizationCache}).
+     *
+     * @param v вектор обновления (не изменяется).
+     * @return разложение обновлённой матрицы.
+     */
+    public CholeskyFactorization update(double[] v) {
+        return rankOne(v, 1.0);
+    }
+
+    /**
+     * Возвращает разложение матрицы A - v * v^T за O(n²). Понижение ранга может
+     * сделать матрицу не положительно определённой — тогда разложение не существует.
+     *
+     * @param v вектор понижения (не изменяется).
+     * @return разложение обновлённой матрицы.
+     * @throws ArithmeticException если A - v * v^T не положительно определённая.
+     */
+    public CholeskyFactorization downdate(double[] v) {
+        return rankOne(v, -1.0);
+    }
+
+    /**
+     * Обновление строками: для строки i сначала применяются вращения, найденные на строках
+     * выше (они меняют H[i][k] и остаток x_i), затем по H[i][i] и x_i строится вращение i.
+     * Порядок операций тот же, что в столбцовом алгоритме LINPACK, но строки упакованной H
+     * читаются подряд.
+     */
+    private CholeskyFactorization rankOne(double[] v, double sign) {
+        if (v.length != n) {
+            throw new IllegalArgumentException("Длина вектора " + v.length + " не равна размерности " + n);
+        }
+        double[] updated = h.clone();
+        double[] x = v.clone();
+        double[] cosines = new double[n];
+        double[] sines = new double[n];
+        for (int i = 0; i < n; i++) {
+            int row = index(i, 0);
+            double xi = x[i];
+            for (int k = 0; k < i; k++) {
+                double value = (updated[row + k] + sign * sines[k] * xi) / cosines[k];
+                xi = cosines[k] * xi - sines[k] * value;
+                updated[row + k] = value;
+            }
+            double d = updated[row + i];
+            double squared = d * d + sign * xi * xi;
+            if (!(squared > 0)) {
+                throw new ArithmeticException("Матрица не положительно определенная: ведущий элемент "
+                        + (i + 1) + " равен " + squared + ". Метод Холецкого не сработает.");
+            }
+            double r = Math.sqrt(squared);
+            cosines[i] = r / d;
+            sines[i] = xi / d;
+            updated[row + i] = r;
+        }
+        return new CholeskyFactorization(n, updated);
+    }
+
+    /**
+     * Возвращает элемент H[i][j] (ноль выше диагонали).
+     */
+    public double get(int i, int j) {
+        return j <= i ? h[index(i, j)] : 0.0;
+    }
+
+    /**
+     * Распаковывает H в плотную матрицу n×n.
+     */
+    public DenseMatrix toDense() {
+        DenseMatrix dense = DenseMatrix.zeros(n, n);
+        double[] data = dense.mutableData();
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(h, index(i, 0), data, i * n, i + 1);
+        }
+        return dense;
+    }
+}
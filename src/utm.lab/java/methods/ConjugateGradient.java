@@ -0,0 +1,192 @@
+package methods;
+
+import kernels.Kernels;
+import preconditioners.Preconditioner;
+import utils.LinearOperator;
+
+/**
+ * Метод сопряжённых градиентов с предобусловливанием (PCG) для симметричных
+ * положительно определённых систем.
+ * <p>
+ * Матрица нужна только через умножение на вектор ({@link LinearOperator}), поэтому метод
+ * работает одинаково с плотными, разреженными и неявно заданными матрицами. Кроме
+ * матрицы хранится лишь несколько векторов длины n — O(n) памяти против O(n²) у Холецкого.
+ */
+public class ConjugateGradient {
+
+    /**
+     * Решает систему Ax = b без предобусловливания.
+     *
+     * @param A       симметричный положительно определённый оператор.
+     * @param b       вектор свободных членов.
+     * @param epsilon допустимая относительная невязка ||b - Ax|| / ||b||.
+     * @return решение x.
+     */
+    public static double[] solve(LinearOperator A, double[] b, double epsilon) {
+        return solve(A, b, Preconditioner.identity(), epsilon, Math.max(100, 10 * b.length));
+    }
+
+    /**
+     * Решает систему Ax = b методом сопряжённых градиентов с предобусловливанием.
+     *
+     * @param A             симметричный положительно определённый оператор.
+     * @param b             вектор свободных членов.
+     * @param M             предобусловливатель.
+     * @param epsilon       допустимая относительная невязка ||b - Ax|| / ||b||.
+     * @param maxIterations максимальное число итераций.
+     * @return решение x.
+     * @throws ArithmeticException если метод не сошёлся или оператор не положительно определён.
+     */
+    public static double[] solve(LinearOperator A, double[] b, Preconditioner M, double epsilon, int maxIterations) {
+        return solve(A, b, M, epsilon, maxIterations, null);
+    }
+
+    /**
+     * Решает систему Ax = b методом сопряжённых градиентов, сообщая о каждой итерации слушателю.
+     * Нормы для слушателя считаются отдельным проходом по векторам только при заданном слушателе.
+     *
+     * @param A             симметричный положительно определённый оператор.
+     * @param b             вектор свободных членов.
+     * @param M             предобусловливатель.
+     * @param epsilon       допустимая относительная невязка ||b - Ax|| / ||b||.
+     * @param maxIterations максимальное число итераций.
+     * @param listener      слушатель итераций или null.
+     * @return решение x.
+     * @throws ArithmeticException если метод не сошёлся или оператор не положительно определён.
+     */
+    public static double[] solve(LinearOperator A, double[] b, Preconditioner M, double epsilon, int maxIterations,
+                                 SolverListener listener) {
+        int n = A.size();
+        if (b.length != n) {
+            throw new IllegalArgumentException("Длина вектора " + b.length + " не равна размерности " + n);
+        }
+        double[] x = new double[n];
+        double[] r = b.clone(); // r = b - A*0
+        double[] z = new double[n];
+        double[] p = new double[n];
+        double[] q = new double[n];
+
+        double bNorm = Math.sqrt(dot(b, b));
+        if (bNorm == 0) {
+            return x;
+        }
+        double tolerance = epsilon * bNorm;
+
+        M.apply(r, z);
+        System.arraycopy(z, 0, p, 0, n);
+        double rz = dot(r, z);
+        IterationMonitor monitor = new IterationMonitor("CG", n, listener);
+
+        for (int iteration = 1; iteration <= maxIterations; iteration++) {
+            A.apply(p, q);
+            double pq = dot(p, q);
+            if (!(pq > 0)) {
+                monitor.finish(iteration, maxAbs(r), Double.NaN, false);
+                throw new ArithmeticException("Оператор не положительно определён: (p, Ap) = " + pq);
+            }
+            double alpha = rz / pq;
+            double rr = 0;
+            for (int i = 0; i < n; i++) {
+                x[i] += alpha * p[i];
+                r[i] -= alpha * q[i];
+                rr += r[i] * r[i];
+            }
+            if (monitor.isListening()) {
+                monitor.iteration(iteration, maxAbs(r), Math.abs(alpha) * maxAbs(p));
+            }
+            if (Math.sqrt(rr) <= tolerance) {
+                monitor.finish(iteration, maxAbs(r), Double.NaN, true);
+                return x;
+            }
+
+            M.apply(r, z);
+            double rzNew = dot(r, z);
+            double beta = rzNew / rz;
+            rz = rzNew;
+            for (int i = 0; i < n; i++) {
+                p[i] = z[i] + beta * p[i];
+            }
+        }
+        monitor.finish(maxIterations, maxAbs(r), Double.NaN, false);
+        throw new ConvergenceException("Метод сопряжённых градиентов не сошёлся за " + maxIterations + " итераций.",
+                ConvergenceException.Reason.ITERATIONS, maxIterations, maxAbs(r));
+    }
+
+    /**
+     * Решает систему Ax = b методом сопряжённых градиентов с заданными условиями остановки
+     * ({@link StoppingCriteria}): невязка и изменение приближения измеряются в норме ∞,
+     * ограничения по числу итераций, времени, расходимости и застою проверяет {@link IterationMonitor}.
+     * Нормы считаются в том же проходе, что и обновление x и r.
+     *
+     * @param A        симметричный положительно определённый оператор.
+     * @param b        вектор свободных членов.
+     * @param M        предобусловливатель.
+     * @param criteria условия сходимости и прерывания.
+     * @param listener слушатель итераций или null.
+     * @return решение x.
+     * @throws ConvergenceException если итерации прерваны по условиям остановки.
+     * @throws ArithmeticException  если оператор не положительно определён.
+     */
+    public static double[] solve(LinearOperator A, double[] b, Preconditioner M, StoppingCriteria criteria,
+                                 SolverListener listener) {
+        int n = A.size();
+        if (b.length != n) {
+            throw new IllegalArgumentException("Длина вектора " + b.length + " не равна размерности " + n);
+        }
+        double[] x = new double[n];
+        double[] r = b.clone(); // r = b - A*0
+        double[] z = new double[n];
+        double[] p = new double[n];
+        double[] q = new double[n];
+        if (maxAbs(b) == 0) {
+            return x;
+        }
+
+        M.apply(r, z);
+        System.arraycopy(z, 0, p, 0, n);
+        double rz = dot(r, z);
+        IterationMonitor monitor = new IterationMonitor("CG", n, listener, criteria, b);
+
+        for (int iteration = 1; ; iteration++) {
+            A.apply(p, q);
+            double pq = dot(p, q);
+            if (!(pq > 0)) {
+                monitor.finish(iteration, maxAbs(r), Double.NaN, false);
+                throw new ArithmeticException("Оператор не положительно определён: (p, Ap) = " + pq);
+            }
+            double alpha = rz / pq;
+            double residual = 0;
+            double delta = 0;
+            for (int i = 0; i < n; i++) {
+                double step = alpha * p[i];
+                x[i] += step;
+                r[i] -= alpha * q[i];
+                residual = Math.max(residual, Math.abs(r[i]));
+                delta = Math.max(delta, Math.abs(step));
+            }
+            if (monitor.converged(iteration, residual, delta)) {
+                return x;
+            }
+
+            M.apply(r, z);
+            double rzNew = dot(r, z);
+            double beta = rzNew / rz;
+            rz = rzNew;
+            for (int i = 0; i < n; i++) {
+                p[i] = z[i] + beta * p[i];
+            }
+        }
+    }
+
+    private static double dot(double[] u, double[] v) {
+        return Kernels.dot(u, 0, v, 0, u.length);
+    }
+
+    private static double maxAbs(double[] v) {
+        double max = 0;
+        for (double value : v) {
+            max = Math.max(max, Math.abs(value));
+        }
+        return max;
+    }
+}
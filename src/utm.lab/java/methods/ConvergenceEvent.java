@@ -0,0 +1,34 @@
+package methods;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Событие JFR: итерационное решение от первой итерации до остановки.
+ */
+@Name("matrixsolver.Convergence")
+@Label("Сходимость итерационного метода")
+@Category("MatrixSolver")
+final class ConvergenceEvent extends jdk.jfr.Event {
+    @Label("Метод")
+    String solver;
+
+    @Label("Размерность")
+    int size;
+
+    @Label("Итераций")
+    int iterations;
+
+    @Label("Невязка")
+    @Description("Оценка ||b - Ax||∞ на последней итерации")
+    double residualNorm;
+
+    @Label("Изменение решения")
+    @Description("max|xNew - xOld| на последней итерации")
+    double deltaNorm;
+
+    @Label("Сошёлся")
+    boolean converged;
+}
@@ -0,0 +1,59 @@
+package methods;
+
+/**
+ * Итерационный метод остановлен, не достигнув заданной точности: исчерпан бюджет
+ * итераций или времени, итерации расходятся или перестали уменьшать невязку.
+ */
+public class ConvergenceException extends ArithmeticException {
+    /**
+     * Причина остановки.
+     */
+    public enum Reason {
+        /** Исчерпано допустимое число итераций. */
+        ITERATIONS,
+        /** Исчерпано допустимое время. */
+        TIME,
+        /** Невязка стала NaN, бесконечной или выросла во много раз. */
+        DIVERGENCE,
+        /** Невязка долго не уменьшается: точность упёрлась в ошибки округления или метод застрял. */
+        STAGNATION
+    }
+
+    private final Reason reason;
+    private final int iterations;
+    private final double residualNorm;
+
+    /**
+     * @param message      причина остановки.
+     * @param reason       вид причины.
+     * @param iterations   число выполненных итераций.
+     * @param residualNorm оценка нормы невязки в момент остановки.
+     */
+    public ConvergenceException(String message, Reason reason, int iterations, double residualNorm) {
+        super(message);
+        this.reason = reason;
+        this.iterations = iterations;
+        this.residualNorm = residualNorm;
+    }
+
+    /**
+     * @return вид причины остановки.
+     */
+    public Reason reason() {
+        return reason;
+    }
+
+    /**
+     * @return число выполненных итераций.
+     */
+    public int iterations() {
+        return iterations;
+    }
+
+    /**
+     * @return оценка нормы невязки ||b - Ax||∞ в момент остановки.
+     */
+    public double residualNorm() {
+        return residualNorm;
+    }
+}
@@ -0,0 +1,41 @@
+package methods;
+
+import utils.DenseMatrix;
+
+/**
+ * Готовое разложение матрицы, которое можно использовать для многих правых частей.
+ */
+public interface Factorization {
+
+    /**
+     * @return размерность системы.
+     */
+    int size();
+
+    /**
+     * Решает систему Ax = b, используя готовое разложение.
+     *
+     * @param b вектор свободных членов (не изменяется).
+     * @return решение x.
+     */
+    double[] solve(double[] b);
+
+    /**
+     * Решает систему AX = B сразу для всех столбцов B. Множитель читается из памяти
+     * один раз на полосу столбцов, а не один раз на каждую правую часть.
+     *
+     * @param B матрица правых частей n×k (не изменяется).
+     * @return решение X размером n×k.
+     */
+    DenseMatrix solve(DenseMatrix B);
+
+    /**
+     * @return определитель исходной матрицы.
+     */
+    double determinant();
+
+    /**
+     * @return приблизительный объём памяти, занимаемый разложением, в байтах.
+     */
+    long memoryBytes();
+}
@@ -0,0 +1,201 @@
+package methods;
+
+import utils.DenseMatrix;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Кэш готовых LU- и Холецкого разложений (в том числе LU в смешанной точности).
+ * <p>
+ * Ключ — отпечаток содержимого матрицы ({@link DenseMatrix#fingerprint()}). Поэтому
+ * повторное решение с той же матрицей и новым вектором b стоит O(n²) вместо O(n³),
+ * даже если матрица пришла в другом объекте. Если матрицу изменили, у неё
+ * будет другой отпечаток, и разложение посчитается заново.
+ * <p>
+ * Отпечаток не криптографический, а матрицы могут приходить от недоверенных клиентов,
+ * поэтому вместе с разложением хранится копия матрицы ({@link DenseMatrix#copy()}: данные
+ * не копируются, пока в матрицу не пишут), и попадание засчитывается только при точном
+ * совпадении содержимого. Коллизия обрабатывается как промах.
+ * <p>
+ * Вытеснение идёт по LRU и ограничено двумя величинами: числом записей и суммарным
+ * объёмом разложений вместе с копиями матриц в байтах. Кэш потокобезопасен. Разложение считается вне блокировки,
+ * поэтому при одновременном промахе по одной матрице оно может быть посчитано дважды.
+ */
+public final class FactorizationCache {
+    /** Системное свойство: максимальное число записей общего кэша (0 — кэш выключен). */
+    public static final String ENTRIES_PROPERTY = "matrixsolver.cache.entries";
+    /** Системное свойство: максимальный объём общего кэша в мегабайтах. */
+    public static final String MEGABYTES_PROPERTY = "matrixsolver.cache.mb";
+
+    private static final FactorizationCache SHARED = new FactorizationCache(
+            Integer.getInteger(ENTRIES_PROPERTY, 16),
+            Long.getLong(MEGABYTES_PROPERTY, 256L) << 20);
+
+    private enum Kind { LU, CHOLESKY, MIXED_LU }
+
+    private record Key(Kind kind, int size, long fingerprint) {
+    }
+
+    private record Entry(DenseMatrix matrix, Factorization factorization) {
+
+        /**
+         * @return объём разложения и копии матрицы: копия занимает отдельную память,
+         * как только исходную матрицу изменят или отпустят.
+         */
+        long bytes() {
+            return factorization.memoryBytes() + (long) matrix.rows() * matrix.cols() * Double.BYTES;
+        }
+    }
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param maxEntries максимальное число разложений в кэше (0 — ничего не хранить).
+     * @param maxBytes   максимальный суммарный объём разложений и копий матриц в байтах.
+     */
+    public FactorizationCache(int maxEntries, long maxBytes) {
+        if (maxEntries < 0 || maxBytes < 0) {
+            throw new IllegalArgumentException("Ограничения кэша не могут быть отрицательными: "
+                    + maxEntries + " записей, " + maxBytes + " байт");
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Возвращает общий кэш, который используют {@link Gauss#solve(DenseMatrix, double[])}
+     * и {@link Cholesky#solve(DenseMatrix, double[])}. Размеры задаются свойствами
+     * {@value #ENTRIES_PROPERTY} и {@value #MEGABYTES_PROPERTY}.
+     * @return общий кэш
+     */
+    public static FactorizationCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Возвращает LU-разложение матрицы из кэша или вычисляет его.
+     *
+     * @param A квадратная матрица (не изменяется).
+     * @return разложение PA = LU.
+     * @throws ArithmeticException если матрица вырождена.
+     */
+    public LUFactorization lu(DenseMatrix A) {
+        return get(Kind.LU, A, Gauss::factor);
+    }
+
+    /**
+     * Возвращает разложение Холецкого из кэша или вычисляет его. Проверки симметричности
+     * и положительной определённости выполняются только при промахе.
+     *
+     * @param A симметричная положительно определённая матрица (не изменяется).
+     * @return разложение A = H * H^T.
+     * @throws ArithmeticException если матрица не положительно определённая.
+     */
+    public CholeskyFactorization cholesky(DenseMatrix A) {
+        return get(Kind.CHOLESKY, A, Cholesky::factor);
+    }
+
+    /**
+     * Возвращает LU-разложение в одинарной точности с уточнением из кэша или вычисляет его.
+     *
+     * @param A квадратная матрица (не изменяется).
+     * @return разложение в смешанной точности.
+     */
+    public MixedPrecisionLU mixedLu(DenseMatrix A) {
+        return get(Kind.MIXED_LU, A, MixedPrecisionLU::factor);
+    }
+
+    /**
+     * Кладёт в кэш разложение Холецкого, полученное обновлением уже известного разложения
+     * ({@link CholeskyFactorization#update(double[])}), чтобы следующее решение с матрицей A
+     * не раскладывало её заново.
+     *
+     * @param A             матрица, которой соответствует разложение.
+     * @param factorization разложение A.
+     */
+    void putCholesky(DenseMatrix A, CholeskyFactorization factorization) {
+        put(new Key(Kind.CHOLESKY, A.rows(), A.fingerprint()), A.copy(), factorization);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <F extends Factorization> F get(Kind kind, DenseMatrix A, Function<DenseMatrix, F> factor) {
+        Key key = new Key(kind, A.rows(), A.fingerprint());
+        Entry cached;
+        synchronized (this) {
+            cached = entries.get(key);
+        }
+        // сравнение стоит O(n²) и идёт вне блокировки; сохранённая копия не изменяется
+        boolean hit = cached != null && cached.matrix().contentEquals(A);
+        synchronized (this) {
+            if (hit) {
+                hits++;
+                return (F) cached.factorization();
+            }
+            misses++;
+        }
+        F result = factor.apply(A);
+        put(key, A.copy(), result);
+        return result;
+    }
+
+    private synchronized void put(Key key, DenseMatrix matrix, Factorization value) {
+        Entry entry = new Entry(matrix, value);
+        long size = entry.bytes();
+        if (maxEntries == 0 || size > maxBytes) {
+            return;
+        }
+        Entry previous = entries.put(key, entry);
+        bytes += size - (previous == null ? 0 : previous.bytes());
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries || bytes > maxBytes) {
+            Map.Entry<Key, Entry> evicted = eldest.next();
+            bytes -= evicted.getValue().bytes();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Удаляет все разложения; статистика попаданий сохраняется.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    /**
+     * @return снимок статистики кэша.
+     */
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size(), bytes);
+    }
+
+    /**
+     * Статистика кэша.
+     *
+     * @param hits      число попаданий.
+     * @param misses    число промахов (вычисленных разложений).
+     * @param evictions число вытесненных записей.
+     * @param entries   текущее число записей.
+     * @param bytes     текущий объём разложений и копий матриц в байтах.
+     */
+    public record Stats(long hits, long misses, long evictions, int entries, long bytes) {
+
+        /**
+         * @return доля попаданий среди всех обращений (0, если обращений не было).
+         */
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+}
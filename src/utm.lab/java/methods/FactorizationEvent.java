@@ -0,0 +1,31 @@
+package methods;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Событие JFR: полное разложение матрицы.
+ */
+@Name("matrixsolver.Factorization")
+@Label("Разложение матрицы")
+@Category("MatrixSolver")
+final class FactorizationEvent extends jdk.jfr.Event {
+    @Label("Метод")
+    String method;
+
+    @Label("Размерность")
+    int size;
+
+    /**
+     * Фиксирует окончание разложения, если событие включено в записи.
+     */
+    void finish(String method, int size) {
+        end();
+        if (shouldCommit()) {
+            this.method = method;
+            this.size = size;
+            commit();
+        }
+    }
+}
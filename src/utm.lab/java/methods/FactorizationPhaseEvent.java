@@ -0,0 +1,38 @@
+package methods;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Событие JFR: одна фаза блочного разложения для одной панели столбцов
+ * (разложение панели, треугольное решение, обновление оставшейся подматрицы).
+ */
+@Name("matrixsolver.FactorizationPhase")
+@Label("Фаза разложения")
+@Category("MatrixSolver")
+final class FactorizationPhaseEvent extends jdk.jfr.Event {
+    @Label("Метод")
+    String method;
+
+    @Label("Фаза")
+    String phase;
+
+    @Label("Первый столбец панели")
+    @Description("Номер первого столбца панели, начиная с 0")
+    int panel;
+
+    /**
+     * Фиксирует окончание фазы, если событие включено в записи.
+     */
+    void finish(String method, String phase, int panel) {
+        end();
+        if (shouldCommit()) {
+            this.method = method;
+            this.phase = phase;
+            this.panel = panel;
+            commit();
+        }
+    }
+}
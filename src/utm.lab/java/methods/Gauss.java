@@ -1,8 +1,12 @@
 package methods;
 
+import io.TiledMatrixFile;
+import kernels.Kernels;
 import logger.LoggerFactoryUtil;
 import logger.LoggerMatrix;
+import logger.TraceMode;
 import org.slf4j.Logger;
+import utils.DenseMatrix;
 import utils.Matrix;
 
 import java.util.Arrays;
@@ -18,49 +22,125 @@ public class Gauss {
      */
     public static void printGauss() {
         logger.info("Метода Гаусса для решения системы уравнений.".toUpperCase());
-        double[][] matrixA = Arrays.stream(Matrix.A).map(double[]::clone).toArray(double[][]::new);
-        double[] vectorB = Arrays.copyOf(Matrix.b, Matrix.b.length);
-        double[] solution = gaussianElimination(matrixA, vectorB);
+        double[] solution;
+        if (TraceMode.current() == TraceMode.FULL) {
+            // пошаговый вывод для занятий: классическое исключение с логированием каждого шага
+            DenseMatrix matrixA = Matrix.A.copy(); // данные копируются только при первой записи
+            double[] vectorB = Arrays.copyOf(Matrix.b, Matrix.b.length);
+            solution = gaussianElimination(matrixA, vectorB);
+        } else {
+            solution = solve(Matrix.A, Matrix.b);
+        }
         LoggerMatrix.logSolution(solution); // Логируем решение
     }
 
     /**
-     * Выполняет метод исключения Гаусса для решения системы линейных уравнений.
+     * Выполняет блочное LU-разложение с частичным выбором ведущего элемента.
+     * Полученное разложение можно использовать для многих правых частей.
+     *
+     * @param A квадратная матрица коэффициентов (не изменяется).
+     * @return разложение PA = LU.
+     * @throws ArithmeticException если матрица вырождена.
+     */
+    public static LUFactorization factor(DenseMatrix A) {
+        return LUFactorization.factor(A, LUFactorization.BLOCK_SIZE);
+    }
+
+    /**
+     * Решает систему Ax = b через LU-разложение. Разложение берётся из
+     * {@link FactorizationCache#shared()}, поэтому повторное решение с той же матрицей стоит O(n²).
+     *
+     * @param A матрица коэффициентов (не изменяется).
+     * @param b вектор свободных членов (не изменяется).
+     * @return решение x.
+     */
+    public static double[] solve(DenseMatrix A, double[] b) {
+        return FactorizationCache.shared().lu(A).solve(b);
+    }
+
+    /**
+     * Решает систему AX = B сразу для всех столбцов B (например, для многих вариантов нагрузки).
+     * Используется одно LU-разложение из {@link FactorizationCache#shared()}
+     * и блочные треугольные решения.
+     *
+     * @param A матрица коэффициентов (не изменяется).
+     * @param B матрица правых частей n×k (не изменяется).
+     * @return решение X размером n×k.
+     */
+    public static DenseMatrix solve(DenseMatrix A, DenseMatrix B) {
+        return FactorizationCache.shared().lu(A).solve(B);
+    }
+
+    /**
+     * Решает систему Ax = b в смешанной точности: LU-разложение во float и уточнение
+     * невязки в double до полной точности double. Для хорошо обусловленных матриц
+     * разложение вдвое дешевле по памяти и пропускной способности; если уточнение
+     * не сходится, решение автоматически получается разложением в double.
+     * Разложение берётся из {@link FactorizationCache#shared()}.
+     *
+     * @param A матрица коэффициентов (не изменяется).
+     * @param b вектор свободных членов (не изменяется).
+     * @return решение x.
+     * @throws ArithmeticException если матрица вырождена.
+     */
+    public static double[] solveMixed(DenseMatrix A, double[] b) {
+        return FactorizationCache.shared().mixedLu(A).solve(b);
+    }
+
+    /**
+     * Выполняет LU-разложение матрицы, хранящейся в файле плиток, не загружая её в кучу целиком.
+     * Разложение записывается в тот же файл на место матрицы.
+     *
+     * @param file        матрица в файле плиток.
+     * @param memoryBytes объём памяти под обрабатываемую панель столбцов
+     *                    (например, {@link OutOfCoreFactorization#DEFAULT_MEMORY}).
+     * @return разложение PA = LU, которое читает множители из файла.
+     * @throws ArithmeticException      если матрица вырождена.
+     * @throws IllegalArgumentException если в memoryBytes не помещается один столбец плиток (n×T чисел).
+     */
+    public static OutOfCoreFactorization factorOutOfCore(TiledMatrixFile file, long memoryBytes) {
+        return OutOfCoreFactorization.lu(file, memoryBytes);
+    }
+
+    /**
+     * Выполняет метод исключения Гаусса для решения системы линейных уравнений
+     * с пошаговым логированием (используется в режиме {@link TraceMode#FULL}).
      *
      * @param A матрица коэффициентов.
      * @param b вектор свободных членов.
      * @return массив значений переменных, полученных в результате решения системы.
      */
-    private static double[] gaussianElimination(double[][] A, double[] b) {
-        int Alen = A.length;
+    private static double[] gaussianElimination(DenseMatrix A, double[] b) {
+        int Alen = A.rows();
 
         // прямо ход метода Гауса
         for (int el = 0; el < Alen; el++) {
             int max = el;
             for (int i = el + 1; i < Alen; i++) {
-                if (Math.abs(A[i][el]) > Math.abs(A[max][el])) {
+                if (Math.abs(A.get(i, el)) > Math.abs(A.get(max, el))) {
                     max = i;
                 }
             }
             logger.info("Выбрана строка {} с максимальным элементом для столбца {}", el + 1, max + 1);
 
             // меняем строки местми в зависимости от максмального первого элемента строки
-            double[] temp = A[el];
-            A[el] = A[max];
-            A[max] = temp;
+            A.swapRows(el, max);
 
             double res = b[el];
             b[el] = b[max];
             b[max] = res;
 
             // приводим матрицу в треугольную форму
+            double[] a = A.mutableData();
+            int pivotRow = el * Alen;
             for (int i = el + 1; i < Alen; i++) {
-                double factor = A[i][el] / A[max][max];
-                b[i] -= factor * b[max];
+                int row = i * Alen;
+                double factor = a[row + el] / a[pivotRow + el];
+                b[i] -= factor * b[el];
                 logger.debug("Обновление свободного члена b[{}]: {}", i, b[i]);
                 for (int j = el; j < Alen; j++) {
-                    A[i][j] -= factor * A[el][j];
-                    logger.debug("Обновление элемента A[{}][{}]: {}", i, j, A[i][j]);
+                    a[row + j] -= factor * a[pivotRow + j];
+                    logger.debug("Обновление элемента A[{}][{}]: {}", i, j, a[row + j]);
                 }
             }
 
@@ -72,13 +152,12 @@ public class Gauss {
         logger.info("Прямой ход завершён. Начало обратного хода.");
 
         // обратный ход метода гауса
+        double[] a = A.data();
         double[] x = new double[Alen];
         for (int i = Alen - 1; i >= 0; i--) {
-            double sum = 0.0;
-            for (int j = i + 1; j < Alen; j++) {
-                sum += A[i][j] * x[j];
-            }
-            x[i] = (b[i] - sum) / A[i][i];
+            int row = i * Alen;
+            double sum = Kernels.dot(a, row + i + 1, x, i + 1, Alen - i - 1);
+            x[i] = (b[i] - sum) / a[row + i];
             logger.debug("Вычислено значение x[{}]: {}", i + 1, x[i]);
         }
 
@@ -1,10 +1,14 @@
 package methods;
 
+import kernels.Kernels;
 import logger.LoggerFactoryUtil;
 import logger.LoggerMatrix;
+import logger.TraceMode;
 import org.slf4j.Logger;
+import utils.DenseMatrix;
 import utils.Epsilons;
 import utils.Matrix;
+import utils.SparseMatrix;
 
 import java.util.Arrays;
 
@@ -17,22 +21,25 @@ public class GaussSeidel {
 
     /**
      * Печатает решение системы линейных уравнений методом Гаусса — Зейделя
-     * для различных значений epsilon.
+     * для различных значений epsilon. Каждая следующая (более строгая) точность
+     * продолжает итерации с решения для предыдущей, а не начинает с нуля.
      */
     public static void printGaussSeidel() {
+        TraceMode mode = TraceMode.current();
         // Массив значений epsilon
         double[] epsilons = {Epsilons.EPSILON_1, Epsilons.EPSILON_2};
         String[] epsilonLabels = {"e10^-3", "e10^-5"};
 
+        // Матрица только читается, клонируем лишь вектор
+        DenseMatrix matrixA = Matrix.A;
+        double[] vectorB = Arrays.copyOf(Matrix.b, Matrix.b.length);
+        double[] solution = null;
+
         for (int i = 0; i < epsilons.length; i++) {
             logger.info("\n*********************************************");
             logger.info("\nРешение системы уровнений методом Гаусса — Зейделя {}".toUpperCase(), epsilonLabels[i]);
 
-            // Клонируем матрицу и вектор для каждого значения epsilon
-            double[][] matrixA = Arrays.stream(Matrix.A).map(double[]::clone).toArray(double[][]::new);
-            double[] vectorB = Arrays.copyOf(Matrix.b, Matrix.b.length);
-
-            double[] solution = gaussSeidelMethod(matrixA, vectorB, epsilons[i]);
+            solution = gaussSeidelMethod(matrixA, vectorB, solution, StoppingCriteria.of(epsilons[i]), mode, null);
             LoggerMatrix.logSolution(solution);
         }
     }
@@ -43,65 +50,333 @@ public class GaussSeidel {
      * @param A       матрица коэффициентов.
      * @param b       вектор свободных членов.
      * @param epsilon допустимая погрешность для проверки сходимости.
+     * @param mode    режим трассировки итераций.
      * @return массив значений переменных, полученных в результате решения системы.
      */
-    private static double[] gaussSeidelMethod(double[][] A, double[] b, double epsilon) {
-        double[] xNew = new double[b.length];
-        double[] xOld = new double[b.length];
+    public static double[] gaussSeidelMethod(DenseMatrix A, double[] b, double epsilon, TraceMode mode) {
+        return gaussSeidelMethod(A, b, epsilon, mode, null);
+    }
+
+    /**
+     * Выполняет метод Гаусса — Зейделя, сообщая о каждой итерации слушателю.
+     *
+     * @param A        матрица коэффициентов.
+     * @param b        вектор свободных членов.
+     * @param epsilon  допустимая погрешность для проверки сходимости.
+     * @param mode     режим трассировки итераций.
+     * @param listener слушатель итераций или null.
+     * @return массив значений переменных, полученных в результате решения системы.
+     */
+    public static double[] gaussSeidelMethod(DenseMatrix A, double[] b, double epsilon, TraceMode mode,
+                                             SolverListener listener) {
+        return gaussSeidelMethod(A, b, StoppingCriteria.of(epsilon), mode, listener);
+    }
+
+    /**
+     * Выполняет метод Гаусса — Зейделя с заданными условиями остановки.
+     *
+     * @param A        матрица коэффициентов.
+     * @param b        вектор свободных членов.
+     * @param criteria условия сходимости и прерывания.
+     * @param mode     режим трассировки итераций.
+     * @param listener слушатель итераций или null.
+     * @return массив значений переменных, полученных в результате решения системы.
+     * @throws ConvergenceException если итерации прерваны по условиям остановки.
+     */
+    public static double[] gaussSeidelMethod(DenseMatrix A, double[] b, StoppingCriteria criteria, TraceMode mode,
+                                             SolverListener listener) {
+        return gaussSeidelMethod(A, b, null, criteria, mode, listener);
+    }
+
+    /**
+     * Выполняет метод Гаусса — Зейделя, начиная с заданного приближения. Продолжение
+     * с решения, найденного для более грубой точности, не повторяет уже сделанные итерации.
+     *
+     * @param A            матрица коэффициентов.
+     * @param b            вектор свободных членов.
+     * @param initialGuess начальное приближение (не изменяется) или null для нулевого.
+     * @param criteria     условия сходимости и прерывания.
+     * @param mode         режим трассировки итераций.
+     * @param listener     слушатель итераций или null.
+     * @return массив значений переменных, полученных в результате решения системы.
+     * @throws ConvergenceException если итерации прерваны по условиям остановки.
+     */
+    public static double[] gaussSeidelMethod(DenseMatrix A, double[] b, double[] initialGuess,
+                                             StoppingCriteria criteria, TraceMode mode, SolverListener listener) {
+        double[] a = A.toHeap().data();
+        double[] xNew = initialGuess == null ? new double[b.length] : checkedGuess(initialGuess, b.length);
+        double[] xOld = xNew.clone();
         boolean converged = false;
         int iteration = 0;
+        double residual;
+        IterationMonitor monitor = new IterationMonitor("Gauss-Seidel", b.length, listener, criteria, b);
+
+        while (!converged) {
+            iteration++;
 
-        // Инициализируем xOld нулями
-        Arrays.fill(xOld, 0.0);
+            // режим проверяется один раз за итерацию, а не на каждом слагаемом
+            if (mode == TraceMode.FULL) {
+                logger.info("Iteration: {}".toUpperCase(), iteration);
+                residual = tracedSweep(a, b, xNew);
+            } else {
+                residual = sweep(a, b, xNew);
+            }
 
+            // Проверка сходимости
+            double delta = maxDelta(xOld, xNew);
+            if (mode == TraceMode.SUMMARY) {
+                logger.info("Итерация {}: max|xNew - xOld| = {}", iteration, delta);
+            }
+            converged = monitor.converged(iteration, residual, delta);
+
+            // Обновляем xOld для следующей итерации
+            System.arraycopy(xNew, 0, xOld, 0, xNew.length);
+        }
+        return xNew;
+    }
+
+    /**
+     * Выполняет метод Гаусса — Зейделя с ускорением Андерсона (см. {@link Jacobi#andersonMethod}):
+     * следующее приближение строится по последним {@code depth} итерациям как комбинация,
+     * минимизирующая невязку неподвижной точки. Глубина 1 — векторная экстраполяция Эйткена.
+     *
+     * @param A        матрица коэффициентов.
+     * @param b        вектор свободных членов.
+     * @param depth    число запоминаемых итераций.
+     * @param criteria условия сходимости и прерывания.
+     * @param listener слушатель итераций или null.
+     * @return решение x.
+     * @throws ConvergenceException если итерации прерваны по условиям остановки.
+     */
+    public static double[] andersonMethod(DenseMatrix A, double[] b, int depth, StoppingCriteria criteria,
+                                          SolverListener listener) {
+        double[] a = A.toHeap().data();
+        int n = b.length;
+        AndersonMixing mixing = new AndersonMixing(n, depth);
+        double[] x = new double[n];
+        double[] next = new double[n];
+        IterationMonitor monitor = new IterationMonitor("Anderson-Gauss-Seidel", n, listener, criteria, b);
+        int iteration = 0;
+        boolean converged = false;
         while (!converged) {
             iteration++;
+            // итерация Гаусса — Зейделя обновляет вектор на месте, поэтому x сохраняется отдельно
+            System.arraycopy(x, 0, next, 0, n);
+            double residual = sweep(a, b, next);
+            mixing.next(x, next, next);
+            double delta = maxDelta(x, next);
+            double[] temp = x;
+            x = next;
+            next = temp;
+            converged = monitor.converged(iteration, residual, delta);
+        }
+        return x;
+    }
+
+    /**
+     * Выполняет метод Гаусса — Зейделя для разреженной матрицы в формате CSR.
+     * Работа на итерации пропорциональна числу ненулевых элементов, а не n².
+     *
+     * @param A       разреженная матрица коэффициентов.
+     * @param b       вектор свободных членов.
+     * @param epsilon допустимая погрешность для проверки сходимости.
+     * @return массив значений переменных, полученных в результате решения системы.
+     */
+    public static double[] gaussSeidelMethod(SparseMatrix A, double[] b, double epsilon) {
+        return gaussSeidelMethod(A, b, epsilon, null);
+    }
+
+    /**
+     * Выполняет метод Гаусса — Зейделя для разреженной матрицы, сообщая о каждой итерации слушателю.
+     *
+     * @param A        разреженная матрица коэффициентов.
+     * @param b        вектор свободных членов.
+     * @param epsilon  допустимая погрешность для проверки сходимости.
+     * @param listener слушатель итераций или null.
+     * @return массив значений переменных, полученных в результате решения системы.
+     */
+    public static double[] gaussSeidelMethod(SparseMatrix A, double[] b, double epsilon, SolverListener listener) {
+        return gaussSeidelMethod(A, b, StoppingCriteria.of(epsilon), listener);
+    }
 
-            logger.info("Iteration: {}".toUpperCase(), iteration);
+    /**
+     * Выполняет метод Гаусса — Зейделя для разреженной матрицы с заданными условиями остановки.
+     *
+     * @param A        разреженная матрица коэффициентов.
+     * @param b        вектор свободных членов.
+     * @param criteria условия сходимости и прерывания.
+     * @param listener слушатель итераций или null.
+     * @return массив значений переменных, полученных в результате решения системы.
+     * @throws ConvergenceException если итерации прерваны по условиям остановки.
+     */
+    public static double[] gaussSeidelMethod(SparseMatrix A, double[] b, StoppingCriteria criteria,
+                                             SolverListener listener) {
+        int[] rowPtr = A.rowPtr();
+        int[] colIdx = A.colIdx();
+        double[] values = A.values();
+        double[] diagonal = Jacobi.checkedDiagonal(A);
+        double[] x = new double[b.length];
+        double delta;
+        double residual;
+        int iteration = 0;
+        IterationMonitor monitor = new IterationMonitor("Gauss-Seidel (CSR)", b.length, listener, criteria, b);
 
+        do {
+            iteration++;
+            delta = 0;
+            residual = 0;
             for (int i = 0; i < b.length; i++) {
                 double sum = 0;
+                for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                    sum += values[k] * x[colIdx[k]]; // Используем уже обновленные значения
+                }
+                sum -= diagonal[i] * x[i];
+                double value = (b[i] - sum) / diagonal[i];
+                double change = Math.abs(value - x[i]);
+                delta = Math.max(delta, change);
+                // невязка строки до обновления равна a_ii * (value - x_i)
+                residual = Math.max(residual, Math.abs(diagonal[i]) * change);
+                x[i] = value;
+            }
+        } while (!monitor.converged(iteration, residual, delta));
+        return x;
+    }
+
+    /**
+     * Выполняет метод Гаусса — Зейделя сразу для нескольких правых частей (столбцов B).
+     * <p>
+     * Как и в {@link Jacobi#jacobiMethod(DenseMatrix, DenseMatrix, double)}, столбцы
+     * обрабатываются полосами, и каждая строка A применяется ко всей полосе за один проход.
+     * Строки полосы обновляются на месте, поэтому строки выше i уже содержат новые значения.
+     *
+     * @param A       матрица коэффициентов.
+     * @param B       матрица правых частей n×k.
+     * @param epsilon допустимая погрешность для проверки сходимости.
+     * @return решения размером n×k.
+     */
+    public static DenseMatrix gaussSeidelMethod(DenseMatrix A, DenseMatrix B, double epsilon) {
+        return gaussSeidelMethod(A, B, StoppingCriteria.of(epsilon));
+    }
+
+    /**
+     * Выполняет метод Гаусса — Зейделя для нескольких правых частей с заданными условиями
+     * остановки, которые проверяются для каждой полосы столбцов отдельно.
+     *
+     * @param A        матрица коэффициентов.
+     * @param B        матрица правых частей n×k.
+     * @param criteria условия сходимости и прерывания.
+     * @return решения размером n×k.
+     * @throws ConvergenceException если итерации прерваны по условиям остановки.
+     */
+    public static DenseMatrix gaussSeidelMethod(DenseMatrix A, DenseMatrix B, StoppingCriteria criteria) {
+        double[] a = A.toHeap().data();
+        double[] b = B.toHeap().data();
+        int n = B.rows();
+        int k = B.cols();
+        DenseMatrix X = DenseMatrix.zeros(n, k);
+        int stripWidth = Math.min(k, BlockedTriangularSolve.RHS_BLOCK);
+        double[] x = new double[n * stripWidth];
+        double[] rowValues = new double[stripWidth];
 
-                // Считаем сумму для x[i]
-                for (int j = 0; j < b.length; j++) {
-                    if (i != j) {
-                        sum += A[i][j] * xNew[j]; // Используем уже обновленные значения
-                        logger.info(String.format(
-                                "sum += A[%d][%d] * x[%d] -> sum += %.4f * %.4f = %.4f",
-                                i + 1, j + 1, j + 1, A[i][j], xNew[j], sum));
+        for (int c0 = 0; c0 < k; c0 += stripWidth) {
+            int width = Math.min(stripWidth, k - c0);
+            Arrays.fill(x, 0.0);
+            IterationMonitor monitor = new IterationMonitor("Gauss-Seidel (multi-RHS)", n, null, criteria, b);
+            int iteration = 0;
+            double delta;
+            double residual;
+            do {
+                iteration++;
+                delta = 0;
+                residual = 0;
+                for (int i = 0; i < n; i++) {
+                    int row = i * n;
+                    int out = i * width;
+                    System.arraycopy(b, i * k + c0, rowValues, 0, width);
+                    Kernels.rankUpdate(rowValues, 0, width, a, row, i, x, 0, width);
+                    Kernels.rankUpdate(rowValues, 0, width, a, row + i + 1, n - i - 1, x, out + width, width);
+                    double diagonal = a[row + i];
+                    for (int c = 0; c < width; c++) {
+                        double value = rowValues[c] / diagonal;
+                        double change = Math.abs(value - x[out + c]);
+                        delta = Math.max(delta, change);
+                        residual = Math.max(residual, Math.abs(diagonal) * change);
+                        x[out + c] = value;
                     }
                 }
+            } while (!monitor.converged(iteration, residual, delta));
+            Jacobi.storeStrip(x, X, c0, width);
+        }
+        return X;
+    }
 
-                // Вычисляем новое значение x[i]
-                xNew[i] = (b[i] - sum) / A[i][i];
-                logger.info(String.format("x[%d] = (b[%d] - sum)/A[%d][%d] -> x[%d] = (%.4f - %.4f) / %.4f = %.4f"
-                        , i + 1, i + 1, i + 1, i + 1, i + 1
-                        , b[i], sum, A[i][i], xNew[i]));
-            }
+    /**
+     * Копирует начальное приближение, проверяя его длину.
+     */
+    static double[] checkedGuess(double[] initialGuess, int n) {
+        if (initialGuess.length != n) {
+            throw new IllegalArgumentException("Длина начального приближения " + initialGuess.length
+                    + " не равна размерности " + n);
+        }
+        return initialGuess.clone();
+    }
 
-            // Проверка сходимости
-            converged = checkConvergence(xOld, xNew, epsilon);
+    /**
+     * Одна итерация Гаусса — Зейделя без логирования.
+     * @return max-норма невязки строк в момент их обновления.
+     */
+    private static double sweep(double[] a, double[] b, double[] x) {
+        double residual = 0;
+        for (int i = 0; i < b.length; i++) {
+            int row = i * b.length;
+            // x обновляется на месте, поэтому скалярное произведение уже использует новые значения;
+            // диагональный член вычитаем после, чтобы в цикле не было ветвления
+            double sum = Kernels.dot(a, row, x, 0, b.length) - a[row + i] * x[i];
+            double r = b[i] - sum;
+            residual = Math.max(residual, Math.abs(r - a[row + i] * x[i]));
+            x[i] = r / a[row + i];
+        }
+        return residual;
+    }
 
-            // Обновляем xOld для следующей итерации
-            System.arraycopy(xNew, 0, xOld, 0, xNew.length);
+    /**
+     * Одна итерация Гаусса — Зейделя с пошаговым выводом каждого слагаемого.
+     * @return max-норма невязки строк в момент их обновления.
+     */
+    private static double tracedSweep(double[] a, double[] b, double[] xNew) {
+        double residual = 0;
+        for (int i = 0; i < b.length; i++) {
+            int row = i * b.length;
+            double sum = 0;
+
+            // Считаем сумму для x[i]
+            for (int j = 0; j < b.length; j++) {
+                if (i != j) {
+                    sum += a[row + j] * xNew[j]; // Используем уже обновленные значения
+                    logger.info(String.format(
+                            "sum += A[%d][%d] * x[%d] -> sum += %.4f * %.4f = %.4f",
+                            i + 1, j + 1, j + 1, a[row + j], xNew[j], sum));
+                }
+            }
+
+            // Вычисляем новое значение x[i]
+            residual = Math.max(residual, Math.abs(b[i] - sum - a[row + i] * xNew[i]));
+            xNew[i] = (b[i] - sum) / a[row + i];
+            logger.info(String.format("x[%d] = (b[%d] - sum)/A[%d][%d] -> x[%d] = (%.4f - %.4f) / %.4f = %.4f"
+                    , i + 1, i + 1, i + 1, i + 1, i + 1
+                    , b[i], sum, a[row + i], xNew[i]));
         }
-        return xNew;
+        return residual;
     }
 
     /**
-     * Проверяет сходимость метода Гаусса — Зейделя.
-     *
-     * @param xOld    старые значения переменных.
-     * @param xNew    новые значения переменных.
-     * @param epsilon допустимая погрешность для проверки сходимости.
-     * @return true, если решение сошлось, false в противном случае.
+     * Возвращает максимальное изменение компонент решения за итерацию.
      */
-    private static boolean checkConvergence(double[] xOld, double[] xNew, double epsilon) {
+    private static double maxDelta(double[] xOld, double[] xNew) {
+        double max = 0;
         for (int i = 0; i < xOld.length; i++) {
-            if (Math.abs(xOld[i] - xNew[i]) > epsilon) {
-                return false; // Не сошлись
-            }
+            max = Math.max(max, Math.abs(xOld[i] - xNew[i]));
         }
-        return true; // Сошлись
+        return max;
     }
 }
@@ -0,0 +1,119 @@
+package methods;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Передаёт ход итераций слушателю, проверяет условия остановки ({@link StoppingCriteria})
+ * и по завершении записывает событие JFR.
+ * Создаётся на каждое решение; без слушателя каждая итерация стоит одну проверку на null.
+ */
+final class IterationMonitor {
+    private final String solver;
+    private final int size;
+    private final SolverListener listener;
+    private final StoppingCriteria criteria;
+    private final double residualTarget;
+    private final ConvergenceEvent event = new ConvergenceEvent();
+    private final long start;
+    private double bestResidual = Double.POSITIVE_INFINITY;
+    private int stalled;
+
+    IterationMonitor(String solver, int size, SolverListener listener) {
+        this(solver, size, listener, null, null);
+    }
+
+    /**
+     * @param criteria условия остановки для {@link #converged(int, double, double)} или null.
+     * @param b        вектор свободных членов (для относительной невязки) или null.
+     */
+    IterationMonitor(String solver, int size, SolverListener listener, StoppingCriteria criteria, double[] b) {
+        this.solver = solver;
+        this.size = size;
+        this.listener = listener;
+        this.criteria = criteria;
+        this.residualTarget = criteria != null ? criteria.residualTarget(b != null ? maxAbs(b) : 0) : -1;
+        this.start = listener != null || criteria != null ? System.nanoTime() : 0;
+        event.begin();
+    }
+
+    /**
+     * @return true, если задан слушатель и нормы стоит считать даже там, где они не нужны методу.
+     */
+    boolean isListening() {
+        return listener != null;
+    }
+
+    void iteration(int iteration, double residualNorm, double deltaNorm) {
+        if (listener != null) {
+            try {
+                listener.onIteration(iteration, residualNorm, deltaNorm, System.nanoTime() - start);
+            } catch (ConvergenceException | CancellationException e) {
+                // слушатель прервал метод (например, отменённая подписка) —
+                // решение всё равно попадает в JFR
+                finish(iteration, residualNorm, deltaNorm, false);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Сообщает об итерации слушателю и проверяет условия остановки. Если метод сошёлся,
+     * событие JFR уже записано.
+     *
+     * @return true, если выполнено условие сходимости.
+     * @throws ConvergenceException если метод нужно прервать.
+     */
+    boolean converged(int iteration, double residualNorm, double deltaNorm) {
+        iteration(iteration, residualNorm, deltaNorm);
+        if (deltaNorm <= criteria.deltaTolerance() || residualNorm <= residualTarget) {
+            finish(iteration, residualNorm, deltaNorm, true);
+            return true;
+        }
+        String failure = null;
+        ConvergenceException.Reason reason = null;
+        if (!Double.isFinite(residualNorm) || !Double.isFinite(deltaNorm)
+                || residualNorm > criteria.divergenceFactor() * bestResidual) {
+            reason = ConvergenceException.Reason.DIVERGENCE;
+            failure = "Итерации расходятся на итерации " + iteration + ": невязка " + residualNorm + ".";
+        } else if (iteration >= criteria.maxIterations()) {
+            reason = ConvergenceException.Reason.ITERATIONS;
+            failure = "Метод не сошёлся за " + iteration + " итераций.";
+        } else if (criteria.timeLimit() != null && System.nanoTime() - start > criteria.timeLimit().toNanos()) {
+            reason = ConvergenceException.Reason.TIME;
+            failure = "Метод не сошёлся за " + criteria.timeLimit().toMillis() + " мс (" + iteration + " итераций).";
+        } else if (residualNorm < bestResidual) {
+            bestResidual = residualNorm;
+            stalled = 0;
+        } else if (criteria.stagnationWindow() > 0 && ++stalled >= criteria.stagnationWindow()) {
+            reason = ConvergenceException.Reason.STAGNATION;
+            failure = "Невязка не уменьшается " + stalled + " итераций (наименьшая " + bestResidual
+                    + "): точность недостижима.";
+        }
+        if (failure != null) {
+            finish(iteration, residualNorm, deltaNorm, false);
+            throw new ConvergenceException(failure, reason, iteration, residualNorm);
+        }
+        return false;
+    }
+
+    void finish(int iterations, double residualNorm, double deltaNorm, boolean converged) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.solver = solver;
+            event.size = size;
+            event.iterations = iterations;
+            event.residualNorm = residualNorm;
+            event.deltaNorm = deltaNorm;
+            event.converged = converged;
+            event.commit();
+        }
+    }
+
+    private static double maxAbs(double[] v) {
+        double max = 0;
+        for (double value : v) {
+            max = Math.max(max, Math.abs(value));
+        }
+        return max;
+    }
+}
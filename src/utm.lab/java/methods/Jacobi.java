@@ -1,12 +1,15 @@
 package methods;
 
+import kernels.Kernels;
 import logger.LoggerFactoryUtil;
 import logger.LoggerMatrix;
+import logger.TraceMode;
 import org.slf4j.Logger;
+import utils.DenseMatrix;
 import utils.Epsilons;
 import utils.Matrix;
+import utils.SparseMatrix;
 
-import java.lang.reflect.Array;
 import java.util.Arrays;
 
 /**
@@ -14,6 +17,10 @@ import java.util.Arrays;
  */
 public class Jacobi {
     private static final Logger logger = LoggerFactoryUtil.getLogger(Jacobi.class);
+    /** Наибольшее число итераций Якоби для оценки спектрального радиуса. */
+    private static final int CHEBYSHEV_WARMUP = 30;
+    /** Оценка спектрального радиуса считается установившейся при таком относительном изменении. */
+    private static final double SPECTRAL_RADIUS_TOLERANCE = 1e-3;
 
     /**
      * Печатает решение системы линейных уравнений методом Якоби.
@@ -21,10 +28,10 @@ public class Jacobi {
     public static void printJacobi() {
         logger.info("\n*********************************************");
         logger.info("\nРешение системы уровнений методом Якоби".toUpperCase());
-        double[][] matrixA = Arrays.stream(Matrix.A).map(double[]::clone).toArray(double[][]::new);
+        DenseMatrix matrixA = Matrix.A; // матрица только читается, копия не нужна
         double[] vectorB = Arrays.copyOf(Matrix.b, Matrix.b.length);
         double epsilon = Epsilons.EPSILON_1;
-        double[] solution = jacobiMethod(matrixA, vectorB, epsilon);
+        double[] solution = jacobiMethod(matrixA, vectorB, epsilon, TraceMode.current());
         LoggerMatrix.logSolution(solution);
     }
 
@@ -34,56 +41,463 @@ public class Jacobi {
      * @param A матрица коэффициентов.
      * @param b вектор свободных членов.
      * @param epsilon допустимая погрешность для проверки сходимости.
+     * @param mode режим трассировки итераций.
      * @return массив значений переменных, полученных в результате решения системы.
      */
-    private static double[] jacobiMethod(double[][] A, double[] b, double epsilon) {
+    public static double[] jacobiMethod(DenseMatrix A, double[] b, double epsilon, TraceMode mode) {
+        return jacobiMethod(A, b, epsilon, mode, null);
+    }
+
+    /**
+     * Выполняет метод Якоби, сообщая о каждой итерации слушателю.
+     *
+     * @param A        матрица коэффициентов.
+     * @param b        вектор свободных членов.
+     * @param epsilon  допустимая погрешность для проверки сходимости.
+     * @param mode     режим трассировки итераций.
+     * @param listener слушатель итераций или null.
+     * @return массив значений переменных, полученных в результате решения системы.
+     */
+    public static double[] jacobiMethod(DenseMatrix A, double[] b, double epsilon, TraceMode mode,
+                                        SolverListener listener) {
+        return jacobiMethod(A, b, StoppingCriteria.of(epsilon), mode, listener);
+    }
+
+    /**
+     * Выполняет метод Якоби с заданными условиями остановки.
+     *
+     * @param A        матрица коэффициентов.
+     * @param b        вектор свободных членов.
+     * @param criteria условия сходимости и прерывания.
+     * @param mode     режим трассировки итераций.
+     * @param listener слушатель итераций или null.
+     * @return массив значений переменных, полученных в результате решения системы.
+     * @throws ConvergenceException если итерации прерваны по условиям остановки.
+     */
+    public static double[] jacobiMethod(DenseMatrix A, double[] b, StoppingCriteria criteria, TraceMode mode,
+                                        SolverListener listener) {
+        return jacobiMethod(A, b, null, criteria, mode, listener);
+    }
+
+    /**
+     * Выполняет метод Якоби, начиная с заданного приближения.
+     *
+     * @param A            матрица коэффициентов.
+     * @param b            вектор свободных членов.
+     * @param initialGuess начальное приближение (не изменяется) или null для нулевого.
+     * @param criteria     условия сходимости и прерывания.
+     * @param mode         режим трассировки итераций.
+     * @param listener     слушатель итераций или null.
+     * @return массив значений переменных, полученных в результате решения системы.
+     * @throws ConvergenceException если итерации прерваны по условиям остановки.
+     */
+    public static double[] jacobiMethod(DenseMatrix A, double[] b, double[] initialGuess, StoppingCriteria criteria,
+                                        TraceMode mode, SolverListener listener) {
+        double[] a = A.toHeap().data();
         double[] xNew = new double[b.length];
-        double[] xOld = new double[b.length];
+        double[] xOld = initialGuess == null ? new double[b.length] : GaussSeidel.checkedGuess(initialGuess, b.length);
         boolean converged = false;
         int iteration = 0;
+        double residual;
+        IterationMonitor monitor = new IterationMonitor("Jacobi", b.length, listener, criteria, b);
+
+        while (!converged) {
+            iteration++;
+
+            // режим проверяется один раз за итерацию, а не на каждом слагаемом
+            if (mode == TraceMode.FULL) {
+                logger.info("Iteration: {}".toUpperCase(), iteration);
+                residual = tracedSweep(a, b, xOld, xNew);
+            } else {
+                residual = sweep(a, b, xOld, xNew);
+            }
+
+            double delta = maxDelta(xOld, xNew);
+            if (mode == TraceMode.SUMMARY) {
+                logger.info("Итерация {}: max|xNew - xOld| = {}", iteration, delta);
+            }
+            converged = monitor.converged(iteration, residual, delta);
+
+            // меняем буферы местами вместо копирования: xNew полностью перезаписывается на следующем шаге
+            double[] temp = xOld;
+            xOld = xNew;
+            xNew = temp;
+        }
+        return xOld;
+    }
+
+    /**
+     * Выполняет метод Якоби с чебышёвским ускорением (полуитерационный метод Чебышёва).
+     * <p>
+     * Каждый шаг — обычная итерация Якоби y = G(x_k), после которой приближение
+     * экстраполируется: x_{k+1} = x_{k-1} + ω_{k+1}(y - x_{k-1}), где ω_{k+1} = 1 / (1 - ρ²ω_k / 4).
+     * Если собственные значения матрицы перехода G вещественны и лежат в [-ρ, ρ] (например,
+     * для симметричной матрицы с положительной диагональю), число итераций уменьшается
+     * примерно с 1 / (1 - ρ) до 1 / sqrt(1 - ρ). Спектральный радиус ρ оценивается по первым
+     * итерациям Якоби, которые засчитываются в решение: ρ ≈ sqrt(δ_k / δ_{k-2}), где δ_k —
+     * max|xNew - xOld| (через шаг, чтобы не мешали собственные значения разного знака).
+     *
+     * @param A        матрица коэффициентов.
+     * @param b        вектор свободных членов.
+     * @param criteria условия сходимости и прерывания.
+     * @param listener слушатель итераций или null.
+     * @return решение x.
+     * @throws ConvergenceException если итерации прерваны по условиям остановки.
+     */
+    public static double[] chebyshevMethod(DenseMatrix A, double[] b, StoppingCriteria criteria,
+                                           SolverListener listener) {
+        double[] a = A.toHeap().data();
+        int n = b.length;
+        double[] xOld = new double[n];
+        double[] xNew = new double[n];
+        IterationMonitor monitor = new IterationMonitor("Chebyshev-Jacobi", n, listener, criteria, b);
+        double previousDelta = 0;
+        double beforePreviousDelta = 0;
+        double estimate = Double.NaN;
+        int iteration = 0;
+        while (iteration < CHEBYSHEV_WARMUP) {
+            iteration++;
+            double residual = sweep(a, b, xOld, xNew);
+            double delta = maxDelta(xOld, xNew);
+            double[] temp = xOld;
+            xOld = xNew;
+            xNew = temp;
+            if (monitor.converged(iteration, residual, delta)) {
+                return xOld;
+            }
+            if (iteration >= 3 && beforePreviousDelta > 0) {
+                double next = Math.sqrt(delta / beforePreviousDelta);
+                boolean settled = Math.abs(next - estimate) <= SPECTRAL_RADIUS_TOLERANCE * next;
+                estimate = next;
+                if (settled) {
+                    break;
+                }
+            }
+            beforePreviousDelta = previousDelta;
+            previousDelta = delta;
+        }
+        // при ρ ≥ 1 метод Якоби расходится и ускорять нечего: ρ = 0 даёт обычные итерации,
+        // а расходимость обнаружат условия остановки
+        double rho = estimate < 1 ? estimate : 0;
+        return chebyshev(a, b, xOld, rho, monitor, iteration);
+    }
+
+    /**
+     * Выполняет метод Якоби с чебышёвским ускорением при известной оценке спектрального
+     * радиуса матрицы перехода G = I - D⁻¹A. Заниженная оценка замедляет сходимость,
+     * но не нарушает её; оценку сверху даёт {@link utils.MatrixStructure#jacobiBound()}.
+     *
+     * @param A              матрица коэффициентов.
+     * @param b              вектор свободных членов.
+     * @param spectralRadius оценка ρ(G), 0 ≤ ρ < 1.
+     * @param criteria       условия сходимости и прерывания.
+     * @param listener       слушатель итераций или null.
+     * @return решение x.
+     * @throws ConvergenceException если итерации прерваны по условиям остановки.
+     */
+    public static double[] chebyshevMethod(DenseMatrix A, double[] b, double spectralRadius,
+                                           StoppingCriteria criteria, SolverListener listener) {
+        if (!(spectralRadius >= 0 && spectralRadius < 1)) {
+            throw new IllegalArgumentException("Спектральный радиус должен быть в [0, 1): " + spectralRadius);
+        }
+        IterationMonitor monitor = new IterationMonitor("Chebyshev-Jacobi", b.length, listener, criteria, b);
+        return chebyshev(A.toHeap().data(), b, new double[b.length], spectralRadius, monitor, 0);
+    }
 
+    /**
+     * Чебышёвские итерации, начиная с приближения x (оно перезаписывается).
+     */
+    private static double[] chebyshev(double[] a, double[] b, double[] x, double rho, IterationMonitor monitor,
+                                      int iteration) {
+        double rhoSquared = rho * rho;
+        double[] previous = Arrays.copyOf(x, x.length);
+        double[] current = x;
+        double[] next = new double[x.length];
+        double omega = 1.0;
+        boolean first = true;
+        while (true) {
+            iteration++;
+            double residual = sweep(a, b, current, next);
+            double delta = 0;
+            for (int i = 0; i < next.length; i++) {
+                double value = previous[i] + omega * (next[i] - previous[i]);
+                delta = Math.max(delta, Math.abs(value - current[i]));
+                next[i] = value;
+            }
+            double[] temp = previous;
+            previous = current;
+            current = next;
+            next = temp;
+            if (monitor.converged(iteration, residual, delta)) {
+                return current;
+            }
+            omega = first ? 1.0 / (1.0 - rhoSquared / 2) : 1.0 / (1.0 - rhoSquared * omega / 4);
+            first = false;
+        }
+    }
+
+    /**
+     * Выполняет метод Якоби с ускорением Андерсона: следующее приближение строится
+     * по последним {@code depth} итерациям как комбинация, минимизирующая невязку
+     * неподвижной точки. Глубина 1 — векторная экстраполяция Эйткена; обычно достаточно 3–10.
+     * В отличие от чебышёвского ускорения, не требует вещественного спектра.
+     *
+     * @param A        матрица коэффициентов.
+     * @param b        вектор свободных членов.
+     * @param depth    число запоминаемых итераций.
+     * @param criteria условия сходимости и прерывания.
+     * @param listener слушатель итераций или null.
+     * @return решение x.
+     * @throws ConvergenceException если итерации прерваны по условиям остановки.
+     */
+    public static double[] andersonMethod(DenseMatrix A, double[] b, int depth, StoppingCriteria criteria,
+                                          SolverListener listener) {
+        double[] a = A.toHeap().data();
+        int n = b.length;
+        AndersonMixing mixing = new AndersonMixing(n, depth);
+        double[] x = new double[n];
+        double[] next = new double[n];
+        IterationMonitor monitor = new IterationMonitor("Anderson-Jacobi", n, listener, criteria, b);
+        int iteration = 0;
+        boolean converged = false;
         while (!converged) {
             iteration++;
+            double residual = sweep(a, b, x, next);
+            mixing.next(x, next, next);
+            double delta = maxDelta(x, next);
+            double[] temp = x;
+            x = next;
+            next = temp;
+            converged = monitor.converged(iteration, residual, delta);
+        }
+        return x;
+    }
+
+    /**
+     * Выполняет метод Якоби для разреженной матрицы в формате CSR.
+     * Работа на итерации пропорциональна числу ненулевых элементов, а не n².
+     *
+     * @param A разреженная матрица коэффициентов.
+     * @param b вектор свободных членов.
+     * @param epsilon допустимая погрешность для проверки сходимости.
+     * @return массив значений переменных, полученных в результате решения системы.
+     */
+    public static double[] jacobiMethod(SparseMatrix A, double[] b, double epsilon) {
+        return jacobiMethod(A, b, epsilon, null);
+    }
 
-            logger.info("Iteration: {}".toUpperCase(), iteration);
+    /**
+     * Выполняет метод Якоби для разреженной матрицы, сообщая о каждой итерации слушателю.
+     *
+     * @param A        разреженная матрица коэффициентов.
+     * @param b        вектор свободных членов.
+     * @param epsilon  допустимая погрешность для проверки сходимости.
+     * @param listener слушатель итераций или null.
+     * @return массив значений переменных, полученных в результате решения системы.
+     */
+    public static double[] jacobiMethod(SparseMatrix A, double[] b, double epsilon, SolverListener listener) {
+        return jacobiMethod(A, b, StoppingCriteria.of(epsilon), listener);
+    }
 
+    /**
+     * Выполняет метод Якоби для разреженной матрицы с заданными условиями остановки.
+     *
+     * @param A        разреженная матрица коэффициентов.
+     * @param b        вектор свободных членов.
+     * @param criteria условия сходимости и прерывания.
+     * @param listener слушатель итераций или null.
+     * @return массив значений переменных, полученных в результате решения системы.
+     * @throws ConvergenceException если итерации прерваны по условиям остановки.
+     */
+    public static double[] jacobiMethod(SparseMatrix A, double[] b, StoppingCriteria criteria,
+                                        SolverListener listener) {
+        int[] rowPtr = A.rowPtr();
+        int[] colIdx = A.colIdx();
+        double[] values = A.values();
+        double[] diagonal = checkedDiagonal(A);
+        double[] xNew = new double[b.length];
+        double[] xOld = new double[b.length];
+        boolean converged = false;
+        int iteration = 0;
+        double residual;
+        IterationMonitor monitor = new IterationMonitor("Jacobi (CSR)", b.length, listener, criteria, b);
+
+        while (!converged) {
+            iteration++;
+            residual = 0;
             for (int i = 0; i < b.length; i++) {
                 double sum = 0;
-                for (int j = 0; j < b.length; j++) {
-                    if (i != j) {
-                        sum += A[i][j] * xOld[j];
-                        logger.info(String.format(
-                                "sum += A[%d][%d] * xOld[%d] -> sum += %.4f * %.4f = %.4f",
-                                i + 1, j + 1, j + 1, A[i][j], xOld[j], sum));
-                    }
+                for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                    sum += values[k] * xOld[colIdx[k]];
                 }
-                xNew[i] = (b[i] - sum) / A[i][i];
-                logger.info(String.format("x[%d] = (b[%d] - sum)/A[%d][%d] -> x[%d] = (%.4f - %.4f) / %.4f = %.4f"
-                        , i + 1, i + 1, i + 1, i + 1, i + 1
-                        , b[i], sum, A[i][i], xNew[i]));
+                sum -= diagonal[i] * xOld[i]; // диагональ вычитаем после цикла, без ветвления внутри
+                double r = b[i] - sum;
+                residual = Math.max(residual, Math.abs(r - diagonal[i] * xOld[i]));
+                xNew[i] = r / diagonal[i];
             }
 
-            converged = checkConvergence(xOld, xNew, epsilon);
+            converged = monitor.converged(iteration, residual, maxDelta(xOld, xNew));
 
-            xOld = Arrays.copyOf(xNew, xNew.length);
+            double[] temp = xOld;
+            xOld = xNew;
+            xNew = temp;
         }
-        return xNew;
+        return xOld;
     }
 
     /**
-     * Проверяет сходимость метода Якоби.
+     * Выполняет метод Якоби сразу для нескольких правых частей (столбцов B).
+     * <p>
+     * Столбцы обрабатываются полосами: на каждой итерации строка A загружается один раз
+     * и применяется ко всей полосе, а полоса решений хранится компактно (n×ширина) и
+     * остаётся в кэше. Каждая полоса итерируется до своей сходимости.
      *
-     * @param xOld старые значения переменных.
-     * @param xNew новые значения переменных.
+     * @param A       матрица коэффициентов.
+     * @param B       матрица правых частей n×k.
      * @param epsilon допустимая погрешность для проверки сходимости.
-     * @return true, если решение сошлось, false в противном случае.
+     * @return решения размером n×k.
      */
-    private static boolean checkConvergence(double[] xOld, double[] xNew, double epsilon) {
-        for (int i = 0; i < xOld.length; i++) {
-            if (Math.abs(xOld[i] - xNew[i]) > epsilon) {
-                return false;
+    public static DenseMatrix jacobiMethod(DenseMatrix A, DenseMatrix B, double epsilon) {
+        return jacobiMethod(A, B, StoppingCriteria.of(epsilon));
+    }
+
+    /**
+     * Выполняет метод Якоби для нескольких правых частей с заданными условиями остановки.
+     * Условия проверяются для каждой полосы столбцов отдельно; невязка полосы —
+     * наибольшая по её столбцам, относительная невязка считается от ||B||max.
+     *
+     * @param A        матрица коэффициентов.
+     * @param B        матрица правых частей n×k.
+     * @param criteria условия сходимости и прерывания.
+     * @return решения размером n×k.
+     * @throws ConvergenceException если итерации прерваны по условиям остановки.
+     */
+    public static DenseMatrix jacobiMethod(DenseMatrix A, DenseMatrix B, StoppingCriteria criteria) {
+        double[] a = A.toHeap().data();
+        double[] b = B.toHeap().data();
+        int n = B.rows();
+        int k = B.cols();
+        DenseMatrix X = DenseMatrix.zeros(n, k);
+        int stripWidth = Math.min(k, BlockedTriangularSolve.RHS_BLOCK);
+        double[] xOld = new double[n * stripWidth];
+        double[] xNew = new double[n * stripWidth];
+
+        for (int c0 = 0; c0 < k; c0 += stripWidth) {
+            int width = Math.min(stripWidth, k - c0);
+            Arrays.fill(xOld, 0.0);
+            IterationMonitor monitor = new IterationMonitor("Jacobi (multi-RHS)", n, null, criteria, b);
+            int iteration = 0;
+            double delta;
+            double residual;
+            do {
+                iteration++;
+                delta = 0;
+                residual = 0;
+                for (int i = 0; i < n; i++) {
+                    int row = i * n;
+                    int out = i * width;
+                    System.arraycopy(b, i * k + c0, xNew, out, width);
+                    // все слагаемые, кроме диагонального: j < i и j > i
+                    Kernels.rankUpdate(xNew, out, width, a, row, i, xOld, 0, width);
+                    Kernels.rankUpdate(xNew, out, width, a, row + i + 1, n - i - 1, xOld, out + width, width);
+                    double diagonal = a[row + i];
+                    for (int c = out; c < out + width; c++) {
+                        double value = xNew[c] / diagonal;
+                        double change = Math.abs(value - xOld[c]);
+                        delta = Math.max(delta, change);
+                        // невязка строки для xOld равна a_ii * (value - xOld)
+                        residual = Math.max(residual, Math.abs(diagonal) * change);
+                        xNew[c] = value;
+                    }
+                }
+                double[] temp = xOld;
+                xOld = xNew;
+                xNew = temp;
+            } while (!monitor.converged(iteration, residual, delta));
+            storeStrip(xOld, X, c0, width);
+        }
+        return X;
+    }
+
+    /**
+     * Копирует компактную полосу решений n×width в столбцы [c0, c0 + width) матрицы X.
+     */
+    static void storeStrip(double[] strip, DenseMatrix X, int c0, int width) {
+        double[] x = X.mutableData();
+        int k = X.cols();
+        for (int i = 0; i < X.rows(); i++) {
+            System.arraycopy(strip, i * width, x, i * k + c0, width);
+        }
+    }
+
+    /**
+     * Возвращает диагональ разреженной матрицы, проверяя, что на ней нет нулей.
+     *
+     * @param A разреженная матрица.
+     * @return диагональ.
+     * @throws ArithmeticException если диагональный элемент равен нулю.
+     */
+    static double[] checkedDiagonal(SparseMatrix A) {
+        double[] diagonal = A.diagonal();
+        for (int i = 0; i < diagonal.length; i++) {
+            if (diagonal[i] == 0.0) {
+                throw new ArithmeticException("Нулевой диагональный элемент в строке " + (i + 1) + ".");
             }
         }
-        return true;
+        return diagonal;
+    }
+
+    /**
+     * Одна итерация Якоби без логирования.
+     * @return max-норма невязки приближения xOld (получается попутно, без отдельного умножения).
+     */
+    private static double sweep(double[] a, double[] b, double[] xOld, double[] xNew) {
+        double residual = 0;
+        for (int i = 0; i < b.length; i++) {
+            int row = i * b.length;
+            // полное скалярное произведение без ветвления, затем вычитаем диагональный член
+            double sum = Kernels.dot(a, row, xOld, 0, b.length) - a[row + i] * xOld[i];
+            double r = b[i] - sum;
+            residual = Math.max(residual, Math.abs(r - a[row + i] * xOld[i]));
+            xNew[i] = r / a[row + i];
+        }
+        return residual;
+    }
+
+    /**
+     * Одна итерация Якоби с пошаговым выводом каждого слагаемого.
+     * @return max-норма невязки приближения xOld.
+     */
+    private static double tracedSweep(double[] a, double[] b, double[] xOld, double[] xNew) {
+        double residual = 0;
+        for (int i = 0; i < b.length; i++) {
+            int row = i * b.length;
+            double sum = 0;
+            for (int j = 0; j < b.length; j++) {
+                if (i != j) {
+                    sum += a[row + j] * xOld[j];
+                    logger.info(String.format(
+                            "sum += A[%d][%d] * xOld[%d] -> sum += %.4f * %.4f = %.4f",
+                            i + 1, j + 1, j + 1, a[row + j], xOld[j], sum));
+                }
+            }
+            residual = Math.max(residual, Math.abs(b[i] - sum - a[row + i] * xOld[i]));
+            xNew[i] = (b[i] - sum) / a[row + i];
+            logger.info(String.format("x[%d] = (b[%d] - sum)/A[%d][%d] -> x[%d] = (%.4f - %.4f) / %.4f = %.4f"
+                    , i + 1, i + 1, i + 1, i + 1, i + 1
+                    , b[i], sum, a[row + i], xNew[i]));
+        }
+        return residual;
+    }
+
+    /**
+     * Возвращает максимальное изменение компонент решения за итерацию.
+     */
+    private static double maxDelta(double[] xOld, double[] xNew) {
+        double max = 0;
+        for (int i = 0; i < xOld.length; i++) {
+            max = Math.max(max, Math.abs(xOld[i] - xNew[i]));
+        }
+        return max;
     }
 }
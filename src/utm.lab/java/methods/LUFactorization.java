@@ -0,0 +1,243 @@
+package methods;
+
+import kernels.Kernels;
+import utils.DenseMatrix;
+
+/**
+ * LU-разложение с частичным выбором ведущего элемента: PA = LU.
+ * <p>
+ * Разложение вычисляется один раз ({@link Gauss#factor(DenseMatrix)}), после чего
+ * каждое решение {@link #solve(double[])} стоит O(n²) вместо O(n³).
+ * L (с единичной диагональю) и U хранятся вместе в одном построчном массиве.
+ */
+public final class LUFactorization implements Factorization {
+    /** Размер блока: блок 64×64 double занимает 32 КБ и помещается в L1/L2. */
+    static final int BLOCK_SIZE = 64;
+
+    private final int n;
+    private final double[] lu;     // L ниже диагонали, U на диагонали и выше
+    private final int[] pivots;    // pivots[i] — исходная строка, стоящая на месте i
+    private final boolean oddSwaps; // нечётное число перестановок меняет знак определителя
+
+    private LUFactorization(int n, double[] lu, int[] pivots, boolean oddSwaps) {
+        this.n = n;
+        this.lu = lu;
+        this.pivots = pivots;
+        this.oddSwaps = oddSwaps;
+    }
+
+    /**
+     * Выполняет блочное LU-разложение (right-looking) с частичным выбором ведущего элемента.
+     * <p>
+     * Для каждой панели из {@code blockSize} столбцов: панель раскладывается построчно,
+     * затем решается треугольная система для блока U12, и оставшаяся подматрица
+     * обновляется плитками A22 -= L21 * U12, чтобы данные панели оставались в кэше.
+     *
+     * @param A         квадратная матрица (не изменяется).
+     * @param blockSize ширина панели.
+     * @return разложение матрицы.
+     * @throws ArithmeticException если матрица вырождена.
+     */
+    static LUFactorization factor(DenseMatrix A, int blockSize) {
+        if (!A.isSquare()) {
+            throw new IllegalArgumentException("Матрица не квадратная: " + A.rows() + "x" + A.cols());
+        }
+        FactorizationEvent event = new FactorizationEvent();
+        event.begin();
+        int n = A.rows();
+        // матрица вне кучи уже копируется в toHeap(), повторно клонировать не нужно
+        double[] a = A.isOffHeap() ? A.toHeap().data() : A.data().clone();
+        int[] pivots = new int[n];
+        for (int i = 0; i < n; i++) {
+            pivots[i] = i;
+        }
+        boolean oddSwaps = false;
+
+        for (int k0 = 0; k0 < n; k0 += blockSize) {
+            int kEnd = Math.min(k0 + blockSize, n);
+
+            // 1. Раскладываем панель столбцов [k0, kEnd) с выбором ведущего элемента
+            FactorizationPhaseEvent phase = new FactorizationPhaseEvent();
+            phase.begin();
+            for (int k = k0; k < kEnd; k++) {
+                int max = k;
+                double maxAbs = Math.abs(a[k * n + k]);
+                for (int i = k + 1; i < n; i++) {
+                    double v = Math.abs(a[i * n + k]);
+                    if (v > maxAbs) {
+                        maxAbs = v;
+                        max = i;
+                    }
+                }
+                if (maxAbs == 0.0) {
+                    throw new ArithmeticException("Матрица вырождена: нулевой столбец " + (k + 1) + " при выборе ведущего элемента.");
+                }
+                if (max != k) {
+                    swapRows(a, n, k, max);
+                    int temp = pivots[k];
+                    pivots[k] = pivots[max];
+                    pivots[max] = temp;
+                    oddSwaps = !oddSwaps;
+                }
+
+                int pivotRow = k * n;
+                double pivot = a[pivotRow + k];
+                for (int i = k + 1; i < n; i++) {
+                    int row = i * n;
+                    double factor = a[row + k] / pivot;
+                    a[row + k] = factor;
+                    // внутри панели обновляем только её столбцы
+                    Kernels.axpy(-factor, a, pivotRow + k + 1, a, row + k + 1, kEnd - k - 1);
+                }
+            }
+            phase.finish("LU", "panel", k0);
+
+            if (kEnd == n) {
+                break;
+            }
+
+            // 2. U12 = L11^-1 * A12 (прямая подстановка по строкам панели)
+            phase = new FactorizationPhaseEvent();
+            phase.begin();
+            for (int i = k0 + 1; i < kEnd; i++) {
+                int row = i * n;
+                Kernels.rankUpdate(a, row + kEnd, n - kEnd, a, row + k0, i - k0, a, k0 * n + kEnd, n);
+            }
+            phase.finish("LU", "trsm", k0);
+
+            // 3. A22 -= L21 * U12 плитками по столбцам: плитка U12 переиспользуется для всех строк
+            phase = new FactorizationPhaseEvent();
+            phase.begin();
+            for (int jj = kEnd; jj < n; jj += blockSize) {
+                int jMax = Math.min(jj + blockSize, n);
+                for (int i = kEnd; i < n; i++) {
+                    int row = i * n;
+                    Kernels.rankUpdate(a, row + jj, jMax - jj, a, row + k0, kEnd - k0, a, k0 * n + jj, n);
+                }
+            }
+            phase.finish("LU", "update", k0);
+        }
+        event.finish("LU", n);
+        return new LUFactorization(n, a, pivots, oddSwaps);
+    }
+
+    private static void swapRows(double[] a, int n, int i, int k) {
+        int ri = i * n;
+        int rk = k * n;
+        for (int j = 0; j < n; j++) {
+            double temp = a[ri + j];
+            a[ri + j] = a[rk + j];
+            a[rk + j] = temp;
+        }
+    }
+
+    @Override
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Решает систему Ax = b, используя готовое разложение.
+     *
+     * @param b вектор свободных членов (не изменяется).
+     * @return решение x.
+     */
+    @Override
+    public double[] solve(double[] b) {
+        if (b.length != n) {
+            throw new IllegalArgumentException("Длина вектора " + b.length + " не равна размерности " + n);
+        }
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = b[pivots[i]];
+        }
+        solveInPlace(x);
+        event.finish("LU", n, 1);
+        return x;
+    }
+
+    /**
+     * Решает систему AX = B блочными треугольными решениями.
+     *
+     * @param B матрица правых частей n×k (не изменяется).
+     * @return решение X размером n×k.
+     */
+    @Override
+    public DenseMatrix solve(DenseMatrix B) {
+        if (B.rows() != n) {
+            throw new IllegalArgumentException("Число строк правых частей " + B.rows() + " не равно размерности " + n);
+        }
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        int k = B.cols();
+        DenseMatrix X = DenseMatrix.zeros(n, k);
+        double[] x = X.mutableData();
+        double[] b = B.toHeap().data();
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(b, pivots[i] * k, x, i * k, k);
+        }
+        BlockedTriangularSolve.forward(lu, i -> i * n, true, n, x, k);
+        BlockedTriangularSolve.backward(lu, i -> i * n, n, x, k);
+        event.finish("LU", n, k);
+        return X;
+    }
+
+    /**
+     * Решает LUx = y на месте (перестановка строк уже применена).
+     */
+    private void solveInPlace(double[] x) {
+        // Ly = Pb, диагональ L единичная
+        for (int i = 0; i < n; i++) {
+            int row = i * n;
+            x[i] -= Kernels.dot(lu, row, x, 0, i);
+        }
+        // Ux = y
+        for (int i = n - 1; i >= 0; i--) {
+            int row = i * n;
+            double sum = x[i] - Kernels.dot(lu, row + i + 1, x, i + 1, n - i - 1);
+            x[i] = sum / lu[row + i];
+        }
+    }
+
+    /**
+     * Вычисляет определитель как произведение диагонали U с учётом перестановок.
+     *
+     * @return определитель исходной матрицы.
+     */
+    @Override
+    public double determinant() {
+        double det = oddSwaps ? -1.0 : 1.0;
+        for (int i = 0; i < n; i++) {
+            det *= lu[i * n + i];
+        }
+        return det;
+    }
+
+    @Override
+    public long memoryBytes() {
+        return (long) lu.length * Double.BYTES + (long) pivots.length * Integer.BYTES;
+    }
+
+    /**
+     * Вычисляет обратную матрицу, решая систему для каждого столбца единичной матрицы.
+     *
+     * @return обратная матрица.
+     */
+    public DenseMatrix inverse() {
+        DenseMatrix inverse = DenseMatrix.zeros(n, n);
+        double[] inv = inverse.mutableData();
+        double[] column = new double[n];
+        for (int c = 0; c < n; c++) {
+            for (int i = 0; i < n; i++) {
+                column[i] = pivots[i] == c ? 1.0 : 0.0;
+            }
+            solveInPlace(column);
+            for (int i = 0; i < n; i++) {
+                inv[i * n + c] = column[i];
+            }
+        }
+        return inverse;
+    }
+}
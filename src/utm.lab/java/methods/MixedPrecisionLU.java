@@ -0,0 +1,304 @@
+package methods;
+
+import kernels.Kernels;
+import utils.DenseMatrix;
+
+/**
+ * LU-разложение в одинарной точности с итерационным уточнением решения в двойной.
+ * <p>
+ * Разложение (O(n³)) выполняется во float: матрица занимает вдвое меньше памяти,
+ * а в векторный регистр помещается вдвое больше чисел. Затем решение уточняется:
+ * <pre>
+ * r = b - Ax      (в double, O(n²))
+ * LUd = Pr        (во float, O(n²))
+ * x = x + d
+ * </pre>
+ * Каждый шаг уменьшает ошибку примерно в κ(A)·2⁻²⁴ раз, поэтому для хорошо обусловленной
+ * матрицы за несколько шагов достигается полная точность double. Уточнение считается
+ * сошедшимся, когда ||r||∞ ≤ ||x||∞ · ||A||∞ · ε · √n (критерий LAPACK dsgesv).
+ * <p>
+ * Если разложение во float невозможно (элементы вне диапазона float, нулевой ведущий элемент)
+ * или уточнение не сходится, решение выполняется обычным LU-разложением в double из
+ * {@link FactorizationCache#shared()}, и все последующие решения с этим разложением сразу
+ * идут этим путём.
+ */
+public final class MixedPrecisionLU implements Factorization {
+    /** Наибольшее число шагов уточнения (как ITERMAX в dsgesv). */
+    static final int MAX_REFINEMENTS = 30;
+    /** Машинная точность double: половина расстояния от 1 до следующего числа. */
+    private static final double EPSILON = Math.ulp(1.0) / 2;
+
+    private final int n;
+    private final DenseMatrix a;    // исходная матрица в double для вычисления невязки
+    private final double aNorm;     // ||A||∞
+    private final float[] lu;       // L ниже диагонали, U на диагонали и выше; null, если разложение не удалось
+    private final int[] pivots;
+    private volatile boolean refinementFailed;
+
+    private MixedPrecisionLU(int n, DenseMatrix a, double aNorm, float[] lu, int[] pivots) {
+        this.n = n;
+        this.a = a;
+        this.aNorm = aNorm;
+        this.lu = lu;
+        this.pivots = pivots;
+        this.refinementFailed = lu == null;
+    }
+
+    /**
+     * Выполняет LU-разложение матрицы в одинарной точности.
+     * Если это невозможно, разложение будет решать системы в double.
+     *
+     * @param A квадратная матрица (не изменяется).
+     * @return разложение.
+     */
+    public static MixedPrecisionLU factor(DenseMatrix A) {
+        if (!A.isSquare()) {
+            throw new IllegalArgumentException("Матрица не квадратная: " + A.rows() + "x" + A.cols());
+        }
+        int n = A.rows();
+        DenseMatrix snapshot = A.isOffHeap() ? A.toHeap() : A.copy(); // при записи в A данные скопируются
+        double[] source = snapshot.data();
+        float[] single = new float[n * n];
+        double aNorm = 0;
+        boolean representable = true;
+        for (int i = 0; i < n; i++) {
+            double rowSum = 0;
+            for (int j = i * n; j < (i + 1) * n; j++) {
+                single[j] = (float) source[j];
+                rowSum += Math.abs(source[j]);
+                representable &= Float.isFinite(single[j]);
+            }
+            aNorm = Math.max(aNorm, rowSum);
+        }
+        int[] pivots = new int[n];
+        if (!representable || !factorSingle(single, n, pivots, LUFactorization.BLOCK_SIZE)) {
+            return new MixedPrecisionLU(n, snapshot, aNorm, null, null);
+        }
+        return new MixedPrecisionLU(n, snapshot, aNorm, single, pivots);
+    }
+
+    /**
+     * Блочное LU-разложение на месте во float, повторяющее {@link LUFactorization}.
+     *
+     * @return false, если встретился нулевой ведущий элемент или произошло переполнение.
+     */
+    private static boolean factorSingle(float[] a, int n, int[] pivots, int blockSize) {
+        FactorizationEvent event = new FactorizationEvent();
+        event.begin();
+        for (int i = 0; i < n; i++) {
+            pivots[i] = i;
+        }
+        for (int k0 = 0; k0 < n; k0 += blockSize) {
+            int kEnd = Math.min(k0 + blockSize, n);
+
+            FactorizationPhaseEvent phase = new FactorizationPhaseEvent();
+            phase.begin();
+            for (int k = k0; k < kEnd; k++) {
+                int max = k;
+                float maxAbs = Math.abs(a[k * n + k]);
+                for (int i = k + 1; i < n; i++) {
+                    float v = Math.abs(a[i * n + k]);
+                    if (v > maxAbs) {
+                        maxAbs = v;
+                        max = i;
+                    }
+                }
+                if (!(maxAbs > 0.0f) || maxAbs == Float.POSITIVE_INFINITY) {
+                    return false;
+                }
+                if (max != k) {
+                    swapRows(a, n, k, max);
+                    int temp = pivots[k];
+                    pivots[k] = pivots[max];
+                    pivots[max] = temp;
+                }
+                int pivotRow = k * n;
+                float pivot = a[pivotRow + k];
+                for (int i = k + 1; i < n; i++) {
+                    int row = i * n;
+                    float factor = a[row + k] / pivot;
+                    a[row + k] = factor;
+                    Kernels.axpy(-factor, a, pivotRow + k + 1, a, row + k + 1, kEnd - k - 1);
+                }
+            }
+            phase.finish("LU (float)", "panel", k0);
+
+            if (kEnd == n) {
+                break;
+            }
+
+            phase = new FactorizationPhaseEvent();
+            phase.begin();
+            for (int i = k0 + 1; i < kEnd; i++) {
+                int row = i * n;
+                Kernels.rankUpdate(a, row + kEnd, n - kEnd, a, row + k0, i - k0, a, k0 * n + kEnd, n);
+            }
+            phase.finish("LU (float)", "trsm", k0);
+
+            phase = new FactorizationPhaseEvent();
+            phase.begin();
+            for (int jj = kEnd; jj < n; jj += blockSize) {
+                int jMax = Math.min(jj + blockSize, n);
+                for (int i = kEnd; i < n; i++) {
+                    int row = i * n;
+                    Kernels.rankUpdate(a, row + jj, jMax - jj, a, row + k0, kEnd - k0, a, k0 * n + jj, n);
+                }
+            }
+            phase.finish("LU (float)", "update", k0);
+        }
+        event.finish("LU (float)", n);
+        return true;
+    }
+
+    private static void swapRows(float[] a, int n, int i, int k) {
+        int ri = i * n;
+        int rk = k * n;
+        for (int j = 0; j < n; j++) {
+            float temp = a[ri + j];
+            a[ri + j] = a[rk + j];
+            a[rk + j] = temp;
+        }
+    }
+
+    @Override
+    public int size() {
+        return n;
+    }
+
+    /**
+     * @return true, пока решения получаются уточнением разложения во float;
+     *         false после перехода на разложение в double.
+     */
+    public boolean isSinglePrecision() {
+        return !refinementFailed;
+    }
+
+    /**
+     * Решает систему Ax = b с уточнением до точности double.
+     *
+     * @param b вектор свободных членов (не изменяется).
+     * @return решение x.
+     */
+    @Override
+    public double[] solve(double[] b) {
+        if (b.length != n) {
+            throw new IllegalArgumentException("Длина вектора " + b.length + " не равна размерности " + n);
+        }
+        if (!refinementFailed) {
+            SolveEvent event = new SolveEvent();
+            event.begin();
+            double[] x = refine(b);
+            event.finish("LU (float)", n, 1);
+            if (x != null) {
+                return x;
+            }
+            refinementFailed = true;
+        }
+        return FactorizationCache.shared().lu(a).solve(b);
+    }
+
+    /**
+     * @return уточнённое решение или null, если уточнение не сошлось.
+     */
+    private double[] refine(double[] b) {
+        double[] x = new double[n];
+        double[] r = b.clone(); // невязка для x = 0
+        float[] d = new float[n];
+        double[] ax = new double[n];
+        double tolerance = aNorm * EPSILON * Math.sqrt(n);
+        double previous = Double.POSITIVE_INFINITY;
+
+        for (int step = 0; step <= MAX_REFINEMENTS; step++) {
+            double rNorm = maxAbs(r);
+            if (rNorm <= maxAbs(x) * tolerance) {
+                return x;
+            }
+            // уточнение расходится или застряло: число обусловленности велико для float
+            if (!(rNorm < 0.5 * previous) || step == MAX_REFINEMENTS) {
+                return null;
+            }
+            previous = rNorm;
+
+            for (int i = 0; i < n; i++) {
+                d[i] = (float) r[pivots[i]];
+            }
+            solveInPlace(d);
+            for (int i = 0; i < n; i++) {
+                x[i] += d[i];
+            }
+            a.multiply(x, ax);
+            for (int i = 0; i < n; i++) {
+                r[i] = b[i] - ax[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Решает LUx = y во float на месте (перестановка строк уже применена).
+     */
+    private void solveInPlace(float[] x) {
+        for (int i = 0; i < n; i++) {
+            x[i] -= Kernels.dot(lu, i * n, x, 0, i);
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            int row = i * n;
+            x[i] = (x[i] - Kernels.dot(lu, row + i + 1, x, i + 1, n - i - 1)) / lu[row + i];
+        }
+    }
+
+    /**
+     * Решает систему AX = B, уточняя каждый столбец отдельно.
+     *
+     * @param B матрица правых частей n×k (не изменяется).
+     * @return решение X размером n×k.
+     */
+    @Override
+    public DenseMatrix solve(DenseMatrix B) {
+        if (B.rows() != n) {
+            throw new IllegalArgumentException("Число строк правых частей " + B.rows() + " не равно размерности " + n);
+        }
+        int k = B.cols();
+        DenseMatrix X = DenseMatrix.zeros(n, k);
+        double[] column = new double[n];
+        for (int c = 0; c < k; c++) {
+            for (int i = 0; i < n; i++) {
+                column[i] = B.get(i, c);
+            }
+            double[] x = solve(column);
+            for (int i = 0; i < n; i++) {
+                X.set(i, c, x[i]);
+            }
+        }
+        return X;
+    }
+
+    /**
+     * Определитель считается по разложению в double: произведение диагонали во float
+     * дало бы лишь около семи верных знаков.
+     *
+     * @return определитель исходной матрицы.
+     */
+    @Override
+    public double determinant() {
+        return FactorizationCache.shared().lu(a).determinant();
+    }
+
+    /**
+     * Учитывается и копия исходной матрицы, которая нужна для невязки: после изменения
+     * матрицы вызывающим кодом она занимает отдельную память.
+     */
+    @Override
+    public long memoryBytes() {
+        long single = lu == null ? 0 : (long) lu.length * Float.BYTES + (long) pivots.length * Integer.BYTES;
+        return single + (long) n * n * Double.BYTES;
+    }
+
+    private static double maxAbs(double[] v) {
+        double max = 0;
+        for (double value : v) {
+            max = Math.max(max, Math.abs(value));
+        }
+        return max;
+    }
+}
@@ -0,0 +1,401 @@
+package methods;
+
+import utils.DenseMatrix;
+import utils.SparseMatrix;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Многопоточный метод Гаусса — Зейделя (и SOR) с многоцветным упорядочиванием.
+ * <p>
+ * Строки раскрашиваются так, чтобы строки одного цвета не зависели друг от друга
+ * (a[i][j] = 0 и a[j][i] = 0 для i, j одного цвета). Цвета обходятся по очереди,
+ * а строки внутри цвета обновляются параллельно. Для сеточных задач с 5-точечным
+ * шаблоном получается классическое красно-чёрное упорядочивание из двух цветов.
+ * <p>
+ * Метод рассчитан на разреженные матрицы ({@link SparseMatrix}): раскраска строится
+ * по структуре CSR за O(nnz), а обновление строки стоит O(nnz строки). Для плотной
+ * матрицы раскраска стоит O(n²), обновление строки — O(n), а у полностью заполненной
+ * матрицы каждая строка получает свой цвет, и метод становится медленнее обычного
+ * последовательного Гаусса — Зейделя.
+ */
+public final class MulticolorGaussSeidel {
+    /** Минимальное число строк в блоке, чтобы накладные расходы на задачу окупались. */
+    private static final int MIN_ROWS_PER_TASK = 64;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Создаёт решатель на общем пуле {@link ForkJoinPool#commonPool()}.
+     */
+    public MulticolorGaussSeidel() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool пул потоков, на котором обновляются строки одного цвета.
+     */
+    public MulticolorGaussSeidel(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Решает систему Ax = b многоцветным методом Гаусса — Зейделя.
+     *
+     * @param A       матрица коэффициентов (не изменяется).
+     * @param b       вектор свободных членов.
+     * @param epsilon допустимая погрешность для проверки сходимости.
+     * @return решение x.
+     */
+    public double[] solve(DenseMatrix A, double[] b, double epsilon) {
+        return solve(A, b, 1.0, epsilon);
+    }
+
+    /**
+     * Решает систему Ax = b многоцветным методом SOR.
+     *
+     * @param A       матрица коэффициентов (не изменяется).
+     * @param b       вектор свободных членов.
+     * @param omega   параметр релаксации, 0 < ω < 2 (1 — Гаусс — Зейдель).
+     * @param epsilon допустимая погрешность для проверки сходимости.
+     * @return решение x.
+     */
+    public double[] solve(DenseMatrix A, double[] b, double omega, double epsilon) {
+        return solve(A, b, omega, epsilon, null);
+    }
+
+    /**
+     * Решает систему Ax = b многоцветным методом SOR, сообщая о каждой итерации слушателю.
+     *
+     * @param A        матрица коэффициентов (не изменяется).
+     * @param b        вектор свободных членов.
+     * @param omega    параметр релаксации, 0 < ω < 2 (1 — Гаусс — Зейдель).
+     * @param epsilon  допустимая погрешность для проверки сходимости.
+     * @param listener слушатель итераций или null.
+     * @return решение x.
+     */
+    public double[] solve(DenseMatrix A, double[] b, double omega, double epsilon, SolverListener listener) {
+        if (!(omega > 0 && omega < 2)) {
+            throw new IllegalArgumentException("Параметр релаксации должен лежать в интервале (0, 2): " + omega);
+        }
+        double[] x = new double[b.length];
+        return iterate(new DenseRows(A.toHeap().data(), b, x, omega), colorRows(A), b, x, omega, epsilon,
+                listener, "Multicolor SOR");
+    }
+
+    /**
+     * Решает систему Ax = b с разреженной матрицей многоцветным методом Гаусса — Зейделя.
+     *
+     * @param A       разреженная матрица коэффициентов (не изменяется).
+     * @param b       вектор свободных членов.
+     * @param epsilon допустимая погрешность для проверки сходимости.
+     * @return решение x.
+     */
+    public double[] solve(SparseMatrix A, double[] b, double epsilon) {
+        return solve(A, b, 1.0, epsilon);
+    }
+
+    /**
+     * Решает систему Ax = b с разреженной матрицей многоцветным методом SOR.
+     *
+     * @param A       разреженная матрица коэффициентов (не изменяется).
+     * @param b       вектор свободных членов.
+     * @param omega   параметр релаксации, 0 < ω < 2 (1 — Гаусс — Зейдель).
+     * @param epsilon допустимая погрешность для проверки сходимости.
+     * @return решение x.
+     */
+    public double[] solve(SparseMatrix A, double[] b, double omega, double epsilon) {
+        return solve(A, b, omega, epsilon, null);
+    }
+
+    /**
+     * Решает систему Ax = b с разреженной матрицей многоцветным методом SOR, сообщая о каждой
+     * итерации слушателю. Каждая строка обновляется за O(nnz строки).
+     *
+     * @param A        разреженная матрица коэффициентов (не изменяется).
+     * @param b        вектор свободных членов.
+     * @param omega    параметр релаксации, 0 < ω < 2 (1 — Гаусс — Зейдель).
+     * @param epsilon  допустимая погрешность для проверки сходимости.
+     * @param listener слушатель итераций или null.
+     * @return решение x.
+     * @throws ArithmeticException если на диагонали есть ноль.
+     */
+    public double[] solve(SparseMatrix A, double[] b, double omega, double epsilon, SolverListener listener) {
+        if (!(omega > 0 && omega < 2)) {
+            throw new IllegalArgumentException("Параметр релаксации должен лежать в интервале (0, 2): " + omega);
+        }
+        double[] x = new double[b.length];
+        return iterate(new SparseRows(A, Jacobi.checkedDiagonal(A), b, x, omega), colorRows(A), b, x, omega,
+                epsilon, listener, "Multicolor SOR (CSR)");
+    }
+
+    private double[] iterate(Rows rows, int[][] colors, double[] b, double[] x, double omega, double epsilon,
+                             SolverListener listener, String name) {
+        ColorSweep[] sweeps = new ColorSweep[colors.length];
+        for (int c = 0; c < colors.length; c++) {
+            sweeps[c] = new ColorSweep(rows, omega, colors[c], pool.getParallelism());
+        }
+
+        double[] norms = new double[2];
+        int iteration = 0;
+        IterationMonitor monitor = new IterationMonitor(name, b.length, listener,
+                StoppingCriteria.of(epsilon), b);
+        do {
+            iteration++;
+            norms[SOR.DELTA] = 0;
+            norms[SOR.RESIDUAL] = 0;
+            // цвета обходятся строго по очереди: следующий цвет видит обновления предыдущего
+            for (ColorSweep sweep : sweeps) {
+                sweep.reinitialize();
+                pool.invoke(sweep);
+                sweep.accumulateNorms(norms);
+            }
+        } while (!monitor.converged(iteration, norms[SOR.RESIDUAL], norms[SOR.DELTA]));
+        return x;
+    }
+
+    /**
+     * Жадная раскраска графа смежности матрицы (симметризованного).
+     *
+     * @param A квадратная матрица.
+     * @return для каждого цвета — номера строк этого цвета по возрастанию.
+     */
+    public static int[][] colorRows(DenseMatrix A) {
+        int n = A.rows();
+        double[] a = A.toHeap().data();
+        int[] color = new int[n];
+        int[] forbidden = new int[n + 1]; // forbidden[c] == i + 1, если цвет c занят соседом строки i
+        int colorCount = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < i; j++) {
+                if (a[i * n + j] != 0.0 || a[j * n + i] != 0.0) {
+                    forbidden[color[j]] = i + 1;
+                }
+            }
+            int c = 0;
+            while (forbidden[c] == i + 1) {
+                c++;
+            }
+            color[i] = c;
+            colorCount = Math.max(colorCount, c + 1);
+        }
+        return group(color, colorCount);
+    }
+
+    /**
+     * Жадная раскраска симметризованного графа смежности по структуре CSR за O(nnz):
+     * соседи строки i — столбцы её ненулевых элементов и строки с ненулевым элементом
+     * в столбце i (строки транспонированной матрицы).
+     *
+     * @param A квадратная разреженная матрица.
+     * @return для каждого цвета — номера строк этого цвета по возрастанию.
+     */
+    public static int[][] colorRows(SparseMatrix A) {
+        if (A.rows() != A.cols()) {
+            throw new IllegalArgumentException("Матрица не квадратная: " + A.rows() + "x" + A.cols());
+        }
+        int n = A.rows();
+        SparseMatrix T = A.transpose();
+        int[] color = new int[n];
+        int[] forbidden = new int[n + 1]; // forbidden[c] == i + 1, если цвет c занят соседом строки i
+        int colorCount = 0;
+        for (int i = 0; i < n; i++) {
+            forbidNeighbours(A, i, color, forbidden);
+            forbidNeighbours(T, i, color, forbidden);
+            int c = 0;
+            while (forbidden[c] == i + 1) {
+                c++;
+            }
+            color[i] = c;
+            colorCount = Math.max(colorCount, c + 1);
+        }
+        return group(color, colorCount);
+    }
+
+    /**
+     * Помечает цвета уже раскрашенных (j < i) соседей строки i по строке i матрицы A.
+     */
+    private static void forbidNeighbours(SparseMatrix A, int i, int[] color, int[] forbidden) {
+        int[] rowPtr = A.rowPtr();
+        int[] colIdx = A.colIdx();
+        double[] values = A.values();
+        for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+            int j = colIdx[k];
+            if (j < i && values[k] != 0.0) {
+                forbidden[color[j]] = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Собирает номера строк каждого цвета по возрастанию.
+     */
+    private static int[][] group(int[] color, int colorCount) {
+        int n = color.length;
+        int[] rowsPerColor = new int[colorCount];
+        for (int i = 0; i < n; i++) {
+            rowsPerColor[color[i]]++;
+        }
+        int[][] colors = new int[colorCount][];
+        for (int c = 0; c < colorCount; c++) {
+            colors[c] = new int[rowsPerColor[c]];
+        }
+        Arrays.fill(rowsPerColor, 0);
+        for (int i = 0; i < n; i++) {
+            colors[color[i]][rowsPerColor[color[i]]++] = i;
+        }
+        return colors;
+    }
+
+    /**
+     * Обновление всех строк одного цвета, разбитых на блоки.
+     */
+    private static final class ColorSweep extends RecursiveAction {
+        private final RowBlock[] blocks;
+        private final double[] norms; // по две нормы (изменение, невязка) на блок
+
+        ColorSweep(Rows relaxation, double omega, int[] rows, int parallelism) {
+            int tasks = Math.max(1, Math.min(parallelism * 4, rows.length / MIN_ROWS_PER_TASK));
+            this.norms = new double[2 * tasks];
+            this.blocks = new RowBlock[tasks];
+            for (int t = 0; t < tasks; t++) {
+                int from = (int) ((long) rows.length * t / tasks);
+                int to = (int) ((long) rows.length * (t + 1) / tasks);
+                blocks[t] = new RowBlock(relaxation, omega, rows, from, to, norms, t);
+            }
+        }
+
+        @Override
+        protected void compute() {
+            for (RowBlock block : blocks) {
+                block.reinitialize();
+            }
+            ForkJoinTask.invokeAll(blocks);
+        }
+
+        void accumulateNorms(double[] total) {
+            for (int t = 0; t < blocks.length; t++) {
+                total[SOR.DELTA] = Math.max(total[SOR.DELTA], norms[2 * t + SOR.DELTA]);
+                total[SOR.RESIDUAL] = Math.max(total[SOR.RESIDUAL], norms[2 * t + SOR.RESIDUAL]);
+            }
+        }
+    }
+
+    /**
+     * Обновление одной строки: плотное или по структуре CSR.
+     */
+    private interface Rows {
+        /**
+         * Обновляет x[i] с релаксацией.
+         * @return модуль изменения x[i].
+         */
+        double relax(int i);
+
+        /**
+         * @return модуль диагонального элемента строки i (для невязки).
+         */
+        double diagonal(int i);
+    }
+
+    private static final class DenseRows implements Rows {
+        private final double[] a;
+        private final double[] b;
+        private final double[] x;
+        private final double omega;
+
+        DenseRows(double[] a, double[] b, double[] x, double omega) {
+            this.a = a;
+            this.b = b;
+            this.x = x;
+            this.omega = omega;
+        }
+
+        @Override
+        public double relax(int i) {
+            return SOR.relaxRow(a, b, x, omega, i, b.length);
+        }
+
+        @Override
+        public double diagonal(int i) {
+            return Math.abs(a[i * b.length + i]);
+        }
+    }
+
+    private static final class SparseRows implements Rows {
+        private final int[] rowPtr;
+        private final int[] colIdx;
+        private final double[] values;
+        private final double[] diagonal;
+        private final double[] b;
+        private final double[] x;
+        private final double omega;
+
+        SparseRows(SparseMatrix A, double[] diagonal, double[] b, double[] x, double omega) {
+            this.rowPtr = A.rowPtr();
+            this.colIdx = A.colIdx();
+            this.values = A.values();
+            this.diagonal = diagonal;
+            this.b = b;
+            this.x = x;
+            this.omega = omega;
+        }
+
+        @Override
+        public double relax(int i) {
+            double sum = 0;
+            for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                sum += values[k] * x[colIdx[k]];
+            }
+            sum -= diagonal[i] * x[i];
+            double change = omega * ((b[i] - sum) / diagonal[i] - x[i]);
+            x[i] += change;
+            return Math.abs(change);
+        }
+
+        @Override
+        public double diagonal(int i) {
+            return Math.abs(diagonal[i]);
+        }
+    }
+
+    /**
+     * Обновление строк rows[from..to) одного цвета.
+     */
+    private static final class RowBlock extends RecursiveAction {
+        private final Rows relaxation;
+        private final double omega;
+        private final int[] rows;
+        private final int from;
+        private final int to;
+        private final double[] norms;
+        private final int index;
+
+        RowBlock(Rows relaxation, double omega, int[] rows, int from, int to, double[] norms, int index) {
+            this.relaxation = relaxation;
+            this.omega = omega;
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+            this.norms = norms;
+            this.index = index;
+        }
+
+        @Override
+        protected void compute() {
+            double delta = 0;
+            double residual = 0;
+            for (int k = from; k < to; k++) {
+                int i = rows[k];
+                double change = relaxation.relax(i);
+                delta = Math.max(delta, change);
+                residual = Math.max(residual, change * relaxation.diagonal(i));
+            }
+            // общий массив пишется один раз на блок, чтобы потоки не делили строку кэша в цикле
+            norms[2 * index + SOR.DELTA] = delta;
+            norms[2 * index + SOR.RESIDUAL] = residual / omega;
+        }
+    }
+}
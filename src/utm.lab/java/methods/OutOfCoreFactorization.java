@@ -0,0 +1,479 @@
+package methods;
+
+import io.TiledMatrixFile;
+import kernels.Kernels;
+import utils.DenseMatrix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * LU- и Холецкого разложения матриц, которые не помещаются в кучу (out-of-core).
+ * <p>
+ * Матрица хранится плитками в отображённом в память файле ({@link TiledMatrixFile}),
+ * и разложение записывается в тот же файл на место исходной матрицы. Используется
+ * left-looking схема: столбцы обрабатываются панелями по P столбцов плиток, и в куче
+ * находится только текущая панель (n×P·T чисел) и несколько плиток. Для панели
+ * по очереди читаются все уже разложенные столбцы плиток слева, пока следующий
+ * столбец подгружается в фоне ({@link TiledMatrixFile#prefetch(int, int)}).
+ * Ширина панели подбирается по заданному объёму памяти: чем шире панель, тем реже
+ * перечитывается левая часть матрицы (объём чтения ≈ n³ / (2·ширина панели)).
+ * <p>
+ * LU выполняется с частичным выбором ведущего элемента по всей высоте панели.
+ * Перестановки строк сразу применяются к уже записанным столбцам слева, а к столбцам
+ * справа — при их загрузке. Холецкий использует только нижний треугольник;
+ * верхний треугольник диагональных блоков после разложения обнуляется.
+ */
+public final class OutOfCoreFactorization implements Factorization {
+    /** Объём памяти под панель по умолчанию — 256 МБ. */
+    public static final long DEFAULT_MEMORY = 256L << 20;
+
+    private final TiledMatrixFile file;
+    private final boolean cholesky;
+    private final int[] perm;       // LU: perm[i] — исходная строка на месте i; null для Холецкого
+    private final boolean oddSwaps;
+
+    private OutOfCoreFactorization(TiledMatrixFile file, boolean cholesky, int[] perm, boolean oddSwaps) {
+        this.file = file;
+        this.cholesky = cholesky;
+        this.perm = perm;
+        this.oddSwaps = oddSwaps;
+    }
+
+    /**
+     * Число столбцов плиток в панели, при котором панель высотой {@code rows} укладывается в память
+     * и в один массив Java (rows·P·T ≤ {@link Integer#MAX_VALUE}).
+     *
+     * @throws IllegalArgumentException если в память не помещается даже один столбец плиток.
+     */
+    private static int panelTiles(TiledMatrixFile file, int rows, long memoryBytes) {
+        long tileColumn = (long) rows * file.tileSize();
+        long byMemory = memoryBytes / (tileColumn * Double.BYTES);
+        long byArray = Integer.MAX_VALUE / tileColumn;
+        if (byMemory < 1 || byArray < 1) {
+            throw new IllegalArgumentException("Столбец плиток " + rows + "x" + file.tileSize() + " занимает "
+                    + tileColumn * Double.BYTES + " байт и не помещается в " + memoryBytes
+                    + " байт (или в один массив): увеличьте объём памяти или запишите файл с меньшей плиткой");
+        }
+        return (int) Math.min(file.tileCount(), Math.min(byMemory, byArray));
+    }
+
+    /**
+     * Выполняет LU-разложение с частичным выбором ведущего элемента на месте в файле.
+     *
+     * @param file        матрица; после разложения содержит L (ниже диагонали) и U.
+     * @param memoryBytes объём памяти под панель.
+     * @return разложение PA = LU.
+     * @throws ArithmeticException      если матрица вырождена.
+     * @throws IllegalArgumentException если объём памяти меньше одного столбца плиток.
+     */
+    static OutOfCoreFactorization lu(TiledMatrixFile file, long memoryBytes) {
+        int N = file.paddedSize();
+        int T = file.tileSize();
+        int nt = file.tileCount();
+        int P = panelTiles(file, N, memoryBytes);
+        FactorizationEvent event = new FactorizationEvent();
+        event.begin();
+
+        int[] perm = new int[N];
+        for (int i = 0; i < N; i++) {
+            perm[i] = i;
+        }
+        boolean oddSwaps = false;
+        double[] panel = new double[N * Math.min(P, nt) * T];
+        double[] scratch = new double[2 * T];
+        ThreadLocal<double[]> tiles = ThreadLocal.withInitial(() -> new double[T * T]);
+
+        for (int J0 = 0; J0 < nt; J0 += P) {
+            int p = Math.min(P, nt - J0);
+            int W = p * T;
+            int c0 = J0 * T;
+            // 1. Загружаем панель в текущем порядке строк
+            for (int i = 0; i < N; i++) {
+                for (int q = 0; q < p; q++) {
+                    file.readRow(J0 + q, perm[i], panel, i * W + q * T);
+                }
+            }
+
+            // 2. Left-looking: применяем все столбцы плиток слева
+            FactorizationPhaseEvent phase = new FactorizationPhaseEvent();
+            phase.begin();
+            file.prefetch(0, 0);
+            for (int K = 0; K < J0; K++) {
+                file.prefetch(K + 1, K + 1);
+                int k0 = K * T;
+                double[] diagonal = tiles.get();
+                file.readTile(K, K, diagonal);
+                // U(K, панель) = L(K, K)^-1 * A(K, панель), диагональ L единичная
+                for (int r = 1; r < T; r++) {
+                    Kernels.rankUpdate(panel, (k0 + r) * W, W, diagonal, r * T, r, panel, k0 * W, W);
+                }
+                // A(I, панель) -= L(I, K) * U(K, панель); плитки строк независимы
+                int column = K;
+                IntStream.range(K + 1, nt).parallel().forEach(I -> {
+                    double[] tile = tiles.get();
+                    file.readTile(I, column, tile);
+                    for (int r = 0; r < T; r++) {
+                        Kernels.rankUpdate(panel, (I * T + r) * W, W, tile, r * T, T, panel, k0 * W, W);
+                    }
+                });
+            }
+            phase.finish("LU (out-of-core)", "update", c0);
+
+            // 3. Раскладываем панель ниже строки c0 в памяти, подпанелями по T столбцов
+            phase = new FactorizationPhaseEvent();
+            phase.begin();
+            List<int[]> swaps = new ArrayList<>();
+            for (int sc = 0; sc < W; sc += T) {
+                int sEnd = sc + T;
+                for (int c = sc; c < sEnd; c++) {
+                    int g = c0 + c;
+                    int max = g;
+                    double maxAbs = Math.abs(panel[g * W + c]);
+                    for (int i = g + 1; i < N; i++) {
+                        double v = Math.abs(panel[i * W + c]);
+                        if (v > maxAbs) {
+                            maxAbs = v;
+                            max = i;
+                        }
+                    }
+                    if (maxAbs == 0.0) {
+                        throw new ArithmeticException("Матрица вырождена: нулевой столбец " + (g + 1) + " при выборе ведущего элемента.");
+                    }
+                    if (max != g) {
+                        swapRows(panel, W, g, max);
+                        int temp = perm[g];
+                        perm[g] = perm[max];
+                        perm[max] = temp;
+                        oddSwaps = !oddSwaps;
+                        swaps.add(new int[]{g, max});
+                    }
+                    double pivot = panel[g * W + c];
+                    for (int i = g + 1; i < N; i++) {
+                        double factor = panel[i * W + c] / pivot;
+                        panel[i * W + c] = factor;
+                        Kernels.axpy(-factor, panel, g * W + c + 1, panel, i * W + c + 1, sEnd - c - 1);
+                    }
+                }
+                if (sEnd == W) {
+                    break;
+                }
+                int top = c0 + sc;
+                for (int r = 1; r < T; r++) {
+                    Kernels.rankUpdate(panel, (top + r) * W + sEnd, W - sEnd, panel, (top + r) * W + sc, r,
+                            panel, top * W + sEnd, W);
+                }
+                int from = top + T;
+                int offset = sc;
+                IntStream.range(from, N).parallel().forEach(i ->
+                        Kernels.rankUpdate(panel, i * W + sEnd, W - sEnd, panel, i * W + offset, T,
+                                panel, top * W + sEnd, W));
+            }
+            // перестановки панели применяются к уже записанным столбцам слева
+            for (int[] swap : swaps) {
+                for (int K = 0; K < J0; K++) {
+                    file.swapRows(K, swap[0], swap[1], scratch);
+                }
+            }
+            phase.finish("LU (out-of-core)", "panel", c0);
+
+            for (int i = 0; i < N; i++) {
+                for (int q = 0; q < p; q++) {
+                    file.writeRow(J0 + q, i, panel, i * W + q * T);
+                }
+            }
+        }
+        file.force();
+        event.finish("LU (out-of-core)", file.size());
+        return new OutOfCoreFactorization(file, false, perm, oddSwaps);
+    }
+
+    /**
+     * Выполняет разложение Холецкого на месте в файле. Используется нижний треугольник матрицы.
+     *
+     * @param file        симметричная положительно определённая матрица; после разложения
+     *                    нижний треугольник содержит H, где A = H * H^T.
+     * @param memoryBytes объём памяти под панель.
+     * @return разложение.
+     * @throws ArithmeticException      если матрица не положительно определённая.
+     * @throws IllegalArgumentException если объём памяти меньше одного столбца плиток.
+     */
+    static OutOfCoreFactorization cholesky(TiledMatrixFile file, long memoryBytes) {
+        int N = file.paddedSize();
+        int T = file.tileSize();
+        int nt = file.tileCount();
+        int P = panelTiles(file, N, memoryBytes);
+        FactorizationEvent event = new FactorizationEvent();
+        event.begin();
+
+        int maxWidth = Math.min(P, nt) * T;
+        double[] panel = new double[N * maxWidth];
+        double[] transposed = new double[T * maxWidth];
+        double[] column = new double[T];
+        ThreadLocal<double[]> tiles = ThreadLocal.withInitial(() -> new double[T * T]);
+
+        for (int J0 = 0; J0 < nt; J0 += P) {
+            int p = Math.min(P, nt - J0);
+            int W = p * T;
+            int c0 = J0 * T;
+            int rows = N - c0; // строка 0 панели — глобальная строка c0
+            for (int i = 0; i < rows; i++) {
+                for (int q = 0; q < p; q++) {
+                    file.readRow(J0 + q, c0 + i, panel, i * W + q * T);
+                }
+            }
+
+            // A(I, панель) -= L(I, K) * L(панель, K)^T для всех столбцов плиток K слева
+            FactorizationPhaseEvent phase = new FactorizationPhaseEvent();
+            phase.begin();
+            file.prefetch(0, J0);
+            for (int K = 0; K < J0; K++) {
+                file.prefetch(K + 1, J0);
+                double[] tile = tiles.get();
+                for (int q = 0; q < p; q++) {
+                    file.readTile(J0 + q, K, tile);
+                    for (int r = 0; r < T; r++) {
+                        for (int c = 0; c < T; c++) {
+                            transposed[c * W + q * T + r] = tile[r * T + c];
+                        }
+                    }
+                }
+                int source = K;
+                IntStream.range(J0, nt).parallel().forEach(I -> {
+                    double[] block = tiles.get();
+                    file.readTile(I, source, block);
+                    for (int r = 0; r < T; r++) {
+                        Kernels.rankUpdate(panel, (I * T + r - c0) * W, W, block, r * T, T, transposed, 0, W);
+                    }
+                });
+            }
+            phase.finish("Cholesky (out-of-core)", "update", c0);
+
+            // Раскладываем панель в памяти подпанелями по T столбцов
+            phase = new FactorizationPhaseEvent();
+            phase.begin();
+            for (int sc = 0; sc < W; sc += T) {
+                int sEnd = sc + T;
+                for (int c = sc; c < sEnd; c++) {
+                    double d = panel[c * W + c];
+                    if (!(d > 0)) {
+                        throw new ArithmeticException("Матрица не положительно определенная: ведущий элемент "
+                                + (c0 + c + 1) + " равен " + d + ". Метод Холецкого не сработает.");
+                    }
+                    d = Math.sqrt(d);
+                    panel[c * W + c] = d;
+                    for (int i = c + 1; i < rows; i++) {
+                        panel[i * W + c] /= d;
+                    }
+                    int width = sEnd - c - 1;
+                    for (int j = 0; j < width; j++) {
+                        column[j] = panel[(c + 1 + j) * W + c];
+                    }
+                    for (int i = c + 1; i < rows; i++) {
+                        Kernels.axpy(-panel[i * W + c], column, 0, panel, i * W + c + 1, width);
+                    }
+                }
+                if (sEnd == W) {
+                    break;
+                }
+                int rest = W - sEnd;
+                for (int j = sEnd; j < W; j++) {
+                    for (int c = 0; c < T; c++) {
+                        transposed[c * rest + j - sEnd] = panel[j * W + sc + c];
+                    }
+                }
+                int offset = sc;
+                IntStream.range(sEnd, rows).parallel().forEach(i ->
+                        Kernels.rankUpdate(panel, i * W + sEnd, rest, panel, i * W + offset, T, transposed, 0, rest));
+            }
+            // выше диагонали в диагональном блоке остались промежуточные значения
+            for (int i = 0; i < W; i++) {
+                for (int j = i + 1; j < W; j++) {
+                    panel[i * W + j] = 0.0;
+                }
+            }
+            phase.finish("Cholesky (out-of-core)", "panel", c0);
+
+            for (int i = 0; i < rows; i++) {
+                for (int q = 0; q < p; q++) {
+                    file.writeRow(J0 + q, c0 + i, panel, i * W + q * T);
+                }
+            }
+        }
+        file.force();
+        event.finish("Cholesky (out-of-core)", file.size());
+        return new OutOfCoreFactorization(file, true, null, false);
+    }
+
+    private static void swapRows(double[] a, int width, int i, int k) {
+        int ri = i * width;
+        int rk = k * width;
+        for (int j = 0; j < width; j++) {
+            double temp = a[ri + j];
+            a[ri + j] = a[rk + j];
+            a[rk + j] = temp;
+        }
+    }
+
+    /**
+     * @return файл, в котором хранится разложение.
+     */
+    public TiledMatrixFile file() {
+        return file;
+    }
+
+    @Override
+    public int size() {
+        return file.size();
+    }
+
+    /**
+     * Решает систему Ax = b. Разложение читается из файла один раз.
+     *
+     * @param b вектор свободных членов (не изменяется).
+     * @return решение x.
+     */
+    @Override
+    public double[] solve(double[] b) {
+        if (b.length != size()) {
+            throw new IllegalArgumentException("Длина вектора " + b.length + " не равна размерности " + size());
+        }
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        double[] x = solveInPlace(load(b, 1), 1);
+        event.finish(method(), size(), 1);
+        return Arrays.copyOf(x, size());
+    }
+
+    /**
+     * Решает систему AX = B. Разложение читается из файла один раз для всех столбцов B.
+     *
+     * @param B матрица правых частей n×k (не изменяется).
+     * @return решение X размером n×k.
+     */
+    @Override
+    public DenseMatrix solve(DenseMatrix B) {
+        if (B.rows() != size()) {
+            throw new IllegalArgumentException("Число строк правых частей " + B.rows() + " не равно размерности " + size());
+        }
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        int k = B.cols();
+        double[] x = solveInPlace(load(B.toHeap().data(), k), k);
+        event.finish(method(), size(), k);
+        return DenseMatrix.wrap(size(), k, Arrays.copyOf(x, size() * k));
+    }
+
+    private String method() {
+        return cholesky ? "Cholesky (out-of-core)" : "LU (out-of-core)";
+    }
+
+    /**
+     * Размещает правые части n×k в массиве дополненной размерности с учётом перестановки строк.
+     */
+    private double[] load(double[] b, int k) {
+        int n = size();
+        double[] x = new double[file.paddedSize() * k];
+        for (int i = 0; i < file.paddedSize(); i++) {
+            int source = perm == null ? i : perm[i];
+            if (source < n) {
+                System.arraycopy(b, source * k, x, i * k, k);
+            }
+        }
+        return x;
+    }
+
+    private double[] solveInPlace(double[] x, int k) {
+        int T = file.tileSize();
+        int nt = file.tileCount();
+        double[] tile = new double[T * T];
+
+        // Ly = Pb: столбцы плиток L читаются по порядку
+        file.prefetch(0, 0);
+        for (int K = 0; K < nt; K++) {
+            file.prefetch(K + 1, K + 1);
+            int k0 = K * T;
+            file.readTile(K, K, tile);
+            for (int r = 0; r < T; r++) {
+                Kernels.rankUpdate(x, (k0 + r) * k, k, tile, r * T, r, x, k0 * k, k);
+                if (cholesky) {
+                    scale(x, (k0 + r) * k, k, tile[r * T + r]);
+                }
+            }
+            for (int I = K + 1; I < nt; I++) {
+                file.readTile(I, K, tile);
+                for (int r = 0; r < T; r++) {
+                    Kernels.rankUpdate(x, (I * T + r) * k, k, tile, r * T, T, x, k0 * k, k);
+                }
+            }
+        }
+
+        // Ux = y (LU) или H^T x = y (Холецкий): столбцы плиток в обратном порядке
+        for (int K = nt - 1; K >= 0; K--) {
+            file.prefetch(K - 1, cholesky ? K - 1 : 0);
+            int k0 = K * T;
+            if (cholesky) {
+                // x(K) -= L(I, K)^T * x(I) для строк плиток ниже
+                for (int I = K + 1; I < nt; I++) {
+                    file.readTile(I, K, tile);
+                    for (int r = 0; r < T; r++) {
+                        for (int c = 0; c < T; c++) {
+                            Kernels.axpy(-tile[r * T + c], x, (I * T + r) * k, x, (k0 + c) * k, k);
+                        }
+                    }
+                }
+                file.readTile(K, K, tile);
+                for (int r = T - 1; r >= 0; r--) {
+                    scale(x, (k0 + r) * k, k, tile[r * T + r]);
+                    for (int c = 0; c < r; c++) {
+                        Kernels.axpy(-tile[r * T + c], x, (k0 + r) * k, x, (k0 + c) * k, k);
+                    }
+                }
+            } else {
+                file.readTile(K, K, tile);
+                for (int r = T - 1; r >= 0; r--) {
+                    Kernels.rankUpdate(x, (k0 + r) * k, k, tile, r * T + r + 1, T - r - 1, x, (k0 + r + 1) * k, k);
+                    scale(x, (k0 + r) * k, k, tile[r * T + r]);
+                }
+                for (int I = 0; I < K; I++) {
+                    file.readTile(I, K, tile);
+                    for (int r = 0; r < T; r++) {
+                        Kernels.rankUpdate(x, (I * T + r) * k, k, tile, r * T, T, x, k0 * k, k);
+                    }
+                }
+            }
+        }
+        return x;
+    }
+
+    private static void scale(double[] x, int offset, int length, double divisor) {
+        for (int c = offset; c < offset + length; c++) {
+            x[c] /= divisor;
+        }
+    }
+
+    /**
+     * Вычисляет определитель по диагонали разложения.
+     *
+     * @return определитель исходной матрицы.
+     */
+    @Override
+    public double determinant() {
+        double det = oddSwaps ? -1.0 : 1.0;
+        for (int i = 0; i < size(); i++) {
+            double d = file.get(i, i);
+            det *= cholesky ? d * d : d;
+        }
+        return det;
+    }
+
+    /**
+     * Само разложение хранится в файле; в куче остаётся только перестановка строк.
+     */
+    @Override
+    public long memoryBytes() {
+        return perm == null ? 0 : (long) perm.length * Integer.BYTES;
+    }
+}
@@ -0,0 +1,177 @@
+package methods;
+
+import kernels.Kernels;
+import utils.DenseMatrix;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Многопоточный метод Якоби на {@link ForkJoinPool}.
+ * <p>
+ * Строки делятся на блоки, каждый блок обновляется отдельной задачей. Векторы
+ * решения используются попеременно (двойная буферизация), а задачи создаются один раз
+ * на решение и переиспользуются через {@link ForkJoinTask#reinitialize()},
+ * поэтому на итерации ничего не выделяется. Каждая задача считает максимум
+ * изменения по своему блоку, после чего частичные максимумы сводятся в один.
+ */
+public final class ParallelJacobi {
+    /** Минимальное число строк в блоке, чтобы накладные расходы на задачу окупались. */
+    private static final int MIN_ROWS_PER_TASK = 64;
+    /** Число блоков на один поток пула — для балансировки нагрузки. */
+    private static final int TASKS_PER_THREAD = 4;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Создаёт решатель на общем пуле {@link ForkJoinPool#commonPool()}.
+     */
+    public ParallelJacobi() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool пул потоков, на котором выполняются итерации.
+     */
+    public ParallelJacobi(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Решает систему Ax = b методом Якоби.
+     *
+     * @param A       матрица коэффициентов (не изменяется).
+     * @param b       вектор свободных членов.
+     * @param epsilon допустимая погрешность для проверки сходимости.
+     * @return решение x.
+     */
+    public double[] solve(DenseMatrix A, double[] b, double epsilon) {
+        return solve(A, b, epsilon, null);
+    }
+
+    /**
+     * Решает систему Ax = b методом Якоби, сообщая о каждой итерации слушателю.
+     *
+     * @param A        матрица коэффициентов (не изменяется).
+     * @param b        вектор свободных членов.
+     * @param epsilon  допустимая погрешность для проверки сходимости.
+     * @param listener слушатель итераций или null.
+     * @return решение x.
+     */
+    public double[] solve(DenseMatrix A, double[] b, double epsilon, SolverListener listener) {
+        int n = b.length;
+        int tasks = Math.max(1, Math.min(pool.getParallelism() * TASKS_PER_THREAD, n / MIN_ROWS_PER_TASK));
+        Sweep sweep = new Sweep(A.toHeap().data(), b, tasks);
+        IterationMonitor monitor = new IterationMonitor("Parallel Jacobi", n, listener,
+                StoppingCriteria.of(epsilon), b);
+        int iteration = 0;
+
+        do {
+            iteration++;
+            pool.invoke(sweep);
+            sweep.swapBuffers();
+        } while (!monitor.converged(iteration, sweep.maxResidual(), sweep.maxDelta()));
+        return sweep.xOld;
+    }
+
+    /**
+     * Одна итерация: запускает все блоки строк и ждёт их завершения.
+     */
+    private static final class Sweep extends RecursiveAction {
+        private final double[] a;
+        private final double[] b;
+        private final int n;
+        private final RowBlock[] blocks;
+        private final double[] deltas; // максимум |xNew - xOld| по каждому блоку
+        private final double[] residuals; // максимум невязки xOld по каждому блоку
+        private double[] xOld;
+        private double[] xNew;
+
+        Sweep(double[] a, double[] b, int tasks) {
+            this.a = a;
+            this.b = b;
+            this.n = b.length;
+            this.xOld = new double[n];
+            this.xNew = new double[n];
+            this.deltas = new double[tasks];
+            this.residuals = new double[tasks];
+            this.blocks = new RowBlock[tasks];
+            for (int t = 0; t < tasks; t++) {
+                blocks[t] = new RowBlock(this, t, (int) ((long) n * t / tasks), (int) ((long) n * (t + 1) / tasks));
+            }
+        }
+
+        @Override
+        protected void compute() {
+            for (RowBlock block : blocks) {
+                block.reinitialize();
+            }
+            ForkJoinTask.invokeAll(blocks);
+        }
+
+        void swapBuffers() {
+            double[] temp = xOld;
+            xOld = xNew;
+            xNew = temp;
+            reinitialize();
+        }
+
+        double maxDelta() {
+            return max(deltas);
+        }
+
+        double maxResidual() {
+            return max(residuals);
+        }
+
+        private static double max(double[] values) {
+            double max = 0;
+            for (double value : values) {
+                max = Math.max(max, value);
+            }
+            return max;
+        }
+    }
+
+    /**
+     * Обновление строк [from, to) для текущей итерации.
+     */
+    private static final class RowBlock extends RecursiveAction {
+        private final Sweep sweep;
+        private final int index;
+        private final int from;
+        private final int to;
+
+        RowBlock(Sweep sweep, int index, int from, int to) {
+            this.sweep = sweep;
+            this.index = index;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            double[] a = sweep.a;
+            double[] b = sweep.b;
+            double[] xOld = sweep.xOld;
+            double[] xNew = sweep.xNew;
+            int n = sweep.n;
+            double delta = 0;
+            double residual = 0;
+            for (int i = from; i < to; i++) {
+                int row = i * n;
+                // диагональный член вычитаем после скалярного произведения, чтобы в нём не было ветвления
+                double sum = Kernels.dot(a, row, xOld, 0, n) - a[row + i] * xOld[i];
+                double value = (b[i] - sum) / a[row + i];
+                double change = Math.abs(value - xOld[i]);
+                delta = Math.max(delta, change);
+                // невязка строки для xOld равна a_ii * (value - xOld_i)
+                residual = Math.max(residual, change * Math.abs(a[row + i]));
+                xNew[i] = value;
+            }
+            sweep.deltas[index] = delta;
+            sweep.residuals[index] = residual;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package methods;
+
+import logger.TraceMode;
+import utils.DenseMatrix;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.Consumer;
+
+/**
+ * Решение итерационным методом для нескольких всё более строгих точностей с публикацией
+ * промежуточных решений.
+ * <p>
+ * Итерации не начинаются заново для каждой точности: этап с точностью ε_{i+1} продолжает
+ * с решения этапа ε_i, поэтому грубые итерации выполняются один раз. Подписчик получает
+ * приближённое решение, как только достигнута первая (грубая) точность, и уточнённые — позже.
+ * <p>
+ * Публикатор «холодный»: каждая подписка запускает своё решение в отдельном виртуальном
+ * потоке. Решения доставляются с учётом запроса подписчика ({@link Flow.Subscription#request(long)}):
+ * если подписчик не успевает, решение ждёт. После отмены подписки итерации прекращаются
+ * на ближайшей итерации. Ошибка метода (например, {@link ConvergenceException}) передаётся
+ * в {@link Flow.Subscriber#onError(Throwable)}, после последнего этапа вызывается
+ * {@link Flow.Subscriber#onComplete()}.
+ */
+public final class ProgressiveSolver {
+
+    private ProgressiveSolver() {
+    }
+
+    /**
+     * Итерационный метод, которым решаются этапы.
+     */
+    public enum Method {
+        JACOBI,
+        GAUSS_SEIDEL
+    }
+
+    /**
+     * Решение, полученное на одном этапе.
+     *
+     * @param stage           номер этапа, начиная с 0.
+     * @param tolerance       точность этапа (max|xNew - xOld|).
+     * @param solution        решение (копия, которую подписчик может изменять).
+     * @param iterations      число итераций этого этапа.
+     * @param totalIterations число итераций с начала решения.
+     * @param residualNorm    оценка нормы невязки ||b - Ax||∞ на последней итерации.
+     * @param elapsedNanos    время с начала решения.
+     * @param last            true для последнего этапа.
+     */
+    public record Approximation(int stage, double tolerance, double[] solution, int iterations,
+                                int totalIterations, double residualNorm, long elapsedNanos, boolean last) {
+    }
+
+    /**
+     * Создаёт публикатор решений с нулевым начальным приближением.
+     *
+     * @param method     итерационный метод.
+     * @param A          матрица коэффициентов (не изменяется).
+     * @param b          вектор свободных членов (не изменяется).
+     * @param tolerances убывающие точности этапов.
+     * @return публикатор; решение начинается при подписке.
+     */
+    public static Flow.Publisher<Approximation> publisher(Method method, DenseMatrix A, double[] b,
+                                                          double... tolerances) {
+        return publisher(method, A, b, null, tolerances);
+    }
+
+    /**
+     * Создаёт публикатор решений, начиная с заданного приближения (например, решения
+     * предыдущей похожей системы).
+     *
+     * @param method       итерационный метод.
+     * @param A            матрица коэффициентов (не изменяется).
+     * @param b            вектор свободных членов (не изменяется).
+     * @param initialGuess начальное приближение (не изменяется) или null для нулевого.
+     * @param tolerances   убывающие точности этапов.
+     * @return публикатор; решение начинается при подписке.
+     */
+    public static Flow.Publisher<Approximation> publisher(Method method, DenseMatrix A, double[] b,
+                                                          double[] initialGuess, double... tolerances) {
+        checkArguments(A, b, initialGuess, tolerances);
+        // матрица и векторы копируются сразу: решение может начаться намного позже
+        DenseMatrix matrix = A.copy();
+        double[] rhs = b.clone();
+        double[] guess = initialGuess == null ? null : initialGuess.clone();
+        double[] stages = tolerances.clone();
+        return subscriber -> {
+            SubmissionPublisher<Approximation> publisher = new SubmissionPublisher<>(deliveryExecutor(),
+                    Flow.defaultBufferSize());
+            publisher.subscribe(subscriber);
+            Thread.ofVirtual().name("matrixsolver-progressive")
+                    .start(() -> run(method, matrix, rhs, guess, stages, publisher));
+        };
+    }
+
+    /**
+     * Решает все этапы в вызывающем потоке и передаёт каждое решение {@code sink}.
+     * Удобно, когда асинхронная доставка не нужна.
+     *
+     * @param method       итерационный метод.
+     * @param A            матрица коэффициентов (не изменяется).
+     * @param b            вектор свободных членов (не изменяется).
+     * @param initialGuess начальное приближение (не изменяется) или null для нулевого.
+     * @param tolerances   убывающие точности этапов.
+     * @param sink         получатель решений этапов.
+     * @return решение последнего этапа.
+     * @throws ConvergenceException если итерации прерваны по условиям остановки.
+     */
+    public static double[] solve(Method method, DenseMatrix A, double[] b, double[] initialGuess,
+                                 double[] tolerances, Consumer<Approximation> sink) {
+        checkArguments(A, b, initialGuess, tolerances);
+        return solve(method, A, b, initialGuess, tolerances, sink, new Progress(null));
+    }
+
+    private static double[] solve(Method method, DenseMatrix A, double[] b, double[] initialGuess,
+                                  double[] tolerances, Consumer<Approximation> sink, Progress progress) {
+        long start = System.nanoTime();
+        double[] x = initialGuess;
+        int total = 0;
+        for (int stage = 0; stage < tolerances.length; stage++) {
+            progress.reset();
+            StoppingCriteria criteria = StoppingCriteria.of(tolerances[stage]);
+            x = method == Method.JACOBI
+                    ? Jacobi.jacobiMethod(A, b, x, criteria, TraceMode.OFF, progress)
+                    : GaussSeidel.gaussSeidelMethod(A, b, x, criteria, TraceMode.OFF, progress);
+            total += progress.iterations;
+            sink.accept(new Approximation(stage, tolerances[stage], x.clone(), progress.iterations, total,
+                    progress.residualNorm, System.nanoTime() - start, stage == tolerances.length - 1));
+        }
+        return x;
+    }
+
+    private static void checkArguments(DenseMatrix A, double[] b, double[] initialGuess, double[] tolerances) {
+        if (!A.isSquare() || A.rows() != b.length) {
+            throw new IllegalArgumentException("Размеры матрицы " + A.rows() + "x" + A.cols()
+                    + " и вектора " + b.length + " не согласованы");
+        }
+        if (initialGuess != null && initialGuess.length != b.length) {
+            throw new IllegalArgumentException("Длина начального приближения " + initialGuess.length
+                    + " не равна размерности " + b.length);
+        }
+        if (tolerances.length == 0) {
+            throw new IllegalArgumentException("Не задано ни одной точности");
+        }
+        for (int i = 0; i < tolerances.length; i++) {
+            if (!(tolerances[i] > 0) || (i > 0 && tolerances[i] > tolerances[i - 1])) {
+                throw new IllegalArgumentException("Точности должны быть положительными и не возрастать: "
+                        + Arrays.toString(tolerances));
+            }
+        }
+    }
+
+    private static void run(Method method, DenseMatrix A, double[] b, double[] guess, double[] tolerances,
+                            SubmissionPublisher<Approximation> publisher) {
+        try {
+            Progress progress = new Progress(publisher);
+            solve(method, A, b, guess, tolerances, approximation -> {
+                progress.checkCancelled();
+                publisher.submit(approximation);
+            }, progress);
+            publisher.close();
+        } catch (CancellationException e) {
+            publisher.close();
+        } catch (RuntimeException e) {
+            publisher.closeExceptionally(e);
+        }
+    }
+
+    /**
+     * Доставка идёт в общем пуле, если в нём больше одного потока; иначе — в отдельных
+     * потоках, как по умолчанию у {@link SubmissionPublisher}.
+     */
+    private static Executor deliveryExecutor() {
+        return ForkJoinPool.getCommonPoolParallelism() > 1
+                ? ForkJoinPool.commonPool()
+                : task -> Thread.ofVirtual().start(task);
+    }
+
+    /**
+     * Запоминает число итераций и невязку этапа и прерывает решение, если подписка отменена.
+     */
+    private static final class Progress implements SolverListener {
+        private final SubmissionPublisher<?> publisher;
+        int iterations;
+        double residualNorm;
+
+        Progress(SubmissionPublisher<?> publisher) {
+            this.publisher = publisher;
+        }
+
+        void reset() {
+            iterations = 0;
+            residualNorm = Double.NaN;
+        }
+
+        void checkCancelled() {
+            if (publisher != null && (publisher.isClosed() || !publisher.hasSubscribers())) {
+                throw new CancellationException();
+            }
+        }
+
+        @Override
+        public void onIteration(int iteration, double residualNorm, double deltaNorm, long elapsedNanos) {
+            checkCancelled();
+            this.iterations = iteration;
+            this.residualNorm = residualNorm;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package methods;
+
+import kernels.Kernels;
+import utils.DenseMatrix;
+
+/**
+ * Метод последовательной верхней релаксации (SOR) и его симметричный вариант (SSOR).
+ * <p>
+ * При ω = 1 SOR совпадает с методом Гаусса — Зейделя. Параметр ω можно задать
+ * вручную или оценить через {@link #estimateOmega(DenseMatrix)}.
+ */
+public class SOR {
+    /** Число шагов степенного метода при оценке спектрального радиуса. */
+    private static final int POWER_ITERATIONS = 50;
+    /** Индексы норм в массиве, который накапливают проходы. */
+    static final int DELTA = 0;
+    static final int RESIDUAL = 1;
+
+    /**
+     * Решает систему Ax = b методом SOR.
+     *
+     * @param A       матрица коэффициентов (не изменяется).
+     * @param b       вектор свободных членов.
+     * @param omega   параметр релаксации, 0 < ω < 2.
+     * @param epsilon допустимая погрешность для проверки сходимости.
+     * @return решение x.
+     */
+    public static double[] sorMethod(DenseMatrix A, double[] b, double omega, double epsilon) {
+        return sorMethod(A, b, omega, epsilon, null);
+    }
+
+    /**
+     * Решает систему Ax = b методом SOR, сообщая о каждой итерации слушателю.
+     *
+     * @param A        матрица коэффициентов (не изменяется).
+     * @param b        вектор свободных членов.
+     * @param omega    параметр релаксации, 0 < ω < 2.
+     * @param epsilon  допустимая погрешность для проверки сходимости.
+     * @param listener слушатель итераций или null.
+     * @return решение x.
+     */
+    public static double[] sorMethod(DenseMatrix A, double[] b, double omega, double epsilon,
+                                     SolverListener listener) {
+        checkOmega(omega);
+        double[] a = A.toHeap().data();
+        int n = b.length;
+        double[] x = new double[n];
+        double[] norms = new double[2];
+        int iteration = 0;
+        IterationMonitor monitor = new IterationMonitor("SOR", n, listener, StoppingCriteria.of(epsilon), b);
+        do {
+            iteration++;
+            norms[DELTA] = 0;
+            norms[RESIDUAL] = 0;
+            forwardSweep(a, b, x, omega, norms);
+        } while (!monitor.converged(iteration, norms[RESIDUAL], norms[DELTA]));
+        return x;
+    }
+
+    /**
+     * Решает систему Ax = b симметричным методом SSOR: каждая итерация состоит
+     * из прямого и обратного прохода SOR.
+     *
+     * @param A       симметричная матрица коэффициентов (не изменяется).
+     * @param b       вектор свободных членов.
+     * @param omega   параметр релаксации, 0 < ω < 2.
+     * @param epsilon допустимая погрешность для проверки сходимости.
+     * @return решение x.
+     */
+    public static double[] ssorMethod(DenseMatrix A, double[] b, double omega, double epsilon) {
+        return ssorMethod(A, b, omega, epsilon, null);
+    }
+
+    /**
+     * Решает систему Ax = b методом SSOR, сообщая о каждой итерации слушателю.
+     *
+     * @param A        симметричная матрица коэффициентов (не изменяется).
+     * @param b        вектор свободных членов.
+     * @param omega    параметр релаксации, 0 < ω < 2.
+     * @param epsilon  допустимая погрешность для проверки сходимости.
+     * @param listener слушатель итераций или null.
+     * @return решение x.
+     */
+    public static double[] ssorMethod(DenseMatrix A, double[] b, double omega, double epsilon,
+                                      SolverListener listener) {
+        checkOmega(omega);
+        double[] a = A.toHeap().data();
+        int n = b.length;
+        double[] x = new double[n];
+        double[] norms = new double[2];
+        int iteration = 0;
+        IterationMonitor monitor = new IterationMonitor("SSOR", n, listener, StoppingCriteria.of(epsilon), b);
+        do {
+            iteration++;
+            norms[DELTA] = 0;
+            norms[RESIDUAL] = 0;
+            forwardSweep(a, b, x, omega, norms);
+            backwardSweep(a, b, x, omega, norms);
+        } while (!monitor.converged(iteration, norms[RESIDUAL], norms[DELTA]));
+        return x;
+    }
+
+    /**
+     * Оценивает оптимальный параметр релаксации ω = 2 / (1 + sqrt(1 - ρ²)),
+     * где ρ — спектральный радиус матрицы перехода метода Якоби, найденный степенным методом.
+     * Формула точна для согласованно упорядоченных матриц; если ρ ≥ 1, возвращается 1 (Гаусс — Зейдель).
+     *
+     * @param A матрица коэффициентов.
+     * @return оценка оптимального ω.
+     */
+    public static double estimateOmega(DenseMatrix A) {
+        double rho = jacobiSpectralRadius(A.toHeap().data(), A.rows());
+        if (!(rho < 1.0)) {
+            return 1.0;
+        }
+        return 2.0 / (1.0 + Math.sqrt(1.0 - rho * rho));
+    }
+
+    /**
+     * Степенной метод для B = I - D^-1 A.
+     */
+    private static double jacobiSpectralRadius(double[] a, int n) {
+        double[] v = new double[n];
+        double[] w = new double[n];
+        // ненулевой начальный вектор, не ортогональный типичным собственным векторам
+        for (int i = 0; i < n; i++) {
+            v[i] = 1.0 + (double) i / n;
+        }
+        double rho = 0;
+        for (int k = 0; k < POWER_ITERATIONS; k++) {
+            double norm = 0;
+            for (int i = 0; i < n; i++) {
+                int row = i * n;
+                double sum = Kernels.dot(a, row, v, 0, n) - a[row + i] * v[i];
+                w[i] = -sum / a[row + i];
+                norm = Math.max(norm, Math.abs(w[i]));
+            }
+            if (norm == 0) {
+                return 0;
+            }
+            double vNorm = 0;
+            for (double value : v) {
+                vNorm = Math.max(vNorm, Math.abs(value));
+            }
+            rho = norm / vNorm;
+            for (int i = 0; i < n; i++) {
+                v[i] = w[i] / norm;
+            }
+        }
+        return rho;
+    }
+
+    /**
+     * Прямой проход SOR по строкам 0..n-1. Максимумы изменения решения и невязки
+     * накапливаются в {@code norms[DELTA]} и {@code norms[RESIDUAL]}.
+     */
+    static void forwardSweep(double[] a, double[] b, double[] x, double omega, double[] norms) {
+        int n = b.length;
+        for (int i = 0; i < n; i++) {
+            accumulate(norms, relaxRow(a, b, x, omega, i, n), a[i * n + i], omega);
+        }
+    }
+
+    /**
+     * Обратный проход SOR по строкам n-1..0; нормы накапливаются так же, как в прямом.
+     */
+    static void backwardSweep(double[] a, double[] b, double[] x, double omega, double[] norms) {
+        int n = b.length;
+        for (int i = n - 1; i >= 0; i--) {
+            accumulate(norms, relaxRow(a, b, x, omega, i, n), a[i * n + i], omega);
+        }
+    }
+
+    /**
+     * Учитывает изменение одной компоненты. Невязка строки до обновления равна
+     * a_ii * (x_GS - x_i) = a_ii * change / ω, поэтому отдельно её не считаем.
+     */
+    static void accumulate(double[] norms, double change, double diagonal, double omega) {
+        norms[DELTA] = Math.max(norms[DELTA], change);
+        norms[RESIDUAL] = Math.max(norms[RESIDUAL], change * Math.abs(diagonal) / omega);
+    }
+
+    /**
+     * Обновляет x[i] с релаксацией и возвращает модуль изменения.
+     */
+    static double relaxRow(double[] a, double[] b, double[] x, double omega, int i, int n) {
+        int row = i * n;
+        double sum = Kernels.dot(a, row, x, 0, n) - a[row + i] * x[i];
+        double gaussSeidel = (b[i] - sum) / a[row + i];
+        double change = omega * (gaussSeidel - x[i]);
+        x[i] += change;
+        return Math.abs(change);
+    }
+
+    private static void checkOmega(double omega) {
+        if (!(omega > 0 && omega < 2)) {
+            throw new IllegalArgumentException("Параметр релаксации должен лежать в интервале (0, 2): " + omega);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package methods;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Событие JFR: решение по готовому разложению (прямая и обратная подстановки).
+ */
+@Name("matrixsolver.Solve")
+@Label("Решение по разложению")
+@Category("MatrixSolver")
+final class SolveEvent extends jdk.jfr.Event {
+    @Label("Метод")
+    String method;
+
+    @Label("Размерность")
+    int size;
+
+    @Label("Правых частей")
+    int rightHandSides;
+
+    /**
+     * Фиксирует окончание решения, если событие включено в записи.
+     */
+    void finish(String method, int size, int rightHandSides) {
+        end();
+        if (shouldCommit()) {
+            this.method = method;
+            this.size = size;
+            this.rightHandSides = rightHandSides;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package methods;
+
+import logger.LoggerFactoryUtil;
+import logger.TraceMode;
+import org.slf4j.Logger;
+import preconditioners.DiagonalPreconditioner;
+import utils.DenseMatrix;
+import utils.LinearOperator;
+import utils.MatrixStructure;
+import utils.SparseMatrix;
+
+import java.time.Duration;
+
+/**
+ * Автоматический выбор метода решения по структуре матрицы.
+ * <p>
+ * Матрица анализируется одним проходом ({@link MatrixStructure#analyze(DenseMatrix)}), после чего
+ * для каждого применимого метода оценивается число операций, и запускается самый дешёвый:
+ * <ul>
+ *     <li>прямые методы — Холецкий (n³/3) для симметричной матрицы с положительной диагональю,
+ *     иначе LU (2n³/3); если ненулевые элементы лежат в узкой ленте, — ленточные методы
+ *     {@link Banded} (прогонка, ленточный Холецкий или LU) за O(n·ширина²);</li>
+ *     <li>Гаусс — Зейдель — только при строгом диагональном преобладании, когда сходимость
+ *     гарантирована; число итераций оценивается по норме матрицы перехода q: ln ε / ln q;</li>
+ *     <li>сопряжённые градиенты с диагональным предобусловливанием — для симметричной матрицы
+ *     с положительной диагональю; число итераций ≈ √κ / 2 · ln(2/ε), где κ оценивается
+ *     по кругам Гершгорина.</li>
+ * </ul>
+ * Разреженная матрица (плотность ниже {@value #SPARSE_DENSITY}) для итераций переводится в CSR,
+ * и стоимость итерации считается по числу ненулевых элементов.
+ * <p>
+ * Итерационный метод запускается с {@link StoppingCriteria}: если он не уложился в оценку числа
+ * итераций с запасом или в ограничение по времени, решение заканчивается прямым методом.
+ * Так же, если разложение Холецкого обнаружило, что матрица не положительно определённая,
+ * используется LU.
+ */
+public final class SolverDispatcher {
+    private static final Logger logger = LoggerFactoryUtil.getLogger(SolverDispatcher.class);
+
+    /** Системное свойство: {@code auto} — решать учебную систему в {@code Main} только выбранным методом. */
+    public static final String PROPERTY = "matrixsolver.solver";
+    /** Ограничение по времени для итерационного метода по умолчанию. */
+    public static final Duration DEFAULT_TIME_LIMIT = Duration.ofSeconds(30);
+    /** До этой размерности всегда используется прямой метод: итерации не окупают анализ сходимости. */
+    public static final int SMALL_SIZE = 32;
+    /** Плотность, ниже которой итерации выполняются на матрице в формате CSR. */
+    public static final double SPARSE_DENSITY = 0.1;
+    /** Во сколько раз итерационный метод должен быть дешевле прямого по оценке, чтобы его выбрать. */
+    private static final double ITERATIVE_MARGIN = 2.0;
+    /** Бюджет итераций — оценка, умноженная на этот запас. */
+    private static final double BUDGET_FACTOR = 3.0;
+
+    /**
+     * Метод решения.
+     */
+    public enum Method {
+        CHOLESKY,
+        LU,
+        BANDED,
+        CONJUGATE_GRADIENT,
+        GAUSS_SEIDEL;
+
+        /**
+         * @return true для итерационных методов.
+         */
+        public boolean iterative() {
+            return this == CONJUGATE_GRADIENT || this == GAUSS_SEIDEL;
+        }
+    }
+
+    /**
+     * Выбранный метод и его оценка.
+     *
+     * @param method        метод.
+     * @param direct        прямой метод, которым закончится решение, если итерации не уложатся в бюджет.
+     * @param sparse        итерации выполняются на матрице в формате CSR.
+     * @param maxIterations бюджет итераций (0 для прямых методов).
+     * @param estimatedOps  оценка числа операций с плавающей точкой.
+     */
+    public record Plan(Method method, Method direct, boolean sparse, int maxIterations, double estimatedOps) {
+    }
+
+    /**
+     * Результат решения.
+     *
+     * @param solution  решение x.
+     * @param plan      план, выбранный по структуре матрицы.
+     * @param method    метод, которым фактически получено решение.
+     * @param structure свойства матрицы.
+     */
+    public record Result(double[] solution, Plan plan, Method method, MatrixStructure structure) {
+
+        /**
+         * @return true, если выбранный метод не справился и решение получено запасным.
+         */
+        public boolean fallback() {
+            return method != plan.method();
+        }
+    }
+
+    private SolverDispatcher() {
+    }
+
+    /**
+     * Выбирает метод по свойствам матрицы.
+     *
+     * @param structure свойства матрицы.
+     * @param epsilon   требуемая точность.
+     * @return план решения.
+     */
+    public static Plan choose(MatrixStructure structure, double epsilon) {
+        if (!(epsilon > 0 && epsilon < 1)) {
+            throw new IllegalArgumentException("Точность должна лежать в интервале (0, 1): " + epsilon);
+        }
+        int n = structure.size();
+        double cube = (double) n * n * n;
+        Method direct = structure.possiblyPositiveDefinite() ? Method.CHOLESKY : Method.LU;
+        Plan best = new Plan(direct, direct, false, 0,
+                (direct == Method.CHOLESKY ? cube / 3 : 2 * cube / 3) + 2.0 * n * n);
+        double banded = Banded.estimatedOps(n, structure.lowerBandwidth(), structure.upperBandwidth(),
+                structure.possiblyPositiveDefinite());
+        if (banded < best.estimatedOps()) {
+            direct = Method.BANDED;
+            best = new Plan(direct, direct, false, 0, banded);
+        }
+        if (n <= SMALL_SIZE) {
+            return best;
+        }
+
+        boolean sparse = structure.density() < SPARSE_DENSITY;
+        // умножение на матрицу: по ненулевым элементам в CSR или по всем n² в плотной
+        double sweep = 2.0 * (sparse ? structure.nonZeros() : (double) n * n);
+
+        if (structure.strictlyDominant()) {
+            // ||x_k - x|| ≤ q^k ||x_0 - x||
+            double iterations = Math.ceil(Math.log(epsilon) / Math.log(structure.jacobiBound()));
+            best = cheaper(best, Method.GAUSS_SEIDEL, direct, sparse, iterations, sweep + 2.0 * n);
+        }
+        if (structure.possiblyPositiveDefinite()) {
+            // если положительная определённость не доказана, считаем κ ~ n, как у сеточных задач
+            double kappa = Math.min(structure.conditionBound(), n);
+            double iterations = Math.ceil(0.5 * Math.sqrt(kappa) * Math.log(2 / epsilon));
+            best = cheaper(best, Method.CONJUGATE_GRADIENT, direct, sparse, Math.min(iterations, n), sweep + 12.0 * n);
+        }
+        return best;
+    }
+
+    private static Plan cheaper(Plan best, Method method, Method direct, boolean sparse,
+                                double iterations, double perIteration) {
+        double ops = Math.max(1, iterations) * perIteration;
+        if (ITERATIVE_MARGIN * ops >= best.estimatedOps()) {
+            return best;
+        }
+        int budget = (int) Math.min(Integer.MAX_VALUE, Math.ceil(BUDGET_FACTOR * iterations) + 10);
+        return new Plan(method, direct, sparse, budget, ops);
+    }
+
+    /**
+     * Решает систему Ax = b методом, выбранным по структуре A, с ограничением по времени
+     * {@link #DEFAULT_TIME_LIMIT}.
+     *
+     * @param A       квадратная матрица (не изменяется).
+     * @param b       вектор свободных членов.
+     * @param epsilon точность итерационного метода в его собственном критерии остановки
+     *                (изменение x у Гаусса — Зейделя, относительная невязка у сопряжённых градиентов).
+     * @return решение и сведения о выбранном методе.
+     */
+    public static Result solve(DenseMatrix A, double[] b, double epsilon) {
+        return solve(A, b, epsilon, DEFAULT_TIME_LIMIT);
+    }
+
+    /**
+     * Решает систему Ax = b методом, выбранным по структуре A.
+     *
+     * @param A         квадратная матрица (не изменяется).
+     * @param b         вектор свободных членов.
+     * @param epsilon   точность итерационного метода в его собственном критерии остановки.
+     * @param timeLimit ограничение по времени для итерационного метода; прямой метод не прерывается.
+     * @return решение и сведения о выбранном методе.
+     * @throws IllegalArgumentException если матрица не квадратная или размеры не согласованы.
+     * @throws ArithmeticException      если матрица вырожденная.
+     */
+    public static Result solve(DenseMatrix A, double[] b, double epsilon, Duration timeLimit) {
+        MatrixStructure structure = MatrixStructure.analyze(A);
+        if (b.length != structure.size()) {
+            throw new IllegalArgumentException("Длина вектора " + b.length + " не равна размерности " + structure.size());
+        }
+        Plan plan = choose(structure, epsilon);
+        if (TraceMode.current() != TraceMode.OFF) {
+            logger.info("Выбран метод {} для матрицы {}", plan, structure);
+        }
+
+        if (plan.method().iterative()) {
+            try {
+                return new Result(iterate(A, b, epsilon, plan, timeLimit), plan, plan.method(), structure);
+            } catch (ArithmeticException e) {
+                // ConvergenceException — итерации прерваны по условиям остановки; иначе CG обнаружил, что матрица не положительно определённая
+                // (ленточный метод сам переходит от Холецкого к LU)
+                logger.warn("Метод {} прерван: {} Решение прямым методом.", plan.method(), e.getMessage());
+                Method direct = e instanceof ConvergenceException || plan.direct() == Method.BANDED
+                        ? plan.direct() : Method.LU;
+                return direct(A, b, direct, plan, structure);
+            }
+        }
+        return direct(A, b, plan.method(), plan, structure);
+    }
+
+    private static double[] iterate(DenseMatrix A, double[] b, double epsilon, Plan plan, Duration timeLimit) {
+        SparseMatrix csr = plan.sparse() ? SparseMatrix.fromDense(A) : null;
+        if (plan.method() == Method.GAUSS_SEIDEL) {
+            StoppingCriteria criteria = StoppingCriteria.of(epsilon)
+                    .withMaxIterations(plan.maxIterations())
+                    .withTimeLimit(timeLimit);
+            return csr != null
+                    ? GaussSeidel.gaussSeidelMethod(csr, b, criteria, null)
+                    : GaussSeidel.gaussSeidelMethod(A, b, criteria, TraceMode.OFF, null);
+        }
+        StoppingCriteria criteria = StoppingCriteria.residual(0, epsilon)
+                .withMaxIterations(plan.maxIterations())
+                .withTimeLimit(timeLimit);
+        LinearOperator operator = csr != null ? csr : A;
+        DiagonalPreconditioner preconditioner = csr != null ? DiagonalPreconditioner.of(csr) : DiagonalPreconditioner.of(A);
+        return ConjugateGradient.solve(operator, b, preconditioner, criteria, null);
+    }
+
+    private static Result direct(DenseMatrix A, double[] b, Method method, Plan plan, MatrixStructure structure) {
+        if (method == Method.BANDED) {
+            return new Result(Banded.solve(A, b, structure), plan, Method.BANDED, structure);
+        }
+        if (method == Method.CHOLESKY) {
+            try {
+                return new Result(Cholesky.solve(A, b), plan, Method.CHOLESKY, structure);
+            } catch (ArithmeticException e) {
+                logger.warn("Метод Холецкого неприменим: {} Решение методом LU.", e.getMessage());
+            }
+        }
+        return new Result(Gauss.solve(A, b), plan, Method.LU, structure);
+    }
+}
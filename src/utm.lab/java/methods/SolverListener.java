@@ -0,0 +1,25 @@
+package methods;
+
+/**
+ * Слушатель итераций итерационных методов.
+ * <p>
+ * Вызывается после каждой итерации в потоке, который выполняет решение. Если слушатель
+ * не задан ({@code null}), метод не засекает время и не вызывает ничего лишнего —
+ * остаётся одна проверка на итерацию.
+ * <p>
+ * Норма невязки — это оценка ||b - Ax||∞, которую метод получает без дополнительного
+ * умножения матрицы на вектор: у Якоби это невязка приближения, с которого началась итерация,
+ * у Гаусса — Зейделя и SOR — невязка в момент обновления каждой компоненты,
+ * у метода сопряжённых градиентов — рекуррентная невязка после шага.
+ */
+@FunctionalInterface
+public interface SolverListener {
+
+    /**
+     * @param iteration    номер итерации, начиная с 1.
+     * @param residualNorm оценка нормы невязки ||b - Ax||∞.
+     * @param deltaNorm    max|xNew - xOld| на этой итерации.
+     * @param elapsedNanos время от начала решения в наносекундах.
+     */
+    void onIteration(int iteration, double residualNorm, double deltaNorm, long elapsedNanos);
+}
@@ -0,0 +1,131 @@
+package methods;
+
+import java.time.Duration;
+
+/**
+ * Условия остановки итерационных методов Якоби, Гаусса — Зейделя и сопряжённых градиентов.
+ * <p>
+ * Метод считается сошедшимся, если выполнено хотя бы одно из включённых условий:
+ * max|xNew - xOld| ≤ {@code deltaTolerance} или ||b - Ax||∞ ≤ max({@code absoluteResidual},
+ * {@code relativeResidual}·||b||∞). Малое изменение приближения ещё не означает малую невязку
+ * (при медленной сходимости шаги малы задолго до решения), поэтому для гарантии точности
+ * лучше задавать невязку. Условие со значением 0 выключено.
+ * <p>
+ * Метод прерывается с {@link ConvergenceException}, если:
+ * <ul>
+ *     <li>выполнено {@code maxIterations} итераций;</li>
+ *     <li>прошло больше {@code timeLimit} (null — без ограничения);</li>
+ *     <li>невязка стала NaN или бесконечной либо превысила наименьшую достигнутую
+ *     в {@code divergenceFactor} раз — итерации расходятся;</li>
+ *     <li>наименьшая невязка не уменьшалась {@code stagnationWindow} итераций подряд — точность
+ *     упёрлась в ошибки округления или метод застрял (0 — не проверять).</li>
+ * </ul>
+ *
+ * @param deltaTolerance   допустимое изменение приближения за итерацию.
+ * @param absoluteResidual допустимая норма невязки.
+ * @param relativeResidual допустимая норма невязки относительно ||b||∞.
+ * @param maxIterations    наибольшее число итераций.
+ * @param timeLimit        наибольшее время решения или null.
+ * @param divergenceFactor во сколько раз невязка может превысить наименьшую достигнутую.
+ * @param stagnationWindow число итераций без уменьшения невязки до остановки.
+ */
+public record StoppingCriteria(double deltaTolerance, double absoluteResidual, double relativeResidual,
+                               int maxIterations, Duration timeLimit, double divergenceFactor,
+                               int stagnationWindow) {
+    /** Наибольшее число итераций по умолчанию. */
+    public static final int DEFAULT_MAX_ITERATIONS = 100_000;
+    /**
+     * Рост невязки по умолчанию, после которого итерации считаются расходящимися. Рост
+     * до этого порога допускается: у несимметричных матриц невязка может временно расти.
+     */
+    public static final double DEFAULT_DIVERGENCE_FACTOR = 1e6;
+    /** Число итераций без уменьшения невязки по умолчанию. */
+    public static final int DEFAULT_STAGNATION_WINDOW = 200;
+
+    public StoppingCriteria {
+        if (!(deltaTolerance >= 0) || !(absoluteResidual >= 0) || !(relativeResidual >= 0)) {
+            throw new IllegalArgumentException("Допуски должны быть неотрицательными: " + deltaTolerance + ", "
+                    + absoluteResidual + ", " + relativeResidual);
+        }
+        if (deltaTolerance == 0 && absoluteResidual == 0 && relativeResidual == 0) {
+            throw new IllegalArgumentException("Не задано ни одно условие сходимости");
+        }
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("Число итераций должно быть положительным: " + maxIterations);
+        }
+        if (timeLimit != null && (timeLimit.isNegative() || timeLimit.isZero())) {
+            throw new IllegalArgumentException("Ограничение по времени должно быть положительным: " + timeLimit);
+        }
+        if (!(divergenceFactor > 1)) {
+            throw new IllegalArgumentException("Порог расходимости должен быть больше 1: " + divergenceFactor);
+        }
+        if (stagnationWindow < 0) {
+            throw new IllegalArgumentException("Окно застоя не может быть отрицательным: " + stagnationWindow);
+        }
+    }
+
+    /**
+     * Прежнее условие методов: max|xNew - xOld| ≤ epsilon, с ограничениями по умолчанию.
+     *
+     * @param epsilon допустимое изменение приближения за итерацию.
+     */
+    public static StoppingCriteria of(double epsilon) {
+        return new StoppingCriteria(epsilon, 0, 0, DEFAULT_MAX_ITERATIONS, null,
+                DEFAULT_DIVERGENCE_FACTOR, DEFAULT_STAGNATION_WINDOW);
+    }
+
+    /**
+     * Остановка по норме невязки ||b - Ax||∞ ≤ max(absolute, relative·||b||∞),
+     * с ограничениями по умолчанию.
+     *
+     * @param absolute допустимая норма невязки (0 — не проверять).
+     * @param relative допустимая норма невязки относительно ||b||∞ (0 — не проверять).
+     */
+    public static StoppingCriteria residual(double absolute, double relative) {
+        return new StoppingCriteria(0, absolute, relative, DEFAULT_MAX_ITERATIONS, null,
+                DEFAULT_DIVERGENCE_FACTOR, DEFAULT_STAGNATION_WINDOW);
+    }
+
+    /**
+     * @return те же условия с другим наибольшим числом итераций.
+     */
+    public StoppingCriteria withMaxIterations(int maxIterations) {
+        return new StoppingCriteria(deltaTolerance, absoluteResidual, relativeResidual, maxIterations, timeLimit,
+                divergenceFactor, stagnationWindow);
+    }
+
+    /**
+     * @return те же условия с ограничением по времени (null — без ограничения).
+     */
+    public StoppingCriteria withTimeLimit(Duration timeLimit) {
+        return new StoppingCriteria(deltaTolerance, absoluteResidual, relativeResidual, maxIterations, timeLimit,
+                divergenceFactor, stagnationWindow);
+    }
+
+    /**
+     * @return те же условия с другим порогом расходимости.
+     */
+    public StoppingCriteria withDivergenceFactor(double divergenceFactor) {
+        return new StoppingCriteria(deltaTolerance, absoluteResidual, relativeResidual, maxIterations, timeLimit,
+                divergenceFactor, stagnationWindow);
+    }
+
+    /**
+     * @return те же условия с другим окном застоя (0 — не проверять).
+     */
+    public StoppingCriteria withStagnationWindow(int stagnationWindow) {
+        return new StoppingCriteria(deltaTolerance, absoluteResidual, relativeResidual, maxIterations, timeLimit,
+                divergenceFactor, stagnationWindow);
+    }
+
+    /**
+     * @param rhsNorm ||b||∞.
+     * @return допустимая норма невязки или -1, если невязка не проверяется.
+     */
+    double residualTarget(double rhsNorm) {
+        if (absoluteResidual == 0 && relativeResidual == 0) {
+            return -1;
+        }
+        return Math.max(absoluteResidual, relativeResidual * rhsNorm);
+    }
+}
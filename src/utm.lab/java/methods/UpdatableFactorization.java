@@ -0,0 +1,484 @@
+package methods;
+
+import kernels.Kernels;
+import utils.DenseMatrix;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разложение матрицы, которая меняется между решениями на несколько элементов, строк
+ * или слагаемых малого ранга.
+ * <p>
+ * Вместо нового разложения за O(n³) изменение A' = A + U * V^T (ранг k) учитывается
+ * за O(n²·k):
+ * <ul>
+ *     <li>по формуле Шермана — Моррисона — Вудбери: x = y - Z * C⁻¹ * V^T * y, где y = A⁻¹b,
+ *     Z = A⁻¹U и C = I + V^T * Z (k×k). Z и C считаются при обновлении, и каждое решение
+ *     стоит O(n² + n·k);</li>
+ *     <li>для разложения Холецкого и симметричного изменения A ± v * v^T множитель H
+ *     обновляется вращениями ({@link CholeskyFactorization#update(double[])}),
+ *     и накопленного ранга не остаётся.</li>
+ * </ul>
+ * Накопленный ранг увеличивает стоимость каждого решения и обновления, а почти вырожденная
+ * матрица C — погрешность. Поэтому, когда ранг превышает n / {@value #RANK_FRACTION} или
+ * (||C||∞ + 1)·||C⁻¹||∞ больше {@value #MAX_CAPACITANCE_CONDITION}, текущая матрица
+ * раскладывается заново ({@link #refactorCount()}).
+ * <p>
+ * Исходные разложения берутся из {@link FactorizationCache#shared()} и не изменяются.
+ * Объект хранит копию текущей матрицы и не потокобезопасен.
+ */
+public final class UpdatableFactorization implements Factorization {
+    /** При ранге n / RANK_FRACTION решение дороже базового примерно на четверть — пора раскладывать заново. */
+    public static final int RANK_FRACTION = 16;
+    /** Наибольшее допустимое (||C||∞ + 1)·||C⁻¹||∞ для C = I + V^T * A⁻¹U. */
+    public static final double MAX_CAPACITANCE_CONDITION = 1e8;
+
+    private final int n;
+    private final double[] a; // текущая матрица A + U * V^T
+    private final int maxRank;
+    private boolean cholesky;
+    private Factorization base; // разложение матрицы без накопленных слагаемых
+    private final List<double[]> us = new ArrayList<>();
+    private final List<double[]> vs = new ArrayList<>();
+    private final List<double[]> zs = new ArrayList<>(); // z_p = base⁻¹ u_p
+    private double[] capacitance = new double[0];
+    private double[] capacitanceInverse = new double[0];
+    private double capacitanceDeterminant = 1.0;
+    private int refactors;
+
+    private UpdatableFactorization(DenseMatrix A, boolean cholesky, Factorization base) {
+        this.n = A.rows();
+        this.a = A.toHeap().data().clone();
+        this.maxRank = Math.max(1, n / RANK_FRACTION);
+        this.cholesky = cholesky;
+        this.base = base;
+    }
+
+    /**
+     * Создаёт обновляемое LU-разложение.
+     *
+     * @param A квадратная матрица (не изменяется).
+     * @return разложение.
+     * @throws ArithmeticException если матрица вырождена.
+     */
+    public static UpdatableFactorization lu(DenseMatrix A) {
+        return new UpdatableFactorization(A, false, FactorizationCache.shared().lu(A));
+    }
+
+    /**
+     * Создаёт обновляемое разложение Холецкого. Если после обновлений матрица перестанет
+     * быть симметричной положительно определённой, при очередном разложении заново
+     * будет использовано LU.
+     *
+     * @param A симметричная положительно определённая матрица (не изменяется).
+     * @return разложение.
+     * @throws ArithmeticException если матрица не положительно определённая.
+     */
+    public static UpdatableFactorization cholesky(DenseMatrix A) {
+        return new UpdatableFactorization(A, true, FactorizationCache.shared().cholesky(A));
+    }
+
+    /**
+     * Прибавляет к матрице U * V^T.
+     *
+     * @param U матрица n×k.
+     * @param V матрица n×k.
+     * @throws ArithmeticException если обновлённая матрица вырождена.
+     */
+    public void update(DenseMatrix U, DenseMatrix V) {
+        if (U.rows() != n || V.rows() != n || U.cols() != V.cols()) {
+            throw new IllegalArgumentException("Размеры слагаемых " + U.rows() + "x" + U.cols() + " и "
+                    + V.rows() + "x" + V.cols() + " не согласованы с размерностью " + n);
+        }
+        int k = U.cols();
+        List<double[]> uColumns = new ArrayList<>(k);
+        List<double[]> vColumns = new ArrayList<>(k);
+        for (int p = 0; p < k; p++) {
+            double[] u = new double[n];
+            double[] v = new double[n];
+            for (int i = 0; i < n; i++) {
+                u[i] = U.get(i, p);
+                v[i] = V.get(i, p);
+            }
+            uColumns.add(u);
+            vColumns.add(v);
+        }
+        lowRank(uColumns, vColumns);
+    }
+
+    /**
+     * Прибавляет delta к строке i матрицы (ранг 1).
+     *
+     * @param i     номер строки.
+     * @param delta изменение строки, n чисел.
+     */
+    public void updateRow(int i, double[] delta) {
+        checkLength(delta);
+        double[] u = new double[n];
+        u[i] = 1.0;
+        lowRank(List.of(u), List.of(delta.clone()));
+    }
+
+    /**
+     * Прибавляет delta к столбцу j матрицы (ранг 1).
+     *
+     * @param j     номер столбца.
+     * @param delta изменение столбца, n чисел.
+     */
+    public void updateColumn(int j, double[] delta) {
+        checkLength(delta);
+        double[] v = new double[n];
+        v[j] = 1.0;
+        lowRank(List.of(delta.clone()), List.of(v));
+    }
+
+    /**
+     * Прибавляет delta к элементу (i, j) (ранг 1).
+     */
+    public void updateEntry(int i, int j, double delta) {
+        double[] u = new double[n];
+        double[] v = new double[n];
+        u[i] = delta;
+        v[j] = 1.0;
+        lowRank(List.of(u), List.of(v));
+    }
+
+    /**
+     * Прибавляет к матрице v * v^T. Для разложения Холецкого множитель обновляется
+     * вращениями, иначе изменение учитывается по формуле Шермана — Моррисона — Вудбери.
+     *
+     * @param v вектор обновления.
+     */
+    public void rankOneUpdate(double[] v) {
+        symmetricRankOne(v, false);
+    }
+
+    /**
+     * Вычитает из матрицы v * v^T. Если для разложения Холецкого результат не положительно
+     * определённый, изменение учитывается по формуле Шермана — Моррисона — Вудбери.
+     *
+     * @param v вектор понижения.
+     * @throws ArithmeticException если обновлённая матрица вырождена.
+     */
+    public void rankOneDowndate(double[] v) {
+        symmetricRankOne(v, true);
+    }
+
+    private void symmetricRankOne(double[] v, boolean downdate) {
+        checkLength(v);
+        if (cholesky) {
+            CholeskyFactorization current = (CholeskyFactorization) base;
+            CholeskyFactorization updated;
+            try {
+                updated = downdate ? current.downdate(v) : current.update(v);
+            } catch (ArithmeticException e) {
+                updated = null; // A - v * v^T не SPD, но может быть невырожденной
+            }
+            if (updated != null) {
+                if (us.isEmpty()) {
+                    addToMatrix(v, v, downdate ? -1.0 : 1.0);
+                    base = updated;
+                    // копия: a изменяется на месте следующими обновлениями, а кэш сверяет содержимое
+                    FactorizationCache.shared().putCholesky(DenseMatrix.wrap(n, n, a.clone()), updated);
+                    return;
+                }
+                double[] previous = a.clone();
+                List<double[]> previousZ = new ArrayList<>(zs);
+                addToMatrix(v, v, downdate ? -1.0 : 1.0);
+                base = updated;
+                try {
+                    rebuildLowRank();
+                } catch (RuntimeException e) {
+                    // refactor() не смог разложить новую матрицу: объект остаётся с прежней
+                    System.arraycopy(previous, 0, a, 0, a.length);
+                    base = current;
+                    zs.clear();
+                    zs.addAll(previousZ);
+                    throw e;
+                }
+                return;
+            }
+        }
+        double[] u = v.clone();
+        if (downdate) {
+            for (int i = 0; i < n; i++) {
+                u[i] = -u[i];
+            }
+        }
+        lowRank(List.of(u), List.of(v.clone()));
+    }
+
+    private void checkLength(double[] v) {
+        if (v.length != n) {
+            throw new IllegalArgumentException("Длина вектора " + v.length + " не равна размерности " + n);
+        }
+    }
+
+    private void addToMatrix(double[] u, double[] v, double scale) {
+        for (int i = 0; i < n; i++) {
+            if (u[i] != 0.0) {
+                Kernels.axpy(scale * u[i], v, 0, a, i * n, n);
+            }
+        }
+    }
+
+    /**
+     * Добавляет слагаемые u_p * v_p^T: O(n²·k) на матрицу и новые столбцы Z,
+     * O(n·K·k) на новые элементы C и O(K³) на обращение C размером K×K.
+     */
+    private void lowRank(List<double[]> uColumns, List<double[]> vColumns) {
+        // если A' окажется вырожденной, refactor() бросит исключение, и объект должен
+        // остаться с прежней матрицей, а не со смесью старого и нового состояния
+        double[] previous = a.clone();
+        int known = us.size();
+        try {
+            for (int p = 0; p < uColumns.size(); p++) {
+                addToMatrix(uColumns.get(p), vColumns.get(p), 1.0);
+            }
+            if (known + uColumns.size() > maxRank) {
+                refactor();
+                return;
+            }
+            List<double[]> zColumns = solveColumns(uColumns);
+            us.addAll(uColumns);
+            vs.addAll(vColumns);
+            zs.addAll(zColumns);
+            if (!updateCapacitance(known)) {
+                refactor();
+            }
+        } catch (RuntimeException e) {
+            System.arraycopy(previous, 0, a, 0, a.length);
+            us.subList(known, us.size()).clear();
+            vs.subList(known, vs.size()).clear();
+            zs.subList(known, zs.size()).clear();
+            throw e;
+        }
+    }
+
+    /**
+     * Пересчитывает Z и C после замены базового разложения (обновления Холецкого).
+     */
+    private void rebuildLowRank() {
+        zs.clear();
+        zs.addAll(solveColumns(us));
+        if (!updateCapacitance(0)) {
+            refactor();
+        }
+    }
+
+    private List<double[]> solveColumns(List<double[]> columns) {
+        int k = columns.size();
+        DenseMatrix U = DenseMatrix.zeros(n, k);
+        double[] u = U.mutableData();
+        for (int p = 0; p < k; p++) {
+            double[] column = columns.get(p);
+            for (int i = 0; i < n; i++) {
+                u[i * k + p] = column[i];
+            }
+        }
+        double[] z = base.solve(U).data();
+        List<double[]> result = new ArrayList<>(k);
+        for (int p = 0; p < k; p++) {
+            double[] column = new double[n];
+            for (int i = 0; i < n; i++) {
+                column[i] = z[i * k + p];
+            }
+            result.add(column);
+        }
+        return result;
+    }
+
+    /**
+     * Дополняет C = I + V^T * Z новыми строками и столбцами, начиная с {@code known},
+     * и обращает её. C и C⁻¹ заменяются только вместе, при успехе.
+     *
+     * @return false, если C вырождена или плохо обусловлена.
+     */
+    private boolean updateCapacitance(int known) {
+        int k = us.size();
+        double[] c = new double[k * k];
+        for (int p = 0; p < known; p++) {
+            System.arraycopy(capacitance, p * known, c, p * k, known);
+        }
+        for (int p = 0; p < k; p++) {
+            for (int q = p < known ? known : 0; q < k; q++) {
+                c[p * k + q] = (p == q ? 1.0 : 0.0) + Kernels.dot(vs.get(p), 0, zs.get(q), 0, n);
+            }
+        }
+        LUFactorization factorization;
+        try {
+            factorization = Gauss.factor(DenseMatrix.wrap(k, k, c));
+        } catch (ArithmeticException e) {
+            return false;
+        }
+        double[] inverse = factorization.inverse().data();
+        // ||C||∞ + 1 ≥ ||V^T * Z||∞: малая C при больших слагаемых означает сокращение цифр,
+        // даже если сама C (например, 1×1) обусловлена хорошо
+        if ((normInf(c, k) + 1) * normInf(inverse, k) > MAX_CAPACITANCE_CONDITION) {
+            return false;
+        }
+        capacitance = c;
+        capacitanceInverse = inverse;
+        capacitanceDeterminant = factorization.determinant();
+        return true;
+    }
+
+    private static double normInf(double[] m, int k) {
+        double max = 0;
+        for (int i = 0; i < k; i++) {
+            double sum = 0;
+            for (int j = 0; j < k; j++) {
+                sum += Math.abs(m[i * k + j]);
+            }
+            max = Math.max(max, sum);
+        }
+        return max;
+    }
+
+    /**
+     * Раскладывает текущую матрицу заново и забывает накопленные слагаемые.
+     * Если разложить не удалось, состояние объекта не меняется.
+     *
+     * @throws ArithmeticException если текущая матрица вырождена.
+     */
+    public void refactor() {
+        DenseMatrix current = DenseMatrix.wrap(n, n, a.clone());
+        Factorization factorization = null;
+        boolean spd = cholesky;
+        if (spd) {
+            try {
+                factorization = FactorizationCache.shared().cholesky(current);
+            } catch (ArithmeticException | IllegalArgumentException e) {
+                spd = false; // матрица перестала быть SPD
+            }
+        }
+        if (factorization == null) {
+            factorization = FactorizationCache.shared().lu(current);
+        }
+        base = factorization;
+        cholesky = spd;
+        us.clear();
+        vs.clear();
+        zs.clear();
+        capacitance = new double[0];
+        capacitanceInverse = new double[0];
+        capacitanceDeterminant = 1.0;
+        refactors++;
+    }
+
+    /**
+     * @return копия текущей матрицы.
+     */
+    public DenseMatrix matrix() {
+        return DenseMatrix.wrap(n, n, a.clone());
+    }
+
+    /**
+     * @return ранг слагаемых, накопленных с последнего разложения.
+     */
+    public int pendingRank() {
+        return us.size();
+    }
+
+    /**
+     * @return наибольший накопленный ранг, после которого матрица раскладывается заново.
+     */
+    public int maxRank() {
+        return maxRank;
+    }
+
+    /**
+     * @return сколько раз матрица раскладывалась заново.
+     */
+    public int refactorCount() {
+        return refactors;
+    }
+
+    /**
+     * @return true, если базовое разложение — разложение Холецкого.
+     */
+    public boolean isCholesky() {
+        return cholesky;
+    }
+
+    @Override
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Решает систему A'x = b для текущей матрицы.
+     *
+     * @param b вектор свободных членов (не изменяется).
+     * @return решение x.
+     */
+    @Override
+    public double[] solve(double[] b) {
+        double[] x = base.solve(b);
+        int k = us.size();
+        if (k == 0) {
+            return x;
+        }
+        double[] t = new double[k];
+        for (int p = 0; p < k; p++) {
+            t[p] = Kernels.dot(vs.get(p), 0, x, 0, n);
+        }
+        for (int p = 0; p < k; p++) {
+            double s = Kernels.dot(capacitanceInverse, p * k, t, 0, k);
+            Kernels.axpy(-s, zs.get(p), 0, x, 0, n);
+        }
+        return x;
+    }
+
+    /**
+     * Решает систему A'X = B для текущей матрицы.
+     *
+     * @param B матрица правых частей n×m (не изменяется).
+     * @return решение X размером n×m.
+     */
+    @Override
+    public DenseMatrix solve(DenseMatrix B) {
+        DenseMatrix X = base.solve(B);
+        int k = us.size();
+        if (k == 0) {
+            return X;
+        }
+        int m = B.cols();
+        double[] x = X.mutableData();
+        double[] t = new double[k * m]; // V^T * Y
+        for (int p = 0; p < k; p++) {
+            double[] v = vs.get(p);
+            for (int i = 0; i < n; i++) {
+                Kernels.axpy(v[i], x, i * m, t, p * m, m);
+            }
+        }
+        double[] s = new double[k * m]; // C⁻¹ * V^T * Y
+        for (int p = 0; p < k; p++) {
+            for (int q = 0; q < k; q++) {
+                Kernels.axpy(capacitanceInverse[p * k + q], t, q * m, s, p * m, m);
+            }
+        }
+        for (int p = 0; p < k; p++) {
+            double[] z = zs.get(p);
+            for (int i = 0; i < n; i++) {
+                Kernels.axpy(-z[i], s, p * m, x, i * m, m);
+            }
+        }
+        return X;
+    }
+
+    /**
+     * @return определитель текущей матрицы: det(A + U * V^T) = det(A) * det(C).
+     */
+    @Override
+    public double determinant() {
+        return base.determinant() * capacitanceDeterminant;
+    }
+
+    @Override
+    public long memoryBytes() {
+        return base.memoryBytes() + (long) a.length * Double.BYTES
+                + 3L * us.size() * n * Double.BYTES + 2L * capacitance.length * Double.BYTES;
+    }
+}
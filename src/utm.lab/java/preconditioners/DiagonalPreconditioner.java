@@ -0,0 +1,40 @@
+package preconditioners;
+
+import utils.DenseMatrix;
+import utils.SparseMatrix;
+
+/**
+ * Диагональный предобусловливатель Якоби: M = diag(A).
+ */
+public final class DiagonalPreconditioner implements Preconditioner {
+    private final double[] inverseDiagonal;
+
+    private DiagonalPreconditioner(double[] diagonal) {
+        this.inverseDiagonal = new double[diagonal.length];
+        for (int i = 0; i < diagonal.length; i++) {
+            if (!(diagonal[i] > 0)) {
+                throw new ArithmeticException("Диагональный элемент " + (i + 1) + " не положителен: " + diagonal[i]);
+            }
+            inverseDiagonal[i] = 1.0 / diagonal[i];
+        }
+    }
+
+    public static DiagonalPreconditioner of(DenseMatrix A) {
+        double[] diagonal = new double[A.rows()];
+        for (int i = 0; i < diagonal.length; i++) {
+            diagonal[i] = A.get(i, i);
+        }
+        return new DiagonalPreconditioner(diagonal);
+    }
+
+    public static DiagonalPreconditioner of(SparseMatrix A) {
+        return new DiagonalPreconditioner(A.diagonal());
+    }
+
+    @Override
+    public void apply(double[] r, double[] z) {
+        for (int i = 0; i < r.length; i++) {
+            z[i] = r[i] * inverseDiagonal[i];
+        }
+    }
+}
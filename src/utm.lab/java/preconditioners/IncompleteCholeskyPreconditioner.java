@@ -0,0 +1,102 @@
+package preconditioners;
+
+import utils.DenseMatrix;
+import utils.SparseMatrix;
+
+/**
+ * Неполное разложение Холецкого без заполнения IC(0): M = L * L^T,
+ * где L имеет тот же шаблон ненулевых элементов, что и нижний треугольник A.
+ * <p>
+ * Для плотной матрицы шаблон полный, и IC(0) совпадает с обычным разложением Холецкого.
+ */
+public final class IncompleteCholeskyPreconditioner implements Preconditioner {
+    private final int n;
+    private final int[] rowPtr;
+    private final int[] colIdx;
+    private final double[] values; // L по строкам, диагональ — последний элемент строки
+
+    private IncompleteCholeskyPreconditioner(SparseMatrix L) {
+        this.n = L.rows();
+        this.rowPtr = L.rowPtr();
+        this.colIdx = L.colIdx();
+        this.values = L.values();
+    }
+
+    public static IncompleteCholeskyPreconditioner of(DenseMatrix A) {
+        return of(SparseMatrix.fromDense(A));
+    }
+
+    /**
+     * Строит IC(0) для симметричной положительно определённой матрицы.
+     *
+     * @param A симметричная матрица (используется только нижний треугольник).
+     * @return предобусловливатель.
+     * @throws ArithmeticException если разложение встретило неположительный ведущий элемент.
+     */
+    public static IncompleteCholeskyPreconditioner of(SparseMatrix A) {
+        SparseMatrix L = A.lowerTriangle();
+        int n = L.rows();
+        int[] rowPtr = L.rowPtr();
+        int[] colIdx = L.colIdx();
+        double[] values = L.values().clone();
+
+        for (int i = 0; i < n; i++) {
+            int start = rowPtr[i];
+            int end = rowPtr[i + 1];
+            if (end == start || colIdx[end - 1] != i) {
+                throw new ArithmeticException("Нулевой диагональный элемент в строке " + (i + 1) + ".");
+            }
+            for (int k = start; k < end; k++) {
+                int j = colIdx[k];
+                // l[i][j] -= sum_{m < j} l[i][m] * l[j][m] по пересечению шаблонов строк i и j
+                double sum = 0;
+                int p = start;
+                int q = rowPtr[j];
+                int qEnd = rowPtr[j + 1] - 1; // без диагонали строки j
+                while (p < k && q < qEnd) {
+                    int cp = colIdx[p];
+                    int cq = colIdx[q];
+                    if (cp == cq) {
+                        sum += values[p++] * values[q++];
+                    } else if (cp < cq) {
+                        p++;
+                    } else {
+                        q++;
+                    }
+                }
+                if (j < i) {
+                    values[k] = (values[k] - sum) / values[rowPtr[j + 1] - 1];
+                } else {
+                    double pivot = values[k] - sum;
+                    if (!(pivot > 0)) {
+                        throw new ArithmeticException("IC(0): неположительный ведущий элемент в строке " + (i + 1) + ".");
+                    }
+                    values[k] = Math.sqrt(pivot);
+                }
+            }
+        }
+        return new IncompleteCholeskyPreconditioner(new SparseMatrix(n, n, rowPtr, colIdx, values));
+    }
+
+    @Override
+    public void apply(double[] r, double[] z) {
+        // L y = r
+        for (int i = 0; i < n; i++) {
+            double sum = r[i];
+            int diag = rowPtr[i + 1] - 1;
+            for (int k = rowPtr[i]; k < diag; k++) {
+                sum -= values[k] * z[colIdx[k]];
+            }
+            z[i] = sum / values[diag];
+        }
+        // L^T z = y: строка i матрицы L — это столбец i матрицы L^T
+        for (int i = n - 1; i >= 0; i--) {
+            int diag = rowPtr[i + 1] - 1;
+            z[i] /= values[diag];
+            double zi = z[i];
+            for (int k = rowPtr[i]; k < diag; k++) {
+                z[colIdx[k]] -= values[k] * zi;
+            }
+        }
+    }
+}
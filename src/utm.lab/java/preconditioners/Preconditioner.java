@@ -0,0 +1,24 @@
+package preconditioners;
+
+/**
+ * Предобусловливатель M ≈ A: вычисляет z = M^-1 * r.
+ * Используется методом сопряжённых градиентов, поэтому M должна быть
+ * симметричной и положительно определённой.
+ */
+public interface Preconditioner {
+
+    /**
+     * Вычисляет z = M^-1 * r.
+     *
+     * @param r невязка (не изменяется).
+     * @param z вектор для результата.
+     */
+    void apply(double[] r, double[] z);
+
+    /**
+     * @return тождественный предобусловливатель (M = I), то есть метод без предобусловливания.
+     */
+    static Preconditioner identity() {
+        return (r, z) -> System.arraycopy(r, 0, z, 0, r.length);
+    }
+}
@@ -0,0 +1,67 @@
+package preconditioners;
+
+import utils.DenseMatrix;
+import utils.SparseMatrix;
+
+/**
+ * Предобусловливатель SSOR для симметричной матрицы A = L + D + L^T:
+ * M = ω / (2 - ω) * (D/ω + L) * (D/ω)^-1 * (D/ω + L^T).
+ */
+public final class SsorPreconditioner implements Preconditioner {
+    private final int n;
+    private final int[] rowPtr;
+    private final int[] colIdx;
+    private final double[] values;
+    private final double[] diagonal;
+    private final double omega;
+
+    private SsorPreconditioner(SparseMatrix A, double omega) {
+        if (!(omega > 0 && omega < 2)) {
+            throw new IllegalArgumentException("Параметр релаксации должен лежать в интервале (0, 2): " + omega);
+        }
+        this.n = A.rows();
+        this.rowPtr = A.rowPtr();
+        this.colIdx = A.colIdx();
+        this.values = A.values();
+        this.diagonal = A.diagonal();
+        this.omega = omega;
+        for (int i = 0; i < n; i++) {
+            if (!(diagonal[i] > 0)) {
+                throw new ArithmeticException("Диагональный элемент " + (i + 1) + " не положителен: " + diagonal[i]);
+            }
+        }
+    }
+
+    public static SsorPreconditioner of(DenseMatrix A, double omega) {
+        return new SsorPreconditioner(SparseMatrix.fromDense(A), omega);
+    }
+
+    public static SsorPreconditioner of(SparseMatrix A, double omega) {
+        return new SsorPreconditioner(A, omega);
+    }
+
+    @Override
+    public void apply(double[] r, double[] z) {
+        // (D/ω + L) y = r
+        for (int i = 0; i < n; i++) {
+            double sum = r[i];
+            for (int k = rowPtr[i]; k < rowPtr[i + 1] && colIdx[k] < i; k++) {
+                sum -= values[k] * z[colIdx[k]];
+            }
+            z[i] = sum * omega / diagonal[i];
+        }
+        // y := (2 - ω)/ω * (D/ω) y
+        double scale = (2.0 - omega) / (omega * omega);
+        for (int i = 0; i < n; i++) {
+            z[i] *= scale * diagonal[i];
+        }
+        // (D/ω + L^T) z = y: элементы L^T строки i — это элементы правее диагонали строки i (A симметрична)
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = z[i];
+            for (int k = rowPtr[i + 1] - 1; k >= rowPtr[i] && colIdx[k] > i; k--) {
+                sum -= values[k] * z[colIdx[k]];
+            }
+            z[i] = sum * omega / diagonal[i];
+        }
+    }
+}
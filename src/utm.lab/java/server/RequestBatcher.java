@@ -0,0 +1,239 @@
+package server;
+
+import methods.Cholesky;
+import methods.Gauss;
+import methods.SolverDispatcher;
+import utils.DenseMatrix;
+import utils.MatrixStructure;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Объединяет одновременные запросы с одной и той же матрицей в одно решение AX = B.
+ * <p>
+ * Запросы группируются по отпечатку матрицы ({@link DenseMatrix#fingerprint()}), а внутри
+ * отпечатка — по точному совпадению содержимого ({@link DenseMatrix#contentEquals(DenseMatrix)}):
+ * отпечаток не криптографический, и по недоверенному вводу можно подобрать две разные матрицы
+ * с одним отпечатком. Такие матрицы попадают в разные очереди. Первый запрос
+ * становится ведущим и сразу решает свою систему; запросы, пришедшие с той же матрицей,
+ * пока идёт решение, складываются в следующий пакет, который решается сразу после текущего.
+ * Так пакетирование не добавляет задержки одиночному запросу, а под нагрузкой
+ * одно разложение обслуживает сразу много правых частей.
+ */
+final class RequestBatcher {
+    /** Наибольшее число правых частей в одном пакете. */
+    static final int MAX_BATCH = 256;
+
+    private final Map<Key, List<Lane>> lanes = new HashMap<>();
+    private final ServiceMetrics metrics;
+
+    RequestBatcher(ServiceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    private record Key(int size, long fingerprint) {
+    }
+
+    private record Pending(double[] b, double epsilon, CompletableFuture<double[]> result) {
+    }
+
+    /** Очередь одной матрицы; поля защищены блокировкой {@code lanes}. */
+    private static final class Lane {
+        final DenseMatrix matrix;
+        List<Pending> pending = new ArrayList<>();
+
+        Lane(DenseMatrix matrix) {
+            this.matrix = matrix;
+        }
+    }
+
+    /**
+     * Решает систему Ax = b, возможно, вместе с другими запросами с той же матрицей.
+     * Блокирует вызывающий (виртуальный) поток до готовности решения.
+     *
+     * @param epsilon точность итерационного метода; используется, только если запрос
+     *                решается один, — пакет решается прямым методом.
+     * @throws IllegalArgumentException если размеры не согласованы.
+     * @throws ArithmeticException      если матрица вырождена.
+     */
+    double[] solve(DenseMatrix A, double[] b, double epsilon) throws InterruptedException {
+        if (!A.isSquare() || A.rows() != b.length) {
+            throw new IllegalArgumentException("Размеры матрицы " + A.rows() + "x" + A.cols()
+                    + " и вектора " + b.length + " не согласованы");
+        }
+        Key key = new Key(A.rows(), A.fingerprint());
+        Pending request = new Pending(b, epsilon, new CompletableFuture<>());
+        Lane lane = join(key, A, request);
+        if (lane != null) {
+            drain(key, lane);
+        }
+        try {
+            return request.result().get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Добавляет запрос в очередь с точно такой же матрицей или открывает новую очередь.
+     * Содержимое сравнивается вне блокировки: сравнение стоит O(n²) и не должно задерживать
+     * запросы с другими матрицами. Если за это время найденная очередь закрылась, поиск повторяется.
+     *
+     * @return новая очередь, если запрос стал ведущим, иначе null.
+     */
+    private Lane join(Key key, DenseMatrix A, Pending request) {
+        while (true) {
+            List<Lane> candidates;
+            synchronized (lanes) {
+                List<Lane> registered = lanes.get(key);
+                if (registered == null) {
+                    Lane lane = new Lane(A);
+                    lane.pending.add(request);
+                    lanes.put(key, new ArrayList<>(List.of(lane)));
+                    return lane;
+                }
+                candidates = List.copyOf(registered);
+            }
+            Lane match = null;
+            for (Lane candidate : candidates) {
+                if (candidate.matrix.contentEquals(A)) {
+                    match = candidate;
+                    break;
+                }
+            }
+            synchronized (lanes) {
+                List<Lane> registered = lanes.get(key);
+                if (match != null) {
+                    if (registered != null && registered.contains(match)) {
+                        match.pending.add(request);
+                        return null;
+                    }
+                } else if (registered != null && registered.equals(candidates)) {
+                    Lane lane = new Lane(A);
+                    lane.pending.add(request);
+                    registered.add(lane);
+                    return lane;
+                }
+            }
+        }
+    }
+
+    /**
+     * Решает очередной пакет очереди. Если за это время пришли новые запросы, следующий пакет
+     * решается в новом виртуальном потоке, чтобы ведущий сразу вернул свой ответ.
+     * Любая ошибка, в том числе {@link Error} (например, {@link OutOfMemoryError} при большом n),
+     * завершает все запросы пакета, а очередь в любом случае передаётся дальше или закрывается:
+     * иначе следующие запросы с этой матрицей ждали бы ответа вечно.
+     */
+    private void drain(Key key, Lane lane) {
+        List<Pending> batch;
+        synchronized (lanes) {
+            if (lane.pending.size() <= MAX_BATCH) {
+                batch = lane.pending;
+                lane.pending = new ArrayList<>();
+            } else {
+                List<Pending> head = lane.pending.subList(0, MAX_BATCH);
+                batch = new ArrayList<>(head);
+                head.clear();
+            }
+        }
+        try {
+            metrics.batch(batch.size());
+            solveBatch(lane.matrix, batch);
+        } catch (Throwable e) {
+            fail(batch, e);
+        } finally {
+            handOff(key, lane);
+        }
+    }
+
+    /**
+     * Закрывает пустую очередь или запускает решение следующего пакета.
+     */
+    private void handOff(Key key, Lane lane) {
+        synchronized (lanes) {
+            if (lane.pending.isEmpty()) {
+                unregister(key, lane);
+                return;
+            }
+        }
+        try {
+            Thread.ofVirtual().name("matrixsolver-batch").start(() -> drain(key, lane));
+        } catch (Throwable e) {
+            List<Pending> rest;
+            synchronized (lanes) {
+                rest = lane.pending;
+                lane.pending = new ArrayList<>();
+                unregister(key, lane);
+            }
+            fail(rest, e);
+        }
+    }
+
+    /** Вызывается под блокировкой {@code lanes}. */
+    private void unregister(Key key, Lane lane) {
+        List<Lane> registered = lanes.get(key);
+        registered.remove(lane);
+        if (registered.isEmpty()) {
+            lanes.remove(key);
+        }
+    }
+
+    private static void fail(List<Pending> batch, Throwable e) {
+        for (Pending pending : batch) {
+            pending.result().completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Одна правая часть решается методом, который выбирает {@link SolverDispatcher}.
+     * Несколько — одним разложением: Холецкого для симметричной матрицы с положительной
+     * диагональю (с переходом на LU, если она не положительно определённая), иначе LU.
+     */
+    private static void solveBatch(DenseMatrix A, List<Pending> batch) {
+        if (batch.size() == 1) {
+            Pending single = batch.get(0);
+            single.result().complete(SolverDispatcher.solve(A, single.b(), single.epsilon()).solution());
+            return;
+        }
+        int n = A.rows();
+        int k = batch.size();
+        DenseMatrix B = DenseMatrix.zeros(n, k);
+        double[] b = B.mutableData();
+        for (int c = 0; c < k; c++) {
+            double[] column = batch.get(c).b();
+            for (int i = 0; i < n; i++) {
+                b[i * k + c] = column[i];
+            }
+        }
+        DenseMatrix X;
+        if (MatrixStructure.analyze(A).possiblyPositiveDefinite()) {
+            try {
+                X = Cholesky.solve(A, B);
+            } catch (ArithmeticException e) {
+                X = Gauss.solve(A, B);
+            }
+        } else {
+            X = Gauss.solve(A, B);
+        }
+        double[] x = X.data();
+        for (int c = 0; c < k; c++) {
+            double[] column = new double[n];
+            for (int i = 0; i < n; i++) {
+                column[i] = x[i * k + c];
+            }
+            batch.get(c).result().complete(column);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package server;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счётчики сервиса: число запросов, отказов, пакетов и гистограмма задержек.
+ * <p>
+ * Задержки раскладываются по логарифмическим корзинам (корзина k — до 2^k микросекунд),
+ * поэтому запись стоит одного атомарного инкремента, а перцентили оцениваются
+ * с точностью до корзины, без хранения отдельных измерений.
+ */
+final class ServiceMetrics {
+    private static final int BUCKETS = 40; // 2^39 мкс ≈ 6 суток
+
+    private final long startNanos = System.nanoTime();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedVectors = new LongAdder();
+    private final LongAdder totalLatencyMicros = new LongAdder();
+    private final AtomicLongArray latency = new AtomicLongArray(BUCKETS);
+
+    void accepted() {
+        accepted.increment();
+    }
+
+    void rejected() {
+        rejected.increment();
+    }
+
+    void failed() {
+        failed.increment();
+    }
+
+    void batch(int size) {
+        batches.increment();
+        batchedVectors.add(size);
+    }
+
+    /**
+     * @param nanos время от получения запроса до готового ответа.
+     */
+    void completed(long nanos) {
+        completed.increment();
+        long micros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos));
+        totalLatencyMicros.add(micros);
+        latency.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros - 1)));
+    }
+
+    /**
+     * @return снимок счётчиков.
+     */
+    Snapshot snapshot() {
+        long[] histogram = new long[BUCKETS];
+        for (int k = 0; k < BUCKETS; k++) {
+            histogram[k] = latency.get(k);
+        }
+        return new Snapshot(System.nanoTime() - startNanos, accepted.sum(), completed.sum(), rejected.sum(),
+                failed.sum(), batches.sum(), batchedVectors.sum(), totalLatencyMicros.sum(), histogram);
+    }
+
+    /**
+     * Снимок счётчиков.
+     *
+     * @param uptimeNanos    время работы сервиса.
+     * @param accepted       принятые запросы.
+     * @param completed      запросы, на которые отправлено решение.
+     * @param rejected       запросы, отклонённые из-за заполненной очереди.
+     * @param failed         запросы, завершившиеся ошибкой.
+     * @param batches        число выполненных решений (пакетов).
+     * @param batchedVectors число правых частей во всех пакетах.
+     * @param latencyMicros  суммарная задержка выполненных запросов в микросекундах.
+     * @param histogram      число запросов по корзинам задержки.
+     */
+    record Snapshot(long uptimeNanos, long accepted, long completed, long rejected, long failed,
+                    long batches, long batchedVectors, long latencyMicros, long[] histogram) {
+
+        /**
+         * @return выполненных запросов в секунду с момента запуска.
+         */
+        double throughput() {
+            return uptimeNanos == 0 ? 0 : completed * 1e9 / uptimeNanos;
+        }
+
+        /**
+         * @return среднее число правых частей в пакете.
+         */
+        double averageBatch() {
+            return batches == 0 ? 0 : (double) batchedVectors / batches;
+        }
+
+        /**
+         * @param quantile доля от 0 до 1.
+         * @return верхняя граница корзины, в которую попадает перцентиль, в микросекундах.
+         */
+        long percentileMicros(double quantile) {
+            long total = 0;
+            for (long count : histogram) {
+                total += count;
+            }
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int k = 0; k < histogram.length; k++) {
+                seen += histogram[k];
+                if (seen >= rank && seen > 0) {
+                    return 1L << k;
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * @return текстовый отчёт: по одной метрике {@code имя значение} на строку.
+         */
+        String format() {
+            return String.format(Locale.ROOT, """
+                            uptime_seconds %.3f
+                            requests_accepted %d
+                            requests_completed %d
+                            requests_rejected %d
+                            requests_failed %d
+                            throughput_per_second %.2f
+                            batches %d
+                            batch_average_size %.2f
+                            latency_mean_micros %.1f
+                            latency_p50_micros %d
+                            latency_p90_micros %d
+                            latency_p99_micros %d
+                            latency_max_micros %d
+                            """,
+                    uptimeNanos / 1e9, accepted, completed, rejected, failed, throughput(),
+                    batches, averageBatch(), completed == 0 ? 0.0 : (double) latencyMicros / completed,
+                    percentileMicros(0.5), percentileMicros(0.9), percentileMicros(0.99), percentileMicros(1.0));
+        }
+    }
+}
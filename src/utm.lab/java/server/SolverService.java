@@ -0,0 +1,301 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.CsvReader;
+import logger.TraceMode;
+import utils.DenseMatrix;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Локальный HTTP-сервис решения систем на {@link HttpServer} из JDK.
+ * <p>
+ * Каждый запрос обрабатывается в своём виртуальном потоке. Одновременные запросы с одной
+ * матрицей объединяются в одно решение с многими правыми частями ({@link RequestBatcher}).
+ * Число принятых, но ещё не выполненных запросов ограничено: сверх лимита запрос сразу
+ * получает 503 с заголовком {@code Retry-After}, а не ждёт в растущей очереди.
+ * <p>
+ * Методы:
+ * <ul>
+ *     <li>{@code POST /solve[?eps=1e-10]} — расширенная матрица [A | b] размером n×(n + 1):
+ *     в CSV (n строк по n + 1 чисел), ответ — решение x, одно число на строку ({@code text/plain});
+ *     или, с {@code Content-Type: application/octet-stream}, n(n + 1) чисел double little-endian
+ *     построчно, ответ — n чисел double в том же виде. Двоичный вид избавляет от разбора
+ *     десятичных чисел, который для 17-значных double стоит дороже самого решения.
+ *     Точность {@code eps} из интервала (0, 1) используется, если для одиночной системы выбран
+ *     итерационный метод. Запросы, объединённые в пакет, решаются прямым методом одним
+ *     разложением, и для них {@code eps} не влияет на решение;</li>
+ *     <li>{@code GET /stats} — счётчики: принятые, выполненные и отклонённые запросы,
+ *     пропускная способность, средний размер пакета, перцентили задержки.</li>
+ * </ul>
+ * Запуск: {@code java server.SolverService [порт]}; сервис слушает только loopback-интерфейс.
+ */
+public final class SolverService implements AutoCloseable {
+    /** Системное свойство: порт по умолчанию. */
+    public static final String PORT_PROPERTY = "matrixsolver.server.port";
+    /** Системное свойство: наибольшее число запросов в обработке. */
+    public static final String QUEUE_PROPERTY = "matrixsolver.server.queue";
+    /** Системное свойство: наибольший размер тела запроса в мегабайтах. */
+    public static final String BODY_PROPERTY = "matrixsolver.server.body.mb";
+    /** Точность итерационных методов, если она не задана в запросе. */
+    public static final double DEFAULT_EPSILON = 1e-10;
+    /** Тип содержимого двоичного запроса и ответа. */
+    private static final String BINARY = "application/octet-stream";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Semaphore slots;
+    private final long maxBodyBytes;
+    private final ServiceMetrics metrics = new ServiceMetrics();
+    private final RequestBatcher batcher = new RequestBatcher(metrics);
+
+    private SolverService(HttpServer server, int queueCapacity, long maxBodyBytes) {
+        this.server = server;
+        this.slots = new Semaphore(queueCapacity);
+        this.maxBodyBytes = maxBodyBytes;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/solve", this::handleSolve);
+        server.createContext("/stats", this::handleStats);
+    }
+
+    /**
+     * Запускает сервис на loopback-интерфейсе.
+     *
+     * @param port          порт (0 — любой свободный).
+     * @param queueCapacity наибольшее число запросов в обработке.
+     * @param maxBodyBytes  наибольший размер тела запроса.
+     * @return запущенный сервис.
+     * @throws IOException если порт занят.
+     */
+    public static SolverService start(int port, int queueCapacity, long maxBodyBytes) throws IOException {
+        if (queueCapacity < 1 || maxBodyBytes < 1) {
+            throw new IllegalArgumentException("Ёмкость очереди и размер тела должны быть положительными: "
+                    + queueCapacity + ", " + maxBodyBytes);
+        }
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        SolverService service = new SolverService(server, queueCapacity, maxBodyBytes);
+        server.start();
+        return service;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (System.getProperty(TraceMode.PROPERTY) == null) {
+            System.setProperty(TraceMode.PROPERTY, "off"); // сервису не нужен пошаговый лог каждого решения
+        }
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Integer.getInteger(PORT_PROPERTY, 8080);
+        SolverService service = start(port, Integer.getInteger(QUEUE_PROPERTY, 1024),
+                Long.getLong(BODY_PROPERTY, 64L) << 20);
+        Runtime.getRuntime().addShutdownHook(new Thread(service::close, "matrixsolver-server-shutdown"));
+        System.out.println("Сервис слушает http://" + InetAddress.getLoopbackAddress().getHostAddress()
+                + ":" + service.port() + "/solve");
+    }
+
+    /**
+     * @return порт, на котором слушает сервис.
+     */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return счётчики в текстовом виде, как в ответе {@code GET /stats}.
+     */
+    public String stats() {
+        return metrics.snapshot().format();
+    }
+
+    private void handleSolve(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                send(exchange, 405, "Используйте POST.\n");
+                return;
+            }
+            if (!slots.tryAcquire()) {
+                metrics.rejected();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                send(exchange, 503, "Очередь заполнена, повторите запрос позже.\n");
+                return;
+            }
+            metrics.accepted();
+            try {
+                boolean binary = BINARY.equals(exchange.getRequestHeaders().getFirst("Content-Type"));
+                double[] x = solve(exchange, binary);
+                if (binary) {
+                    ByteBuffer body = ByteBuffer.allocate(x.length * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                    body.asDoubleBuffer().put(x);
+                    send(exchange, 200, BINARY, body.array());
+                } else {
+                    StringBuilder body = new StringBuilder(x.length * 24);
+                    for (double value : x) {
+                        body.append(value).append('\n');
+                    }
+                    send(exchange, 200, body.toString());
+                }
+                metrics.completed(System.nanoTime() - start);
+            } catch (IllegalArgumentException | IOException e) {
+                metrics.failed();
+                send(exchange, e instanceof PayloadTooLargeException ? 413 : 400, e.getMessage() + "\n");
+            } catch (ArithmeticException e) {
+                metrics.failed();
+                send(exchange, 422, e.getMessage() + "\n");
+            } catch (InterruptedException e) {
+                metrics.failed();
+                Thread.currentThread().interrupt();
+                send(exchange, 503, "Сервис останавливается.\n");
+            } catch (RuntimeException | Error e) {
+                metrics.failed();
+                send(exchange, 500, "Внутренняя ошибка сервиса: " + e + "\n");
+            } finally {
+                slots.release();
+            }
+        }
+    }
+
+    private double[] solve(HttpExchange exchange, boolean binary) throws IOException, InterruptedException {
+        double epsilon = epsilon(exchange.getRequestURI());
+        String length = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (length != null && Long.parseLong(length) > maxBodyBytes) {
+            throw new PayloadTooLargeException(maxBodyBytes);
+        }
+        double[] a;
+        int n;
+        try (InputStream body = new LimitedInputStream(exchange.getRequestBody(), maxBodyBytes)) {
+            if (binary) {
+                byte[] bytes = body.readAllBytes();
+                long count = bytes.length / Double.BYTES;
+                n = (int) ((Math.sqrt(1.0 + 4.0 * count) - 1) / 2);
+                if (bytes.length % Double.BYTES != 0 || (long) n * (n + 1) != count) {
+                    throw new IllegalArgumentException("Длина тела " + bytes.length
+                            + " байт не соответствует расширенной матрице n×(n+1) из double");
+                }
+                a = new double[(int) count];
+                ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(a);
+            } else {
+                DenseMatrix augmented = CsvReader.readDense(body);
+                n = augmented.rows();
+                if (augmented.cols() != n + 1) {
+                    throw new IllegalArgumentException("Ожидается расширенная матрица n×(n+1), получено "
+                            + n + "x" + augmented.cols());
+                }
+                a = augmented.data();
+            }
+        }
+        if (n < 1) {
+            throw new IllegalArgumentException("Пустая система: ожидается хотя бы одно уравнение");
+        }
+        double[] matrix = new double[n * n];
+        double[] b = new double[n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(a, i * (n + 1), matrix, i * n, n);
+            b[i] = a[i * (n + 1) + n];
+        }
+        return batcher.solve(DenseMatrix.wrap(n, n, matrix), b, epsilon);
+    }
+
+    private static double epsilon(URI uri) {
+        String query = uri.getRawQuery();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                if (parameter.startsWith("eps=")) {
+                    double epsilon;
+                    try {
+                        epsilon = Double.parseDouble(parameter.substring(4));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Некорректная точность: " + parameter.substring(4));
+                    }
+                    // проверяется здесь, а не в SolverDispatcher: в пакете точность не используется
+                    if (!(epsilon > 0 && epsilon < 1)) {
+                        throw new IllegalArgumentException("Точность должна лежать в интервале (0, 1): " + epsilon);
+                    }
+                    return epsilon;
+                }
+            }
+        }
+        return DEFAULT_EPSILON;
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            send(exchange, 200, stats());
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String text) throws IOException {
+        send(exchange, status, "text/plain; charset=utf-8", text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] bytes) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Останавливает приём запросов и дожидается выполнения начатых (до 5 секунд).
+     */
+    @Override
+    public void close() {
+        server.stop(5);
+        executor.close();
+    }
+
+    /** Тело запроса больше допустимого. */
+    private static final class PayloadTooLargeException extends IOException {
+        PayloadTooLargeException(long limit) {
+            super("Тело запроса больше " + limit + " байт.");
+        }
+    }
+
+    /** Поток, который прерывает чтение тела сверх лимита, даже если Content-Length не указан. */
+    private static final class LimitedInputStream extends InputStream {
+        private final InputStream in;
+        private final long limit;
+        private long remaining;
+
+        LimitedInputStream(InputStream in, long limit) {
+            this.in = in;
+            this.limit = limit;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = in.read();
+            if (c >= 0 && --remaining < 0) {
+                throw new PayloadTooLargeException(limit);
+            }
+            return c;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int count = in.read(buffer, offset, length);
+            if (count > 0 && (remaining -= count) < 0) {
+                throw new PayloadTooLargeException(limit);
+            }
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
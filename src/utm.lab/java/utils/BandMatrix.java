@@ -0,0 +1,281 @@
+package utils;
+
+/**
+ * Ленточная матрица n×n: ненулевые элементы лежат только на диагоналях
+ * от {@code -lower} (под главной) до {@code +upper} (над главной).
+ * <p>
+ * Хранение как в LAPACK (band storage), но по строкам, как у {@link DenseMatrix}:
+ * строка i занимает {@code width = lower + upper + 1} соседних ячеек, и элемент {@code (i, j)}
+ * лежит по индексу {@code i * width + (j - i + lower)}. Ячейки за пределами матрицы
+ * (в первых {@code lower} и последних {@code upper} строках) равны нулю. Памяти нужно
+ * O(n·width) вместо O(n²), а обход строки, как и в плотной матрице, идёт по соседним ячейкам.
+ */
+public final class BandMatrix implements LinearOperator {
+    private final int n;
+    private final int lower;
+    private final int upper;
+    private final int width;
+    private final double[] data;
+
+    /**
+     * Создаёт нулевую ленточную матрицу.
+     *
+     * @param n     размерность.
+     * @param lower число диагоналей под главной.
+     * @param upper число диагоналей над главной.
+     */
+    public BandMatrix(int n, int lower, int upper) {
+        if (n < 0 || lower < 0 || upper < 0) {
+            throw new IllegalArgumentException("Размеры ленточной матрицы не могут быть отрицательными: n = " + n
+                    + ", ширина " + lower + " + " + upper);
+        }
+        this.n = n;
+        this.lower = Math.min(lower, Math.max(n - 1, 0));
+        this.upper = Math.min(upper, Math.max(n - 1, 0));
+        this.width = this.lower + this.upper + 1;
+        this.data = new double[Math.multiplyExact(n, width)];
+    }
+
+    /**
+     * Копирует плотную матрицу в ленточную, определяя ширину ленты по ненулевым элементам.
+     *
+     * @param A квадратная матрица (не изменяется).
+     * @return ленточная матрица с наименьшей подходящей шириной.
+     */
+    public static BandMatrix fromDense(DenseMatrix A) {
+        if (!A.isSquare()) {
+            throw new IllegalArgumentException("Матрица не квадратная: " + A.rows() + "x" + A.cols());
+        }
+        int n = A.rows();
+        double[] a = A.toHeap().data();
+        int lower = 0;
+        int upper = 0;
+        for (int i = 0; i < n; i++) {
+            int row = i * n;
+            int first = 0;
+            while (first < i && a[row + first] == 0.0) {
+                first++;
+            }
+            int last = n - 1;
+            while (last > i && a[row + last] == 0.0) {
+                last--;
+            }
+            lower = Math.max(lower, i - first);
+            upper = Math.max(upper, last - i);
+        }
+        return fromDense(A, lower, upper);
+    }
+
+    /**
+     * Копирует ленту плотной матрицы.
+     *
+     * @param A     квадратная матрица (не изменяется).
+     * @param lower число диагоналей под главной.
+     * @param upper число диагоналей над главной.
+     * @return ленточная матрица.
+     * @throws IllegalArgumentException если вне ленты есть ненулевой элемент.
+     */
+    public static BandMatrix fromDense(DenseMatrix A, int lower, int upper) {
+        if (!A.isSquare()) {
+            throw new IllegalArgumentException("Матрица не квадратная: " + A.rows() + "x" + A.cols());
+        }
+        int n = A.rows();
+        double[] a = A.toHeap().data();
+        BandMatrix band = new BandMatrix(n, lower, upper);
+        for (int i = 0; i < n; i++) {
+            int row = i * n;
+            int from = Math.max(0, i - band.lower);
+            int to = Math.min(n - 1, i + band.upper);
+            for (int j = 0; j < n; j++) {
+                if ((j < from || j > to) && a[row + j] != 0.0) {
+                    throw new IllegalArgumentException("Элемент (" + i + ", " + j + ") = " + a[row + j]
+                            + " лежит вне ленты " + lower + " + " + upper);
+                }
+            }
+            System.arraycopy(a, row + from, band.data, band.index(i, from), to - from + 1);
+        }
+        return band;
+    }
+
+    /**
+     * Копирует матрицу из массива массивов, определяя ширину ленты по ненулевым элементам.
+     * Плотная копия не создаётся.
+     *
+     * @param matrix квадратная матрица (не изменяется).
+     * @return ленточная матрица с наименьшей подходящей шириной.
+     */
+    public static BandMatrix of(double[][] matrix) {
+        int n = matrix.length;
+        int lower = 0;
+        int upper = 0;
+        for (int i = 0; i < n; i++) {
+            double[] row = matrix[i];
+            if (row.length != n) {
+                throw new IllegalArgumentException("Строка " + i + " имеет длину " + row.length + ", ожидалось " + n);
+            }
+            int first = 0;
+            while (first < i && row[first] == 0.0) {
+                first++;
+            }
+            int last = n - 1;
+            while (last > i && row[last] == 0.0) {
+                last--;
+            }
+            lower = Math.max(lower, i - first);
+            upper = Math.max(upper, last - i);
+        }
+        BandMatrix band = new BandMatrix(n, lower, upper);
+        for (int i = 0; i < n; i++) {
+            int from = Math.max(0, i - band.lower);
+            int to = Math.min(n - 1, i + band.upper);
+            System.arraycopy(matrix[i], from, band.data, band.index(i, from), to - from + 1);
+        }
+        return band;
+    }
+
+    /**
+     * Копирует разреженную матрицу (например, прочитанную из Matrix Market), определяя ширину
+     * ленты по её ненулевым элементам за O(nnz).
+     *
+     * @param A квадратная матрица (не изменяется).
+     * @return ленточная матрица с наименьшей подходящей шириной.
+     */
+    public static BandMatrix fromSparse(SparseMatrix A) {
+        if (A.rows() != A.cols()) {
+            throw new IllegalArgumentException("Матрица не квадратная: " + A.rows() + "x" + A.cols());
+        }
+        int n = A.rows();
+        int[] rowPtr = A.rowPtr();
+        int[] colIdx = A.colIdx();
+        double[] values = A.values();
+        int lower = 0;
+        int upper = 0;
+        for (int i = 0; i < n; i++) {
+            // столбцы строки отсортированы: достаточно первого и последнего
+            if (rowPtr[i] < rowPtr[i + 1]) {
+                lower = Math.max(lower, i - colIdx[rowPtr[i]]);
+                upper = Math.max(upper, colIdx[rowPtr[i + 1] - 1] - i);
+            }
+        }
+        BandMatrix band = new BandMatrix(n, lower, upper);
+        for (int i = 0; i < n; i++) {
+            for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                band.data[band.index(i, colIdx[k])] = values[k];
+            }
+        }
+        return band;
+    }
+
+    /**
+     * @return размерность n.
+     */
+    public int rows() {
+        return n;
+    }
+
+    /**
+     * @return число диагоналей под главной.
+     */
+    public int lower() {
+        return lower;
+    }
+
+    /**
+     * @return число диагоналей над главной.
+     */
+    public int upper() {
+        return upper;
+    }
+
+    /**
+     * @return число ячеек на строку: lower + upper + 1.
+     */
+    public int width() {
+        return width;
+    }
+
+    /**
+     * Возвращает внутренний массив без копирования (только для чтения), см. описание класса.
+     */
+    public double[] data() {
+        return data;
+    }
+
+    /**
+     * @return индекс элемента (i, j) внутри ленты.
+     */
+    public int index(int i, int j) {
+        return i * width + (j - i + lower);
+    }
+
+    /**
+     * @return true, если элемент (i, j) лежит внутри ленты.
+     */
+    public boolean inBand(int i, int j) {
+        return j - i >= -lower && j - i <= upper;
+    }
+
+    public double get(int i, int j) {
+        if (i < 0 || i >= n || j < 0 || j >= n) {
+            throw new IndexOutOfBoundsException("(" + i + ", " + j + ") вне матрицы " + n + "x" + n);
+        }
+        return inBand(i, j) ? data[index(i, j)] : 0.0;
+    }
+
+    /**
+     * Записывает элемент внутри ленты.
+     *
+     * @throws IllegalArgumentException если (i, j) вне ленты.
+     */
+    public void set(int i, int j, double value) {
+        if (i < 0 || i >= n || j < 0 || j >= n) {
+            throw new IndexOutOfBoundsException("(" + i + ", " + j + ") вне матрицы " + n + "x" + n);
+        }
+        if (!inBand(i, j)) {
+            throw new IllegalArgumentException("Элемент (" + i + ", " + j + ") лежит вне ленты "
+                    + lower + " + " + upper);
+        }
+        data[index(i, j)] = value;
+    }
+
+    @Override
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Вычисляет y = A * x за O(n·width).
+     */
+    @Override
+    public void apply(double[] x, double[] y) {
+        for (int i = 0; i < n; i++) {
+            int from = Math.max(0, i - lower);
+            int to = Math.min(n - 1, i + upper);
+            int offset = index(i, 0);
+            double sum = 0;
+            for (int j = from; j <= to; j++) {
+                sum += data[offset + j] * x[j];
+            }
+            y[i] = sum;
+        }
+    }
+
+    /**
+     * @return плотная копия матрицы.
+     */
+    public DenseMatrix toDense() {
+        DenseMatrix result = DenseMatrix.zeros(n, n);
+        double[] a = result.mutableData();
+        for (int i = 0; i < n; i++) {
+            int from = Math.max(0, i - lower);
+            int to = Math.min(n - 1, i + upper);
+            System.arraycopy(data, index(i, from), a, i * n + from, to - from + 1);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "BandMatrix " + n + "x" + n + ", lower = " + lower + ", upper = " + upper;
+    }
+}
@@ -0,0 +1,468 @@
+package utils;
+
+import kernels.Kernels;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+
+/**
+ * Плотная матрица с построчным хранением в одном непрерывном массиве {@code double[]}.
+ * <p>
+ * Элемент {@code (i, j)} лежит по индексу {@code i * cols + j}, поэтому обход строки
+ * идёт по соседним ячейкам памяти, а не по разбросанным в куче массивам {@code double[][]}.
+ * <p>
+ * {@link #copy()} работает по принципу copy-on-write: копия разделяет данные с оригиналом,
+ * а реальное копирование происходит только при первой записи в любую из матриц.
+ * <p>
+ * Матрица может храниться вне кучи ({@link #allocateDirect(int, int)}) — тогда доступ
+ * идёт через {@link DoubleBuffer}, а методы, требующие массив, используют {@link #toHeap()}.
+ * Один буфер ограничен 2 ГБ, поэтому большая матрица вне кучи хранится в нескольких буферах
+ * по целому числу строк ({@link #rowsPerBuffer(int)}): строка i лежит в буфере
+ * {@code i / rowsPerBuffer} с позиции {@code (i % rowsPerBuffer) * cols}.
+ * Класс не потокобезопасен при записи.
+ */
+public final class DenseMatrix implements LinearOperator {
+    private final int rows;
+    private final int cols;
+    private double[] data;      // данные в куче или null для матрицы вне кучи
+    private final DoubleBuffer[] buffers; // данные вне кучи по rowsPerBuffer строк или null
+    private final int rowsPerBuffer;
+    private boolean shared;     // данные разделяются с копией — перед записью нужно скопировать
+
+    private DenseMatrix(int rows, int cols, double[] data) {
+        this(rows, cols, data, null, 1);
+    }
+
+    private DenseMatrix(int rows, int cols, double[] data, DoubleBuffer[] buffers, int rowsPerBuffer) {
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("Размеры матрицы не могут быть отрицательными: " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.data = data;
+        this.buffers = buffers;
+        this.rowsPerBuffer = rowsPerBuffer;
+    }
+
+    /**
+     * Создаёт нулевую матрицу в куче.
+     * @param rows число строк
+     * @param cols число столбцов
+     * @return новая матрица
+     */
+    public static DenseMatrix zeros(int rows, int cols) {
+        return new DenseMatrix(rows, cols, new double[Math.multiplyExact(rows, cols)]);
+    }
+
+    /**
+     * Создаёт единичную матрицу.
+     * @param n размерность
+     * @return единичная матрица n×n
+     */
+    public static DenseMatrix identity(int n) {
+        DenseMatrix result = zeros(n, n);
+        for (int i = 0; i < n; i++) {
+            result.data[i * n + i] = 1.0;
+        }
+        return result;
+    }
+
+    /**
+     * Создаёт матрицу, копируя элементы из массива массивов.
+     * @param matrix исходная матрица (все строки одинаковой длины)
+     * @return новая матрица
+     */
+    public static DenseMatrix of(double[][] matrix) {
+        int rows = matrix.length;
+        int cols = rows == 0 ? 0 : matrix[0].length;
+        double[] data = new double[Math.multiplyExact(rows, cols)];
+        for (int i = 0; i < rows; i++) {
+            if (matrix[i].length != cols) {
+                throw new IllegalArgumentException("Строка " + i + " имеет длину " + matrix[i].length + ", ожидалось " + cols);
+            }
+            System.arraycopy(matrix[i], 0, data, i * cols, cols);
+        }
+        return new DenseMatrix(rows, cols, data);
+    }
+
+    /**
+     * Оборачивает готовый массив без копирования.
+     * @param rows число строк
+     * @param cols число столбцов
+     * @param data элементы построчно, длина rows * cols
+     * @return матрица, использующая переданный массив
+     */
+    public static DenseMatrix wrap(int rows, int cols, double[] data) {
+        if (data.length != Math.multiplyExact(rows, cols)) {
+            throw new IllegalArgumentException("Длина массива " + data.length + " не равна " + rows + "x" + cols);
+        }
+        return new DenseMatrix(rows, cols, data);
+    }
+
+    /**
+     * Создаёт нулевую матрицу вне кучи.
+     * @param rows число строк
+     * @param cols число столбцов
+     * @return новая матрица вне кучи
+     */
+    public static DenseMatrix allocateDirect(int rows, int cols) {
+        int perBuffer = rowsPerBuffer(cols);
+        DoubleBuffer[] buffers = new DoubleBuffer[(int) Math.max(1, ((long) rows + perBuffer - 1) / perBuffer)];
+        for (int k = 0; k < buffers.length; k++) {
+            int count = (int) Math.min(perBuffer, rows - (long) k * perBuffer);
+            ByteBuffer bytes = ByteBuffer.allocateDirect(count * cols * Double.BYTES);
+            buffers[k] = bytes.order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        }
+        return new DenseMatrix(rows, cols, null, buffers, perBuffer);
+    }
+
+    /**
+     * Наибольшее число строк в одном буфере вне кучи: буфер (и одно отображение файла)
+     * не больше 2 ГБ.
+     * @param cols число столбцов
+     * @return число строк в каждом буфере, кроме, возможно, последнего
+     * @throws IllegalArgumentException если даже одна строка не помещается в буфер
+     */
+    public static int rowsPerBuffer(int cols) {
+        int maxElements = Integer.MAX_VALUE / Double.BYTES;
+        if (cols > maxElements) {
+            throw new IllegalArgumentException("Строка из " + cols + " элементов не помещается в один буфер");
+        }
+        return cols == 0 ? Integer.MAX_VALUE : maxElements / cols;
+    }
+
+    /**
+     * Оборачивает буфер (например, отображённый в память файл) без копирования.
+     * @param rows число строк
+     * @param cols число столбцов
+     * @param buffer элементы построчно начиная с позиции 0
+     * @return матрица, использующая переданный буфер
+     */
+    public static DenseMatrix wrap(int rows, int cols, DoubleBuffer buffer) {
+        if (buffer.capacity() < Math.multiplyExact(rows, cols)) {
+            throw new IllegalArgumentException("Буфер меньше " + rows + "x" + cols);
+        }
+        return new DenseMatrix(rows, cols, null, new DoubleBuffer[]{buffer}, Math.max(rows, 1));
+    }
+
+    /**
+     * Оборачивает несколько буферов по целому числу строк (например, отображения частей
+     * файла больше 2 ГБ) без копирования.
+     * @param rows          число строк
+     * @param cols          число столбцов
+     * @param rowsPerBuffer число строк в каждом буфере, кроме последнего
+     * @param buffers       элементы построчно: строка i — в буфере {@code i / rowsPerBuffer}
+     * @return матрица, использующая переданные буферы
+     */
+    public static DenseMatrix wrap(int rows, int cols, int rowsPerBuffer, DoubleBuffer... buffers) {
+        if (rowsPerBuffer < 1 || (long) buffers.length * rowsPerBuffer < rows) {
+            throw new IllegalArgumentException(buffers.length + " буферов по " + rowsPerBuffer
+                    + " строк не вмещают " + rows + " строк");
+        }
+        for (int k = 0; k < buffers.length; k++) {
+            long count = Math.max(0, Math.min(rowsPerBuffer, rows - (long) k * rowsPerBuffer));
+            if (buffers[k].capacity() < count * cols) {
+                throw new IllegalArgumentException("Буфер " + k + " меньше " + count + "x" + cols);
+            }
+        }
+        return new DenseMatrix(rows, cols, null, buffers.clone(), rowsPerBuffer);
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    /**
+     * @return true, если матрица квадратная
+     */
+    public boolean isSquare() {
+        return rows == cols;
+    }
+
+    /**
+     * @return true, если данные хранятся вне кучи
+     */
+    public boolean isOffHeap() {
+        return data == null;
+    }
+
+    public double get(int i, int j) {
+        return data != null ? data[i * cols + j] : buffer(i).get(offset(i) + j);
+    }
+
+    public void set(int i, int j, double value) {
+        if (data != null) {
+            mutableData()[i * cols + j] = value;
+        } else {
+            buffer(i).put(offset(i) + j, value);
+        }
+    }
+
+    /** Буфер, в котором лежит строка i матрицы вне кучи. */
+    private DoubleBuffer buffer(int i) {
+        return buffers[i / rowsPerBuffer];
+    }
+
+    /** Позиция начала строки i в её буфере. */
+    private int offset(int i) {
+        return (i % rowsPerBuffer) * cols;
+    }
+
+    /**
+     * Возвращает массив данных только для чтения (без копирования).
+     * Изменять его нельзя: массив может разделяться с копиями.
+     * @return элементы построчно
+     * @throws IllegalStateException если матрица хранится вне кучи
+     */
+    public double[] data() {
+        if (data == null) {
+            throw new IllegalStateException("Матрица хранится вне кучи, используйте toHeap()");
+        }
+        return data;
+    }
+
+    /**
+     * Возвращает массив данных для записи. Если данные разделяются с копией,
+     * они предварительно копируются (copy-on-write).
+     * @return элементы построчно, принадлежащие только этой матрице
+     */
+    public double[] mutableData() {
+        if (data == null) {
+            throw new IllegalStateException("Матрица хранится вне кучи, используйте toHeap()");
+        }
+        if (shared) {
+            data = data.clone();
+            shared = false;
+        }
+        return data;
+    }
+
+    /**
+     * Возвращает копию матрицы. Данные не копируются до первой записи.
+     * @return копия матрицы
+     */
+    public DenseMatrix copy() {
+        if (data == null) {
+            DenseMatrix copy = allocateDirect(rows, cols);
+            for (int i = 0; i < rows; i++) {
+                copy.buffer(i).put(copy.offset(i), buffer(i), offset(i), cols);
+            }
+            return copy;
+        }
+        shared = true;
+        DenseMatrix copy = new DenseMatrix(rows, cols, data);
+        copy.shared = true;
+        return copy;
+    }
+
+    /**
+     * Возвращает матрицу в куче: эту же для матрицы в куче или копию для матрицы вне кучи.
+     * @return матрица с доступом через {@link #data()}
+     */
+    public DenseMatrix toHeap() {
+        if (data != null) {
+            return this;
+        }
+        double[] heap = new double[Math.multiplyExact(rows, cols)];
+        for (int i = 0; i < rows; i++) {
+            buffer(i).get(offset(i), heap, i * cols, cols);
+        }
+        return new DenseMatrix(rows, cols, heap);
+    }
+
+    /**
+     * Меняет местами две строки.
+     */
+    public void swapRows(int i, int k) {
+        if (i == k) {
+            return;
+        }
+        if (data == null) {
+            DoubleBuffer bi = buffer(i);
+            DoubleBuffer bk = buffer(k);
+            int ri = offset(i);
+            int rk = offset(k);
+            for (int j = 0; j < cols; j++) {
+                double temp = bi.get(ri + j);
+                bi.put(ri + j, bk.get(rk + j));
+                bk.put(rk + j, temp);
+            }
+            return;
+        }
+        double[] a = mutableData();
+        int ri = i * cols;
+        int rk = k * cols;
+        for (int j = 0; j < cols; j++) {
+            double temp = a[ri + j];
+            a[ri + j] = a[rk + j];
+            a[rk + j] = temp;
+        }
+    }
+
+    /**
+     * Возвращает транспонированную матрицу (новая матрица в куче).
+     * Транспонирование идёт блоками, чтобы обход по столбцам не промахивался мимо кэша.
+     */
+    public DenseMatrix transpose() {
+        DenseMatrix source = toHeap();
+        double[] a = source.data;
+        double[] t = new double[rows * cols];
+        final int block = 32;
+        for (int ii = 0; ii < rows; ii += block) {
+            int iMax = Math.min(ii + block, rows);
+            for (int jj = 0; jj < cols; jj += block) {
+                int jMax = Math.min(jj + block, cols);
+                for (int i = ii; i < iMax; i++) {
+                    for (int j = jj; j < jMax; j++) {
+                        t[j * rows + i] = a[i * cols + j];
+                    }
+                }
+            }
+        }
+        return new DenseMatrix(cols, rows, t);
+    }
+
+    /**
+     * Размерность оператора; имеет смысл только для квадратной матрицы.
+     */
+    @Override
+    public int size() {
+        return rows;
+    }
+
+    @Override
+    public void apply(double[] x, double[] y) {
+        multiply(x, y);
+    }
+
+    /**
+     * Вычисляет y = A * x.
+     * @param x вектор длины cols
+     * @param y вектор длины rows для результата
+     */
+    public void multiply(double[] x, double[] y) {
+        if (data == null) {
+            for (int i = 0; i < rows; i++) {
+                DoubleBuffer row = buffer(i);
+                int offset = offset(i);
+                double sum = 0;
+                for (int j = 0; j < cols; j++) {
+                    sum += row.get(offset + j) * x[j];
+                }
+                y[i] = sum;
+            }
+            return;
+        }
+        Kernels.gemv(data, rows, cols, x, y);
+    }
+
+    /**
+     * Вычисляет быстрый 64-битный хеш размеров и содержимого матрицы.
+     * <p>
+     * Элементы сравниваются по битовому представлению. Матрица обходится
+     * в четыре независимые цепочки, чтобы умножения не ждали друг друга.
+     * Хеш не кэшируется: данные можно изменить через {@link #mutableData()}.
+     * @return отпечаток матрицы
+     */
+    public long fingerprint() {
+        long h0 = 0x9E3779B97F4A7C15L;
+        long h1 = 0xC2B2AE3D27D4EB4FL;
+        long h2 = 0x165667B19E3779F9L;
+        long h3 = 0x27D4EB2F165667C5L;
+        if (data != null) {
+            int length = rows * cols;
+            int i = 0;
+            for (; i + 3 < length; i += 4) {
+                h0 = mix(h0, data[i]);
+                h1 = mix(h1, data[i + 1]);
+                h2 = mix(h2, data[i + 2]);
+                h3 = mix(h3, data[i + 3]);
+            }
+            for (; i < length; i++) {
+                h0 = mix(h0, data[i]);
+            }
+        } else {
+            // тот же порядок, что и для массива: элемент с линейным номером e идёт в цепочку e % 4,
+            // а хвост после последней полной четвёрки — в h0
+            long[] h = {h0, h1, h2, h3};
+            long full = ((long) rows * cols) & ~3L;
+            long e = 0;
+            for (int i = 0; i < rows; i++) {
+                DoubleBuffer row = buffer(i);
+                int offset = offset(i);
+                for (int j = 0; j < cols; j++, e++) {
+                    int chain = e < full ? (int) (e & 3) : 0;
+                    h[chain] = mix(h[chain], row.get(offset + j));
+                }
+            }
+            h0 = h[0];
+            h1 = h[1];
+            h2 = h[2];
+            h3 = h[3];
+        }
+        long h = Long.rotateLeft(h0, 1) + Long.rotateLeft(h1, 7) + Long.rotateLeft(h2, 12) + Long.rotateLeft(h3, 18);
+        h ^= ((long) rows << 32) | (cols & 0xFFFFFFFFL);
+        // финальное перемешивание (как в splitmix64)
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+
+    private static long mix(long h, double value) {
+        return Long.rotateLeft(h + Double.doubleToLongBits(value) * 0xC2B2AE3D27D4EB4FL, 31) * 0x9E3779B97F4A7C15L;
+    }
+
+    /**
+     * Сравнивает размеры и содержимое матриц по битовому представлению элементов, как
+     * {@link #fingerprint()}. Нужен там, где совпадения отпечатков недостаточно:
+     * отпечаток не криптографический, и коллизию можно подобрать.
+     * @param other другая матрица
+     * @return true, если матрицы совпадают поэлементно
+     */
+    public boolean contentEquals(DenseMatrix other) {
+        if (other == this) {
+            return true;
+        }
+        if (rows != other.rows || cols != other.cols) {
+            return false;
+        }
+        if (data != null && other.data != null) {
+            int length = rows * cols;
+            return data == other.data || Arrays.equals(data, 0, length, other.data, 0, length);
+        }
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                if (Double.doubleToLongBits(get(i, j)) != Double.doubleToLongBits(other.get(i, j))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Копирует матрицу в массив массивов.
+     * @return новая матрица double[rows][cols]
+     */
+    public double[][] toArray() {
+        double[][] result = new double[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                result[i][j] = get(i, j);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "DenseMatrix " + rows + "x" + cols + (isOffHeap() ? " (off-heap)" : "")
+                + (rows * cols <= 64 ? " " + Arrays.deepToString(toArray()) : "");
+    }
+}
@@ -0,0 +1,22 @@
+package utils;
+
+/**
+ * Квадратный линейный оператор, заданный только умножением на вектор.
+ * Позволяет итерационным методам работать одинаково с плотными, разреженными
+ * и неявно заданными (matrix-free) матрицами.
+ */
+public interface LinearOperator {
+
+    /**
+     * @return размерность оператора n (оператор действует из R^n в R^n).
+     */
+    int size();
+
+    /**
+     * Вычисляет y = A * x.
+     *
+     * @param x входной вектор длины n (не изменяется).
+     * @param y выходной вектор длины n.
+     */
+    void apply(double[] x, double[] y);
+}
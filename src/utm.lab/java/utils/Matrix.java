@@ -4,12 +4,12 @@ package utils;
  * Класс, представляющий матрицу и вектор для системы линейных уравнений.
  */
 public class Matrix {
-    public static double[][] A = {
+    public static final DenseMatrix A = DenseMatrix.of(new double[][]{
             {17.7, 0.3, 1.4, 0.9},
             {0.3, 20.1, -0.8, -1.2},
             {1.4, -0.8, 21.9, 0.8},
             {0.9, -1.2, 0.8, 17.6}
-    };
+    });
 
     public static double[] b = {11.2, -20.3, 14.4, 17.9};
 }
@@ -0,0 +1,162 @@
+package utils;
+
+/**
+ * Набор из {@code count} квадратных матриц одного размера n в раскладке «структура массивов» (SoA).
+ * <p>
+ * Элемент (i, j) матрицы s лежит по индексу {@code (i * n + j) * count + s}: одинаковые
+ * элементы всех матриц идут подряд, поэтому одна векторная инструкция обрабатывает
+ * сразу несколько систем, а не несколько элементов одной маленькой матрицы.
+ * Векторы набора (правые части, решения) хранятся так же: компонента i вектора s —
+ * по индексу {@code i * count + s}, см. {@link #packVectors(double[][])}.
+ */
+public final class MatrixBatch {
+    private final int n;
+    private final int count;
+    private final double[] data;
+
+    private MatrixBatch(int n, int count, double[] data) {
+        this.n = n;
+        this.count = count;
+        this.data = data;
+    }
+
+    /**
+     * Создаёт набор из нулевых матриц.
+     *
+     * @param n     размерность матриц.
+     * @param count число матриц.
+     * @return новый набор.
+     */
+    public static MatrixBatch zeros(int n, int count) {
+        if (n < 0 || count < 0) {
+            throw new IllegalArgumentException("Размеры набора не могут быть отрицательными: n = " + n
+                    + ", число матриц " + count);
+        }
+        return new MatrixBatch(n, count, new double[Math.multiplyExact(n * n, count)]);
+    }
+
+    /**
+     * Оборачивает готовый массив в раскладке SoA без копирования.
+     *
+     * @param n     размерность матриц.
+     * @param count число матриц.
+     * @param data  элементы, длина n * n * count.
+     * @return набор, использующий переданный массив.
+     */
+    public static MatrixBatch wrap(int n, int count, double[] data) {
+        if (n < 0 || count < 0 || data.length != Math.multiplyExact(n * n, count)) {
+            throw new IllegalArgumentException("Длина массива " + data.length + " не равна " + n + "x" + n
+                    + " x " + count);
+        }
+        return new MatrixBatch(n, count, data);
+    }
+
+    /**
+     * Копирует матрицы в набор.
+     *
+     * @param matrices квадратные матрицы одного размера (не изменяются).
+     * @return новый набор.
+     */
+    public static MatrixBatch of(DenseMatrix... matrices) {
+        int count = matrices.length;
+        int n = count == 0 ? 0 : matrices[0].rows();
+        MatrixBatch batch = zeros(n, count);
+        for (int s = 0; s < count; s++) {
+            DenseMatrix matrix = matrices[s];
+            if (matrix.rows() != n || matrix.cols() != n) {
+                throw new IllegalArgumentException("Матрица " + s + " имеет размер " + matrix.rows() + "x"
+                        + matrix.cols() + ", ожидалось " + n + "x" + n);
+            }
+            double[] a = matrix.toHeap().data();
+            for (int e = 0; e < n * n; e++) {
+                batch.data[e * count + s] = a[e];
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * @return размерность матриц n.
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * @return число матриц.
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Возвращает внутренний массив без копирования (только для чтения), см. описание класса.
+     */
+    public double[] data() {
+        return data;
+    }
+
+    public double get(int s, int i, int j) {
+        return data[(i * n + j) * count + s];
+    }
+
+    public void set(int s, int i, int j, double value) {
+        data[(i * n + j) * count + s] = value;
+    }
+
+    /**
+     * @return копия матрицы s.
+     */
+    public DenseMatrix matrix(int s) {
+        DenseMatrix result = DenseMatrix.zeros(n, n);
+        double[] a = result.mutableData();
+        for (int e = 0; e < n * n; e++) {
+            a[e] = data[e * count + s];
+        }
+        return result;
+    }
+
+    /**
+     * Переводит векторы одной длины в раскладку SoA.
+     *
+     * @param vectors векторы (не изменяются).
+     * @return массив, где компонента i вектора s лежит по индексу {@code i * count + s}.
+     */
+    public static double[] packVectors(double[][] vectors) {
+        int count = vectors.length;
+        int n = count == 0 ? 0 : vectors[0].length;
+        double[] packed = new double[Math.multiplyExact(n, count)];
+        for (int s = 0; s < count; s++) {
+            if (vectors[s].length != n) {
+                throw new IllegalArgumentException("Вектор " + s + " имеет длину " + vectors[s].length
+                        + ", ожидалось " + n);
+            }
+            for (int i = 0; i < n; i++) {
+                packed[i * count + s] = vectors[s][i];
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Извлекает вектор s из массива в раскладке SoA.
+     *
+     * @param packed векторы набора.
+     * @param count  число векторов.
+     * @param s      номер вектора.
+     * @return копия вектора s.
+     */
+    public static double[] vector(double[] packed, int count, int s) {
+        int n = packed.length / count;
+        double[] result = new double[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = packed[i * count + s];
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "MatrixBatch " + count + " x " + n + "x" + n;
+    }
+}
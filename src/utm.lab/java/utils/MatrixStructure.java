@@ -0,0 +1,150 @@
+package utils;
+
+/**
+ * Свойства квадратной матрицы, по которым выбирается метод решения.
+ *
+ * @param size                      размерность n.
+ * @param symmetric                 |a_ij - a_ji| ≤ {@value #SYMMETRY_TOLERANCE} для всех i, j.
+ * @param positiveDiagonal          все диагональные элементы положительны.
+ * @param strictlyDominant          строгое диагональное преобладание по строкам: |a_ii| > Σ_{j≠i} |a_ij|.
+ * @param weaklyDominant            нестрогое преобладание во всех строках и строгое хотя бы в одной.
+ * @param jacobiBound               max_i Σ_{j≠i} |a_ij| / |a_ii| — норма матрицы перехода Якоби;
+ *                                  меньше 1 означает гарантированную сходимость Якоби и Гаусса — Зейделя.
+ * @param gershgorinLowerBound      min_i (a_ii - Σ_{j≠i} |a_ij|) — нижняя граница собственных чисел
+ *                                  (для симметричной матрицы).
+ * @param gershgorinUpperBound      max_i (a_ii + Σ_{j≠i} |a_ij|) — верхняя граница собственных чисел.
+ * @param lowerBandwidth            max(i - j) по ненулевым a_ij.
+ * @param upperBandwidth            max(j - i) по ненулевым a_ij.
+ * @param nonZeros                  число ненулевых элементов.
+ */
+public record MatrixStructure(int size,
+                              boolean symmetric,
+                              boolean positiveDiagonal,
+                              boolean strictlyDominant,
+                              boolean weaklyDominant,
+                              double jacobiBound,
+                              double gershgorinLowerBound,
+                              double gershgorinUpperBound,
+                              int lowerBandwidth,
+                              int upperBandwidth,
+                              long nonZeros) {
+    /** Допуск сравнения a_ij и a_ji, как в проверке метода Холецкого. */
+    public static final double SYMMETRY_TOLERANCE = 1e-10;
+    /** Размер плитки при обходе пар (a_ij, a_ji). */
+    private static final int TILE = 64;
+
+    /**
+     * Анализирует матрицу за один проход: каждый элемент читается один раз.
+     * Пары (a_ij, a_ji) обходятся плитками, чтобы чтение по столбцам тоже шло из кэша.
+     *
+     * @param A квадратная матрица.
+     * @return свойства матрицы.
+     */
+    public static MatrixStructure analyze(DenseMatrix A) {
+        if (!A.isSquare()) {
+            throw new IllegalArgumentException("Матрица не квадратная: " + A.rows() + "x" + A.cols());
+        }
+        int n = A.rows();
+        double[] a = A.toHeap().data();
+        double[] offDiagonal = new double[n]; // Σ_{j≠i} |a_ij| по строкам
+        boolean symmetric = true;
+        long nonZeros = 0;
+        int lower = 0;
+        int upper = 0;
+
+        for (int i0 = 0; i0 < n; i0 += TILE) {
+            int iEnd = Math.min(i0 + TILE, n);
+            for (int j0 = i0; j0 < n; j0 += TILE) {
+                int jEnd = Math.min(j0 + TILE, n);
+                for (int i = i0; i < iEnd; i++) {
+                    int row = i * n;
+                    for (int j = Math.max(j0, i + 1); j < jEnd; j++) {
+                        double upperValue = a[row + j];  // a_ij, выше диагонали
+                        double lowerValue = a[j * n + i]; // a_ji, ниже диагонали
+                        if (upperValue != 0.0) {
+                            nonZeros++;
+                            upper = Math.max(upper, j - i);
+                            offDiagonal[i] += Math.abs(upperValue);
+                        }
+                        if (lowerValue != 0.0) {
+                            nonZeros++;
+                            lower = Math.max(lower, j - i);
+                            offDiagonal[j] += Math.abs(lowerValue);
+                        }
+                        if (Math.abs(upperValue - lowerValue) > SYMMETRY_TOLERANCE) {
+                            symmetric = false;
+                        }
+                    }
+                }
+            }
+        }
+
+        boolean positiveDiagonal = true;
+        boolean strictly = true;
+        boolean weakly = true;
+        boolean anyStrict = false;
+        double jacobiBound = 0;
+        double gershgorinLow = Double.POSITIVE_INFINITY;
+        double gershgorinHigh = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            double d = a[i * n + i];
+            if (d != 0.0) {
+                nonZeros++;
+            }
+            positiveDiagonal &= d > 0;
+            double abs = Math.abs(d);
+            strictly &= abs > offDiagonal[i];
+            weakly &= abs >= offDiagonal[i];
+            anyStrict |= abs > offDiagonal[i];
+            jacobiBound = Math.max(jacobiBound, abs == 0.0 ? Double.POSITIVE_INFINITY : offDiagonal[i] / abs);
+            gershgorinLow = Math.min(gershgorinLow, d - offDiagonal[i]);
+            gershgorinHigh = Math.max(gershgorinHigh, d + offDiagonal[i]);
+        }
+        return new MatrixStructure(n, symmetric, positiveDiagonal, strictly, weakly && anyStrict,
+                jacobiBound, n == 0 ? 0 : gershgorinLow, n == 0 ? 0 : gershgorinHigh, lower, upper, nonZeros);
+    }
+
+    /**
+     * @return доля ненулевых элементов.
+     */
+    public double density() {
+        return size == 0 ? 0 : (double) nonZeros / ((double) size * size);
+    }
+
+    /**
+     * @return ширина ленты: число диагоналей, содержащих ненулевые элементы.
+     */
+    public int bandwidth() {
+        return lowerBandwidth + upperBandwidth + 1;
+    }
+
+    /**
+     * Положительная определённость доказана по кругам Гершгорина: матрица симметрична
+     * и все круги лежат правее нуля.
+     *
+     * @return true, если матрица точно симметричная положительно определённая.
+     */
+    public boolean provablyPositiveDefinite() {
+        return symmetric && gershgorinLowerBound > 0;
+    }
+
+    /**
+     * Оценка сверху числа обусловленности по кругам Гершгорина.
+     *
+     * @return λmax / λmin ≤ верхняя граница / нижняя граница или +∞, если положительная
+     *         определённость не доказана.
+     */
+    public double conditionBound() {
+        return provablyPositiveDefinite() ? gershgorinUpperBound / gershgorinLowerBound : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Дешёвый признак: симметрия и положительная диагональ необходимы для положительной
+     * определённости, но не достаточны — окончательно её проверяет разложение Холецкого.
+     *
+     * @return true, если матрица может быть симметричной положительно определённой.
+     */
+    public boolean possiblyPositiveDefinite() {
+        return symmetric && positiveDiagonal;
+    }
+}
@@ -0,0 +1,312 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * Разреженная матрица в формате CSR (compressed sparse row).
+ * <p>
+ * Ненулевые элементы строки i лежат в {@code values[rowPtr[i] .. rowPtr[i + 1])},
+ * их столбцы — в {@code colIdx} (по возрастанию). Все индексы хранятся в примитивных
+ * массивах, поэтому ни хранение, ни построение через {@link Builder} не упаковывают значения.
+ * <p>
+ * Формат CSC той же матрицы — это CSR транспонированной матрицы, см. {@link #transpose()}.
+ */
+public final class SparseMatrix implements LinearOperator {
+    private final int rows;
+    private final int cols;
+    private final int[] rowPtr;
+    private final int[] colIdx;
+    private final double[] values;
+
+    /**
+     * Создаёт матрицу из готовых массивов CSR без копирования.
+     *
+     * @param rows   число строк.
+     * @param cols   число столбцов.
+     * @param rowPtr начала строк, длина rows + 1.
+     * @param colIdx номера столбцов ненулевых элементов (по возрастанию внутри строки).
+     * @param values значения ненулевых элементов.
+     */
+    public SparseMatrix(int rows, int cols, int[] rowPtr, int[] colIdx, double[] values) {
+        if (rowPtr.length != rows + 1 || colIdx.length < rowPtr[rows] || values.length < rowPtr[rows]) {
+            throw new IllegalArgumentException("Некорректные массивы CSR для матрицы " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.rowPtr = rowPtr;
+        this.colIdx = colIdx;
+        this.values = values;
+    }
+
+    /**
+     * Преобразует плотную матрицу в разреженную, отбрасывая нули.
+     *
+     * @param matrix плотная матрица.
+     * @return разреженная матрица.
+     */
+    public static SparseMatrix fromDense(DenseMatrix matrix) {
+        Builder builder = new Builder(matrix.rows(), matrix.cols());
+        for (int i = 0; i < matrix.rows(); i++) {
+            for (int j = 0; j < matrix.cols(); j++) {
+                double value = matrix.get(i, j);
+                if (value != 0.0) {
+                    builder.add(i, j, value);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    /**
+     * @return число хранимых ненулевых элементов.
+     */
+    public int nnz() {
+        return rowPtr[rows];
+    }
+
+    /**
+     * Массивы CSR отдаются без копирования и не должны изменяться.
+     */
+    public int[] rowPtr() {
+        return rowPtr;
+    }
+
+    public int[] colIdx() {
+        return colIdx;
+    }
+
+    public double[] values() {
+        return values;
+    }
+
+    /**
+     * Возвращает элемент (i, j) двоичным поиском по строке.
+     */
+    public double get(int i, int j) {
+        int k = Arrays.binarySearch(colIdx, rowPtr[i], rowPtr[i + 1], j);
+        return k >= 0 ? values[k] : 0.0;
+    }
+
+    /**
+     * Возвращает диагональ матрицы.
+     *
+     * @return вектор a[i][i].
+     */
+    public double[] diagonal() {
+        double[] diagonal = new double[Math.min(rows, cols)];
+        for (int i = 0; i < diagonal.length; i++) {
+            diagonal[i] = get(i, i);
+        }
+        return diagonal;
+    }
+
+    /**
+     * Размерность оператора; имеет смысл только для квадратной матрицы.
+     */
+    @Override
+    public int size() {
+        return rows;
+    }
+
+    @Override
+    public void apply(double[] x, double[] y) {
+        multiply(x, y);
+    }
+
+    /**
+     * Вычисляет y = A * x за O(nnz).
+     *
+     * @param x вектор длины cols.
+     * @param y вектор длины rows для результата.
+     */
+    public void multiply(double[] x, double[] y) {
+        for (int i = 0; i < rows; i++) {
+            double sum = 0;
+            for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                sum += values[k] * x[colIdx[k]];
+            }
+            y[i] = sum;
+        }
+    }
+
+    /**
+     * Возвращает нижний треугольник матрицы (включая диагональ).
+     */
+    public SparseMatrix lowerTriangle() {
+        int[] lPtr = new int[rows + 1];
+        for (int i = 0; i < rows; i++) {
+            int count = 0;
+            for (int k = rowPtr[i]; k < rowPtr[i + 1] && colIdx[k] <= i; k++) {
+                count++;
+            }
+            lPtr[i + 1] = lPtr[i] + count;
+        }
+        int[] lIdx = new int[lPtr[rows]];
+        double[] lValues = new double[lPtr[rows]];
+        for (int i = 0; i < rows; i++) {
+            int length = lPtr[i + 1] - lPtr[i];
+            System.arraycopy(colIdx, rowPtr[i], lIdx, lPtr[i], length);
+            System.arraycopy(values, rowPtr[i], lValues, lPtr[i], length);
+        }
+        return new SparseMatrix(rows, cols, lPtr, lIdx, lValues);
+    }
+
+    /**
+     * Возвращает транспонированную матрицу в формате CSR (то есть эту матрицу в формате CSC).
+     */
+    public SparseMatrix transpose() {
+        int nnz = nnz();
+        int[] tPtr = new int[cols + 1];
+        for (int k = 0; k < nnz; k++) {
+            tPtr[colIdx[k] + 1]++;
+        }
+        for (int j = 0; j < cols; j++) {
+            tPtr[j + 1] += tPtr[j];
+        }
+        int[] next = Arrays.copyOf(tPtr, cols);
+        int[] tIdx = new int[nnz];
+        double[] tValues = new double[nnz];
+        // строки обходятся по возрастанию, поэтому столбцы результата получаются отсортированными
+        for (int i = 0; i < rows; i++) {
+            for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                int dst = next[colIdx[k]]++;
+                tIdx[dst] = i;
+                tValues[dst] = values[k];
+            }
+        }
+        return new SparseMatrix(cols, rows, tPtr, tIdx, tValues);
+    }
+
+    /**
+     * Преобразует в плотную матрицу.
+     */
+    public DenseMatrix toDense() {
+        DenseMatrix dense = DenseMatrix.zeros(rows, cols);
+        double[] data = dense.mutableData();
+        for (int i = 0; i < rows; i++) {
+            for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                data[i * cols + colIdx[k]] = values[k];
+            }
+        }
+        return dense;
+    }
+
+    @Override
+    public String toString() {
+        return "SparseMatrix " + rows + "x" + cols + ", nnz = " + nnz();
+    }
+
+    /**
+     * Построитель разреженной матрицы из элементов в произвольном порядке (формат COO).
+     * Повторяющиеся элементы (i, j) складываются.
+     */
+    public static final class Builder {
+        private final int rows;
+        private final int cols;
+        private int[] entryRows;
+        private int[] entryCols;
+        private double[] entryValues;
+        private int size;
+
+        public Builder(int rows, int cols) {
+            this(rows, cols, 16);
+        }
+
+        /**
+         * @param expectedNnz ожидаемое число элементов, чтобы избежать лишних расширений массивов.
+         */
+        public Builder(int rows, int cols, int expectedNnz) {
+            this.rows = rows;
+            this.cols = cols;
+            int capacity = Math.max(expectedNnz, 1);
+            this.entryRows = new int[capacity];
+            this.entryCols = new int[capacity];
+            this.entryValues = new double[capacity];
+        }
+
+        /**
+         * Добавляет элемент (i, j).
+         *
+         * @return этот построитель.
+         */
+        public Builder add(int i, int j, double value) {
+            if (i < 0 || i >= rows || j < 0 || j >= cols) {
+                throw new IndexOutOfBoundsException("Элемент (" + i + ", " + j + ") вне матрицы " + rows + "x" + cols);
+            }
+            if (size == entryRows.length) {
+                int capacity = size + (size >> 1) + 1;
+                entryRows = Arrays.copyOf(entryRows, capacity);
+                entryCols = Arrays.copyOf(entryCols, capacity);
+                entryValues = Arrays.copyOf(entryValues, capacity);
+            }
+            entryRows[size] = i;
+            entryCols[size] = j;
+            entryValues[size] = value;
+            size++;
+            return this;
+        }
+
+        /**
+         * Собирает матрицу CSR: сортировка подсчётом по строкам, затем по столбцам внутри строки.
+         */
+        public SparseMatrix build() {
+            int[] rowPtr = new int[rows + 1];
+            for (int k = 0; k < size; k++) {
+                rowPtr[entryRows[k] + 1]++;
+            }
+            for (int i = 0; i < rows; i++) {
+                rowPtr[i + 1] += rowPtr[i];
+            }
+            int[] next = Arrays.copyOf(rowPtr, rows);
+            int[] colIdx = new int[size];
+            double[] values = new double[size];
+            for (int k = 0; k < size; k++) {
+                int dst = next[entryRows[k]]++;
+                colIdx[dst] = entryCols[k];
+                values[dst] = entryValues[k];
+            }
+
+            // сортировка вставками внутри строк (строки обычно короткие) и слияние дубликатов
+            int out = 0;
+            int[] compactPtr = new int[rows + 1];
+            for (int i = 0; i < rows; i++) {
+                int start = rowPtr[i];
+                int end = rowPtr[i + 1];
+                for (int k = start + 1; k < end; k++) {
+                    int col = colIdx[k];
+                    double value = values[k];
+                    int m = k - 1;
+                    while (m >= start && colIdx[m] > col) {
+                        colIdx[m + 1] = colIdx[m];
+                        values[m + 1] = values[m];
+                        m--;
+                    }
+                    colIdx[m + 1] = col;
+                    values[m + 1] = value;
+                }
+                int rowStart = out;
+                for (int k = start; k < end; k++) {
+                    if (out > rowStart && colIdx[out - 1] == colIdx[k]) {
+                        values[out - 1] += values[k];
+                    } else {
+                        colIdx[out] = colIdx[k];
+                        values[out] = values[k];
+                        out++;
+                    }
+                }
+                compactPtr[i + 1] = out;
+            }
+            return new SparseMatrix(rows, cols, compactPtr,
+                    out == size ? colIdx : Arrays.copyOf(colIdx, out),
+                    out == size ? values : Arrays.copyOf(values, out));
+        }
+    }
+}